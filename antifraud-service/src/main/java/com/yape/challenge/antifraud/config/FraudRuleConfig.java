@@ -0,0 +1,22 @@
+package com.yape.challenge.antifraud.config;
+
+import com.yape.challenge.antifraud.rules.FraudRuleEngine;
+import com.yape.challenge.antifraud.rules.FraudRuleProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(FraudRuleProperties.class)
+public class FraudRuleConfig {
+
+    /**
+     * Rules are compiled once at startup; an invalid definition stops the application
+     */
+    @Bean
+    public FraudRuleEngine fraudRuleEngine(FraudRuleProperties properties, MeterRegistry meterRegistry) {
+        return new FraudRuleEngine(properties.getRules(), properties.getVelocity().getBuckets(),
+                System::currentTimeMillis, meterRegistry);
+    }
+}
@@ -1,17 +1,40 @@
 package com.yape.challenge.antifraud.config;
 
 import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.dto.TransactionStatusEvent;
+import com.yape.challenge.antifraud.kafka.TransactionCreatedConsumer;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import com.yape.challenge.common.kafka.ListenerConcurrency;
+import com.yape.challenge.common.kafka.codec.FormatDetectingEventDeserializer;
+import com.yape.challenge.common.kafka.lag.LagDrivenConcurrencyController;
+import com.yape.challenge.common.kafka.lag.LagScalingSettings;
+import com.yape.challenge.common.kafka.lag.ListenerTimingInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.util.backoff.ExponentialBackOff;
+import org.springframework.util.backoff.FixedBackOff;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -19,23 +42,79 @@ import java.util.Map;
 @Configuration
 public class KafkaConsumerConfig {
 
+    private final MeterRegistry meterRegistry;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${app.kafka.topics.transaction-created.partitions:3}")
+    private int createdPartitions;
+
+    @Value("${app.kafka.listener.concurrency:0}")
+    private int configuredConcurrency;
+
+    @Value("${app.kafka.listener.expected-instances:1}")
+    private int expectedInstances;
+
+    @Value("${app.kafka.listener.consumers-per-core:2}")
+    private int consumersPerCore;
+
+    @Value("${app.kafka.metadata-max-age:PT30S}")
+    private Duration metadataMaxAge;
+
+    @Value("${app.kafka.exactly-once.micro-batch-size:500}")
+    private int microBatchSize;
+
+    @Value("${app.kafka.batch.max-records:500}")
+    private int batchMaxRecords;
+
+    @Value("${app.kafka.batch.retry-initial-interval:PT1S}")
+    private Duration batchRetryInitialInterval;
+
+    @Value("${app.kafka.batch.retry-max-interval:PT30S}")
+    private Duration batchRetryMaxInterval;
+
+    @Value("${app.kafka.batch.evaluation-attempts:3}")
+    private int batchEvaluationAttempts;
+
+    @Value("${app.kafka.lag-scaling.adjust-interval:PT15S}")
+    private Duration lagScalingAdjustInterval;
+
+    @Value("${app.kafka.lag-scaling.scale-up-lag:1000}")
+    private long lagScalingScaleUpLag;
+
+    @Value("${app.kafka.lag-scaling.scale-down-lag:100}")
+    private long lagScalingScaleDownLag;
+
+    @Value("${app.kafka.lag-scaling.quiet-intervals:4}")
+    private int lagScalingQuietIntervals;
+
+    @Value("${app.kafka.lag-scaling.max-concurrency:0}")
+    private int lagScalingMaxConcurrency;
+
+    @Value("${app.kafka.lag-scaling.min-restart-interval:PT5M}")
+    private Duration lagScalingMinRestartInterval;
+
+    public KafkaConsumerConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @Bean
     public ConsumerFactory<String, TransactionCreatedEvent> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, FormatDetectingEventDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.METADATA_MAX_AGE_CONFIG, metadataMaxAge.toMillis());
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, TransactionCreatedEvent.class.getName());
-        return new DefaultKafkaConsumerFactory<>(props);
+        return metered(new DefaultKafkaConsumerFactory<>(props));
     }
 
     @Bean
@@ -43,8 +122,112 @@ public class KafkaConsumerConfig {
         ConcurrentKafkaListenerContainerFactory<String, TransactionCreatedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
-        factory.setConcurrency(3);
+        factory.setConcurrency(listenerConcurrency());
+        factory.setRecordInterceptor(new ListenerTimingInterceptor<>(TransactionCreatedConsumer.LISTENER_ID, meterRegistry));
         return factory;
     }
-}
 
+    /**
+     * Batch listener container for exactly-once mode
+     * Each poll of up to micro-batch-size records runs in one Kafka transaction, so the
+     * transaction commit is amortized over the whole batch. A failure aborts the verdicts
+     * already sent and the batch is redelivered.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.kafka.exactly-once.enabled", havingValue = "true")
+    public ConcurrentKafkaListenerContainerFactory<String, TransactionCreatedEvent> transactionalListenerContainerFactory(
+            KafkaTransactionManager<String, TransactionStatusEvent> kafkaTransactionManager) {
+        Map<String, Object> props = new HashMap<>(consumerFactory().getConfigurationProperties());
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, microBatchSize);
+
+        ConcurrentKafkaListenerContainerFactory<String, TransactionCreatedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(metered(new DefaultKafkaConsumerFactory<>(props)));
+        factory.setConcurrency(listenerConcurrency());
+        factory.setBatchListener(true);
+        factory.setBatchInterceptor(new ListenerTimingInterceptor<>(TransactionCreatedConsumer.LISTENER_ID, meterRegistry));
+        factory.getContainerProperties().setTransactionManager(kafkaTransactionManager);
+        return factory;
+    }
+
+    /**
+     * Batch listener container for at-least-once batch mode
+     * The poll's offsets are committed once the listener returns, i.e. after every verdict of the
+     * batch was acknowledged; a failed send retries the whole poll in place, with exponential back-off
+     * and no attempt limit, so offsets never move past verdicts that were not published. A record
+     * that fails evaluation is retried alone a bounded number of times and then dead-lettered.
+     */
+    @Bean
+    @ConditionalOnExpression("${app.kafka.batch.enabled:false} and !${app.kafka.exactly-once.enabled:false}")
+    public ConcurrentKafkaListenerContainerFactory<String, TransactionCreatedEvent> batchListenerContainerFactory(
+            KafkaTemplate<String, TransactionStatusEvent> kafkaTemplate) {
+        Map<String, Object> props = new HashMap<>(consumerFactory().getConfigurationProperties());
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxRecords);
+
+        ConcurrentKafkaListenerContainerFactory<String, TransactionCreatedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(metered(new DefaultKafkaConsumerFactory<>(props)));
+        factory.setConcurrency(listenerConcurrency());
+        factory.setBatchListener(true);
+        factory.setBatchInterceptor(new ListenerTimingInterceptor<>(TransactionCreatedConsumer.LISTENER_ID, meterRegistry));
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, exception) -> new TopicPartition(KafkaTopics.TRANSACTION_CREATED_DLT, record.partition()));
+        factory.setCommonErrorHandler(batchErrorHandler(
+                batchRetryInitialInterval, batchRetryMaxInterval, batchEvaluationAttempts, recoverer));
+        return factory;
+    }
+
+    /**
+     * Retries a failed batch until it succeeds, doubling the interval up to maxInterval
+     * A {@link org.springframework.kafka.listener.BatchListenerFailedException} names a single
+     * record instead: it gets evaluationAttempts deliveries, initialInterval apart, before the recoverer.
+     */
+    static DefaultErrorHandler batchErrorHandler(Duration initialInterval, Duration maxInterval,
+                                                 int evaluationAttempts, ConsumerRecordRecoverer recoverer) {
+        if (evaluationAttempts < 1) {
+            throw new IllegalArgumentException("Evaluation attempts must be at least 1: " + evaluationAttempts);
+        }
+        ExponentialBackOff backOff = new ExponentialBackOff(initialInterval.toMillis(), 2.0);
+        backOff.setMaxInterval(maxInterval.toMillis());
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        FixedBackOff recordBackOff = new FixedBackOff(initialInterval.toMillis(), evaluationAttempts - 1L);
+        errorHandler.setBackOffFunction((record, exception) -> recordBackOff);
+        return errorHandler;
+    }
+
+    /**
+     * Scales the transaction-created listener with its lag trend
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.kafka.lag-scaling.enabled", havingValue = "true")
+    public LagDrivenConcurrencyController createdLagScalingController(ListenerContainerRegistry containerRegistry) {
+        LagScalingSettings settings = LagScalingSettings.builder()
+                .adjustInterval(lagScalingAdjustInterval)
+                .scaleUpLag(lagScalingScaleUpLag)
+                .scaleDownLag(lagScalingScaleDownLag)
+                .quietIntervals(lagScalingQuietIntervals)
+                .maxConcurrency(lagScalingMaxConcurrency)
+                .minRestartInterval(lagScalingMinRestartInterval)
+                .build();
+        return new LagDrivenConcurrencyController(TransactionCreatedConsumer.LISTENER_ID,
+                KafkaTopics.TRANSACTION_CREATED, containerRegistry, null, meterRegistry, settings);
+    }
+
+    /**
+     * Exposes the client metrics of every consumer, among them the per-partition
+     * kafka.consumer.fetch.manager.records.lag
+     */
+    private DefaultKafkaConsumerFactory<String, TransactionCreatedEvent> metered(
+            DefaultKafkaConsumerFactory<String, TransactionCreatedEvent> factory) {
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
+    }
+
+    /**
+     * One consumer per partition this instance is expected to own, capped by available cores
+     */
+    private int listenerConcurrency() {
+        return ListenerConcurrency.derive(configuredConcurrency, createdPartitions, expectedInstances, consumersPerCore);
+    }
+}
@@ -1,16 +1,25 @@
 package com.yape.challenge.antifraud.config;
 
 import com.yape.challenge.common.dto.TransactionStatusEvent;
+import com.yape.challenge.common.kafka.batching.AdaptiveBatchingController;
+import com.yape.challenge.common.kafka.batching.AdaptiveBatchingSettings;
+import com.yape.challenge.common.kafka.codec.EventFormat;
+import com.yape.challenge.common.kafka.codec.VersionedEventSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,22 +29,94 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${app.kafka.producer.event-format:json}")
+    private String eventFormat;
+
+    @Value("${app.kafka.producer.partitioner-class:}")
+    private String partitionerClass;
+
+    @Value("${app.kafka.metadata-max-age:PT30S}")
+    private Duration metadataMaxAge;
+
+    @Value("${app.kafka.exactly-once.enabled:false}")
+    private boolean exactlyOnce;
+
+    @Value("${app.kafka.exactly-once.transaction-id-prefix:antifraud-tx-${random.uuid}-}")
+    private String transactionIdPrefix;
+
+    @Value("${app.kafka.producer.adaptive-batching.target-p99:PT0.05S}")
+    private Duration adaptiveTargetP99;
+
+    @Value("${app.kafka.producer.adaptive-batching.adjust-interval:PT10S}")
+    private Duration adaptiveAdjustInterval;
+
+    @Value("${app.kafka.producer.adaptive-batching.quiet-rate:50}")
+    private double adaptiveQuietRate;
+
+    @Value("${app.kafka.producer.adaptive-batching.max-linger-ms:20}")
+    private int adaptiveMaxLingerMs;
+
+    @Value("${app.kafka.producer.adaptive-batching.max-batch-size:262144}")
+    private int adaptiveMaxBatchSize;
+
+    @Value("${app.kafka.producer.adaptive-batching.min-reset-interval:PT1M}")
+    private Duration adaptiveMinResetInterval;
+
     @Bean
     public ProducerFactory<String, TransactionStatusEvent> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, VersionedEventSerializer.class);
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
         configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        configProps.put(EventFormat.CONFIG, eventFormat);
+        configProps.put(ProducerConfig.METADATA_MAX_AGE_CONFIG, metadataMaxAge.toMillis());
+        if (!partitionerClass.isBlank()) {
+            configProps.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, partitionerClass);
+        }
+        DefaultKafkaProducerFactory<String, TransactionStatusEvent> factory = new DefaultKafkaProducerFactory<>(configProps);
+        if (exactlyOnce) {
+            factory.setTransactionIdPrefix(transactionIdPrefix);
+        }
+        return factory;
     }
 
     @Bean
     public KafkaTemplate<String, TransactionStatusEvent> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
-}
 
+    /**
+     * Lets listener containers run consume-transform-produce in one Kafka transaction:
+     * verdicts and the consumed offsets (sendOffsetsToTransaction) commit or abort together
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.kafka.exactly-once.enabled", havingValue = "true")
+    public KafkaTransactionManager<String, TransactionStatusEvent> kafkaTransactionManager() {
+        return new KafkaTransactionManager<>(producerFactory());
+    }
+
+    /**
+     * Runtime tuning of linger.ms, batch.size and compression from send rate and p99 ack latency
+     * Not with exactly-once: resetting the transactional factory would close producers in the middle
+     * of a transaction, and transactional sends never reach the interceptor it measures with.
+     */
+    @Bean
+    @ConditionalOnExpression("${app.kafka.producer.adaptive-batching.enabled:false} and !${app.kafka.exactly-once.enabled:false}")
+    public AdaptiveBatchingController<String, TransactionStatusEvent> adaptiveBatchingController(MeterRegistry meterRegistry) {
+        AdaptiveBatchingSettings settings = AdaptiveBatchingSettings.builder()
+                .targetP99(adaptiveTargetP99)
+                .adjustInterval(adaptiveAdjustInterval)
+                .quietRate(adaptiveQuietRate)
+                .maxLingerMs(adaptiveMaxLingerMs)
+                .maxBatchSize(adaptiveMaxBatchSize)
+                .minResetInterval(adaptiveMinResetInterval)
+                .build();
+        return new AdaptiveBatchingController<>("transaction-status",
+                (DefaultKafkaProducerFactory<String, TransactionStatusEvent>) producerFactory(),
+                kafkaTemplate(), meterRegistry, settings);
+    }
+}
@@ -0,0 +1,62 @@
+package com.yape.challenge.antifraud.kafka;
+
+import com.yape.challenge.antifraud.service.AntiFraudService;
+import com.yape.challenge.antifraud.state.PartitionStateStore;
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exactly-once listener: the container wraps each micro-batch in a Kafka transaction,
+ * so the verdicts sent here and the batch offsets are committed atomically
+ */
+@Component
+@ConditionalOnProperty(name = "app.kafka.exactly-once.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionCreatedBatchConsumer implements ConsumerSeekAware {
+
+    private final AntiFraudService antiFraudService;
+    private final PartitionStateStore partitionStateStore;
+
+    @KafkaListener(id = TransactionCreatedConsumer.LISTENER_ID, topics = KafkaTopics.TRANSACTION_CREATED,
+            groupId = "${spring.kafka.consumer.group-id}", containerFactory = "transactionalListenerContainerFactory")
+    public void consumeTransactionCreatedBatch(List<ConsumerRecord<String, TransactionCreatedEvent>> records) {
+        log.info("Received batch of {} transaction created events", records.size());
+
+        for (ConsumerRecord<String, TransactionCreatedEvent> record : records) {
+            if (partitionStateStore.replayed(record)) {
+                continue;
+            }
+            try {
+                antiFraudService.validateTransaction(record);
+            } catch (Exception e) {
+                log.error("Error processing transaction: {}, aborting batch",
+                        record.value().getTransactionExternalId(), e);
+                throw e;
+            }
+            partitionStateStore.afterRecord(record);
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        partitionStateStore.onPartitionsAssigned(assignments, callback);
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        partitionStateStore.onPartitionsRevoked(partitions);
+    }
+}
@@ -1,30 +1,63 @@
 package com.yape.challenge.antifraud.kafka;
 
+import com.yape.challenge.antifraud.state.PartitionStateStore;
 import com.yape.challenge.common.dto.TransactionCreatedEvent;
 import com.yape.challenge.common.kafka.KafkaTopics;
 import com.yape.challenge.antifraud.service.AntiFraudService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * At-least-once listener, one record at a time; replaced by TransactionCreatedBatchConsumer in exactly-once mode
+ * and by TransactionCreatedParallelBatchConsumer in batch mode
+ */
 @Component
+@ConditionalOnExpression("!${app.kafka.exactly-once.enabled:false} and !${app.kafka.batch.enabled:false}")
 @RequiredArgsConstructor
 @Slf4j
-public class TransactionCreatedConsumer {
+public class TransactionCreatedConsumer implements ConsumerSeekAware {
+
+    /**
+     * Listener id shared with the batch consumers (only one is active)
+     */
+    public static final String LISTENER_ID = "transaction-created";
 
     private final AntiFraudService antiFraudService;
+    private final PartitionStateStore partitionStateStore;
 
-    @KafkaListener(topics = KafkaTopics.TRANSACTION_CREATED, groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeTransactionCreated(TransactionCreatedEvent event) {
+    @KafkaListener(id = LISTENER_ID, topics = KafkaTopics.TRANSACTION_CREATED, groupId = "${spring.kafka.consumer.group-id}")
+    public void consumeTransactionCreated(ConsumerRecord<String, TransactionCreatedEvent> record) {
+        if (partitionStateStore.replayed(record)) {
+            return;
+        }
+        TransactionCreatedEvent event = record.value();
         log.info("Received transaction created event: {}", event);
 
         try {
-            antiFraudService.validateTransaction(event);
+            antiFraudService.validateTransaction(record);
         } catch (Exception e) {
             log.error("Error processing transaction: {}", event.getTransactionExternalId(), e);
             throw e;
         }
+        partitionStateStore.afterRecord(record);
     }
-}
 
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        partitionStateStore.onPartitionsAssigned(assignments, callback);
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        partitionStateStore.onPartitionsRevoked(partitions);
+    }
+}
@@ -0,0 +1,204 @@
+package com.yape.challenge.antifraud.kafka;
+
+import com.yape.challenge.antifraud.rules.FraudDecision;
+import com.yape.challenge.antifraud.service.AntiFraudService;
+import com.yape.challenge.antifraud.state.PartitionStateStore;
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * At-least-once batch listener: evaluates a whole poll in parallel and publishes its verdicts together
+ * Records are split into stripes by debit account, so the transfers of one account are still
+ * applied to the velocity state in offset order, and the stripes are evaluated on a shared pool.
+ * All verdicts are then handed to the producer at once, so they leave in a few producer batches,
+ * and the listener returns only when every send is acknowledged: the container commits the poll's
+ * offsets after that. A failed or timed-out send fails the whole poll, which is redelivered;
+ * velocity state does not count a redelivered record twice, verdicts may be published again.
+ * A record that fails evaluation is reported as {@link BatchListenerFailedException} once the
+ * verdicts of the records before it are acknowledged, so only that record is retried (and
+ * eventually dead-lettered); records without a value are skipped.
+ */
+@Component
+@ConditionalOnExpression("${app.kafka.batch.enabled:false} and !${app.kafka.exactly-once.enabled:false}")
+@Slf4j
+public class TransactionCreatedParallelBatchConsumer implements ConsumerSeekAware, DisposableBean {
+
+    private final AntiFraudService antiFraudService;
+    private final PartitionStateStore partitionStateStore;
+    private final int parallelism;
+    private final Duration sendTimeout;
+    private final ExecutorService workers;
+
+    public TransactionCreatedParallelBatchConsumer(AntiFraudService antiFraudService,
+                                                   PartitionStateStore partitionStateStore,
+                                                   @Value("${app.kafka.batch.parallelism:0}") int parallelism,
+                                                   @Value("${app.kafka.batch.send-timeout:PT30S}") Duration sendTimeout) {
+        this.antiFraudService = antiFraudService;
+        this.partitionStateStore = partitionStateStore;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.sendTimeout = sendTimeout;
+        this.workers = Executors.newFixedThreadPool(this.parallelism,
+                Thread.ofPlatform().name("antifraud-batch-", 0).daemon().factory());
+    }
+
+    @KafkaListener(id = TransactionCreatedConsumer.LISTENER_ID, topics = KafkaTopics.TRANSACTION_CREATED,
+            groupId = "${spring.kafka.consumer.group-id}", containerFactory = "batchListenerContainerFactory")
+    public void consumeTransactionCreatedBatch(List<ConsumerRecord<String, TransactionCreatedEvent>> records)
+            throws InterruptedException {
+        log.info("Received batch of {} transaction created events", records.size());
+
+        List<ConsumerRecord<String, TransactionCreatedEvent>> live = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, TransactionCreatedEvent> record : records) {
+            if (record.value() == null) {
+                log.warn("Skipping transaction created record without value: partition={}, offset={}",
+                        record.partition(), record.offset());
+            } else if (!partitionStateStore.replayed(record)) {
+                live.add(record);
+            }
+        }
+        FraudDecision[] decisions = new FraudDecision[live.size()];
+        Map.Entry<Integer, RuntimeException> failure = evaluate(live, decisions);
+        List<ConsumerRecord<String, TransactionCreatedEvent>> evaluated =
+                failure == null ? live : live.subList(0, failure.getKey());
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(evaluated.size());
+        for (int i = 0; i < evaluated.size(); i++) {
+            sends.add(antiFraudService.send(evaluated.get(i).value(), decisions[i]));
+        }
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Verdicts of a batch of " + evaluated.size()
+                    + " transactions were not acknowledged, the batch will be redelivered", e);
+        }
+
+        // Checkpoint only what is acknowledged; the last record of each partition stands for it
+        Map<TopicPartition, ConsumerRecord<String, TransactionCreatedEvent>> last = new HashMap<>();
+        evaluated.forEach(record -> last.put(new TopicPartition(record.topic(), record.partition()), record));
+        last.values().forEach(partitionStateStore::afterRecord);
+
+        if (failure != null) {
+            // The container commits the records before this one and retries from it
+            throw new BatchListenerFailedException("Evaluation of a transaction created record failed",
+                    failure.getValue(), live.get(failure.getKey()));
+        }
+    }
+
+    /**
+     * Fills decisions in the order of the records
+     *
+     * @return The first record, in batch order, whose evaluation failed, or null; every record
+     *         before it has a decision
+     */
+    private Map.Entry<Integer, RuntimeException> evaluate(List<ConsumerRecord<String, TransactionCreatedEvent>> records,
+                                                          FraudDecision[] decisions) throws InterruptedException {
+        ConcurrentSkipListMap<Integer, RuntimeException> failures = new ConcurrentSkipListMap<>();
+        int stripes = Math.min(parallelism, records.size());
+        if (stripes <= 1) {
+            evaluate(records, decisions, indexes(records.size()), failures);
+            return failures.firstEntry();
+        }
+
+        List<List<Integer>> striped = new ArrayList<>(stripes);
+        for (int s = 0; s < stripes; s++) {
+            striped.add(new ArrayList<>(records.size() / stripes + 1));
+        }
+        for (int i = 0; i < records.size(); i++) {
+            striped.get(stripe(records.get(i).value(), stripes)).add(i);
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(stripes);
+        for (List<Integer> indexes : striped) {
+            if (!indexes.isEmpty()) {
+                tasks.add(() -> {
+                    evaluate(records, decisions, indexes, failures);
+                    return null;
+                });
+            }
+        }
+        for (Future<Void> task : workers.invokeAll(tasks)) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return failures.firstEntry();
+    }
+
+    /**
+     * Evaluates one stripe in offset order, stopping at its first failure: later transfers of
+     * the same account must not be applied to the velocity state before it
+     */
+    private void evaluate(List<ConsumerRecord<String, TransactionCreatedEvent>> records, FraudDecision[] decisions,
+                          List<Integer> indexes, Map<Integer, RuntimeException> failures) {
+        for (int index : indexes) {
+            try {
+                decisions[index] = antiFraudService.evaluate(records.get(index));
+            } catch (RuntimeException e) {
+                failures.put(index, e);
+                return;
+            }
+        }
+    }
+
+    private static List<Integer> indexes(int size) {
+        List<Integer> indexes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+
+    private static int stripe(TransactionCreatedEvent event, int stripes) {
+        UUID key = event.getAccountExternalIdDebit() != null
+                ? event.getAccountExternalIdDebit()
+                : event.getTransactionExternalId();
+        return key != null ? Math.floorMod(key.hashCode(), stripes) : 0;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        partitionStateStore.onPartitionsAssigned(assignments, callback);
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        partitionStateStore.onPartitionsRevoked(partitions);
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+}
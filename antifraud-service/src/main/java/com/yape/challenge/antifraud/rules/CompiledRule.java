@@ -0,0 +1,11 @@
+package com.yape.challenge.antifraud.rules;
+
+/**
+ * A rule compiled to a predicate over primitive facts; implementations hold only arrays and
+ * primitives built at load time, so evaluating them allocates nothing
+ */
+@FunctionalInterface
+interface CompiledRule {
+
+    boolean matches(FraudFacts facts);
+}
@@ -0,0 +1,14 @@
+package com.yape.challenge.antifraud.rules;
+
+import com.yape.challenge.common.dto.TransactionStatus;
+
+import java.util.List;
+
+/**
+ * Outcome of the rule engine for one transaction
+ *
+ * @param status       Status decided by the first rule that fired, APPROVED when none did
+ * @param firedRuleIds Ids of every top-level rule that fired, in declaration order
+ */
+public record FraudDecision(TransactionStatus status, List<String> firedRuleIds) {
+}
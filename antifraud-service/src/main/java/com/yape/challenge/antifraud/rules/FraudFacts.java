@@ -0,0 +1,66 @@
+package com.yape.challenge.antifraud.rules;
+
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.UUID;
+
+/**
+ * Primitive view of a TransactionCreatedEvent that compiled rules read
+ * One instance per thread is reused, so loading an event allocates nothing beyond the
+ * conversion of the value to cents (rounded up, so "above" comparisons stay exact). The window
+ * totals of the debit account are filled in by the VelocityStore, indexed by window.
+ */
+final class FraudFacts {
+
+    private static final BigDecimal MAX_CENTS = BigDecimal.valueOf(Long.MAX_VALUE);
+    private static final BigDecimal MIN_CENTS = BigDecimal.valueOf(Long.MIN_VALUE);
+
+    boolean hasValue;
+    long valueCents;
+    int transferTypeId;
+    boolean hasDebit;
+    long debitMsb;
+    long debitLsb;
+    boolean hasCredit;
+    long creditMsb;
+    long creditLsb;
+    boolean hasVelocity;
+    long[] windowCounts = new long[0];
+    long[] windowAmountCents = new long[0];
+
+    FraudFacts load(TransactionCreatedEvent event) {
+        hasValue = event.getValue() != null;
+        valueCents = hasValue ? toCents(event.getValue()) : 0;
+        transferTypeId = event.getTransferTypeId() != null ? event.getTransferTypeId() : -1;
+        UUID debit = event.getAccountExternalIdDebit();
+        hasDebit = debit != null;
+        debitMsb = hasDebit ? debit.getMostSignificantBits() : 0;
+        debitLsb = hasDebit ? debit.getLeastSignificantBits() : 0;
+        UUID credit = event.getAccountExternalIdCredit();
+        hasCredit = credit != null;
+        creditMsb = hasCredit ? credit.getMostSignificantBits() : 0;
+        creditLsb = hasCredit ? credit.getLeastSignificantBits() : 0;
+        hasVelocity = false;
+        return this;
+    }
+
+    void ensureWindows(int windows) {
+        if (windowCounts.length < windows) {
+            windowCounts = new long[windows];
+            windowAmountCents = new long[windows];
+        }
+    }
+
+    static long toCents(BigDecimal value) {
+        BigDecimal cents = value.movePointRight(2).setScale(0, RoundingMode.CEILING);
+        if (cents.compareTo(MAX_CENTS) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (cents.compareTo(MIN_CENTS) <= 0) {
+            return Long.MIN_VALUE;
+        }
+        return cents.longValue();
+    }
+}
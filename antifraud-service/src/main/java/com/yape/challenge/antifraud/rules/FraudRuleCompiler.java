@@ -0,0 +1,182 @@
+package com.yape.challenge.antifraud.rules;
+
+import com.yape.challenge.antifraud.rules.FraudRuleProperties.AccountSide;
+import com.yape.challenge.antifraud.rules.FraudRuleProperties.RuleDefinition;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Turns rule definitions into CompiledRule predicates
+ * Thresholds become cents per transfer type, account lists become sorted most/least significant
+ * bit arrays searched by bisection and combinators become arrays of compiled children, so an
+ * evaluation is a fixed sequence of primitive comparisons. Velocity rules only compare the window
+ * totals loaded by the VelocityStore; their windows are collected, once per distinct duration,
+ * into the list handed to compile. Invalid definitions fail at load time.
+ */
+final class FraudRuleCompiler {
+
+    private FraudRuleCompiler() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param windows Velocity windows so far, extended with the ones this rule needs
+     */
+    static CompiledRule compile(RuleDefinition rule, List<Duration> windows) {
+        if (rule.getType() == null) {
+            throw invalid(rule, "type is required");
+        }
+        return switch (rule.getType()) {
+            case VALUE_ABOVE -> valueAbove(rule);
+            case ACCOUNT_IN -> accountIn(rule);
+            case TRANSFER_TYPE_IN -> transferTypeIn(rule);
+            case VELOCITY -> velocity(rule, windows);
+            case ALL_OF -> allOf(children(rule, windows));
+            case ANY_OF -> anyOf(children(rule, windows));
+            case NOT -> not(rule, windows);
+        };
+    }
+
+    private static CompiledRule valueAbove(RuleDefinition rule) {
+        if (rule.getThreshold() == null && rule.getThresholds().isEmpty()) {
+            throw invalid(rule, "threshold or thresholds is required");
+        }
+        // Types without a limit of their own never fire when there is no default either
+        long fallback = rule.getThreshold() != null ? FraudFacts.toCents(rule.getThreshold()) : Long.MAX_VALUE;
+        List<Map.Entry<Integer, BigDecimal>> entries = rule.getThresholds().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+        int[] types = new int[entries.size()];
+        long[] limits = new long[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            types[i] = entries.get(i).getKey();
+            limits[i] = FraudFacts.toCents(entries.get(i).getValue());
+        }
+        if (types.length == 0) {
+            return facts -> facts.hasValue && facts.valueCents > fallback;
+        }
+        return facts -> {
+            if (!facts.hasValue) {
+                return false;
+            }
+            int index = Arrays.binarySearch(types, facts.transferTypeId);
+            return facts.valueCents > (index >= 0 ? limits[index] : fallback);
+        };
+    }
+
+    private static CompiledRule accountIn(RuleDefinition rule) {
+        if (rule.getAccounts().isEmpty()) {
+            throw invalid(rule, "accounts is required");
+        }
+        UUID[] sorted = rule.getAccounts().stream()
+                .distinct()
+                .sorted(Comparator.comparingLong(UUID::getMostSignificantBits)
+                        .thenComparingLong(UUID::getLeastSignificantBits))
+                .toArray(UUID[]::new);
+        long[] msbs = new long[sorted.length];
+        long[] lsbs = new long[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            msbs[i] = sorted[i].getMostSignificantBits();
+            lsbs[i] = sorted[i].getLeastSignificantBits();
+        }
+        AccountSide side = rule.getSide() != null ? rule.getSide() : AccountSide.ANY;
+        return switch (side) {
+            case DEBIT -> facts -> facts.hasDebit && contains(msbs, lsbs, facts.debitMsb, facts.debitLsb);
+            case CREDIT -> facts -> facts.hasCredit && contains(msbs, lsbs, facts.creditMsb, facts.creditLsb);
+            case ANY -> facts -> (facts.hasDebit && contains(msbs, lsbs, facts.debitMsb, facts.debitLsb))
+                    || (facts.hasCredit && contains(msbs, lsbs, facts.creditMsb, facts.creditLsb));
+        };
+    }
+
+    private static boolean contains(long[] msbs, long[] lsbs, long msb, long lsb) {
+        int low = 0;
+        int high = msbs.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = msbs[mid] != msb ? Long.compare(msbs[mid], msb) : Long.compare(lsbs[mid], lsb);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static CompiledRule transferTypeIn(RuleDefinition rule) {
+        if (rule.getTransferTypes().isEmpty()) {
+            throw invalid(rule, "transferTypes is required");
+        }
+        int[] types = rule.getTransferTypes().stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+        return facts -> Arrays.binarySearch(types, facts.transferTypeId) >= 0;
+    }
+
+    private static CompiledRule velocity(RuleDefinition rule, List<Duration> windows) {
+        if (rule.getWindow() == null || rule.getWindow().toMillis() <= 0) {
+            throw invalid(rule, "a positive window is required");
+        }
+        if (rule.getMaxCount() == null && rule.getMaxAmount() == null) {
+            throw invalid(rule, "maxCount or maxAmount is required");
+        }
+        int index = windows.indexOf(rule.getWindow());
+        if (index < 0) {
+            index = windows.size();
+            windows.add(rule.getWindow());
+        }
+        int window = index;
+        long maxCount = rule.getMaxCount() != null ? rule.getMaxCount() : Long.MAX_VALUE;
+        long maxAmount = rule.getMaxAmount() != null ? FraudFacts.toCents(rule.getMaxAmount()) : Long.MAX_VALUE;
+        return facts -> facts.hasVelocity
+                && (facts.windowCounts[window] > maxCount || facts.windowAmountCents[window] > maxAmount);
+    }
+
+    private static CompiledRule[] children(RuleDefinition rule, List<Duration> windows) {
+        if (rule.getRules().isEmpty()) {
+            throw invalid(rule, "rules is required");
+        }
+        return rule.getRules().stream().map(child -> compile(child, windows)).toArray(CompiledRule[]::new);
+    }
+
+    private static CompiledRule allOf(CompiledRule[] children) {
+        return facts -> {
+            for (CompiledRule child : children) {
+                if (!child.matches(facts)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static CompiledRule anyOf(CompiledRule[] children) {
+        return facts -> {
+            for (CompiledRule child : children) {
+                if (child.matches(facts)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static CompiledRule not(RuleDefinition rule, List<Duration> windows) {
+        CompiledRule[] children = children(rule, windows);
+        if (children.length != 1) {
+            throw invalid(rule, "NOT takes exactly one rule");
+        }
+        CompiledRule child = children[0];
+        return facts -> !child.matches(facts);
+    }
+
+    private static IllegalArgumentException invalid(RuleDefinition rule, String message) {
+        return new IllegalArgumentException("Invalid antifraud rule '" + rule.getId() + "': " + message);
+    }
+}
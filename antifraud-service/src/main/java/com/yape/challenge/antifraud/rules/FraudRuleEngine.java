@@ -0,0 +1,173 @@
+package com.yape.challenge.antifraud.rules;
+
+import com.yape.challenge.antifraud.rules.FraudRuleProperties.RuleAction;
+import com.yape.challenge.antifraud.rules.FraudRuleProperties.RuleDefinition;
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.dto.TransactionStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Evaluates the compiled antifraud rules against transactions
+ * Every top-level rule runs on every event so all fired rules are reported; the fired rules are
+ * collected in a bit mask (hence at most 64 top-level rules) and the lowest bit picks the status.
+ * Decisions with no or a single fired rule are preallocated. Each rule is timed
+ * (antifraud.rule.evaluation) and counted when it fires (antifraud.rule.fired), tagged by rule id.
+ * When velocity rules are configured, every transfer with a debit account is first added to its
+ * account's windows, whatever the decision, so rejected attempts count towards later bursts.
+ */
+public class FraudRuleEngine {
+
+    private static final int MAX_RULES = Long.SIZE;
+    private static final FraudDecision NONE_FIRED = new FraudDecision(TransactionStatus.APPROVED, List.of());
+    private static final ThreadLocal<FraudFacts> FACTS = ThreadLocal.withInitial(FraudFacts::new);
+
+    private final CompiledRule[] rules;
+    private final String[] ids;
+    private final TransactionStatus[] statuses;
+    private final Timer[] timers;
+    private final Counter[] fired;
+    private final FraudDecision[] onlyFired;
+    private final VelocityStore velocity;
+    private final LongSupplier clock;
+
+    public FraudRuleEngine(List<RuleDefinition> definitions, MeterRegistry meterRegistry) {
+        this(definitions, new FraudRuleProperties.Velocity().getBuckets(), System::currentTimeMillis, meterRegistry);
+    }
+
+    /**
+     * @param velocityBuckets Time buckets per velocity window
+     * @param clock           Epoch milliseconds of transfers evaluated without a record timestamp
+     */
+    public FraudRuleEngine(List<RuleDefinition> definitions,
+                           int velocityBuckets,
+                           LongSupplier clock,
+                           MeterRegistry meterRegistry) {
+        if (definitions.size() > MAX_RULES) {
+            throw new IllegalArgumentException("At most " + MAX_RULES + " top-level antifraud rules are supported");
+        }
+        int count = definitions.size();
+        rules = new CompiledRule[count];
+        ids = new String[count];
+        statuses = new TransactionStatus[count];
+        timers = new Timer[count];
+        fired = new Counter[count];
+        onlyFired = new FraudDecision[count];
+        this.clock = clock;
+        Set<String> seen = new HashSet<>();
+        List<Duration> windows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            RuleDefinition definition = definitions.get(i);
+            String id = definition.getId();
+            if (id == null || id.isBlank() || !seen.add(id)) {
+                throw new IllegalArgumentException("Top-level antifraud rules need a unique id: " + id);
+            }
+            rules[i] = FraudRuleCompiler.compile(definition, windows);
+            ids[i] = id;
+            statuses[i] = definition.getAction() == RuleAction.APPROVE
+                    ? TransactionStatus.APPROVED
+                    : TransactionStatus.REJECTED;
+            timers[i] = Timer.builder("antifraud.rule.evaluation")
+                    .description("Time spent evaluating one antifraud rule")
+                    .tag("rule", id)
+                    .register(meterRegistry);
+            fired[i] = Counter.builder("antifraud.rule.fired")
+                    .description("Transactions for which the antifraud rule fired")
+                    .tag("rule", id)
+                    .register(meterRegistry);
+            onlyFired[i] = new FraudDecision(statuses[i], List.of(id));
+        }
+        if (windows.isEmpty()) {
+            velocity = null;
+        } else {
+            velocity = new VelocityStore(windows, velocityBuckets);
+            Gauge.builder("antifraud.velocity.accounts", velocity, VelocityStore::accounts)
+                    .description("Debit accounts with transfers inside the velocity windows")
+                    .register(meterRegistry);
+        }
+    }
+
+    public FraudDecision evaluate(TransactionCreatedEvent event) {
+        return evaluate(event, VelocityStore.NO_PARTITION, -1, clock.getAsLong());
+    }
+
+    /**
+     * Evaluate a record of transaction-created, keeping its velocity state in the record's partition
+     *
+     * @param timestamp Record timestamp, the time velocity windows are measured in
+     */
+    public FraudDecision evaluate(TransactionCreatedEvent event, int partition, long offset, long timestamp) {
+        FraudFacts facts = FACTS.get().load(event);
+        if (velocity != null) {
+            velocity.record(partition, offset, timestamp >= 0 ? timestamp : clock.getAsLong(),
+                    event.getAccountExternalIdDebit(), facts);
+        }
+        return decision(evaluate(facts));
+    }
+
+    /**
+     * Apply a record to the velocity state only, while rebuilding a partition from its checkpoint
+     */
+    public void replay(TransactionCreatedEvent event, int partition, long offset, long timestamp) {
+        if (velocity != null) {
+            velocity.record(partition, offset, timestamp >= 0 ? timestamp : clock.getAsLong(),
+                    event.getAccountExternalIdDebit(), FACTS.get().load(event));
+        }
+    }
+
+    /**
+     * Velocity state of the configured velocity rules, null when there are none
+     */
+    public VelocityStore velocityStore() {
+        return velocity;
+    }
+
+    /**
+     * @return Bit i set when rule i fired
+     */
+    long evaluate(FraudFacts facts) {
+        long mask = 0;
+        for (int i = 0; i < rules.length; i++) {
+            long start = System.nanoTime();
+            boolean matches = rules[i].matches(facts);
+            timers[i].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (matches) {
+                mask |= 1L << i;
+                fired[i].increment();
+            }
+        }
+        return mask;
+    }
+
+    private FraudDecision decision(long mask) {
+        if (mask == 0) {
+            return NONE_FIRED;
+        }
+        int first = Long.numberOfTrailingZeros(mask);
+        if (mask == 1L << first) {
+            return onlyFired[first];
+        }
+        List<String> firedIds = new ArrayList<>(Long.bitCount(mask));
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            firedIds.add(ids[Long.numberOfTrailingZeros(remaining)]);
+        }
+        return new FraudDecision(statuses[first], List.copyOf(firedIds));
+    }
+
+    /**
+     * Top-level rule ids in evaluation order
+     */
+    public List<String> ruleIds() {
+        return List.of(ids);
+    }
+}
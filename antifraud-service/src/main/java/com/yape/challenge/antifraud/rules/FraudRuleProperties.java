@@ -0,0 +1,128 @@
+package com.yape.challenge.antifraud.rules;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Antifraud rules as declared under app.antifraud.rules
+ * Top-level rules are evaluated in declaration order; the first one that fires decides the
+ * status and every one that fires is reported. Without configuration the original single rule
+ * applies: reject values above 1000.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.antifraud")
+public class FraudRuleProperties {
+
+    private List<RuleDefinition> rules = new ArrayList<>(List.of(RuleDefinition.valueAbove("value-limit", "1000")));
+
+    private Velocity velocity = new Velocity();
+
+    @Data
+    public static class Velocity {
+
+        /**
+         * Time buckets per window: a window slides by window / buckets, and every debit account
+         * keeps this many counters per distinct window
+         */
+        private int buckets = 12;
+    }
+
+    @Data
+    public static class RuleDefinition {
+
+        /**
+         * Reported when the rule fires; required for top-level rules
+         */
+        private String id;
+
+        private RuleType type;
+
+        /**
+         * Status decided when a top-level rule fires first
+         */
+        private RuleAction action = RuleAction.REJECT;
+
+        /**
+         * VALUE_ABOVE: limit for transfer types without their own entry in thresholds;
+         * when absent, those types never fire
+         */
+        private BigDecimal threshold;
+
+        /**
+         * VALUE_ABOVE: limit per transferTypeId
+         */
+        private Map<Integer, BigDecimal> thresholds = new HashMap<>();
+
+        /**
+         * ACCOUNT_IN: the allow or deny list
+         */
+        private List<UUID> accounts = new ArrayList<>();
+
+        /**
+         * ACCOUNT_IN: which account of the transaction is looked up
+         */
+        private AccountSide side = AccountSide.ANY;
+
+        /**
+         * TRANSFER_TYPE_IN: matching transferTypeIds
+         */
+        private List<Integer> transferTypes = new ArrayList<>();
+
+        /**
+         * VELOCITY: sliding window over the transfers of the debit account, this one included
+         */
+        private Duration window;
+
+        /**
+         * VELOCITY: fires when the window holds more transfers than this
+         */
+        private Long maxCount;
+
+        /**
+         * VELOCITY: fires when the transfers in the window add up to more than this
+         */
+        private BigDecimal maxAmount;
+
+        /**
+         * ALL_OF, ANY_OF and NOT: the combined rules (exactly one for NOT)
+         */
+        private List<RuleDefinition> rules = new ArrayList<>();
+
+        static RuleDefinition valueAbove(String id, String threshold) {
+            RuleDefinition rule = new RuleDefinition();
+            rule.setId(id);
+            rule.setType(RuleType.VALUE_ABOVE);
+            rule.setThreshold(new BigDecimal(threshold));
+            return rule;
+        }
+    }
+
+    public enum RuleType {
+        VALUE_ABOVE,
+        ACCOUNT_IN,
+        TRANSFER_TYPE_IN,
+        VELOCITY,
+        ALL_OF,
+        ANY_OF,
+        NOT
+    }
+
+    public enum RuleAction {
+        APPROVE,
+        REJECT
+    }
+
+    public enum AccountSide {
+        DEBIT,
+        CREDIT,
+        ANY
+    }
+}
@@ -0,0 +1,284 @@
+package com.yape.challenge.antifraud.rules;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transfer count and amount per debit account over sliding windows, scoped by partition
+ * Each window is a ring of time buckets (window / buckets wide), so an account takes the same
+ * memory however many transfers it makes, and the window slides one bucket at a time: a total may
+ * include up to one bucket of transfers older than the window. Time is the record timestamp and
+ * never goes backwards within an account: a late transfer counts in the newest bucket.
+ * State is kept per source partition together with the next offset it reflects, so a partition
+ * can be checkpointed, dropped or rebuilt on its own. Each account remembers the last offset it
+ * added, so a redelivered record is read without being added twice, and records of different
+ * accounts may be applied in any order. Accounts live in ConcurrentHashMaps and are updated inside
+ * the map's per-bin lock; there is no lock across accounts. Accounts idle for longer than the
+ * widest window are swept by whichever caller of the partition first passes the sweep time.
+ */
+public final class VelocityStore {
+
+    /**
+     * Partition of records that do not come from Kafka; never checkpointed
+     */
+    static final int NO_PARTITION = -1;
+
+    private static final int CHECKPOINT_MAGIC = 0x56454C32;
+
+    private final long[] bucketMillis;
+    private final int buckets;
+    private final long idleMillis;
+    private final Map<Integer, PartitionState> partitions = new ConcurrentHashMap<>();
+
+    VelocityStore(List<Duration> windows, int buckets) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("Velocity buckets must be at least 1: " + buckets);
+        }
+        this.buckets = buckets;
+        this.bucketMillis = new long[windows.size()];
+        long widest = 0;
+        for (int w = 0; w < windows.size(); w++) {
+            bucketMillis[w] = Math.max(1, windows.get(w).toMillis() / buckets);
+            widest = Math.max(widest, bucketMillis[w] * buckets);
+        }
+        this.idleMillis = widest;
+    }
+
+    /**
+     * Add a transfer of the debit account and load the window totals, this transfer included,
+     * into the facts; a record the account already added, or the restored checkpoint reflects, is only read
+     *
+     * @param offset Source offset, negative when the transfer does not come from Kafka
+     */
+    void record(int partition, long offset, long timestamp, UUID debitAccount, FraudFacts facts) {
+        facts.ensureWindows(bucketMillis.length);
+        facts.hasVelocity = false;
+        PartitionState state = partitions.computeIfAbsent(partition, p -> new PartitionState());
+        if (offset >= 0) {
+            state.nextOffset.accumulateAndGet(offset + 1, Math::max);
+        }
+        if (debitAccount == null) {
+            return;
+        }
+        // Records the restored checkpoint already reflects are only read
+        boolean add = offset < 0 || offset >= state.restoredOffset;
+        long amountCents = facts.hasValue ? Math.max(facts.valueCents, 0) : 0;
+        // Updated inside the map's bin lock, so a concurrent sweep never drops a transfer
+        AccountWindows windows = add
+                ? state.accounts.compute(debitAccount, (account, current) -> {
+                    AccountWindows updated = current != null ? current : new AccountWindows(bucketMillis.length * buckets);
+                    updated.record(timestamp, offset, true, amountCents, facts);
+                    return updated;
+                })
+                : state.accounts.computeIfPresent(debitAccount, (account, current) -> {
+                    current.record(timestamp, offset, false, 0, facts);
+                    return current;
+                });
+        facts.hasVelocity = windows != null;
+        long sweepAt = state.nextSweep;
+        if (timestamp >= sweepAt) {
+            state.nextSweep = timestamp + idleMillis;
+            for (UUID account : state.accounts.keySet()) {
+                state.accounts.computeIfPresent(account,
+                        (key, current) -> current.idleSince(timestamp - idleMillis) ? null : current);
+            }
+        }
+    }
+
+    /**
+     * Next offset of the partition reflected in its state, -1 when the partition has no state
+     */
+    public long nextOffset(int partition) {
+        PartitionState state = partitions.get(partition);
+        return state != null ? state.nextOffset.get() : -1;
+    }
+
+    public boolean holds(int partition) {
+        return partitions.containsKey(partition);
+    }
+
+    /**
+     * Forget the partition, e.g. once it is assigned to another instance
+     */
+    public void drop(int partition) {
+        partitions.remove(partition);
+    }
+
+    /**
+     * Bytes needed by checkpointTo for the partition as it is now
+     */
+    public int checkpointSize(int partition) {
+        PartitionState state = partitions.get(partition);
+        int accounts = state != null ? state.accounts.size() : 0;
+        return headerSize() + accounts * accountSize();
+    }
+
+    /**
+     * Write the partition's state and offset mark; the caller must be the partition's only writer
+     * meanwhile, which holds for the consumer thread the partition is assigned to
+     */
+    public void checkpointTo(int partition, ByteBuffer buffer) {
+        PartitionState state = partitions.computeIfAbsent(partition, p -> new PartitionState());
+        buffer.putInt(CHECKPOINT_MAGIC).putInt(buckets).putInt(bucketMillis.length);
+        for (long millis : bucketMillis) {
+            buffer.putLong(millis);
+        }
+        buffer.putLong(state.nextOffset.get());
+        int countPosition = buffer.position();
+        buffer.putInt(0);
+        int written = 0;
+        for (Map.Entry<UUID, AccountWindows> entry : state.accounts.entrySet()) {
+            if (buffer.remaining() < accountSize()) {
+                break;
+            }
+            buffer.putLong(entry.getKey().getMostSignificantBits()).putLong(entry.getKey().getLeastSignificantBits());
+            entry.getValue().writeTo(buffer);
+            written++;
+        }
+        buffer.putInt(countPosition, written);
+    }
+
+    /**
+     * Replace the partition's state with a checkpoint
+     *
+     * @throws IllegalArgumentException when the checkpoint was written with other windows or buckets
+     */
+    public void restoreFrom(int partition, ByteBuffer buffer) {
+        if (buffer.remaining() < headerSize() || buffer.getInt() != CHECKPOINT_MAGIC
+                || buffer.getInt() != buckets || buffer.getInt() != bucketMillis.length) {
+            throw new IllegalArgumentException("Not a checkpoint of the current velocity windows");
+        }
+        for (long millis : bucketMillis) {
+            if (buffer.getLong() != millis) {
+                throw new IllegalArgumentException("Checkpoint written with other velocity windows");
+            }
+        }
+        PartitionState state = new PartitionState();
+        state.nextOffset.set(buffer.getLong());
+        state.restoredOffset = state.nextOffset.get();
+        int accounts = buffer.getInt();
+        if (accounts < 0 || (long) accounts * accountSize() > buffer.remaining()) {
+            throw new IllegalArgumentException("Truncated checkpoint");
+        }
+        for (int i = 0; i < accounts; i++) {
+            UUID account = new UUID(buffer.getLong(), buffer.getLong());
+            AccountWindows windows = new AccountWindows(bucketMillis.length * buckets);
+            windows.readFrom(buffer);
+            state.accounts.put(account, windows);
+        }
+        partitions.put(partition, state);
+    }
+
+    /**
+     * Widest window, i.e. how long an idle account is kept
+     */
+    public Duration widestWindow() {
+        return Duration.ofMillis(idleMillis);
+    }
+
+    int accounts() {
+        return partitions.values().stream().mapToInt(state -> state.accounts.size()).sum();
+    }
+
+    private int headerSize() {
+        return 3 * Integer.BYTES + bucketMillis.length * Long.BYTES + Long.BYTES + Integer.BYTES;
+    }
+
+    private int accountSize() {
+        return 4 * Long.BYTES + bucketMillis.length * buckets * (2 * Long.BYTES + Integer.BYTES);
+    }
+
+    private static final class PartitionState {
+
+        private final Map<UUID, AccountWindows> accounts = new ConcurrentHashMap<>();
+        private final AtomicLong nextOffset = new AtomicLong(-1);
+        private volatile long restoredOffset = -1;
+        private volatile long nextSweep;
+    }
+
+    private final class AccountWindows {
+
+        /**
+         * Absolute bucket number held by each slot, per window; a slot with an older number is stale
+         */
+        private final long[] slots;
+        private final int[] counts;
+        private final long[] amounts;
+        private long lastMillis = Long.MIN_VALUE;
+        private long lastOffset = -1;
+
+        private AccountWindows(int size) {
+            slots = new long[size];
+            counts = new int[size];
+            amounts = new long[size];
+            Arrays.fill(slots, Long.MIN_VALUE);
+        }
+
+        /**
+         * @param offset Source offset, negative outside Kafka; a transfer at or below the last added
+         *               offset is a redelivery and is only read
+         * @param mayAdd False to only read the totals
+         */
+        private synchronized void record(long timestamp, long offset, boolean mayAdd, long amountCents,
+                                         FraudFacts facts) {
+            boolean add = mayAdd && (offset < 0 || offset > lastOffset);
+            if (add && offset >= 0) {
+                lastOffset = offset;
+            }
+            long now = Math.max(timestamp, lastMillis);
+            lastMillis = now;
+            for (int w = 0; w < bucketMillis.length; w++) {
+                long slot = now / bucketMillis[w];
+                int base = w * buckets;
+                if (add) {
+                    int current = base + (int) (slot % buckets);
+                    if (slots[current] != slot) {
+                        slots[current] = slot;
+                        counts[current] = 0;
+                        amounts[current] = 0;
+                    }
+                    counts[current]++;
+                    amounts[current] += amountCents;
+                }
+
+                long count = 0;
+                long amount = 0;
+                for (int i = base; i < base + buckets; i++) {
+                    if (slots[i] > slot - buckets) {
+                        count += counts[i];
+                        amount += amounts[i];
+                    }
+                }
+                facts.windowCounts[w] = count;
+                facts.windowAmountCents[w] = amount;
+            }
+        }
+
+        private synchronized boolean idleSince(long millis) {
+            return lastMillis < millis;
+        }
+
+        private synchronized void writeTo(ByteBuffer buffer) {
+            buffer.putLong(lastMillis).putLong(lastOffset);
+            for (int i = 0; i < slots.length; i++) {
+                buffer.putLong(slots[i]).putInt(counts[i]).putLong(amounts[i]);
+            }
+        }
+
+        private synchronized void readFrom(ByteBuffer buffer) {
+            lastMillis = buffer.getLong();
+            lastOffset = buffer.getLong();
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = buffer.getLong();
+                counts[i] = buffer.getInt();
+                amounts[i] = buffer.getLong();
+            }
+        }
+    }
+}
@@ -1,45 +1,68 @@
 package com.yape.challenge.antifraud.service;
 
+import com.yape.challenge.antifraud.rules.FraudDecision;
+import com.yape.challenge.antifraud.rules.FraudRuleEngine;
 import com.yape.challenge.common.dto.TransactionCreatedEvent;
-import com.yape.challenge.common.dto.TransactionStatus;
 import com.yape.challenge.common.dto.TransactionStatusEvent;
 import com.yape.challenge.common.kafka.KafkaTopics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AntiFraudService {
 
-    private static final BigDecimal FRAUD_THRESHOLD = new BigDecimal("1000");
     private final KafkaTemplate<String, TransactionStatusEvent> kafkaTemplate;
+    private final FraudRuleEngine fraudRuleEngine;
 
     public void validateTransaction(TransactionCreatedEvent event) {
         log.info("Validating transaction: {}", event.getTransactionExternalId());
+        send(event, fraudRuleEngine.evaluate(event));
+    }
+
+    /**
+     * Validate a transaction-created record; its velocity state is kept with the record's partition
+     */
+    public void validateTransaction(ConsumerRecord<String, TransactionCreatedEvent> record) {
+        send(record.value(), evaluate(record));
+    }
+
+    /**
+     * Decide a transaction-created record without publishing the verdict
+     */
+    public FraudDecision evaluate(ConsumerRecord<String, TransactionCreatedEvent> record) {
+        TransactionCreatedEvent event = record.value();
+        log.info("Validating transaction: {}", event.getTransactionExternalId());
+        return fraudRuleEngine.evaluate(event, record.partition(), record.offset(), record.timestamp());
+    }
 
+    /**
+     * Publish the verdict of a transaction
+     *
+     * @return Completes when the broker acknowledged the verdict
+     */
+    public CompletableFuture<SendResult<String, TransactionStatusEvent>> send(TransactionCreatedEvent event,
+                                                                             FraudDecision decision) {
         TransactionStatusEvent statusEvent = TransactionStatusEvent.builder()
                 .transactionExternalId(event.getTransactionExternalId())
-                .status(determineStatus(event.getValue()))
+                .status(decision.status())
                 .build();
 
-        kafkaTemplate.send(KafkaTopics.TRANSACTION_STATUS_UPDATED,
+        CompletableFuture<SendResult<String, TransactionStatusEvent>> sent = kafkaTemplate.send(
+                KafkaTopics.TRANSACTION_STATUS_UPDATED,
                 event.getTransactionExternalId().toString(),
                 statusEvent);
 
-        log.info("Transaction validation completed. ExternalId: {}, Status: {}",
-                event.getTransactionExternalId(), statusEvent.getStatus());
-    }
-
-    private TransactionStatus determineStatus(BigDecimal value) {
-        if (value.compareTo(FRAUD_THRESHOLD) > 0) {
-            return TransactionStatus.REJECTED;
-        }
-        return TransactionStatus.APPROVED;
+        log.info("Transaction validation completed. ExternalId: {}, Status: {}, Rules fired: {}",
+                event.getTransactionExternalId(), statusEvent.getStatus(), decision.firedRuleIds());
+        return sent;
     }
 }
 
@@ -0,0 +1,243 @@
+package com.yape.challenge.antifraud.state;
+
+import com.yape.challenge.antifraud.rules.FraudRuleEngine;
+import com.yape.challenge.antifraud.rules.VelocityStore;
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Durable, partition-scoped velocity state of the transaction-created listener
+ * Every checkpoint-interval, on the consumer thread of the partition, the partition's state is
+ * written to a memory-mapped file together with the next offset it reflects (written aside and
+ * renamed, so a crash leaves the previous checkpoint). When a partition is assigned its
+ * checkpoint is loaded and, if the group already committed past it, the consumer seeks back to
+ * the checkpoint and the tail up to the committed position is replayed into the state only, with
+ * no verdicts sent. When revoked, the partition is checkpointed and dropped, so state follows the
+ * partitions; another instance picks it up when the directory is shared. Velocity state is only
+ * partition-local when transaction-created is keyed by the debit account: records keyed by
+ * anything else are counted and logged once, since each account's totals would be split across
+ * partitions. Without a usable checkpoint the partition starts empty. Disabled, partitions keep
+ * their in-memory state.
+ */
+@Component
+@Slf4j
+public class PartitionStateStore {
+
+    private final VelocityStore velocityStore;
+    private final FraudRuleEngine fraudRuleEngine;
+    private final boolean enabled;
+    private final Path directory;
+    private final long checkpointIntervalNanos;
+
+    private final Map<Integer, Long> replayUntil = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> lastCheckpoint = new ConcurrentHashMap<>();
+
+    private final Counter written;
+    private final Counter loaded;
+    private final Counter discarded;
+    private final Counter failed;
+    private final Counter replayed;
+    private final Counter misKeyed;
+    private final AtomicBoolean misKeyedLogged = new AtomicBoolean();
+
+    public PartitionStateStore(FraudRuleEngine fraudRuleEngine,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.antifraud.state.enabled:false}") boolean enabled,
+                               @Value("${app.antifraud.state.directory:antifraud-state}") Path directory,
+                               @Value("${app.antifraud.state.checkpoint-interval:PT30S}") Duration checkpointInterval) {
+        this.fraudRuleEngine = fraudRuleEngine;
+        this.velocityStore = fraudRuleEngine.velocityStore();
+        this.enabled = enabled && velocityStore != null;
+        this.directory = directory;
+        this.checkpointIntervalNanos = checkpointInterval.toNanos();
+
+        this.written = outcome(meterRegistry, "written");
+        this.loaded = outcome(meterRegistry, "loaded");
+        this.discarded = outcome(meterRegistry, "discarded");
+        this.failed = outcome(meterRegistry, "failed");
+        this.replayed = Counter.builder("antifraud.state.replayed")
+                .description("Records applied to the state only while rebuilding a partition")
+                .register(meterRegistry);
+        this.misKeyed = Counter.builder("antifraud.state.mis-keyed")
+                .description("Records not keyed by their debit account, whose velocity is split across partitions")
+                .register(meterRegistry);
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("antifraud.state.checkpoint")
+                .description("Partition state checkpoints, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Load the checkpoint of each newly assigned partition and seek back to replay its tail
+     *
+     * @param assignments Current position of each assigned partition
+     */
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        if (!enabled) {
+            return;
+        }
+        assignments.forEach((topicPartition, position) -> {
+            int partition = topicPartition.partition();
+            if (!KafkaTopics.TRANSACTION_CREATED.equals(topicPartition.topic()) || velocityStore.holds(partition)) {
+                return;
+            }
+            lastCheckpoint.put(partition, System.nanoTime());
+            if (!load(partition)) {
+                return;
+            }
+            long checkpointOffset = velocityStore.nextOffset(partition);
+            if (checkpointOffset >= 0 && checkpointOffset < position) {
+                replayUntil.put(partition, position);
+                callback.seek(topicPartition.topic(), partition, checkpointOffset);
+                log.info("Partition {} restored at offset {}, replaying {} records up to {}",
+                        partition, checkpointOffset, position - checkpointOffset, position);
+            } else {
+                log.info("Partition {} restored at offset {} (position {})", partition, checkpointOffset, position);
+            }
+        });
+    }
+
+    /**
+     * Checkpoint and drop the revoked partitions
+     */
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        if (!enabled) {
+            return;
+        }
+        for (TopicPartition topicPartition : partitions) {
+            int partition = topicPartition.partition();
+            if (KafkaTopics.TRANSACTION_CREATED.equals(topicPartition.topic()) && velocityStore.holds(partition)) {
+                checkpoint(partition);
+                velocityStore.drop(partition);
+                replayUntil.remove(partition);
+                lastCheckpoint.remove(partition);
+            }
+        }
+    }
+
+    /**
+     * Apply the record to the state only when it belongs to a tail being replayed
+     *
+     * @return true when the record was replayed and must not be evaluated again
+     */
+    public boolean replayed(ConsumerRecord<String, TransactionCreatedEvent> record) {
+        if (!enabled) {
+            return false;
+        }
+        checkKey(record);
+        Long until = replayUntil.get(record.partition());
+        if (until == null) {
+            return false;
+        }
+        if (record.offset() >= until) {
+            replayUntil.remove(record.partition(), until);
+            log.info("Partition {} rebuilt up to offset {}", record.partition(), until);
+            return false;
+        }
+        if (record.value() != null) {
+            fraudRuleEngine.replay(record.value(), record.partition(), record.offset(), record.timestamp());
+        }
+        replayed.increment();
+        return true;
+    }
+
+    private void checkKey(ConsumerRecord<String, TransactionCreatedEvent> record) {
+        TransactionCreatedEvent event = record.value();
+        if (event == null || event.getAccountExternalIdDebit() == null
+                || event.getAccountExternalIdDebit().toString().equals(record.key())) {
+            return;
+        }
+        misKeyed.increment();
+        if (misKeyedLogged.compareAndSet(false, true)) {
+            log.error("transaction-created record at {}-{}@{} is keyed by {} instead of its debit account {}: "
+                            + "velocity totals are per partition, set created-event-key ACCOUNT_EXTERNAL_ID_DEBIT "
+                            + "in transaction-service", record.topic(), record.partition(), record.offset(),
+                    record.key(), event.getAccountExternalIdDebit());
+        }
+    }
+
+    /**
+     * Checkpoint the record's partition when its interval elapsed; called on its consumer thread
+     */
+    public void afterRecord(ConsumerRecord<String, TransactionCreatedEvent> record) {
+        if (!enabled) {
+            return;
+        }
+        int partition = record.partition();
+        long now = System.nanoTime();
+        Long last = lastCheckpoint.putIfAbsent(partition, now);
+        if (last != null && now - last >= checkpointIntervalNanos) {
+            lastCheckpoint.put(partition, now);
+            checkpoint(partition);
+        }
+    }
+
+    void checkpoint(int partition) {
+        Path file = file(partition);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                        velocityStore.checkpointSize(partition));
+                velocityStore.checkpointTo(partition, buffer);
+                buffer.force();
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            written.increment();
+            log.debug("Checkpointed partition {} at offset {}", partition, velocityStore.nextOffset(partition));
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            log.warn("Could not checkpoint partition {} to {}: {}", partition, file, e.getMessage());
+        }
+    }
+
+    /**
+     * @return true when a checkpoint of the partition was restored
+     */
+    boolean load(int partition) {
+        Path file = file(partition);
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            velocityStore.restoreFrom(partition, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            loaded.increment();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            velocityStore.drop(partition);
+            discarded.increment();
+            log.warn("Discarding checkpoint {} of partition {}: {}", file, partition, e.getMessage());
+            return false;
+        }
+    }
+
+    private Path file(int partition) {
+        return directory.resolve(KafkaTopics.TRANSACTION_CREATED + "-" + partition + ".velocity");
+    }
+}
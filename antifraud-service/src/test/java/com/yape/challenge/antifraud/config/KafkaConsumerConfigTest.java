@@ -1,7 +1,13 @@
 package com.yape.challenge.antifraud.config;
 
 import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.kafka.codec.FormatDetectingEventDeserializer;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,10 +15,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.MessageListenerContainer;
 import org.springframework.test.context.TestPropertySource;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @SpringBootTest
 @TestPropertySource(properties = {
@@ -48,7 +66,7 @@ class KafkaConsumerConfigTest {
         assertEquals("localhost:9092", configMap.get(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG));
         assertEquals("test-group", configMap.get(ConsumerConfig.GROUP_ID_CONFIG));
         assertEquals(StringDeserializer.class, configMap.get(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG));
-        assertEquals(JsonDeserializer.class, configMap.get(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG));
+        assertEquals(FormatDetectingEventDeserializer.class, configMap.get(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG));
         assertEquals("earliest", configMap.get(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG));
     }
 
@@ -57,5 +75,62 @@ class KafkaConsumerConfigTest {
     void shouldConfigureKafkaListenerContainerFactoryWithConsumerFactory() {
         assertNotNull(kafkaListenerContainerFactory.getConsumerFactory());
     }
-}
 
+    @Test
+    @DisplayName("Should retry a batch whose verdicts were not acknowledged until it succeeds")
+    void shouldRetryBatchWhenSendFails() {
+        // Given
+        ConsumerRecordRecoverer recoverer = mock(ConsumerRecordRecoverer.class);
+        DefaultErrorHandler errorHandler = KafkaConsumerConfig.batchErrorHandler(
+                Duration.ofMillis(1), Duration.ofMillis(5), 3, recoverer);
+        Consumer<String, TransactionCreatedEvent> consumer = mock(Consumer.class);
+        when(consumer.poll(any(Duration.class))).thenReturn(ConsumerRecords.empty());
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        when(container.isRunning()).thenReturn(true);
+        TopicPartition partition = new TopicPartition(KafkaTopics.TRANSACTION_CREATED, 0);
+        ConsumerRecords<String, TransactionCreatedEvent> records = new ConsumerRecords<>(Map.of(partition,
+                List.of(new ConsumerRecord<>(KafkaTopics.TRANSACTION_CREATED, 0, 0L, "key", new TransactionCreatedEvent()))));
+        AtomicInteger attempts = new AtomicInteger();
+        Runnable listener = () -> {
+            if (attempts.incrementAndGet() < 15) {
+                throw new IllegalStateException("Verdicts of a batch of 1 transactions were not acknowledged");
+            }
+        };
+
+        // When
+        errorHandler.handleBatch(new IllegalStateException("Send failed"), records, consumer, container, listener);
+
+        // Then
+        assertEquals(15, attempts.get());
+        verifyNoInteractions(recoverer);
+    }
+
+    @Test
+    @DisplayName("Should dead-letter a record that keeps failing evaluation after the bounded attempts")
+    void shouldRecoverRecordAfterEvaluationAttempts() {
+        // Given
+        ConsumerRecordRecoverer recoverer = mock(ConsumerRecordRecoverer.class);
+        DefaultErrorHandler errorHandler = KafkaConsumerConfig.batchErrorHandler(
+                Duration.ofMillis(1), Duration.ofMillis(5), 3, recoverer);
+        Consumer<String, TransactionCreatedEvent> consumer = mock(Consumer.class);
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        when(container.getContainerProperties()).thenReturn(new ContainerProperties(KafkaTopics.TRANSACTION_CREATED));
+        TopicPartition partition = new TopicPartition(KafkaTopics.TRANSACTION_CREATED, 0);
+        ConsumerRecord<String, TransactionCreatedEvent> poison =
+                new ConsumerRecord<>(KafkaTopics.TRANSACTION_CREATED, 0, 0L, "key", new TransactionCreatedEvent());
+        ConsumerRecords<String, TransactionCreatedEvent> records =
+                new ConsumerRecords<>(Map.of(partition, List.of(poison)));
+        BatchListenerFailedException failure =
+                new BatchListenerFailedException("Evaluation failed", new IllegalStateException("boom"), poison);
+
+        // When
+        for (int attempt = 1; attempt < 3; attempt++) {
+            assertThrows(RuntimeException.class,
+                    () -> errorHandler.handleBatch(failure, records, consumer, container, () -> { }));
+        }
+        errorHandler.handleBatch(failure, records, consumer, container, () -> { });
+
+        // Then
+        verify(recoverer).accept(eq(poison), any());
+    }
+}
@@ -1,6 +1,8 @@
 package com.yape.challenge.antifraud.config;
 
 import com.yape.challenge.common.dto.TransactionStatusEvent;
+import com.yape.challenge.common.kafka.codec.EventFormat;
+import com.yape.challenge.common.kafka.codec.VersionedEventSerializer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.junit.jupiter.api.DisplayName;
@@ -9,7 +11,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.test.context.TestPropertySource;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -46,7 +47,8 @@ class KafkaProducerConfigTest {
 
         assertEquals("localhost:9092", configMap.get(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG));
         assertEquals(StringSerializer.class, configMap.get(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG));
-        assertEquals(JsonSerializer.class, configMap.get(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG));
+        assertEquals(VersionedEventSerializer.class, configMap.get(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG));
+        assertEquals("json", configMap.get(EventFormat.CONFIG));
         assertEquals("all", configMap.get(ProducerConfig.ACKS_CONFIG));
         assertEquals(3, configMap.get(ProducerConfig.RETRIES_CONFIG));
         assertEquals(true, configMap.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
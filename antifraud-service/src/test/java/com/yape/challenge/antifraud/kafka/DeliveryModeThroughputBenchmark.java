@@ -0,0 +1,246 @@
+package com.yape.challenge.antifraud.kafka;
+
+import com.yape.challenge.antifraud.rules.FraudRuleEngine;
+import com.yape.challenge.antifraud.rules.FraudRuleProperties;
+import com.yape.challenge.antifraud.service.AntiFraudService;
+import com.yape.challenge.antifraud.state.PartitionStateStore;
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.dto.TransactionStatus;
+import com.yape.challenge.common.dto.TransactionStatusEvent;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import com.yape.challenge.common.kafka.codec.EventFormat;
+import com.yape.challenge.common.kafka.codec.FormatDetectingEventDeserializer;
+import com.yape.challenge.common.kafka.codec.VersionedEventSerializer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * End-to-end throughput of the antifraud listener in at-least-once, batch and exactly-once mode
+ * Each invocation starts a listener container under a fresh consumer group, lets it validate
+ * every record of a pre-filled transaction-created topic, and stops once all verdicts are
+ * readable by a read_committed consumer. The score is the time per record; the batch modes are
+ * measured at several batch sizes to show how the transaction commit (exactly-once) or the wait
+ * for the acks of a whole poll (batch) is amortized.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@OperationsPerInvocation(DeliveryModeThroughputBenchmark.RECORDS)
+public class DeliveryModeThroughputBenchmark {
+
+    static final int RECORDS = 20_000;
+
+    private static final int PARTITIONS = 3;
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    @Param({"at-least-once", "batch", "exactly-once"})
+    public String mode;
+
+    @Param({"50", "500"})
+    public int microBatchSize;
+
+    private EmbeddedKafkaBroker broker;
+    private DefaultKafkaProducerFactory<String, TransactionStatusEvent> producerFactory;
+    private KafkaConsumer<String, byte[]> verdictConsumer;
+    private TransactionCreatedParallelBatchConsumer batchConsumer;
+    private int run;
+
+    @Setup(Level.Trial)
+    public void startBroker() {
+        // Per-record INFO logging and broker chatter would dominate the measurement
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+        broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS,
+                KafkaTopics.TRANSACTION_CREATED, KafkaTopics.TRANSACTION_STATUS_UPDATED)
+                .brokerProperties(Map.of(
+                        "transaction.state.log.replication.factor", "1",
+                        "transaction.state.log.min.isr", "1"));
+        broker.afterPropertiesSet();
+        fillInputTopic();
+
+        Map<String, Object> producerProps = new HashMap<>();
+        producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, VersionedEventSerializer.class);
+        producerProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        producerProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        producerFactory = new DefaultKafkaProducerFactory<>(producerProps);
+        if (isExactlyOnce()) {
+            producerFactory.setTransactionIdPrefix("antifraud-bench-tx-");
+        }
+
+        Map<String, Object> verdictProps = new HashMap<>();
+        verdictProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        verdictProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        verdictProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        verdictProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        verdictProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5000);
+        verdictConsumer = new KafkaConsumer<>(verdictProps);
+        verdictConsumer.assign(verdictPartitions());
+    }
+
+    @Setup(Level.Invocation)
+    public void skipPreviousVerdicts() {
+        verdictConsumer.seekToEnd(verdictPartitions());
+        verdictPartitions().forEach(verdictConsumer::position);
+    }
+
+    @Benchmark
+    public int validateAll() {
+        ConcurrentMessageListenerContainer<String, TransactionCreatedEvent> container = listenerContainer();
+        container.start();
+        try {
+            int verdicts = 0;
+            long deadline = System.nanoTime() + TIMEOUT.toNanos();
+            while (verdicts < RECORDS) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Only " + verdicts + " verdicts within " + TIMEOUT);
+                }
+                verdicts += verdictConsumer.poll(Duration.ofMillis(100)).count();
+            }
+            return verdicts;
+        } finally {
+            container.stop();
+            if (batchConsumer != null) {
+                batchConsumer.destroy();
+                batchConsumer = null;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopBroker() {
+        verdictConsumer.close();
+        producerFactory.destroy();
+        broker.destroy();
+    }
+
+    /**
+     * Same settings as KafkaConsumerConfig: record listener for at-least-once, batch listener
+     * acknowledging after the verdicts for batch, batch listener inside a Kafka transaction for
+     * exactly-once
+     */
+    private ConcurrentMessageListenerContainer<String, TransactionCreatedEvent> listenerContainer() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "antifraud-bench-" + mode + "-" + (run++));
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, FormatDetectingEventDeserializer.class);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, microBatchSize);
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, TransactionCreatedEvent.class.getName());
+
+        FraudRuleEngine engine = new FraudRuleEngine(new FraudRuleProperties().getRules(), new SimpleMeterRegistry());
+        AntiFraudService antiFraudService = new AntiFraudService(new KafkaTemplate<>(producerFactory), engine);
+        ContainerProperties containerProperties = new ContainerProperties(KafkaTopics.TRANSACTION_CREATED);
+        if ("batch".equals(mode)) {
+            PartitionStateStore noState = new PartitionStateStore(engine, new SimpleMeterRegistry(), false,
+                    Path.of("antifraud-state"), Duration.ofSeconds(30));
+            batchConsumer = new TransactionCreatedParallelBatchConsumer(antiFraudService, noState, 0, TIMEOUT);
+            containerProperties.setMessageListener((BatchMessageListener<String, TransactionCreatedEvent>) records -> {
+                try {
+                    batchConsumer.consumeTransactionCreatedBatch(records);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            });
+            containerProperties.setAckMode(ContainerProperties.AckMode.BATCH);
+        } else if (isExactlyOnce()) {
+            containerProperties.setMessageListener((BatchMessageListener<String, TransactionCreatedEvent>) records ->
+                    records.forEach(record -> antiFraudService.validateTransaction(record.value())));
+            containerProperties.setTransactionManager(new KafkaTransactionManager<>(producerFactory));
+        } else {
+            containerProperties.setMessageListener((MessageListener<String, TransactionCreatedEvent>) record ->
+                    antiFraudService.validateTransaction(record.value()));
+        }
+
+        ConcurrentMessageListenerContainer<String, TransactionCreatedEvent> container =
+                new ConcurrentMessageListenerContainer<>(new DefaultKafkaConsumerFactory<>(props), containerProperties);
+        container.setConcurrency(PARTITIONS);
+        return container;
+    }
+
+    private void fillInputTopic() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        try (KafkaProducer<String, TransactionCreatedEvent> producer =
+                     new KafkaProducer<>(props, new StringSerializer(), new VersionedEventSerializer<>(EventFormat.JSON))) {
+            for (int i = 0; i < RECORDS; i++) {
+                UUID id = UUID.randomUUID();
+                producer.send(new ProducerRecord<>(KafkaTopics.TRANSACTION_CREATED, id.toString(),
+                        TransactionCreatedEvent.builder()
+                                .transactionExternalId(id)
+                                .accountExternalIdDebit(UUID.randomUUID())
+                                .accountExternalIdCredit(UUID.randomUUID())
+                                .transferTypeId(1)
+                                .value(BigDecimal.valueOf(i % 2000))
+                                .status(TransactionStatus.PENDING)
+                                .build()));
+            }
+            producer.flush();
+        }
+    }
+
+    private List<TopicPartition> verdictPartitions() {
+        return IntStream.range(0, PARTITIONS)
+                .mapToObj(partition -> new TopicPartition(KafkaTopics.TRANSACTION_STATUS_UPDATED, partition))
+                .toList();
+    }
+
+    private boolean isExactlyOnce() {
+        return "exactly-once".equals(mode);
+    }
+}
@@ -0,0 +1,84 @@
+package com.yape.challenge.antifraud.kafka;
+
+import com.yape.challenge.antifraud.service.AntiFraudService;
+import com.yape.challenge.antifraud.state.PartitionStateStore;
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Transaction Created Batch Consumer Tests")
+class TransactionCreatedBatchConsumerTest {
+
+    @Mock
+    private AntiFraudService antiFraudService;
+
+    @Mock
+    private PartitionStateStore partitionStateStore;
+
+    @InjectMocks
+    private TransactionCreatedBatchConsumer transactionCreatedBatchConsumer;
+
+    private long offset;
+
+    @Test
+    @DisplayName("Should validate every event of the batch in order")
+    void shouldValidateEveryEventInOrder() {
+        // Given
+        ConsumerRecord<String, TransactionCreatedEvent> event1 = event("100.00");
+        ConsumerRecord<String, TransactionCreatedEvent> event2 = event("2000.00");
+
+        // When
+        transactionCreatedBatchConsumer.consumeTransactionCreatedBatch(List.of(event1, event2));
+
+        // Then
+        InOrder inOrder = inOrder(antiFraudService);
+        inOrder.verify(antiFraudService).validateTransaction(event1);
+        inOrder.verify(antiFraudService).validateTransaction(event2);
+    }
+
+    @Test
+    @DisplayName("Should stop and propagate so the batch transaction is aborted")
+    void shouldPropagateFailureToAbortBatch() {
+        // Given
+        ConsumerRecord<String, TransactionCreatedEvent> event1 = event("100.00");
+        ConsumerRecord<String, TransactionCreatedEvent> event2 = event("200.00");
+        ConsumerRecord<String, TransactionCreatedEvent> event3 = event("300.00");
+        doNothing().when(antiFraudService).validateTransaction(event1);
+        doThrow(new RuntimeException("Validation failed")).when(antiFraudService).validateTransaction(event2);
+
+        // When & Then
+        RuntimeException thrown = assertThrows(RuntimeException.class, () ->
+                transactionCreatedBatchConsumer.consumeTransactionCreatedBatch(List.of(event1, event2, event3))
+        );
+
+        assertEquals("Validation failed", thrown.getMessage());
+        verify(antiFraudService, never()).validateTransaction(event3);
+    }
+
+    private ConsumerRecord<String, TransactionCreatedEvent> event(String value) {
+        TransactionCreatedEvent event = TransactionCreatedEvent.builder()
+                .transactionExternalId(UUID.randomUUID())
+                .accountExternalIdDebit(UUID.randomUUID())
+                .accountExternalIdCredit(UUID.randomUUID())
+                .transferTypeId(1)
+                .value(new BigDecimal(value))
+                .build();
+        return new ConsumerRecord<>(KafkaTopics.TRANSACTION_CREATED, 0, offset++,
+                event.getTransactionExternalId().toString(), event);
+    }
+}
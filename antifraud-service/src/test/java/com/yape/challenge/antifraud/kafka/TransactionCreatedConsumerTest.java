@@ -1,7 +1,10 @@
 package com.yape.challenge.antifraud.kafka;
 
 import com.yape.challenge.antifraud.service.AntiFraudService;
+import com.yape.challenge.antifraud.state.PartitionStateStore;
 import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -23,27 +26,30 @@ class TransactionCreatedConsumerTest {
     @Mock
     private AntiFraudService antiFraudService;
 
+    @Mock
+    private PartitionStateStore partitionStateStore;
+
     @InjectMocks
     private TransactionCreatedConsumer transactionCreatedConsumer;
 
-    private TransactionCreatedEvent event;
+    private ConsumerRecord<String, TransactionCreatedEvent> event;
 
     @BeforeEach
     void setUp() {
-        event = TransactionCreatedEvent.builder()
+        event = record(0, TransactionCreatedEvent.builder()
                 .transactionExternalId(UUID.randomUUID())
                 .accountExternalIdDebit(UUID.randomUUID())
                 .accountExternalIdCredit(UUID.randomUUID())
                 .transferTypeId(1)
                 .value(new BigDecimal("500.00"))
-                .build();
+                .build());
     }
 
     @Test
     @DisplayName("Should successfully consume and process transaction created event")
     void shouldSuccessfullyConsumeAndProcessTransactionCreatedEvent() {
         // Given
-        doNothing().when(antiFraudService).validateTransaction(any(TransactionCreatedEvent.class));
+        doNothing().when(antiFraudService).validateTransaction(any(ConsumerRecord.class));
 
         // When
         transactionCreatedConsumer.consumeTransactionCreated(event);
@@ -57,7 +63,7 @@ class TransactionCreatedConsumerTest {
     void shouldPropagateExceptionWhenValidationFails() {
         // Given
         RuntimeException exception = new RuntimeException("Validation failed");
-        doThrow(exception).when(antiFraudService).validateTransaction(any(TransactionCreatedEvent.class));
+        doThrow(exception).when(antiFraudService).validateTransaction(any(ConsumerRecord.class));
 
         // When & Then
         RuntimeException thrown = assertThrows(RuntimeException.class, () ->
@@ -72,50 +78,69 @@ class TransactionCreatedConsumerTest {
     @DisplayName("Should call validate transaction with correct event data")
     void shouldCallValidateTransactionWithCorrectEventData() {
         // Given
-        doNothing().when(antiFraudService).validateTransaction(any(TransactionCreatedEvent.class));
+        doNothing().when(antiFraudService).validateTransaction(any(ConsumerRecord.class));
 
         // When
         transactionCreatedConsumer.consumeTransactionCreated(event);
 
         // Then
-        verify(antiFraudService).validateTransaction(argThat(e ->
-                e.getTransactionExternalId().equals(event.getTransactionExternalId()) &&
-                        e.getAccountExternalIdDebit().equals(event.getAccountExternalIdDebit()) &&
-                        e.getAccountExternalIdCredit().equals(event.getAccountExternalIdCredit()) &&
-                        e.getValue().equals(event.getValue())
+        verify(antiFraudService).validateTransaction(argThat((ConsumerRecord<String, TransactionCreatedEvent> r) ->
+                r.value().getTransactionExternalId().equals(event.value().getTransactionExternalId()) &&
+                        r.value().getAccountExternalIdDebit().equals(event.value().getAccountExternalIdDebit()) &&
+                        r.value().getAccountExternalIdCredit().equals(event.value().getAccountExternalIdCredit()) &&
+                        r.value().getValue().equals(event.value().getValue())
         ));
+        verify(partitionStateStore).afterRecord(event);
     }
 
     @Test
     @DisplayName("Should handle multiple consecutive events")
     void shouldHandleMultipleConsecutiveEvents() {
         // Given
-        TransactionCreatedEvent event1 = TransactionCreatedEvent.builder()
+        ConsumerRecord<String, TransactionCreatedEvent> event1 = record(1, TransactionCreatedEvent.builder()
                 .transactionExternalId(UUID.randomUUID())
                 .accountExternalIdDebit(UUID.randomUUID())
                 .accountExternalIdCredit(UUID.randomUUID())
                 .transferTypeId(1)
                 .value(new BigDecimal("100.00"))
-                .build();
+                .build());
 
-        TransactionCreatedEvent event2 = TransactionCreatedEvent.builder()
+        ConsumerRecord<String, TransactionCreatedEvent> event2 = record(2, TransactionCreatedEvent.builder()
                 .transactionExternalId(UUID.randomUUID())
                 .accountExternalIdDebit(UUID.randomUUID())
                 .accountExternalIdCredit(UUID.randomUUID())
                 .transferTypeId(1)
                 .value(new BigDecimal("200.00"))
-                .build();
+                .build());
 
-        doNothing().when(antiFraudService).validateTransaction(any(TransactionCreatedEvent.class));
+        doNothing().when(antiFraudService).validateTransaction(any(ConsumerRecord.class));
 
         // When
         transactionCreatedConsumer.consumeTransactionCreated(event1);
         transactionCreatedConsumer.consumeTransactionCreated(event2);
 
         // Then
-        verify(antiFraudService, times(2)).validateTransaction(any(TransactionCreatedEvent.class));
+        verify(antiFraudService, times(2)).validateTransaction(any(ConsumerRecord.class));
         verify(antiFraudService).validateTransaction(event1);
         verify(antiFraudService).validateTransaction(event2);
     }
-}
 
+    @Test
+    @DisplayName("Should not validate records replayed into the partition state")
+    void shouldSkipReplayedRecords() {
+        // Given
+        when(partitionStateStore.replayed(event)).thenReturn(true);
+
+        // When
+        transactionCreatedConsumer.consumeTransactionCreated(event);
+
+        // Then
+        verifyNoInteractions(antiFraudService);
+        verify(partitionStateStore, never()).afterRecord(any());
+    }
+
+    private static ConsumerRecord<String, TransactionCreatedEvent> record(long offset, TransactionCreatedEvent event) {
+        return new ConsumerRecord<>(KafkaTopics.TRANSACTION_CREATED, 0, offset,
+                event.getTransactionExternalId().toString(), event);
+    }
+}
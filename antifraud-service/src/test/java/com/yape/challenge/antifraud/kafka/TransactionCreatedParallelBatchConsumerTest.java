@@ -0,0 +1,174 @@
+package com.yape.challenge.antifraud.kafka;
+
+import com.yape.challenge.antifraud.rules.FraudDecision;
+import com.yape.challenge.antifraud.service.AntiFraudService;
+import com.yape.challenge.antifraud.state.PartitionStateStore;
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.dto.TransactionStatus;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Transaction Created Parallel Batch Consumer Tests")
+class TransactionCreatedParallelBatchConsumerTest {
+
+    private static final FraudDecision APPROVED = new FraudDecision(TransactionStatus.APPROVED, List.of());
+
+    @Mock
+    private AntiFraudService antiFraudService;
+
+    @Mock
+    private PartitionStateStore partitionStateStore;
+
+    private TransactionCreatedParallelBatchConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new TransactionCreatedParallelBatchConsumer(antiFraudService, partitionStateStore, 4,
+                Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        consumer.destroy();
+    }
+
+    @Test
+    @DisplayName("Should evaluate each account in offset order and send every verdict of the batch")
+    void shouldEvaluateAccountsInOrderAndSendAll() throws Exception {
+        // Given
+        List<UUID> accounts = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        List<ConsumerRecord<String, TransactionCreatedEvent>> records = new ArrayList<>();
+        for (int offset = 0; offset < 60; offset++) {
+            records.add(record(offset % 2, offset, accounts.get(offset % accounts.size())));
+        }
+        Map<UUID, List<Long>> evaluated = new ConcurrentHashMap<>();
+        when(antiFraudService.evaluate(any())).thenAnswer(invocation -> {
+            ConsumerRecord<String, TransactionCreatedEvent> record = invocation.getArgument(0);
+            evaluated.computeIfAbsent(record.value().getAccountExternalIdDebit(),
+                    account -> Collections.synchronizedList(new ArrayList<>())).add(record.offset());
+            return APPROVED;
+        });
+        when(antiFraudService.send(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        consumer.consumeTransactionCreatedBatch(records);
+
+        // Then
+        verify(antiFraudService, times(60)).send(any(), any());
+        evaluated.values().forEach(offsets -> assertEquals(offsets.stream().sorted().toList(), offsets));
+        assertEquals(60, evaluated.values().stream().mapToInt(List::size).sum());
+        verify(partitionStateStore).afterRecord(records.get(58));
+        verify(partitionStateStore).afterRecord(records.get(59));
+    }
+
+    @Test
+    @DisplayName("Should fail the batch without checkpointing when a verdict is not acknowledged")
+    void shouldFailBatchWhenSendFails() {
+        // Given
+        List<ConsumerRecord<String, TransactionCreatedEvent>> records =
+                List.of(record(0, 0, UUID.randomUUID()), record(0, 1, UUID.randomUUID()));
+        when(antiFraudService.evaluate(any())).thenReturn(APPROVED);
+        when(antiFraudService.send(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> consumer.consumeTransactionCreatedBatch(records));
+        verify(partitionStateStore, never()).afterRecord(any());
+    }
+
+    @Test
+    @DisplayName("Should neither evaluate nor send records replayed into the partition state")
+    void shouldSkipReplayedRecords() throws Exception {
+        // Given
+        ConsumerRecord<String, TransactionCreatedEvent> replayed = record(0, 0, UUID.randomUUID());
+        ConsumerRecord<String, TransactionCreatedEvent> live = record(0, 1, UUID.randomUUID());
+        when(partitionStateStore.replayed(replayed)).thenReturn(true);
+        when(antiFraudService.evaluate(live)).thenReturn(APPROVED);
+        when(antiFraudService.send(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        consumer.consumeTransactionCreatedBatch(List.of(replayed, live));
+
+        // Then
+        verify(antiFraudService, never()).evaluate(replayed);
+        verify(antiFraudService).send(live.value(), APPROVED);
+        verify(partitionStateStore).afterRecord(live);
+    }
+
+    @Test
+    @DisplayName("Should publish the verdicts before a record that fails evaluation and report that record")
+    void shouldReportRecordThatFailsEvaluation() {
+        // Given
+        UUID account = UUID.randomUUID();
+        ConsumerRecord<String, TransactionCreatedEvent> first = record(0, 0, account);
+        ConsumerRecord<String, TransactionCreatedEvent> poison = record(0, 1, account);
+        ConsumerRecord<String, TransactionCreatedEvent> after = record(0, 2, account);
+        when(antiFraudService.evaluate(first)).thenReturn(APPROVED);
+        when(antiFraudService.evaluate(poison)).thenThrow(new IllegalStateException("boom"));
+        when(antiFraudService.send(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        BatchListenerFailedException failure = assertThrows(BatchListenerFailedException.class,
+                () -> consumer.consumeTransactionCreatedBatch(List.of(first, poison, after)));
+
+        // Then
+        assertSame(poison, failure.getRecord());
+        verify(antiFraudService).send(first.value(), APPROVED);
+        verify(antiFraudService, never()).evaluate(after);
+        verify(partitionStateStore).afterRecord(first);
+    }
+
+    @Test
+    @DisplayName("Should skip records without a value")
+    void shouldSkipRecordsWithoutValue() throws Exception {
+        // Given
+        ConsumerRecord<String, TransactionCreatedEvent> empty =
+                new ConsumerRecord<>(KafkaTopics.TRANSACTION_CREATED, 0, 0L, "key", null);
+        ConsumerRecord<String, TransactionCreatedEvent> live = record(0, 1, UUID.randomUUID());
+        when(antiFraudService.evaluate(live)).thenReturn(APPROVED);
+        when(antiFraudService.send(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        consumer.consumeTransactionCreatedBatch(List.of(empty, live));
+
+        // Then
+        verify(antiFraudService, never()).evaluate(empty);
+        verify(antiFraudService).send(live.value(), APPROVED);
+    }
+
+    private static ConsumerRecord<String, TransactionCreatedEvent> record(int partition, long offset, UUID debit) {
+        TransactionCreatedEvent event = TransactionCreatedEvent.builder()
+                .transactionExternalId(UUID.randomUUID())
+                .accountExternalIdDebit(debit)
+                .accountExternalIdCredit(UUID.randomUUID())
+                .transferTypeId(1)
+                .value(new BigDecimal("100.00"))
+                .build();
+        return new ConsumerRecord<>(KafkaTopics.TRANSACTION_CREATED, partition, offset,
+                event.getTransactionExternalId().toString(), event);
+    }
+}
@@ -0,0 +1,219 @@
+package com.yape.challenge.antifraud.rules;
+
+import com.yape.challenge.antifraud.rules.FraudRuleProperties.AccountSide;
+import com.yape.challenge.antifraud.rules.FraudRuleProperties.RuleAction;
+import com.yape.challenge.antifraud.rules.FraudRuleProperties.RuleDefinition;
+import com.yape.challenge.antifraud.rules.FraudRuleProperties.RuleType;
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.dto.TransactionStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Fraud Rule Engine Tests")
+class FraudRuleEngineTest {
+
+    private static final UUID TRUSTED = UUID.fromString("11111111-1111-1111-1111-111111111111");
+    private static final UUID BLOCKED = UUID.fromString("22222222-2222-2222-2222-222222222222");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Should keep the original value limit when no rules are configured")
+    void shouldApplyDefaultValueLimit() {
+        // Given
+        FraudRuleEngine engine = new FraudRuleEngine(new FraudRuleProperties().getRules(), meterRegistry);
+
+        // When & Then
+        assertEquals(TransactionStatus.APPROVED, engine.evaluate(event(1, "1000.00", null, null)).status());
+        FraudDecision rejected = engine.evaluate(event(1, "1000.01", null, null));
+        assertEquals(TransactionStatus.REJECTED, rejected.status());
+        assertEquals(List.of("value-limit"), rejected.firedRuleIds());
+    }
+
+    @Test
+    @DisplayName("Should use the threshold of the transfer type and the default for the others")
+    void shouldApplyThresholdPerTransferType() {
+        // Given
+        RuleDefinition limit = rule("value-limit", RuleType.VALUE_ABOVE);
+        limit.setThreshold(new BigDecimal("1000"));
+        limit.setThresholds(Map.of(2, new BigDecimal("5000")));
+        FraudRuleEngine engine = new FraudRuleEngine(List.of(limit), meterRegistry);
+
+        // When & Then
+        assertEquals(TransactionStatus.REJECTED, engine.evaluate(event(1, "1500", null, null)).status());
+        assertEquals(TransactionStatus.APPROVED, engine.evaluate(event(2, "1500", null, null)).status());
+        assertEquals(TransactionStatus.REJECTED, engine.evaluate(event(2, "5000.5", null, null)).status());
+    }
+
+    @Test
+    @DisplayName("Should let the first fired rule decide and report every fired rule")
+    void shouldDecideByFirstFiredRule() {
+        // Given
+        RuleDefinition allow = rule("trusted-debit", RuleType.ACCOUNT_IN);
+        allow.setAction(RuleAction.APPROVE);
+        allow.setSide(AccountSide.DEBIT);
+        allow.setAccounts(List.of(TRUSTED));
+        RuleDefinition deny = rule("blocked-accounts", RuleType.ACCOUNT_IN);
+        deny.setAccounts(List.of(BLOCKED));
+        RuleDefinition limit = rule("value-limit", RuleType.VALUE_ABOVE);
+        limit.setThreshold(new BigDecimal("1000"));
+        FraudRuleEngine engine = new FraudRuleEngine(List.of(allow, deny, limit), meterRegistry);
+
+        // When
+        FraudDecision trusted = engine.evaluate(event(1, "5000", TRUSTED, UUID.randomUUID()));
+        FraudDecision blocked = engine.evaluate(event(1, "10", UUID.randomUUID(), BLOCKED));
+        FraudDecision clean = engine.evaluate(event(1, "10", UUID.randomUUID(), UUID.randomUUID()));
+
+        // Then
+        assertEquals(TransactionStatus.APPROVED, trusted.status());
+        assertEquals(List.of("trusted-debit", "value-limit"), trusted.firedRuleIds());
+        assertEquals(TransactionStatus.REJECTED, blocked.status());
+        assertEquals(List.of("blocked-accounts"), blocked.firedRuleIds());
+        assertEquals(TransactionStatus.APPROVED, clean.status());
+        assertTrue(clean.firedRuleIds().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should combine nested rules with all-of, any-of and not")
+    void shouldEvaluateCombinators() {
+        // Given
+        RuleDefinition wire = rule(null, RuleType.TRANSFER_TYPE_IN);
+        wire.setTransferTypes(List.of(3, 4));
+        RuleDefinition over500 = rule(null, RuleType.VALUE_ABOVE);
+        over500.setThreshold(new BigDecimal("500"));
+        RuleDefinition trusted = rule(null, RuleType.ACCOUNT_IN);
+        trusted.setAccounts(List.of(TRUSTED));
+        RuleDefinition notTrusted = rule(null, RuleType.NOT);
+        notTrusted.setRules(List.of(trusted));
+        RuleDefinition largeWire = rule("large-wire", RuleType.ALL_OF);
+        largeWire.setRules(List.of(wire, over500, notTrusted));
+        FraudRuleEngine engine = new FraudRuleEngine(List.of(largeWire), meterRegistry);
+
+        // When & Then
+        assertEquals(TransactionStatus.REJECTED, engine.evaluate(event(3, "600", null, null)).status());
+        assertEquals(TransactionStatus.APPROVED, engine.evaluate(event(1, "600", null, null)).status());
+        assertEquals(TransactionStatus.APPROVED, engine.evaluate(event(4, "400", null, null)).status());
+        assertEquals(TransactionStatus.APPROVED, engine.evaluate(event(4, "600", TRUSTED, null)).status());
+    }
+
+    @Test
+    @DisplayName("Should reject a burst from one debit account until the window slides past it")
+    void shouldApplyVelocityPerDebitAccount() {
+        // Given
+        RuleDefinition burst = rule("velocity-burst", RuleType.VELOCITY);
+        burst.setWindow(Duration.ofMinutes(1));
+        burst.setMaxCount(3L);
+        RuleDefinition daily = rule("velocity-daily", RuleType.VELOCITY);
+        daily.setWindow(Duration.ofHours(24));
+        daily.setMaxAmount(new BigDecimal("100"));
+        AtomicLong clock = new AtomicLong(1_000_000);
+        FraudRuleEngine engine = new FraudRuleEngine(List.of(burst, daily), 12, clock::get, meterRegistry);
+        UUID account = UUID.randomUUID();
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            assertEquals(TransactionStatus.APPROVED, engine.evaluate(event(1, "10", account, null)).status());
+        }
+        FraudDecision fourth = engine.evaluate(event(1, "10", account, null));
+        FraudDecision otherAccount = engine.evaluate(event(1, "10", UUID.randomUUID(), null));
+        clock.addAndGet(Duration.ofMinutes(2).toMillis());
+        FraudDecision afterMinute = engine.evaluate(event(1, "10", account, null));
+        FraudDecision overDaily = engine.evaluate(event(1, "50.01", account, null));
+
+        // Then
+        assertEquals(List.of("velocity-burst"), fourth.firedRuleIds());
+        assertEquals(TransactionStatus.APPROVED, otherAccount.status());
+        assertEquals(TransactionStatus.APPROVED, afterMinute.status());
+        assertEquals(List.of("velocity-daily"), overDaily.firedRuleIds());
+        assertEquals(TransactionStatus.APPROVED, engine.evaluate(event(1, "500", null, null)).status());
+    }
+
+    @Test
+    @DisplayName("Should time every rule and count the ones that fire")
+    void shouldMeasureRules() {
+        // Given
+        FraudRuleEngine engine = new FraudRuleEngine(new FraudRuleProperties().getRules(), meterRegistry);
+
+        // When
+        engine.evaluate(event(1, "10", null, null));
+        engine.evaluate(event(1, "2000", null, null));
+
+        // Then
+        assertEquals(2, meterRegistry.get("antifraud.rule.evaluation").tag("rule", "value-limit").timer().count());
+        assertEquals(1, meterRegistry.get("antifraud.rule.fired").tag("rule", "value-limit").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid definitions at load time")
+    void shouldRejectInvalidDefinitions() {
+        RuleDefinition noThreshold = rule("value-limit", RuleType.VALUE_ABOVE);
+        RuleDefinition noId = rule(null, RuleType.VALUE_ABOVE);
+        noId.setThreshold(BigDecimal.ONE);
+        RuleDefinition emptyNot = rule("empty", RuleType.NOT);
+        RuleDefinition noWindow = rule("velocity", RuleType.VELOCITY);
+        noWindow.setMaxCount(1L);
+        RuleDefinition noLimit = rule("velocity", RuleType.VELOCITY);
+        noLimit.setWindow(Duration.ofMinutes(1));
+
+        assertThrows(IllegalArgumentException.class, () -> new FraudRuleEngine(List.of(noThreshold), meterRegistry));
+        assertThrows(IllegalArgumentException.class, () -> new FraudRuleEngine(List.of(noId), meterRegistry));
+        assertThrows(IllegalArgumentException.class, () -> new FraudRuleEngine(List.of(emptyNot), meterRegistry));
+        assertThrows(IllegalArgumentException.class, () -> new FraudRuleEngine(List.of(noWindow), meterRegistry));
+        assertThrows(IllegalArgumentException.class, () -> new FraudRuleEngine(List.of(noLimit), meterRegistry));
+    }
+
+    @Test
+    @DisplayName("Should bind rules declared in configuration")
+    void shouldBindRulesFromConfiguration() {
+        // Given
+        Map<String, String> properties = Map.of(
+                "app.antifraud.rules[0].id", "blocked",
+                "app.antifraud.rules[0].type", "account-in",
+                "app.antifraud.rules[0].side", "credit",
+                "app.antifraud.rules[0].accounts[0]", BLOCKED.toString(),
+                "app.antifraud.rules[1].id", "value-limit",
+                "app.antifraud.rules[1].type", "value-above",
+                "app.antifraud.rules[1].thresholds[7]", "50");
+
+        // When
+        FraudRuleProperties bound = new Binder(new MapConfigurationPropertySource(properties))
+                .bind("app.antifraud", FraudRuleProperties.class)
+                .get();
+        FraudRuleEngine engine = new FraudRuleEngine(bound.getRules(), meterRegistry);
+
+        // Then
+        assertEquals(List.of("blocked", "value-limit"), engine.ruleIds());
+        assertEquals(List.of("blocked"), engine.evaluate(event(1, "10", null, BLOCKED)).firedRuleIds());
+        assertEquals(List.of("value-limit"), engine.evaluate(event(7, "60", null, null)).firedRuleIds());
+        assertTrue(engine.evaluate(event(1, "60", BLOCKED, null)).firedRuleIds().isEmpty());
+    }
+
+    private static RuleDefinition rule(String id, RuleType type) {
+        RuleDefinition rule = new RuleDefinition();
+        rule.setId(id);
+        rule.setType(type);
+        return rule;
+    }
+
+    private static TransactionCreatedEvent event(int transferTypeId, String value, UUID debit, UUID credit) {
+        return TransactionCreatedEvent.builder()
+                .transactionExternalId(UUID.randomUUID())
+                .accountExternalIdDebit(debit)
+                .accountExternalIdCredit(credit)
+                .transferTypeId(transferTypeId)
+                .value(new BigDecimal(value))
+                .build();
+    }
+}
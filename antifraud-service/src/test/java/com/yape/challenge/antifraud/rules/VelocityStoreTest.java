@@ -0,0 +1,129 @@
+package com.yape.challenge.antifraud.rules;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Velocity Store Tests")
+class VelocityStoreTest {
+
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+
+    @Test
+    @DisplayName("Should drop transfers bucket by bucket as the window slides")
+    void shouldSlideBucketByBucket() {
+        // Given
+        VelocityStore store = new VelocityStore(List.of(MINUTE), 6);
+        UUID account = UUID.randomUUID();
+        FraudFacts facts = new FraudFacts();
+
+        // When
+        record(store, 0, -1, 0, account, facts, 100);
+        record(store, 0, -1, 30_000, account, facts, 200);
+        long[] atHalf = {facts.windowCounts[0], facts.windowAmountCents[0]};
+        record(store, 0, -1, 60_000, account, facts, 300);
+        long[] afterFirstExpired = {facts.windowCounts[0], facts.windowAmountCents[0]};
+
+        // Then
+        assertArrayEquals(new long[]{2, 300}, atHalf);
+        assertArrayEquals(new long[]{2, 500}, afterFirstExpired);
+    }
+
+    @Test
+    @DisplayName("Should count every concurrent transfer and sweep idle accounts")
+    void shouldCountConcurrentTransfersAndSweepIdleAccounts() throws Exception {
+        // Given
+        VelocityStore store = new VelocityStore(List.of(MINUTE, Duration.ofHours(1)), 12);
+        UUID account = UUID.randomUUID();
+        int threads = 8;
+        int perThread = 1000;
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    FraudFacts facts = new FraudFacts();
+                    for (int i = 0; i < perThread; i++) {
+                        record(store, VelocityStore.NO_PARTITION, -1, 1_000, account, facts, 1);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        FraudFacts facts = new FraudFacts();
+        record(store, VelocityStore.NO_PARTITION, -1, 1_000, account, facts, 1);
+        record(store, VelocityStore.NO_PARTITION, -1, Duration.ofHours(3).toMillis(), UUID.randomUUID(),
+                new FraudFacts(), 1);
+
+        // Then
+        assertEquals(threads * perThread + 1, facts.windowCounts[0]);
+        assertEquals(threads * perThread + 1, facts.windowAmountCents[1]);
+        assertEquals(1, store.accounts());
+    }
+
+    @Test
+    @DisplayName("Should read redelivered records without adding them twice")
+    void shouldNotAddRedeliveredRecords() {
+        // Given
+        VelocityStore store = new VelocityStore(List.of(MINUTE), 12);
+        UUID account = UUID.randomUUID();
+        FraudFacts facts = new FraudFacts();
+        record(store, 2, 10, 1_000, account, facts, 100);
+        record(store, 2, 11, 2_000, account, facts, 100);
+
+        // When
+        record(store, 2, 10, 1_000, account, facts, 100);
+
+        // Then
+        assertEquals(2, facts.windowCounts[0]);
+        assertEquals(12, store.nextOffset(2));
+        assertEquals(-1, store.nextOffset(3));
+    }
+
+    @Test
+    @DisplayName("Should restore a partition from its checkpoint and refuse one of other windows")
+    void shouldRestoreCheckpoint() {
+        // Given
+        VelocityStore store = new VelocityStore(List.of(MINUTE, Duration.ofHours(1)), 12);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        FraudFacts facts = new FraudFacts();
+        record(store, 1, 0, 1_000, first, facts, 100);
+        record(store, 1, 1, 2_000, first, facts, 250);
+        record(store, 1, 2, 3_000, second, facts, 50);
+        ByteBuffer checkpoint = ByteBuffer.allocate(store.checkpointSize(1));
+        store.checkpointTo(1, checkpoint);
+
+        // When
+        VelocityStore restored = new VelocityStore(List.of(MINUTE, Duration.ofHours(1)), 12);
+        restored.restoreFrom(1, checkpoint.flip());
+        record(restored, 1, 3, 4_000, first, facts, 1);
+
+        // Then
+        assertEquals(4, restored.nextOffset(1));
+        assertEquals(3, facts.windowCounts[0]);
+        assertEquals(351, facts.windowAmountCents[1]);
+        assertThrows(IllegalArgumentException.class, () ->
+                new VelocityStore(List.of(MINUTE), 12).restoreFrom(1, checkpoint.rewind()));
+    }
+
+    private static void record(VelocityStore store, int partition, long offset, long timestamp, UUID account,
+                               FraudFacts facts, long cents) {
+        facts.hasValue = true;
+        facts.valueCents = cents;
+        store.record(partition, offset, timestamp, account, facts);
+    }
+}
@@ -1,16 +1,18 @@
 package com.yape.challenge.antifraud.service;
 
+import com.yape.challenge.antifraud.rules.FraudRuleEngine;
+import com.yape.challenge.antifraud.rules.FraudRuleProperties;
 import com.yape.challenge.common.dto.TransactionCreatedEvent;
 import com.yape.challenge.common.dto.TransactionStatus;
 import com.yape.challenge.common.dto.TransactionStatusEvent;
 import com.yape.challenge.common.kafka.KafkaTopics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -29,7 +31,6 @@ class AntiFraudServiceTest {
     @Mock
     private KafkaTemplate<String, TransactionStatusEvent> kafkaTemplate;
 
-    @InjectMocks
     private AntiFraudService antiFraudService;
 
     @Captor
@@ -45,6 +46,8 @@ class AntiFraudServiceTest {
 
     @BeforeEach
     void setUp() {
+        antiFraudService = new AntiFraudService(kafkaTemplate,
+                new FraudRuleEngine(new FraudRuleProperties().getRules(), new SimpleMeterRegistry()));
         transactionId = UUID.randomUUID();
     }
 
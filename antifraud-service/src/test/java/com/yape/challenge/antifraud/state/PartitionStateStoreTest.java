@@ -0,0 +1,131 @@
+package com.yape.challenge.antifraud.state;
+
+import com.yape.challenge.antifraud.rules.FraudRuleEngine;
+import com.yape.challenge.antifraud.rules.FraudRuleProperties.RuleDefinition;
+import com.yape.challenge.antifraud.rules.FraudRuleProperties.RuleType;
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.dto.TransactionStatus;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Partition State Store Tests")
+class PartitionStateStoreTest {
+
+    private static final UUID ACCOUNT = UUID.randomUUID();
+    private static final TopicPartition PARTITION = new TopicPartition(KafkaTopics.TRANSACTION_CREATED, 1);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Should checkpoint on revoke and replay only the tail after the checkpoint")
+    void shouldRestoreCheckpointAndReplayTail() {
+        // Given
+        FraudRuleEngine engine = engine();
+        PartitionStateStore store = store(engine);
+        store.onPartitionsAssigned(Map.of(PARTITION, 0L), mock(ConsumerSeekCallback.class));
+        for (long offset = 0; offset < 2; offset++) {
+            engine.evaluate(event(), 1, offset, System.currentTimeMillis());
+        }
+        store.onPartitionsRevoked(List.of(PARTITION));
+
+        // When
+        FraudRuleEngine restartedEngine = engine();
+        PartitionStateStore restarted = store(restartedEngine);
+        ConsumerSeekCallback callback = mock(ConsumerSeekCallback.class);
+        restarted.onPartitionsAssigned(Map.of(PARTITION, 3L), callback);
+        boolean tailReplayed = restarted.replayed(record(2));
+        boolean liveReplayed = restarted.replayed(record(3));
+        TransactionStatus fourth = restartedEngine.evaluate(event(), 1, 3, System.currentTimeMillis()).status();
+
+        // Then
+        assertTrue(Files.exists(directory.resolve(KafkaTopics.TRANSACTION_CREATED + "-1.velocity")));
+        verify(callback).seek(KafkaTopics.TRANSACTION_CREATED, 1, 2L);
+        assertTrue(tailReplayed);
+        assertFalse(liveReplayed);
+        assertEquals(TransactionStatus.REJECTED, fourth);
+        assertEquals(4, restartedEngine.velocityStore().nextOffset(1));
+    }
+
+    @Test
+    @DisplayName("Should start empty without seeking when the checkpoint is unusable")
+    void shouldDiscardCorruptCheckpoint() throws Exception {
+        // Given
+        Files.write(directory.resolve(KafkaTopics.TRANSACTION_CREATED + "-1.velocity"), new byte[]{1, 2, 3});
+        FraudRuleEngine engine = engine();
+        PartitionStateStore store = store(engine);
+        ConsumerSeekCallback callback = mock(ConsumerSeekCallback.class);
+
+        // When
+        store.onPartitionsAssigned(Map.of(PARTITION, 5L), callback);
+
+        // Then
+        verifyNoInteractions(callback);
+        assertEquals(-1, engine.velocityStore().nextOffset(1));
+        assertFalse(store.replayed(record(5)));
+    }
+
+    @Test
+    @DisplayName("Should count records that are not keyed by their debit account")
+    void shouldCountMisKeyedRecords() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PartitionStateStore store = new PartitionStateStore(engine(), meterRegistry, true, directory,
+                Duration.ofMinutes(1));
+        TransactionCreatedEvent event = event();
+
+        // When
+        store.replayed(record(0));
+        store.replayed(new ConsumerRecord<>(KafkaTopics.TRANSACTION_CREATED, 1, 1,
+                event.getTransactionExternalId().toString(), event));
+
+        // Then
+        assertEquals(1.0, meterRegistry.counter("antifraud.state.mis-keyed").count());
+    }
+
+    private PartitionStateStore store(FraudRuleEngine engine) {
+        return new PartitionStateStore(engine, new SimpleMeterRegistry(), true, directory, Duration.ofMinutes(1));
+    }
+
+    /**
+     * Rejects the fourth transfer of an account within a minute
+     */
+    private static FraudRuleEngine engine() {
+        RuleDefinition burst = new RuleDefinition();
+        burst.setId("velocity-burst");
+        burst.setType(RuleType.VELOCITY);
+        burst.setWindow(Duration.ofMinutes(1));
+        burst.setMaxCount(3L);
+        return new FraudRuleEngine(List.of(burst), 12, System::currentTimeMillis, new SimpleMeterRegistry());
+    }
+
+    private static ConsumerRecord<String, TransactionCreatedEvent> record(long offset) {
+        return new ConsumerRecord<>(KafkaTopics.TRANSACTION_CREATED, 1, offset, ACCOUNT.toString(), event());
+    }
+
+    private static TransactionCreatedEvent event() {
+        return TransactionCreatedEvent.builder()
+                .transactionExternalId(UUID.randomUUID())
+                .accountExternalIdDebit(ACCOUNT)
+                .transferTypeId(1)
+                .value(BigDecimal.TEN)
+                .build();
+    }
+}
@@ -5,6 +5,11 @@ public class KafkaTopics {
     public static final String TRANSACTION_CREATED = "transaction-created";
     public static final String TRANSACTION_STATUS_UPDATED = "transaction-status-updated";
 
+    public static final String RETRY_SUFFIX = "-retry";
+    public static final String DLT_SUFFIX = "-dlt";
+    public static final String TRANSACTION_CREATED_DLT = TRANSACTION_CREATED + DLT_SUFFIX;
+    public static final String TRANSACTION_STATUS_UPDATED_DLT = TRANSACTION_STATUS_UPDATED + DLT_SUFFIX;
+
     private KafkaTopics() {
         throw new IllegalStateException("Constants class");
     }
@@ -0,0 +1,33 @@
+package com.yape.challenge.common.kafka;
+
+/**
+ * Listener container concurrency derived from the partitions an instance is expected to own
+ * Consumers beyond the assigned partition count would sit idle, and more consumers than
+ * the cores can serve only add context switching, so the result is
+ * min(ceil(partitions / instances), cores * consumersPerCore), at least 1.
+ */
+public final class ListenerConcurrency {
+
+    private ListenerConcurrency() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param configured       Explicit concurrency, used as is when greater than 0
+     * @param partitions       Partition count of the consumed topic
+     * @param instances        Instances expected to share the consumer group
+     * @param consumersPerCore Consumers allowed per available core
+     */
+    public static int derive(int configured, int partitions, int instances, int consumersPerCore) {
+        return derive(configured, partitions, instances, consumersPerCore, Runtime.getRuntime().availableProcessors());
+    }
+
+    static int derive(int configured, int partitions, int instances, int consumersPerCore, int cores) {
+        if (configured > 0) {
+            return configured;
+        }
+        int assigned = Math.ceilDiv(Math.max(partitions, 1), Math.max(instances, 1));
+        int coreLimit = Math.max(1, cores * Math.max(consumersPerCore, 1));
+        return Math.max(1, Math.min(assigned, coreLimit));
+    }
+}
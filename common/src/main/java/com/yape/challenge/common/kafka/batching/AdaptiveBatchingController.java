@@ -0,0 +1,246 @@
+package com.yape.challenge.common.kafka.batching;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tunes linger.ms, batch.size and compression of a producer at runtime
+ * Registered as the KafkaTemplate's producer interceptor to observe the send rate and the latency
+ * from record creation to broker ack. Every adjustInterval the BatchingPolicy moves a target; when it
+ * differs enough from the applied values the producer factory is updated and reset, so the next send
+ * creates a producer with the new configuration while the old one is flushed and closed. Resets are
+ * at least minResetInterval apart and only happen once no send is waiting for its ack (for up to
+ * idleWait); otherwise the change is deferred to a later interval.
+ *
+ * @param <K> Record key type
+ * @param <V> Record value type
+ */
+@Slf4j
+public class AdaptiveBatchingController<K, V> implements ProducerInterceptor<K, V>, SmartLifecycle {
+
+    private final DefaultKafkaProducerFactory<K, V> producerFactory;
+    private final KafkaTemplate<K, V> kafkaTemplate;
+    private final AdaptiveBatchingSettings settings;
+    private final BatchingPolicy policy;
+    private final Timer ackLatency;
+    private final LongAdder sends = new LongAdder();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final Counter resetsApplied;
+    private final Counter resetsDeferred;
+
+    private volatile BatchingDecision current;
+    private BatchingDecision target;
+    private long lastResetNanos;
+    private volatile double lastSendRate;
+    private long lastAdjustNanos = System.nanoTime();
+    private ScheduledExecutorService scheduler;
+
+    public AdaptiveBatchingController(String name,
+                                      DefaultKafkaProducerFactory<K, V> producerFactory,
+                                      KafkaTemplate<K, V> kafkaTemplate,
+                                      MeterRegistry meterRegistry,
+                                      AdaptiveBatchingSettings settings) {
+        this.producerFactory = producerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.settings = settings;
+        this.policy = new BatchingPolicy(settings);
+        this.current = policy.initial();
+        this.target = current;
+        this.lastResetNanos = System.nanoTime() - settings.getMinResetInterval().toNanos();
+        this.ackLatency = Timer.builder("kafka.producer.adaptive.ack.latency")
+                .tag("producer", name)
+                .description("Time from record creation to broker ack")
+                .publishPercentiles(0.99)
+                .distributionStatisticExpiry(settings.getAdjustInterval())
+                .distributionStatisticBufferLength(1)
+                .register(meterRegistry);
+        Gauge.builder("kafka.producer.adaptive.linger.ms", this, c -> c.current.lingerMs())
+                .tag("producer", name).register(meterRegistry);
+        Gauge.builder("kafka.producer.adaptive.batch.size", this, c -> c.current.batchSize())
+                .tag("producer", name).baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("kafka.producer.adaptive.batch.fill", this, AdaptiveBatchingController::batchFill)
+                .tag("producer", name).description("Average batch size divided by batch.size").register(meterRegistry);
+        Gauge.builder("kafka.producer.adaptive.send.rate", this, c -> c.lastSendRate)
+                .tag("producer", name).description("Records per second over the last interval").register(meterRegistry);
+        this.resetsApplied = outcome(meterRegistry, name, "applied");
+        this.resetsDeferred = outcome(meterRegistry, name, "deferred");
+
+        kafkaTemplate.setProducerInterceptor(this);
+        apply(current);
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String name, String outcome) {
+        return Counter.builder("kafka.producer.adaptive.resets")
+                .tag("producer", name)
+                .tag("outcome", outcome)
+                .description("Producer reconfigurations, applied or deferred while sends were in flight")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ProducerRecord<K, V> onSend(ProducerRecord<K, V> record) {
+        sends.increment();
+        inFlight.incrementAndGet();
+        return record;
+    }
+
+    @Override
+    public void onAcknowledgement(RecordMetadata metadata, Exception exception) {
+        // Called once per send, acknowledged or failed
+        inFlight.updateAndGet(count -> Math.max(0, count - 1));
+        if (exception == null && metadata != null && metadata.hasTimestamp()) {
+            long latency = System.currentTimeMillis() - metadata.timestamp();
+            if (latency >= 0) {
+                ackLatency.record(latency, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+
+    /**
+     * Evaluate the last interval and reconfigure the producer if needed
+     */
+    public synchronized void adjust() throws InterruptedException {
+        long now = System.nanoTime();
+        double seconds = Math.max((now - lastAdjustNanos) / 1e9, 0.001);
+        lastAdjustNanos = now;
+        lastSendRate = sends.sumThenReset() / seconds;
+
+        target = policy.next(target, lastSendRate, p99Millis(), producerMetric("record-size-avg"));
+        if (!policy.isSignificant(current, target)
+                || now - lastResetNanos < settings.getMinResetInterval().toNanos()) {
+            return;
+        }
+        if (!awaitIdle()) {
+            resetsDeferred.increment();
+            log.debug("Deferring producer batching change {} -> {}: {} sends in flight", current, target, inFlight.get());
+            return;
+        }
+        log.info("Reconfiguring producer batching at {} records/s: {} -> {}",
+                String.format("%.1f", lastSendRate), current, target);
+        apply(target);
+        producerFactory.reset();
+        lastResetNanos = System.nanoTime();
+        resetsApplied.increment();
+    }
+
+    /**
+     * Wait up to idleWait for every send to be acknowledged, so a reset never closes a producer under one
+     */
+    private boolean awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + settings.getIdleWait().toNanos();
+        while (inFlight.get() > 0) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    public BatchingDecision getCurrent() {
+        return current;
+    }
+
+    /**
+     * Average batch size reported by the producer relative to the configured batch.size
+     */
+    public double batchFill() {
+        double average = producerMetric("batch-size-avg");
+        return average > 0 ? average / current.batchSize() : 0;
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofVirtual().name("adaptive-batching").factory());
+        long interval = settings.getAdjustInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::adjustSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private void adjustSafely() {
+        try {
+            adjust();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Adaptive batching adjustment failed: {}", e.getMessage());
+        }
+    }
+
+    private void apply(BatchingDecision decision) {
+        producerFactory.updateConfigs(Map.of(
+                ProducerConfig.LINGER_MS_CONFIG, decision.lingerMs(),
+                ProducerConfig.BATCH_SIZE_CONFIG, decision.batchSize(),
+                ProducerConfig.COMPRESSION_TYPE_CONFIG, decision.compressionType()));
+        current = decision;
+    }
+
+    private double p99Millis() {
+        HistogramSnapshot snapshot = ackLatency.takeSnapshot();
+        if (snapshot.count() == 0) {
+            return Double.NaN;
+        }
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            if (percentile.percentile() == 0.99) {
+                return percentile.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return snapshot.max(TimeUnit.MILLISECONDS);
+    }
+
+    private double producerMetric(String name) {
+        try {
+            for (Map.Entry<MetricName, ? extends Metric> entry : kafkaTemplate.metrics().entrySet()) {
+                if (entry.getKey().name().equals(name) && "producer-metrics".equals(entry.getKey().group())
+                        && entry.getValue().metricValue() instanceof Double value && !value.isNaN()) {
+                    return value;
+                }
+            }
+        } catch (Exception e) {
+            log.debug("Producer metric {} unavailable: {}", name, e.getMessage());
+        }
+        return 0;
+    }
+}
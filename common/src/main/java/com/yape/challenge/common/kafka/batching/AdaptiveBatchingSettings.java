@@ -0,0 +1,71 @@
+package com.yape.challenge.common.kafka.batching;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Bounds and targets for the AdaptiveBatchingController
+ */
+@Getter
+@Builder
+public class AdaptiveBatchingSettings {
+
+    /**
+     * Send latency (record creation to broker ack) the controller keeps the p99 under
+     */
+    @Builder.Default
+    private final Duration targetP99 = Duration.ofMillis(50);
+
+    /**
+     * How often the send rate and latency are evaluated
+     */
+    @Builder.Default
+    private final Duration adjustInterval = Duration.ofSeconds(10);
+
+    /**
+     * Below this rate (records/s) batching is disabled: linger 0, minimum batch size, no compression
+     */
+    @Builder.Default
+    private final double quietRate = 50;
+
+    @Builder.Default
+    private final int maxLingerMs = 20;
+
+    @Builder.Default
+    private final int minBatchSize = 16 * 1024;
+
+    @Builder.Default
+    private final int maxBatchSize = 256 * 1024;
+
+    /**
+     * Compression applied while batching under load
+     */
+    @Builder.Default
+    private final String loadCompressionType = "lz4";
+
+    /**
+     * Relative change of the batch size below which the producer is not reconfigured
+     */
+    @Builder.Default
+    private final double hysteresis = 0.25;
+
+    /**
+     * Change of linger.ms below which the producer is not reconfigured
+     */
+    @Builder.Default
+    private final int lingerHysteresisMs = 3;
+
+    /**
+     * Minimum time between two producer resets
+     */
+    @Builder.Default
+    private final Duration minResetInterval = Duration.ofMinutes(1);
+
+    /**
+     * How long a reset waits for in-flight sends to be acknowledged before it is deferred
+     */
+    @Builder.Default
+    private final Duration idleWait = Duration.ofMillis(100);
+}
@@ -0,0 +1,11 @@
+package com.yape.challenge.common.kafka.batching;
+
+/**
+ * Producer batching values chosen by the BatchingPolicy
+ *
+ * @param lingerMs        linger.ms
+ * @param batchSize       batch.size in bytes
+ * @param compressionType compression.type
+ */
+public record BatchingDecision(int lingerMs, int batchSize, String compressionType) {
+}
@@ -0,0 +1,65 @@
+package com.yape.challenge.common.kafka.batching;
+
+/**
+ * Decides producer linger, batch size and compression from the observed send rate and p99 latency
+ * Linger grows additively while the p99 stays under target and halves when it goes over
+ * (AIMD); the batch size follows the number of bytes expected to arrive within one linger period.
+ */
+public class BatchingPolicy {
+
+    private final AdaptiveBatchingSettings settings;
+
+    public BatchingPolicy(AdaptiveBatchingSettings settings) {
+        this.settings = settings;
+    }
+
+    public BatchingDecision initial() {
+        return new BatchingDecision(0, settings.getMinBatchSize(), "none");
+    }
+
+    /**
+     * @param current        Decision currently applied to the producer
+     * @param sendRate       Records per second over the last interval
+     * @param p99Millis      p99 send latency over the last interval, NaN when nothing was sent
+     * @param avgRecordBytes Average serialized record size, 0 when unknown
+     */
+    public BatchingDecision next(BatchingDecision current, double sendRate, double p99Millis, double avgRecordBytes) {
+        if (sendRate < settings.getQuietRate()) {
+            return initial();
+        }
+
+        double target = settings.getTargetP99().toMillis();
+        int linger = current.lingerMs();
+        if (!Double.isNaN(p99Millis) && p99Millis > target) {
+            linger = linger / 2;
+        } else if (Double.isNaN(p99Millis) || p99Millis + linger + 1 < target) {
+            linger = Math.min(settings.getMaxLingerMs(), linger + 1);
+        }
+
+        double recordBytes = avgRecordBytes > 0 ? avgRecordBytes : 512;
+        // Records expected per batch, with room for bursts; a full batch is sent before linger expires
+        double expectedBytes = sendRate * Math.max(linger, 1) / 1000.0 * recordBytes * 2;
+        int batchSize = clamp(Integer.highestOneBit((int) Math.min(expectedBytes, Integer.MAX_VALUE / 2.0)) << 1,
+                settings.getMinBatchSize(), settings.getMaxBatchSize());
+
+        String compression = linger > 0 ? settings.getLoadCompressionType() : "none";
+        return new BatchingDecision(linger, batchSize, compression);
+    }
+
+    /**
+     * Whether the change from current to next is worth recreating the producer
+     * Linger moves in 1 ms steps, so it only counts once it drifted lingerHysteresisMs away;
+     * switching batching on or off always counts, through the compression type.
+     */
+    public boolean isSignificant(BatchingDecision current, BatchingDecision next) {
+        if (Math.abs(current.lingerMs() - next.lingerMs()) >= settings.getLingerHysteresisMs()
+                || !current.compressionType().equals(next.compressionType())) {
+            return true;
+        }
+        return Math.abs(next.batchSize() - current.batchSize()) > current.batchSize() * settings.getHysteresis();
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
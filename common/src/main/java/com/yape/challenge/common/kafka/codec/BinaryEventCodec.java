@@ -0,0 +1,124 @@
+package com.yape.challenge.common.kafka.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Base class for versioned binary event codecs
+ * Every value starts with a magic byte and the schema version, followed by a fixed field
+ * layout: a presence bitmask and fixed-width slots that are always written (zeroed when
+ * the field is null), so each field sits at a constant offset. Variable-width fields go last.
+ *
+ * @param <T> Event type
+ */
+public abstract class BinaryEventCodec<T> {
+
+    /**
+     * First byte of every binary value; never a valid first byte of a JSON document
+     */
+    public static final byte MAGIC = (byte) 0xB7;
+
+    static final int HEADER_SIZE = 2;
+    static final int UUID_SIZE = 16;
+
+    public abstract Class<T> type();
+
+    /**
+     * Schema version written after the magic byte, bumped on any incompatible layout change
+     */
+    public abstract int schemaVersion();
+
+    /**
+     * Exact payload size in bytes, excluding the magic and version header
+     */
+    protected abstract int payloadSize(T value);
+
+    protected abstract void writePayload(ByteBuffer out, T value);
+
+    protected abstract T readPayload(ByteBuffer in, int version);
+
+    public byte[] encode(T value) {
+        if (value == null) {
+            return null;
+        }
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + payloadSize(value));
+        out.put(MAGIC);
+        out.put((byte) schemaVersion());
+        writePayload(out, value);
+        return out.array();
+    }
+
+    public T decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (!isBinary(bytes)) {
+            throw new SerializationException("Value is not a binary " + type().getSimpleName());
+        }
+        int version = bytes[1] & 0xFF;
+        if (version > schemaVersion()) {
+            throw new SerializationException("Unsupported " + type().getSimpleName() + " schema version: " + version);
+        }
+        try {
+            return readPayload(ByteBuffer.wrap(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE), version);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated binary " + type().getSimpleName(), e);
+        }
+    }
+
+    public static boolean isBinary(byte[] bytes) {
+        return bytes != null && bytes.length >= HEADER_SIZE && bytes[0] == MAGIC;
+    }
+
+    protected static void putUuid(ByteBuffer out, UUID value) {
+        out.putLong(value != null ? value.getMostSignificantBits() : 0L);
+        out.putLong(value != null ? value.getLeastSignificantBits() : 0L);
+    }
+
+    protected static UUID getUuid(ByteBuffer in, boolean present) {
+        long most = in.getLong();
+        long least = in.getLong();
+        return present ? new UUID(most, least) : null;
+    }
+
+    /**
+     * Scale as an int, unscaled value as a length-prefixed two's-complement byte array
+     */
+    protected static int decimalSize(BigDecimal value) {
+        return value == null ? 0 : Integer.BYTES + Short.BYTES + value.unscaledValue().bitLength() / 8 + 1;
+    }
+
+    protected static void putDecimal(ByteBuffer out, BigDecimal value) {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.putInt(value.scale());
+        out.putShort((short) unscaled.length);
+        out.put(unscaled);
+    }
+
+    protected static BigDecimal getDecimal(ByteBuffer in) {
+        int scale = in.getInt();
+        byte[] unscaled = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    protected static <E extends Enum<E>> void putEnum(ByteBuffer out, E value) {
+        out.put(value != null ? (byte) value.ordinal() : 0);
+    }
+
+    protected static <E extends Enum<E>> E getEnum(ByteBuffer in, E[] values, boolean present) {
+        int ordinal = Byte.toUnsignedInt(in.get());
+        if (!present) {
+            return null;
+        }
+        if (ordinal >= values.length) {
+            throw new SerializationException("Unknown enum ordinal: " + ordinal);
+        }
+        return values[ordinal];
+    }
+}
@@ -0,0 +1,29 @@
+package com.yape.challenge.common.kafka.codec;
+
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.dto.TransactionStatusEvent;
+
+import java.util.Map;
+
+/**
+ * Binary codecs for the events exchanged between services, looked up by event type
+ */
+public final class BinaryEventCodecs {
+
+    private static final Map<Class<?>, BinaryEventCodec<?>> CODECS = Map.of(
+            TransactionCreatedEvent.class, new TransactionCreatedEventCodec(),
+            TransactionStatusEvent.class, new TransactionStatusEventCodec());
+
+    private BinaryEventCodecs() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> BinaryEventCodec<T> forType(Class<T> type) {
+        BinaryEventCodec<T> codec = (BinaryEventCodec<T>) CODECS.get(type);
+        if (codec == null) {
+            throw new IllegalArgumentException("No binary codec registered for " + type.getName());
+        }
+        return codec;
+    }
+}
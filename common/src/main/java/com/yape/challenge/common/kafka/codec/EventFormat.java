@@ -0,0 +1,41 @@
+package com.yape.challenge.common.kafka.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Wire formats for Kafka event values
+ * The producer marks every record with the {@link #HEADER} header so consumers can read
+ * both formats while services are rolled from JSON to binary one at a time.
+ */
+public enum EventFormat {
+    JSON,
+    BINARY;
+
+    /**
+     * Record header carrying the format of the value
+     */
+    public static final String HEADER = "event-format";
+
+    /**
+     * Serializer config key selecting the format written by the producer, json by default
+     */
+    public static final String CONFIG = "yape.event.format";
+
+    private final byte[] headerValue = name().toLowerCase().getBytes(StandardCharsets.US_ASCII);
+
+    public byte[] headerValue() {
+        return headerValue.clone();
+    }
+
+    public boolean matches(byte[] value) {
+        return Arrays.equals(headerValue, value);
+    }
+
+    public static EventFormat from(Object configValue) {
+        if (configValue == null || configValue.toString().isBlank()) {
+            return JSON;
+        }
+        return valueOf(configValue.toString().trim().toUpperCase());
+    }
+}
@@ -0,0 +1,84 @@
+package com.yape.challenge.common.kafka.codec;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+
+/**
+ * Kafka value deserializer reading both JSON and binary events
+ * The {@link EventFormat#HEADER} header decides the format; records without it (older
+ * producers) are told apart by the binary magic byte, which never starts a JSON document.
+ * The event type comes from {@link JsonDeserializer#VALUE_DEFAULT_TYPE} and the remaining
+ * JSON settings are passed through to the JSON delegate.
+ *
+ * @param <T> Event type, must have a codec in {@link BinaryEventCodecs}
+ */
+public class FormatDetectingEventDeserializer<T> implements Deserializer<T> {
+
+    private final JsonDeserializer<T> json;
+    private BinaryEventCodec<T> codec;
+
+    public FormatDetectingEventDeserializer() {
+        this.json = new JsonDeserializer<>();
+    }
+
+    /**
+     * Programmatic instance, for use outside a Kafka client configuration
+     */
+    public FormatDetectingEventDeserializer(Class<T> type) {
+        this.json = new JsonDeserializer<>(type, false);
+        this.codec = BinaryEventCodecs.forType(type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object type = configs.get(isKey ? JsonDeserializer.KEY_DEFAULT_TYPE : JsonDeserializer.VALUE_DEFAULT_TYPE);
+        if (type == null) {
+            throw new IllegalStateException("FormatDetectingEventDeserializer requires "
+                    + (isKey ? JsonDeserializer.KEY_DEFAULT_TYPE : JsonDeserializer.VALUE_DEFAULT_TYPE));
+        }
+        this.codec = BinaryEventCodecs.forType((Class<T>) resolve(type));
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return BinaryEventCodec.isBinary(data) ? codec.decode(data) : json.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Header format = headers.lastHeader(EventFormat.HEADER);
+        if (format == null) {
+            return deserialize(topic, data);
+        }
+        return EventFormat.BINARY.matches(format.value()) ? codec.decode(data) : json.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+
+    private static Class<?> resolve(Object type) {
+        if (type instanceof Class<?> clazz) {
+            return clazz;
+        }
+        try {
+            return ClassUtils.forName(type.toString().trim(), ClassUtils.getDefaultClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new IllegalStateException("Unknown event type: " + type, e);
+        }
+    }
+}
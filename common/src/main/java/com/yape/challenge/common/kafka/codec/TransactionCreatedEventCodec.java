@@ -0,0 +1,82 @@
+package com.yape.challenge.common.kafka.codec;
+
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.dto.TransactionStatus;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary layout of TransactionCreatedEvent, schema version 1
+ * mask(1) | transactionExternalId(16) | accountExternalIdDebit(16) | accountExternalIdCredit(16) |
+ * transferTypeId(4) | status(1) | value(scale 4, length 2, unscaled bytes)
+ */
+public class TransactionCreatedEventCodec extends BinaryEventCodec<TransactionCreatedEvent> {
+
+    private static final int VERSION = 1;
+
+    private static final int HAS_ID = 1;
+    private static final int HAS_DEBIT = 1 << 1;
+    private static final int HAS_CREDIT = 1 << 2;
+    private static final int HAS_TRANSFER_TYPE = 1 << 3;
+    private static final int HAS_STATUS = 1 << 4;
+    private static final int HAS_VALUE = 1 << 5;
+
+    private static final int FIXED_SIZE = 1 + 3 * UUID_SIZE + Integer.BYTES + 1;
+
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    @Override
+    public Class<TransactionCreatedEvent> type() {
+        return TransactionCreatedEvent.class;
+    }
+
+    @Override
+    public int schemaVersion() {
+        return VERSION;
+    }
+
+    @Override
+    protected int payloadSize(TransactionCreatedEvent value) {
+        return FIXED_SIZE + decimalSize(value.getValue());
+    }
+
+    @Override
+    protected void writePayload(ByteBuffer out, TransactionCreatedEvent value) {
+        int mask = 0;
+        if (value.getTransactionExternalId() != null) mask |= HAS_ID;
+        if (value.getAccountExternalIdDebit() != null) mask |= HAS_DEBIT;
+        if (value.getAccountExternalIdCredit() != null) mask |= HAS_CREDIT;
+        if (value.getTransferTypeId() != null) mask |= HAS_TRANSFER_TYPE;
+        if (value.getStatus() != null) mask |= HAS_STATUS;
+        if (value.getValue() != null) mask |= HAS_VALUE;
+        out.put((byte) mask);
+
+        putUuid(out, value.getTransactionExternalId());
+        putUuid(out, value.getAccountExternalIdDebit());
+        putUuid(out, value.getAccountExternalIdCredit());
+        out.putInt(value.getTransferTypeId() != null ? value.getTransferTypeId() : 0);
+        putEnum(out, value.getStatus());
+        if ((mask & HAS_VALUE) != 0) {
+            putDecimal(out, value.getValue());
+        }
+    }
+
+    @Override
+    protected TransactionCreatedEvent readPayload(ByteBuffer in, int version) {
+        int mask = Byte.toUnsignedInt(in.get());
+        TransactionCreatedEvent.TransactionCreatedEventBuilder builder = TransactionCreatedEvent.builder()
+                .transactionExternalId(getUuid(in, (mask & HAS_ID) != 0))
+                .accountExternalIdDebit(getUuid(in, (mask & HAS_DEBIT) != 0))
+                .accountExternalIdCredit(getUuid(in, (mask & HAS_CREDIT) != 0));
+
+        int transferTypeId = in.getInt();
+        if ((mask & HAS_TRANSFER_TYPE) != 0) {
+            builder.transferTypeId(transferTypeId);
+        }
+        builder.status(getEnum(in, STATUSES, (mask & HAS_STATUS) != 0));
+        if ((mask & HAS_VALUE) != 0) {
+            builder.value(getDecimal(in));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.yape.challenge.common.kafka.codec;
+
+import com.yape.challenge.common.dto.TransactionStatus;
+import com.yape.challenge.common.dto.TransactionStatusEvent;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary layout of TransactionStatusEvent, schema version 1
+ * mask(1) | transactionExternalId(16) | status(1)
+ */
+public class TransactionStatusEventCodec extends BinaryEventCodec<TransactionStatusEvent> {
+
+    private static final int VERSION = 1;
+
+    private static final int HAS_ID = 1;
+    private static final int HAS_STATUS = 1 << 1;
+
+    private static final int SIZE = 1 + UUID_SIZE + 1;
+
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    @Override
+    public Class<TransactionStatusEvent> type() {
+        return TransactionStatusEvent.class;
+    }
+
+    @Override
+    public int schemaVersion() {
+        return VERSION;
+    }
+
+    @Override
+    protected int payloadSize(TransactionStatusEvent value) {
+        return SIZE;
+    }
+
+    @Override
+    protected void writePayload(ByteBuffer out, TransactionStatusEvent value) {
+        int mask = 0;
+        if (value.getTransactionExternalId() != null) mask |= HAS_ID;
+        if (value.getStatus() != null) mask |= HAS_STATUS;
+        out.put((byte) mask);
+
+        putUuid(out, value.getTransactionExternalId());
+        putEnum(out, value.getStatus());
+    }
+
+    @Override
+    protected TransactionStatusEvent readPayload(ByteBuffer in, int version) {
+        int mask = Byte.toUnsignedInt(in.get());
+        return TransactionStatusEvent.builder()
+                .transactionExternalId(getUuid(in, (mask & HAS_ID) != 0))
+                .status(getEnum(in, STATUSES, (mask & HAS_STATUS) != 0))
+                .build();
+    }
+}
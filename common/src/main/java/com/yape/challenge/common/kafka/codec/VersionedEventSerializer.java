@@ -0,0 +1,72 @@
+package com.yape.challenge.common.kafka.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value serializer writing events as JSON or as versioned binary
+ * The format comes from the {@link EventFormat#CONFIG} property and is recorded in the
+ * {@link EventFormat#HEADER} header of every record. JSON settings such as
+ * {@link JsonSerializer#ADD_TYPE_INFO_HEADERS} are passed through to the JSON delegate.
+ *
+ * @param <T> Event type, must have a codec in {@link BinaryEventCodecs} when writing binary
+ */
+public class VersionedEventSerializer<T> implements Serializer<T> {
+
+    private final JsonSerializer<T> json;
+    private EventFormat format;
+
+    public VersionedEventSerializer() {
+        this.json = new JsonSerializer<>();
+        this.format = EventFormat.JSON;
+    }
+
+    /**
+     * Programmatic instance, for use outside a Kafka client configuration
+     */
+    public VersionedEventSerializer(EventFormat format) {
+        this.json = new JsonSerializer<T>().noTypeInfo();
+        this.format = format;
+    }
+
+    public EventFormat format() {
+        return format;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        this.format = EventFormat.from(configs.get(EventFormat.CONFIG));
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null) {
+            return null;
+        }
+        return format == EventFormat.BINARY ? encode(data) : json.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        if (data == null) {
+            return null;
+        }
+        headers.remove(EventFormat.HEADER);
+        headers.add(EventFormat.HEADER, format.headerValue());
+        return format == EventFormat.BINARY ? encode(data) : json.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] encode(T data) {
+        return BinaryEventCodecs.forType((Class<T>) data.getClass()).encode(data);
+    }
+}
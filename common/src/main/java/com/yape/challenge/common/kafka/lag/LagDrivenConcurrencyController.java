@@ -0,0 +1,199 @@
+package com.yape.challenge.common.kafka.lag;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Raises or lowers a listener's consumer and worker capacity from its lag trend
+ * Every adjustInterval the records-lag of the listener's consumers (reported by the Kafka client
+ * per assigned partition) is summed and handed to the LagScalingPolicy. Worker parallelism is
+ * changed in place. The container concurrency stays within the partitions assigned to this
+ * instance, since more consumers would sit idle; changing it restarts the container, which
+ * rebalances the whole group (every member stops consuming until the new assignment), so it is
+ * skipped while the container is paused or already restarting and happens at most once per
+ * minRestartInterval. Workers keep following the lag in between.
+ */
+@Slf4j
+public class LagDrivenConcurrencyController implements SmartLifecycle {
+
+    private static final String FETCH_METRICS_GROUP = "consumer-fetch-manager-metrics";
+
+    private final String listenerId;
+    private final String topic;
+    private final ListenerContainerRegistry containerRegistry;
+    private final ScalableWorkers workers;
+    private final LagScalingSettings settings;
+    private final LagScalingPolicy policy;
+    private final AtomicBoolean restarting = new AtomicBoolean();
+
+    private volatile long lastLag = -1;
+    private volatile int concurrency;
+    private int quiet;
+    private long restartedAt = System.nanoTime();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param listenerId Id of the @KafkaListener whose container is scaled
+     * @param topic      Topic whose lag drives the decision
+     * @param workers    Worker pool scaled along with the container, null when the listener has none
+     */
+    public LagDrivenConcurrencyController(String listenerId,
+                                          String topic,
+                                          ListenerContainerRegistry containerRegistry,
+                                          ScalableWorkers workers,
+                                          MeterRegistry meterRegistry,
+                                          LagScalingSettings settings) {
+        this.listenerId = listenerId;
+        this.topic = topic;
+        this.containerRegistry = containerRegistry;
+        this.workers = workers;
+        this.settings = settings;
+        this.policy = new LagScalingPolicy(settings);
+
+        Gauge.builder("kafka.consumer.scaling.lag", this, c -> c.lastLag)
+                .tag("listener", listenerId).description("Total records-lag of the listener at the last sample")
+                .register(meterRegistry);
+        Gauge.builder("kafka.consumer.scaling.concurrency", this, c -> c.concurrency)
+                .tag("listener", listenerId).description("Listener container concurrency")
+                .register(meterRegistry);
+        if (workers != null) {
+            Gauge.builder("kafka.consumer.scaling.workers", workers, ScalableWorkers::getParallelism)
+                    .tag("listener", listenerId).description("In-process worker parallelism")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Sample the lag and rescale the workers and the container if needed
+     */
+    public synchronized void adjust() {
+        MessageListenerContainer container = containerRegistry.getListenerContainer(listenerId);
+        if (!(container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent)
+                || !container.isRunning() || container.isPauseRequested() || restarting.get()) {
+            return;
+        }
+        int current = concurrent.getConcurrency();
+        concurrency = current;
+        long lag = totalLag(container);
+        if (lag < 0) {
+            return;
+        }
+        long previous = lastLag;
+        lastLag = lag;
+        quiet = lag <= settings.getScaleDownLag() ? quiet + 1 : 0;
+
+        if (workers != null) {
+            int parallelism = workers.getParallelism();
+            int nextParallelism = policy.next(parallelism, settings.getMinWorkers(), settings.getMaxWorkers(),
+                    lag, previous, quiet);
+            if (nextParallelism != parallelism) {
+                log.info("Listener {} lag {} (was {}): worker parallelism {} -> {}",
+                        listenerId, lag, previous, parallelism, nextParallelism);
+                workers.setParallelism(nextParallelism);
+            }
+        }
+
+        int assigned = (int) container.getAssignedPartitions().stream()
+                .filter(partition -> topic.equals(partition.topic()))
+                .count();
+        if (assigned == 0) {
+            return;
+        }
+        int max = settings.getMaxConcurrency() > 0 ? Math.min(settings.getMaxConcurrency(), assigned) : assigned;
+        // Consumers already above the bound are left alone: removing idle ones is not worth a rebalance
+        int next = policy.next(current, settings.getMinConcurrency(), Math.max(max, current), lag, previous, quiet);
+        if (next != current && System.nanoTime() - restartedAt < settings.getMinRestartInterval().toNanos()) {
+            log.debug("Listener {} lag {} (was {}): concurrency {} -> {} postponed, restarted too recently",
+                    listenerId, lag, previous, current, next);
+        } else if (next != current) {
+            log.info("Listener {} lag {} (was {}), {} partitions assigned: restarting with concurrency {} -> {}",
+                    listenerId, lag, previous, assigned, current, next);
+            restart(concurrent, next);
+        }
+    }
+
+    private void restart(ConcurrentMessageListenerContainer<?, ?> container, int next) {
+        restarting.set(true);
+        restartedAt = System.nanoTime();
+        // The lag of the restarted consumers starts a new trend
+        lastLag = -1;
+        quiet = 0;
+        try {
+            container.stop(() -> {
+                try {
+                    container.setConcurrency(next);
+                    container.start();
+                    concurrency = next;
+                } finally {
+                    restarting.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            restarting.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Sum of records-lag over the partitions of the topic, -1 while no consumer reported it yet
+     */
+    private long totalLag(MessageListenerContainer container) {
+        // The Kafka client replaces dots in metric tags
+        String topicTag = topic.replace('.', '_');
+        double total = -1;
+        for (Map<MetricName, ? extends Metric> metrics : container.metrics().values()) {
+            for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+                MetricName name = entry.getKey();
+                if ("records-lag".equals(name.name()) && FETCH_METRICS_GROUP.equals(name.group())
+                        && topicTag.equals(name.tags().get("topic"))
+                        && entry.getValue().metricValue() instanceof Double value && !value.isNaN()) {
+                    total = Math.max(total, 0) + value;
+                }
+            }
+        }
+        return (long) total;
+    }
+
+    @Override
+    public void start() {
+        restartedAt = System.nanoTime();
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofVirtual().name("lag-scaling-" + listenerId).factory());
+        long interval = settings.getAdjustInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::adjustSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private void adjustSafely() {
+        try {
+            adjust();
+        } catch (Exception e) {
+            log.warn("Lag scaling of listener {} failed: {}", listenerId, e.getMessage());
+        }
+    }
+}
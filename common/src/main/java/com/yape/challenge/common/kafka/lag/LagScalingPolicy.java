@@ -0,0 +1,34 @@
+package com.yape.challenge.common.kafka.lag;
+
+/**
+ * Decides consumer or worker capacity from the lag and its trend
+ * Capacity doubles while the lag is above scaleUpLag and not shrinking, is kept while a backlog
+ * drains, and shrinks by a quarter (at least 1) once the lag stayed at or below scaleDownLag
+ * for quietIntervals samples. Growing fast and shrinking slowly avoids flapping around a peak.
+ */
+public class LagScalingPolicy {
+
+    private final LagScalingSettings settings;
+
+    public LagScalingPolicy(LagScalingSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * @param current     Capacity currently applied
+     * @param min         Lower bound
+     * @param max         Upper bound
+     * @param lag         Total lag of the last sample
+     * @param previousLag Total lag of the sample before, negative when there is none
+     * @param quiet       Consecutive samples at or below scaleDownLag, including the last one
+     */
+    public int next(int current, int min, int max, long lag, long previousLag, int quiet) {
+        int next = current;
+        if (lag > settings.getScaleUpLag() && (previousLag < 0 || lag >= previousLag)) {
+            next = Math.max(current + 1, current * 2);
+        } else if (lag <= settings.getScaleDownLag() && quiet >= settings.getQuietIntervals()) {
+            next = current - Math.max(1, current / 4);
+        }
+        return Math.max(min, Math.min(Math.max(min, max), next));
+    }
+}
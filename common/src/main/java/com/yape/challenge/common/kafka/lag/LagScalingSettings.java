@@ -0,0 +1,60 @@
+package com.yape.challenge.common.kafka.lag;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thresholds and bounds for the LagDrivenConcurrencyController
+ */
+@Getter
+@Builder
+public class LagScalingSettings {
+
+    /**
+     * How often the lag is sampled and the concurrency reconsidered
+     */
+    @Builder.Default
+    private final Duration adjustInterval = Duration.ofSeconds(15);
+
+    /**
+     * Total lag (records) above which capacity is added while the lag is not shrinking
+     */
+    @Builder.Default
+    private final long scaleUpLag = 1000;
+
+    /**
+     * Total lag (records) at or below which capacity may be removed
+     */
+    @Builder.Default
+    private final long scaleDownLag = 100;
+
+    /**
+     * Consecutive intervals at or below scaleDownLag before capacity is removed
+     */
+    @Builder.Default
+    private final int quietIntervals = 4;
+
+    /**
+     * Least time between two container restarts, each of which rebalances the whole group;
+     * measured from startup, which rebalances too
+     */
+    @Builder.Default
+    private final Duration minRestartInterval = Duration.ofMinutes(5);
+
+    @Builder.Default
+    private final int minConcurrency = 1;
+
+    /**
+     * Upper bound for the container concurrency; 0 = the partitions assigned to this instance
+     */
+    @Builder.Default
+    private final int maxConcurrency = 0;
+
+    @Builder.Default
+    private final int minWorkers = 1;
+
+    @Builder.Default
+    private final int maxWorkers = 1;
+}
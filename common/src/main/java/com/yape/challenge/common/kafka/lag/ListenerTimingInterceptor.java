@@ -0,0 +1,125 @@
+package com.yape.challenge.common.kafka.lag;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-partition record age and processing time of a listener
+ * Record age is the time from the record timestamp (producer create time) to the moment the
+ * listener receives it, so it includes the time spent waiting as lag. Processing time covers the
+ * listener call, per record or per batch. Meters: kafka.consumer.record.age and
+ * kafka.consumer.processing.time, tagged listener, topic and partition. Each partition is consumed
+ * by one container thread at a time, so its start time is kept in the partition's meters.
+ *
+ * @param <K> Record key type
+ * @param <V> Record value type
+ */
+public class ListenerTimingInterceptor<K, V> implements RecordInterceptor<K, V>, BatchInterceptor<K, V> {
+
+    private final String listener;
+    private final MeterRegistry meterRegistry;
+    private final Map<TopicPartition, PartitionTimers> timers = new ConcurrentHashMap<>();
+
+    public ListenerTimingInterceptor(String listener, MeterRegistry meterRegistry) {
+        this.listener = listener;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ConsumerRecord<K, V> intercept(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        PartitionTimers partition = timers(new TopicPartition(record.topic(), record.partition()));
+        long now = System.currentTimeMillis();
+        partition.recordAge(record, now);
+        partition.startedAt = System.nanoTime();
+        return record;
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        timers(new TopicPartition(record.topic(), record.partition())).recordProcessing(System.nanoTime());
+    }
+
+    @Override
+    public ConsumerRecords<K, V> intercept(ConsumerRecords<K, V> records, Consumer<K, V> consumer) {
+        long now = System.currentTimeMillis();
+        long started = System.nanoTime();
+        for (TopicPartition topicPartition : records.partitions()) {
+            PartitionTimers partition = timers(topicPartition);
+            for (ConsumerRecord<K, V> record : records.records(topicPartition)) {
+                partition.recordAge(record, now);
+            }
+            partition.startedAt = started;
+        }
+        return records;
+    }
+
+    @Override
+    public void success(ConsumerRecords<K, V> records, Consumer<K, V> consumer) {
+        batchDone(records);
+    }
+
+    @Override
+    public void failure(ConsumerRecords<K, V> records, Exception exception, Consumer<K, V> consumer) {
+        batchDone(records);
+    }
+
+    private void batchDone(ConsumerRecords<K, V> records) {
+        long now = System.nanoTime();
+        records.partitions().forEach(topicPartition -> timers(topicPartition).recordProcessing(now));
+    }
+
+    private PartitionTimers timers(TopicPartition topicPartition) {
+        return timers.computeIfAbsent(topicPartition, this::register);
+    }
+
+    private PartitionTimers register(TopicPartition topicPartition) {
+        String partition = String.valueOf(topicPartition.partition());
+        Timer age = Timer.builder("kafka.consumer.record.age")
+                .description("Time from record creation to delivery to the listener")
+                .tags("listener", listener, "topic", topicPartition.topic(), "partition", partition)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Timer processing = Timer.builder("kafka.consumer.processing.time")
+                .description("Time spent in the listener, per record or per batch")
+                .tags("listener", listener, "topic", topicPartition.topic(), "partition", partition)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        return new PartitionTimers(age, processing);
+    }
+
+    private static final class PartitionTimers {
+
+        private final Timer age;
+        private final Timer processing;
+        private volatile long startedAt = -1;
+
+        private PartitionTimers(Timer age, Timer processing) {
+            this.age = age;
+            this.processing = processing;
+        }
+
+        private void recordAge(ConsumerRecord<?, ?> record, long now) {
+            if (record.timestamp() >= 0 && now >= record.timestamp()) {
+                age.record(now - record.timestamp(), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void recordProcessing(long now) {
+            long started = startedAt;
+            if (started >= 0) {
+                processing.record(now - started, TimeUnit.NANOSECONDS);
+                startedAt = -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.yape.challenge.common.kafka.lag;
+
+/**
+ * In-process worker pool whose parallelism the LagDrivenConcurrencyController may change at runtime
+ */
+public interface ScalableWorkers {
+
+    int getParallelism();
+
+    void setParallelism(int parallelism);
+}
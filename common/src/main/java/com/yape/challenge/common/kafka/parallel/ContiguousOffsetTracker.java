@@ -0,0 +1,92 @@
+package com.yape.challenge.common.kafka.parallel;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks records processed out of order and finds how far each partition can be committed
+ * Records are registered in offset order when dispatched and completed in any order. The commit
+ * point of a partition only moves past a record once it and every record before it completed,
+ * so a crash never skips an unfinished record (finished ones after a gap may be redelivered).
+ *
+ * @param <T> Handle kept per record, returned when the commit point reaches it (e.g. its Acknowledgment)
+ */
+public class ContiguousOffsetTracker<T> {
+
+    private final Map<TopicPartition, PartitionState<T>> partitions = new ConcurrentHashMap<>();
+
+    /**
+     * Register a dispatched record
+     * Offsets normally increase; an offset at or below the last one means the consumer was
+     * rewound (seek after an error), so the entries from there on are dropped and tracked again.
+     */
+    public void register(TopicPartition partition, long offset, T handle) {
+        partitions.computeIfAbsent(partition, p -> new PartitionState<>()).register(offset, handle);
+    }
+
+    /**
+     * Mark a record completed
+     *
+     * @return Handle of the highest record that became committable, empty if the commit point did
+     * not move or the partition is no longer tracked
+     */
+    public Optional<T> complete(TopicPartition partition, long offset) {
+        PartitionState<T> state = partitions.get(partition);
+        return state == null ? Optional.empty() : state.complete(offset);
+    }
+
+    /**
+     * Forget revoked partitions; later completions for them are ignored
+     */
+    public void revoke(Collection<TopicPartition> revoked) {
+        revoked.forEach(partitions::remove);
+    }
+
+    /**
+     * Records registered but not committable yet
+     */
+    public int pending(TopicPartition partition) {
+        PartitionState<T> state = partitions.get(partition);
+        return state == null ? 0 : state.pending();
+    }
+
+    private static final class PartitionState<T> {
+
+        private final ArrayDeque<Entry<T>> inOrder = new ArrayDeque<>();
+        private final Set<Long> completedAhead = new HashSet<>();
+
+        synchronized void register(long offset, T handle) {
+            while (!inOrder.isEmpty() && inOrder.peekLast().offset() >= offset) {
+                completedAhead.remove(inOrder.pollLast().offset());
+            }
+            inOrder.addLast(new Entry<>(offset, handle));
+        }
+
+        synchronized Optional<T> complete(long offset) {
+            Entry<T> head = inOrder.peekFirst();
+            if (head == null || offset < head.offset()) {
+                return Optional.empty();
+            }
+            completedAhead.add(offset);
+            Entry<T> committable = null;
+            while (!inOrder.isEmpty() && completedAhead.remove(inOrder.peekFirst().offset())) {
+                committable = inOrder.pollFirst();
+            }
+            return committable == null ? Optional.empty() : Optional.of(committable.handle());
+        }
+
+        synchronized int pending() {
+            return inOrder.size();
+        }
+    }
+
+    private record Entry<T>(long offset, T handle) {
+    }
+}
@@ -0,0 +1,157 @@
+package com.yape.challenge.common.kafka.parallel;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks in parallel while keeping tasks with the same key strictly sequential
+ * Each task runs on its own virtual thread; a task is chained after the previous task of its key,
+ * so a slow or retrying key only delays itself. At most maxInFlight tasks are queued or running:
+ * once that limit is reached submit blocks the caller, while trySubmit refuses the task so a
+ * consumer thread can pause instead and resume from the release listener. The limit can be
+ * changed while running; lowering it lets the tasks already submitted finish.
+ */
+public class KeyOrderedExecutor implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final ResizableSemaphore permits;
+    private volatile int maxInFlight;
+    private final ConcurrentHashMap<Object, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private volatile Runnable releaseListener = () -> { };
+
+    public KeyOrderedExecutor(int maxInFlight) {
+        this(Executors.newVirtualThreadPerTaskExecutor(), maxInFlight);
+    }
+
+    KeyOrderedExecutor(ExecutorService executor, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1: " + maxInFlight);
+        }
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.permits = new ResizableSemaphore(maxInFlight);
+    }
+
+    /**
+     * Schedule a task after every previously submitted task with the same key
+     * A null key has no ordering constraint. Exceptions thrown by the task complete the returned
+     * future exceptionally and do not stop later tasks of the key.
+     */
+    public CompletableFuture<Void> submit(Object key, Runnable task) throws InterruptedException {
+        permits.acquire();
+        return schedule(key, task);
+    }
+
+    /**
+     * Like submit, without waiting for the in-flight limit
+     *
+     * @return null when maxInFlight tasks are already queued or running
+     */
+    public CompletableFuture<Void> trySubmit(Object key, Runnable task) {
+        return permits.tryAcquire() ? schedule(key, task) : null;
+    }
+
+    /**
+     * Run the listener after every finished task, on the thread that ran it
+     */
+    public void onRelease(Runnable listener) {
+        this.releaseListener = listener;
+    }
+
+    private CompletableFuture<Void> schedule(Object key, Runnable task) {
+        CompletableFuture<Void> next;
+        try {
+            if (key == null) {
+                next = CompletableFuture.runAsync(task, executor);
+            } else {
+                next = tails.compute(key, (k, tail) -> tail == null
+                        ? CompletableFuture.runAsync(task, executor)
+                        : tail.handle((result, error) -> null).thenRunAsync(task, executor));
+            }
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        CompletableFuture<Void> submitted = next;
+        submitted.whenComplete((result, error) -> {
+            if (key != null) {
+                tails.remove(key, submitted);
+            }
+            permits.release();
+            releaseListener.run();
+        });
+        return submitted;
+    }
+
+    /**
+     * Change how many tasks may be queued or running
+     */
+    public synchronized void setMaxInFlight(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1: " + maxInFlight);
+        }
+        int delta = maxInFlight - this.maxInFlight;
+        if (delta > 0) {
+            permits.release(delta);
+        } else if (delta < 0) {
+            permits.reduce(-delta);
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Tasks queued or running
+     */
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    /**
+     * Keys with at least one task queued or running
+     */
+    public int activeKeys() {
+        return tails.size();
+    }
+
+    /**
+     * Wait until every submitted task finished
+     *
+     * @return false if tasks were still running when the timeout elapsed
+     */
+    public boolean awaitQuiescence(Duration timeout) throws InterruptedException {
+        int limit = maxInFlight;
+        if (permits.tryAcquire(limit, timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            permits.release(limit);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stop accepting tasks and interrupt the running ones
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static final class ResizableSemaphore extends Semaphore {
+
+        private ResizableSemaphore(int permits) {
+            super(permits);
+        }
+
+        private void reduce(int reduction) {
+            reducePermits(reduction);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.yape.challenge.common.kafka.partitioning;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Key partitioner based on jump consistent hashing (Lamping and Veach)
+ * With the default murmur2 modulo partitioner, growing a topic from n to n + 1 partitions
+ * moves almost every key; jump hashing moves only about 1 / (n + 1) of them, so an online
+ * partition expansion reshuffles as little per-key ordering and per-partition state as possible.
+ * Records without a key go to a random available partition. Switching an existing topic from
+ * murmur2 to this partitioner remaps almost every key once, so every producer of the topic must
+ * switch together while its consumers have drained it; until then app.kafka.producer.partitioner-class
+ * stays blank, i.e. murmur2.
+ */
+public class JumpHashPartitioner implements Partitioner {
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        int numPartitions = cluster.partitionCountForTopic(topic);
+        if (keyBytes == null) {
+            List<PartitionInfo> available = cluster.availablePartitionsForTopic(topic);
+            if (!available.isEmpty()) {
+                return available.get(ThreadLocalRandom.current().nextInt(available.size())).partition();
+            }
+            return ThreadLocalRandom.current().nextInt(numPartitions);
+        }
+        return jumpHash(Utils.murmur2(keyBytes) & 0xFFFFFFFFL, numPartitions);
+    }
+
+    /**
+     * Maps a 64-bit key hash to a bucket in [0, buckets)
+     */
+    public static int jumpHash(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        // No configuration
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+}
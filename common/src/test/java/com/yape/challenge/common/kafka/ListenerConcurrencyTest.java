@@ -0,0 +1,32 @@
+package com.yape.challenge.common.kafka;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Listener Concurrency Tests")
+class ListenerConcurrencyTest {
+
+    @Test
+    @DisplayName("Should use the partitions assigned to one instance")
+    void shouldFollowAssignedPartitions() {
+        assertEquals(12, ListenerConcurrency.derive(0, 12, 1, 2, 8));
+        assertEquals(4, ListenerConcurrency.derive(0, 12, 3, 2, 8));
+        assertEquals(3, ListenerConcurrency.derive(0, 10, 4, 2, 8));
+    }
+
+    @Test
+    @DisplayName("Should cap concurrency by available cores")
+    void shouldCapByCores() {
+        assertEquals(4, ListenerConcurrency.derive(0, 48, 1, 2, 2));
+    }
+
+    @Test
+    @DisplayName("Should keep explicit concurrency and never go below one")
+    void shouldKeepExplicitAndMinimum() {
+        assertEquals(7, ListenerConcurrency.derive(7, 3, 1, 2, 8));
+        assertEquals(1, ListenerConcurrency.derive(0, 3, 10, 2, 8));
+        assertEquals(1, ListenerConcurrency.derive(0, 0, 0, 0, 1));
+    }
+}
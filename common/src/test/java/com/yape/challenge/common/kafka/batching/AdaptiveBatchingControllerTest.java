@@ -0,0 +1,132 @@
+package com.yape.challenge.common.kafka.batching;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Adaptive Batching Controller Tests")
+class AdaptiveBatchingControllerTest {
+
+    @Mock
+    private DefaultKafkaProducerFactory<String, String> producerFactory;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Test
+    @DisplayName("Should register as interceptor and start without batching")
+    void shouldStartWithoutBatching() {
+        // When
+        AdaptiveBatchingController<String, String> controller = controller();
+
+        // Then
+        verify(kafkaTemplate).setProducerInterceptor(controller);
+        verify(producerFactory).updateConfigs(Map.of(
+                ProducerConfig.LINGER_MS_CONFIG, 0,
+                ProducerConfig.BATCH_SIZE_CONFIG, 16 * 1024,
+                ProducerConfig.COMPRESSION_TYPE_CONFIG, "none"));
+    }
+
+    @Test
+    @DisplayName("Should reconfigure and reset the producer when traffic grows")
+    void shouldReconfigureWhenTrafficGrows() throws InterruptedException {
+        // Given
+        AdaptiveBatchingController<String, String> controller = controller();
+        load(controller, true);
+
+        // When
+        controller.adjust();
+
+        // Then
+        assertEquals(1, controller.getCurrent().lingerMs());
+        assertEquals("lz4", controller.getCurrent().compressionType());
+        verify(producerFactory).updateConfigs(argThat(configs ->
+                Integer.valueOf(1).equals(configs.get(ProducerConfig.LINGER_MS_CONFIG))));
+        verify(producerFactory).reset();
+    }
+
+    @Test
+    @DisplayName("Should leave the producer alone while traffic stays quiet")
+    void shouldLeaveProducerAloneWhileQuiet() throws InterruptedException {
+        // Given
+        AdaptiveBatchingController<String, String> controller = controller();
+
+        // When
+        controller.adjust();
+
+        // Then
+        verify(producerFactory, never()).reset();
+    }
+
+    @Test
+    @DisplayName("Should defer the reset while sends are waiting for their ack")
+    void shouldDeferResetWhileSendsInFlight() throws InterruptedException {
+        // Given
+        AdaptiveBatchingController<String, String> controller = controller();
+        load(controller, false);
+
+        // When
+        controller.adjust();
+
+        // Then
+        assertEquals(0, controller.getCurrent().lingerMs());
+        verify(producerFactory, never()).reset();
+    }
+
+    @Test
+    @DisplayName("Should not reset the producer again before the minimum interval")
+    void shouldRateLimitResets() throws InterruptedException {
+        // Given
+        AdaptiveBatchingController<String, String> controller = controller();
+        load(controller, true);
+        controller.adjust();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            load(controller, true);
+            controller.adjust();
+        }
+
+        // Then
+        verify(producerFactory, times(1)).reset();
+        assertEquals(1, controller.getCurrent().lingerMs());
+    }
+
+    /**
+     * Send a burst well above the quiet rate, acknowledged or still in flight
+     */
+    private static void load(AdaptiveBatchingController<String, String> controller, boolean acknowledged)
+            throws InterruptedException {
+        ProducerRecord<String, String> record = new ProducerRecord<>("topic", "key", "value");
+        for (int i = 0; i < 10_000; i++) {
+            controller.onSend(record);
+            if (acknowledged) {
+                controller.onAcknowledgement(null, null);
+            }
+        }
+        Thread.sleep(20);
+    }
+
+    private AdaptiveBatchingController<String, String> controller() {
+        return new AdaptiveBatchingController<>("test", producerFactory, kafkaTemplate, new SimpleMeterRegistry(),
+                AdaptiveBatchingSettings.builder()
+                        .adjustInterval(Duration.ofSeconds(10))
+                        .idleWait(Duration.ofMillis(10))
+                        .build());
+    }
+}
@@ -0,0 +1,80 @@
+package com.yape.challenge.common.kafka.batching;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Batching Policy Tests")
+class BatchingPolicyTest {
+
+    private final AdaptiveBatchingSettings settings = AdaptiveBatchingSettings.builder()
+            .targetP99(Duration.ofMillis(50))
+            .quietRate(50)
+            .maxLingerMs(20)
+            .minBatchSize(16 * 1024)
+            .maxBatchSize(256 * 1024)
+            .build();
+
+    private final BatchingPolicy policy = new BatchingPolicy(settings);
+
+    @Test
+    @DisplayName("Should not batch while traffic is quiet")
+    void shouldNotBatchWhileQuiet() {
+        // Given
+        BatchingDecision current = new BatchingDecision(10, 64 * 1024, "lz4");
+
+        // When
+        BatchingDecision next = policy.next(current, 10, 5, 300);
+
+        // Then
+        assertEquals(new BatchingDecision(0, 16 * 1024, "none"), next);
+    }
+
+    @Test
+    @DisplayName("Should grow linger and compress under load while p99 has headroom")
+    void shouldGrowLingerUnderLoad() {
+        // Given
+        BatchingDecision current = policy.initial();
+
+        // When
+        BatchingDecision next = current;
+        for (int i = 0; i < 30; i++) {
+            next = policy.next(next, 20_000, 10, 500);
+        }
+
+        // Then
+        assertTrue(next.lingerMs() > 0 && next.lingerMs() <= 20);
+        assertTrue(next.batchSize() > 16 * 1024 && next.batchSize() <= 256 * 1024);
+        assertEquals("lz4", next.compressionType());
+    }
+
+    @Test
+    @DisplayName("Should halve linger when p99 exceeds the target")
+    void shouldHalveLingerWhenOverTarget() {
+        // Given
+        BatchingDecision current = new BatchingDecision(16, 128 * 1024, "lz4");
+
+        // When
+        BatchingDecision next = policy.next(current, 20_000, 80, 500);
+
+        // Then
+        assertEquals(8, next.lingerMs());
+    }
+
+    @Test
+    @DisplayName("Should ignore small batch size and linger changes")
+    void shouldIgnoreSmallChanges() {
+        // Given
+        BatchingDecision current = new BatchingDecision(5, 64 * 1024, "lz4");
+
+        // When & Then
+        assertFalse(policy.isSignificant(current, new BatchingDecision(5, 72 * 1024, "lz4")));
+        assertTrue(policy.isSignificant(current, new BatchingDecision(5, 128 * 1024, "lz4")));
+        assertFalse(policy.isSignificant(current, new BatchingDecision(6, 64 * 1024, "lz4")));
+        assertTrue(policy.isSignificant(current, new BatchingDecision(8, 64 * 1024, "lz4")));
+        assertTrue(policy.isSignificant(current, new BatchingDecision(0, 64 * 1024, "none")));
+    }
+}
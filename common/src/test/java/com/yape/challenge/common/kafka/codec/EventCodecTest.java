@@ -0,0 +1,150 @@
+package com.yape.challenge.common.kafka.codec;
+
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.dto.TransactionStatus;
+import com.yape.challenge.common.dto.TransactionStatusEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Event Codec Tests")
+class EventCodecTest {
+
+    private static final String TOPIC = "transaction-created";
+
+    private TransactionCreatedEvent event;
+
+    @BeforeEach
+    void setUp() {
+        event = TransactionCreatedEvent.builder()
+                .transactionExternalId(UUID.randomUUID())
+                .accountExternalIdDebit(UUID.randomUUID())
+                .accountExternalIdCredit(UUID.randomUUID())
+                .transferTypeId(1)
+                .value(new BigDecimal("1250.75"))
+                .status(TransactionStatus.PENDING)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should round trip created event with fixed layout")
+    void shouldRoundTripCreatedEvent() {
+        // Given
+        TransactionCreatedEventCodec codec = new TransactionCreatedEventCodec();
+
+        // When
+        byte[] bytes = codec.encode(event);
+
+        // Then
+        assertEquals(BinaryEventCodec.MAGIC, bytes[0]);
+        assertEquals(1, bytes[1]);
+        assertEquals(event, codec.decode(bytes));
+        // 2 header + 1 mask + 48 UUIDs + 4 type + 1 status + 4 scale + 2 length + 3 unscaled (125075)
+        assertEquals(65, bytes.length);
+    }
+
+    @Test
+    @DisplayName("Should keep null fields null")
+    void shouldKeepNullFields() {
+        // Given
+        TransactionCreatedEventCodec codec = new TransactionCreatedEventCodec();
+        TransactionCreatedEvent partial = TransactionCreatedEvent.builder()
+                .transactionExternalId(UUID.randomUUID())
+                .build();
+
+        // When
+        TransactionCreatedEvent decoded = codec.decode(codec.encode(partial));
+
+        // Then
+        assertEquals(partial, decoded);
+        assertNull(decoded.getValue());
+        assertNull(decoded.getTransferTypeId());
+        assertNull(decoded.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should round trip status event")
+    void shouldRoundTripStatusEvent() {
+        // Given
+        TransactionStatusEventCodec codec = new TransactionStatusEventCodec();
+        TransactionStatusEvent status = TransactionStatusEvent.builder()
+                .transactionExternalId(UUID.randomUUID())
+                .status(TransactionStatus.APPROVED)
+                .build();
+
+        // When
+        byte[] bytes = codec.encode(status);
+
+        // Then
+        assertEquals(20, bytes.length);
+        assertEquals(status, codec.decode(bytes));
+    }
+
+    @Test
+    @DisplayName("Should reject newer schema versions and truncated values")
+    void shouldRejectUnsupportedValues() {
+        // Given
+        TransactionCreatedEventCodec codec = new TransactionCreatedEventCodec();
+        byte[] bytes = codec.encode(event);
+        byte[] newer = bytes.clone();
+        newer[1] = 2;
+
+        // When / Then
+        assertThrows(SerializationException.class, () -> codec.decode(newer));
+        assertThrows(SerializationException.class, () -> codec.decode(Arrays.copyOf(bytes, 20)));
+    }
+
+    @Test
+    @DisplayName("Should mark records with the configured format header")
+    void shouldWriteFormatHeader() {
+        // Given
+        VersionedEventSerializer<TransactionCreatedEvent> serializer = new VersionedEventSerializer<>();
+        serializer.configure(Map.of(EventFormat.CONFIG, "binary"), false);
+        Headers headers = new RecordHeaders();
+
+        // When
+        byte[] bytes = serializer.serialize(TOPIC, headers, event);
+
+        // Then
+        assertTrue(BinaryEventCodec.isBinary(bytes));
+        assertTrue(EventFormat.BINARY.matches(headers.lastHeader(EventFormat.HEADER).value()));
+    }
+
+    @Test
+    @DisplayName("Should read JSON and binary records with the same deserializer")
+    void shouldDetectFormat() {
+        // Given
+        FormatDetectingEventDeserializer<TransactionCreatedEvent> deserializer = new FormatDetectingEventDeserializer<>();
+        deserializer.configure(Map.of(
+                JsonDeserializer.TRUSTED_PACKAGES, "*",
+                JsonDeserializer.VALUE_DEFAULT_TYPE, TransactionCreatedEvent.class.getName()), false);
+
+        VersionedEventSerializer<TransactionCreatedEvent> json = new VersionedEventSerializer<>();
+        json.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+        VersionedEventSerializer<TransactionCreatedEvent> binary = new VersionedEventSerializer<>(EventFormat.BINARY);
+
+        Headers jsonHeaders = new RecordHeaders();
+        Headers binaryHeaders = new RecordHeaders();
+        byte[] jsonBytes = json.serialize(TOPIC, jsonHeaders, event);
+        byte[] binaryBytes = binary.serialize(TOPIC, binaryHeaders, event);
+
+        // When / Then
+        assertEquals(event, deserializer.deserialize(TOPIC, jsonHeaders, jsonBytes));
+        assertEquals(event, deserializer.deserialize(TOPIC, binaryHeaders, binaryBytes));
+        // Records from producers that predate the header
+        assertEquals(event, deserializer.deserialize(TOPIC, new RecordHeaders(), jsonBytes));
+        assertEquals(event, deserializer.deserialize(TOPIC, new RecordHeaders(), binaryBytes));
+    }
+}
@@ -0,0 +1,91 @@
+package com.yape.challenge.common.kafka.codec;
+
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.dto.TransactionStatus;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing the JSON and binary Kafka formats of TransactionCreatedEvent,
+ * through the same serializer and format-detecting deserializer the services use
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+    private static final String TOPIC = "transaction-created";
+
+    private VersionedEventSerializer<TransactionCreatedEvent> jsonSerializer;
+    private VersionedEventSerializer<TransactionCreatedEvent> binarySerializer;
+    private FormatDetectingEventDeserializer<TransactionCreatedEvent> deserializer;
+    private TransactionCreatedEvent event;
+    private Headers jsonHeaders;
+    private Headers binaryHeaders;
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setUp() {
+        jsonSerializer = new VersionedEventSerializer<>();
+        jsonSerializer.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+        binarySerializer = new VersionedEventSerializer<>(EventFormat.BINARY);
+        deserializer = new FormatDetectingEventDeserializer<>();
+        deserializer.configure(Map.of(
+                JsonDeserializer.TRUSTED_PACKAGES, "*",
+                JsonDeserializer.VALUE_DEFAULT_TYPE, TransactionCreatedEvent.class.getName()), false);
+
+        event = TransactionCreatedEvent.builder()
+                .transactionExternalId(UUID.randomUUID())
+                .accountExternalIdDebit(UUID.randomUUID())
+                .accountExternalIdCredit(UUID.randomUUID())
+                .transferTypeId(1)
+                .value(new BigDecimal("1250.75"))
+                .status(TransactionStatus.PENDING)
+                .build();
+        jsonHeaders = new RecordHeaders();
+        binaryHeaders = new RecordHeaders();
+        jsonBytes = jsonSerializer.serialize(TOPIC, jsonHeaders, event);
+        binaryBytes = binarySerializer.serialize(TOPIC, binaryHeaders, event);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return binarySerializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public TransactionCreatedEvent jsonDeserialize() {
+        return deserializer.deserialize(TOPIC, jsonHeaders, jsonBytes);
+    }
+
+    @Benchmark
+    public TransactionCreatedEvent binaryDeserialize() {
+        return deserializer.deserialize(TOPIC, binaryHeaders, binaryBytes);
+    }
+}
@@ -0,0 +1,192 @@
+package com.yape.challenge.common.kafka.lag;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Lag Driven Concurrency Controller Tests")
+class LagDrivenConcurrencyControllerTest {
+
+    private static final String TOPIC = "orders";
+
+    @Mock
+    private ListenerContainerRegistry containerRegistry;
+
+    @Mock
+    private ConcurrentMessageListenerContainer<String, String> container;
+
+    private final Workers workers = new Workers(10);
+
+    private LagDrivenConcurrencyController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new LagDrivenConcurrencyController("orders-listener", TOPIC, containerRegistry, workers,
+                new SimpleMeterRegistry(), LagScalingSettings.builder()
+                        .scaleUpLag(1000)
+                        .scaleDownLag(100)
+                        .quietIntervals(1)
+                        .minRestartInterval(Duration.ZERO)
+                        .minWorkers(5)
+                        .maxWorkers(40)
+                        .build());
+        lenient().when(containerRegistry.getListenerContainer("orders-listener")).thenReturn(container);
+        lenient().when(container.isRunning()).thenReturn(true);
+        lenient().when(container.getAssignedPartitions()).thenReturn(List.of(
+                new TopicPartition(TOPIC, 0), new TopicPartition(TOPIC, 1), new TopicPartition(TOPIC, 2)));
+    }
+
+    @Test
+    @DisplayName("Should add workers and restart the container with more consumers when lag builds up")
+    void shouldScaleUpOnGrowingLag() {
+        // Given
+        when(container.getConcurrency()).thenReturn(1);
+        doReturn(Map.of("client-0", Map.of(lag(0), metric(1500.0), lag(1), metric(700.0)))).when(container).metrics();
+
+        // When
+        controller.adjust();
+
+        // Then
+        assertEquals(20, workers.getParallelism());
+        ArgumentCaptor<Runnable> restart = ArgumentCaptor.forClass(Runnable.class);
+        verify(container).stop(restart.capture());
+        restart.getValue().run();
+        verify(container).setConcurrency(2);
+        verify(container).start();
+    }
+
+    @Test
+    @DisplayName("Should never exceed the partitions assigned to this instance")
+    void shouldBoundConcurrencyByAssignedPartitions() {
+        // Given
+        when(container.getConcurrency()).thenReturn(3);
+        doReturn(Map.of("client-0", Map.of(lag(0), metric(50_000.0)))).when(container).metrics();
+
+        // When
+        controller.adjust();
+
+        // Then
+        verify(container, never()).stop(any(Runnable.class));
+        assertEquals(20, workers.getParallelism());
+    }
+
+    @Test
+    @DisplayName("Should remove capacity once the lag stays low")
+    void shouldScaleDownWhenQuiet() {
+        // Given
+        when(container.getConcurrency()).thenReturn(3);
+        doReturn(Map.of("client-0", Map.of(lag(0), metric(0.0)))).when(container).metrics();
+
+        // When
+        controller.adjust();
+
+        // Then
+        assertEquals(8, workers.getParallelism());
+        ArgumentCaptor<Runnable> restart = ArgumentCaptor.forClass(Runnable.class);
+        verify(container).stop(restart.capture());
+        restart.getValue().run();
+        verify(container).setConcurrency(2);
+    }
+
+    @Test
+    @DisplayName("Should keep scaling workers but not restart the container again within the restart interval")
+    void shouldRateLimitRestarts() {
+        // Given
+        controller = new LagDrivenConcurrencyController("orders-listener", TOPIC, containerRegistry, workers,
+                new SimpleMeterRegistry(), LagScalingSettings.builder()
+                        .scaleUpLag(1000)
+                        .minRestartInterval(Duration.ofMinutes(5))
+                        .minWorkers(5)
+                        .maxWorkers(40)
+                        .build());
+        when(container.getConcurrency()).thenReturn(1);
+        doReturn(Map.of("client-0", Map.of(lag(0), metric(5000.0)))).when(container).metrics();
+
+        // When
+        controller.adjust();
+        controller.adjust();
+
+        // Then
+        assertEquals(40, workers.getParallelism());
+        verify(container, never()).stop(any(Runnable.class));
+    }
+
+    @Test
+    @DisplayName("Should leave a paused container alone")
+    void shouldSkipPausedContainer() {
+        // Given
+        when(container.isPauseRequested()).thenReturn(true);
+
+        // When
+        controller.adjust();
+
+        // Then
+        verify(container, never()).metrics();
+        verify(container, never()).stop(any(Runnable.class));
+        assertEquals(10, workers.getParallelism());
+    }
+
+    @Test
+    @DisplayName("Should wait until the consumers report lag")
+    void shouldWaitForLagMetrics() {
+        // Given
+        when(container.getConcurrency()).thenReturn(1);
+        doReturn(Map.of()).when(container).metrics();
+
+        // When
+        controller.adjust();
+
+        // Then
+        verify(container, never()).stop(any(Runnable.class));
+        assertEquals(10, workers.getParallelism());
+    }
+
+    private static MetricName lag(int partition) {
+        return new MetricName("records-lag", "consumer-fetch-manager-metrics", "",
+                Map.of("client-id", "client-0", "topic", TOPIC, "partition", String.valueOf(partition)));
+    }
+
+    private static Metric metric(double value) {
+        Metric metric = mock(Metric.class);
+        when(metric.metricValue()).thenReturn(value);
+        return metric;
+    }
+
+    private static final class Workers implements ScalableWorkers {
+
+        private int parallelism;
+
+        private Workers(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        @Override
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        @Override
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.yape.challenge.common.kafka.lag;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Lag Scaling Policy Tests")
+class LagScalingPolicyTest {
+
+    private final LagScalingPolicy policy = new LagScalingPolicy(LagScalingSettings.builder()
+            .scaleUpLag(1000)
+            .scaleDownLag(100)
+            .quietIntervals(3)
+            .build());
+
+    @Test
+    @DisplayName("Should double capacity while the lag is high and growing")
+    void shouldScaleUpWhileLagGrows() {
+        assertEquals(2, policy.next(1, 1, 6, 5000, 3000, 0));
+        assertEquals(4, policy.next(2, 1, 6, 5000, 5000, 0));
+        assertEquals(6, policy.next(4, 1, 6, 9000, 5000, 0));
+    }
+
+    @Test
+    @DisplayName("Should scale up on the first sample when the lag is already high")
+    void shouldScaleUpOnFirstHighSample() {
+        assertEquals(2, policy.next(1, 1, 6, 5000, -1, 0));
+    }
+
+    @Test
+    @DisplayName("Should hold capacity while a backlog drains")
+    void shouldHoldWhileDraining() {
+        assertEquals(4, policy.next(4, 1, 6, 5000, 8000, 0));
+    }
+
+    @Test
+    @DisplayName("Should shrink only after the lag stayed low for the quiet intervals")
+    void shouldScaleDownAfterQuietIntervals() {
+        assertEquals(8, policy.next(8, 1, 8, 10, 20, 2));
+        assertEquals(6, policy.next(8, 1, 8, 10, 20, 3));
+        assertEquals(1, policy.next(2, 1, 8, 0, 0, 5));
+        assertEquals(1, policy.next(1, 1, 8, 0, 0, 5));
+    }
+
+    @Test
+    @DisplayName("Should keep the result within the bounds")
+    void shouldClampToBounds() {
+        assertEquals(3, policy.next(3, 1, 3, 50_000, 10_000, 0));
+        assertEquals(2, policy.next(1, 2, 4, 500, 500, 0));
+    }
+}
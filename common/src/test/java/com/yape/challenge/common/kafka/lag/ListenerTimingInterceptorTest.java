@@ -0,0 +1,84 @@
+package com.yape.challenge.common.kafka.lag;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Listener Timing Interceptor Tests")
+class ListenerTimingInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ListenerTimingInterceptor<String, String> interceptor =
+            new ListenerTimingInterceptor<>("orders-listener", meterRegistry);
+
+    @Test
+    @DisplayName("Should record age and processing time per partition for single records")
+    void shouldTimeSingleRecords() {
+        // Given
+        ConsumerRecord<String, String> record = record(1, System.currentTimeMillis() - 2000);
+
+        // When
+        interceptor.intercept(record, null);
+        interceptor.afterRecord(record, null);
+
+        // Then
+        Timer age = timer("kafka.consumer.record.age", "1");
+        assertEquals(1, age.count());
+        assertTrue(age.totalTime(TimeUnit.MILLISECONDS) >= 2000);
+        assertEquals(1, timer("kafka.consumer.processing.time", "1").count());
+    }
+
+    @Test
+    @DisplayName("Should record the age of every record and one processing time per partition for batches")
+    void shouldTimeBatches() {
+        // Given
+        long created = System.currentTimeMillis() - 500;
+        ConsumerRecords<String, String> records = new ConsumerRecords<>(Map.of(
+                new TopicPartition("orders", 0), List.of(record(0, created), record(0, created)),
+                new TopicPartition("orders", 2), List.of(record(2, created))));
+
+        // When
+        interceptor.intercept(records, null);
+        interceptor.failure(records, new IllegalStateException("boom"), null);
+
+        // Then
+        assertEquals(2, timer("kafka.consumer.record.age", "0").count());
+        assertEquals(1, timer("kafka.consumer.record.age", "2").count());
+        assertEquals(1, timer("kafka.consumer.processing.time", "0").count());
+        assertEquals(1, timer("kafka.consumer.processing.time", "2").count());
+    }
+
+    @Test
+    @DisplayName("Should skip the age of records without a timestamp")
+    void shouldSkipRecordsWithoutTimestamp() {
+        // When
+        interceptor.intercept(record(0, -1), null);
+
+        // Then
+        assertEquals(0, timer("kafka.consumer.record.age", "0").count());
+    }
+
+    private Timer timer(String name, String partition) {
+        return meterRegistry.get(name)
+                .tags("listener", "orders-listener", "topic", "orders", "partition", partition)
+                .timer();
+    }
+
+    private static ConsumerRecord<String, String> record(int partition, long timestamp) {
+        return new ConsumerRecord<>("orders", partition, 0L, timestamp, TimestampType.CREATE_TIME,
+                0, 0, "key", "value", new RecordHeaders(), Optional.empty());
+    }
+}
@@ -0,0 +1,69 @@
+package com.yape.challenge.common.kafka.parallel;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Contiguous Offset Tracker Tests")
+class ContiguousOffsetTrackerTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("topic", 0);
+
+    @Test
+    @DisplayName("Should only advance past records whose predecessors completed")
+    void shouldAdvanceContiguously() {
+        // Given
+        ContiguousOffsetTracker<String> tracker = new ContiguousOffsetTracker<>();
+        for (long offset = 10; offset < 14; offset++) {
+            tracker.register(PARTITION, offset, "ack-" + offset);
+        }
+
+        // When / Then
+        assertEquals(Optional.empty(), tracker.complete(PARTITION, 12));
+        assertEquals(Optional.empty(), tracker.complete(PARTITION, 11));
+        assertEquals(Optional.of("ack-12"), tracker.complete(PARTITION, 10));
+        assertEquals(1, tracker.pending(PARTITION));
+        assertEquals(Optional.of("ack-13"), tracker.complete(PARTITION, 13));
+        assertEquals(0, tracker.pending(PARTITION));
+    }
+
+    @Test
+    @DisplayName("Should track partitions independently and ignore revoked ones")
+    void shouldIgnoreRevokedPartitions() {
+        // Given
+        ContiguousOffsetTracker<String> tracker = new ContiguousOffsetTracker<>();
+        TopicPartition other = new TopicPartition("topic", 1);
+        tracker.register(PARTITION, 0, "p0");
+        tracker.register(other, 0, "p1");
+
+        // When
+        tracker.revoke(List.of(PARTITION));
+
+        // Then
+        assertEquals(Optional.empty(), tracker.complete(PARTITION, 0));
+        assertEquals(Optional.of("p1"), tracker.complete(other, 0));
+    }
+
+    @Test
+    @DisplayName("Should retrack records after the consumer is rewound")
+    void shouldRetrackAfterRewind() {
+        // Given
+        ContiguousOffsetTracker<String> tracker = new ContiguousOffsetTracker<>();
+        tracker.register(PARTITION, 5, "first-5");
+        tracker.register(PARTITION, 6, "first-6");
+        tracker.complete(PARTITION, 6);
+
+        // When
+        tracker.register(PARTITION, 6, "second-6");
+
+        // Then
+        assertEquals(2, tracker.pending(PARTITION));
+        assertEquals(Optional.of("first-5"), tracker.complete(PARTITION, 5));
+        assertEquals(Optional.of("second-6"), tracker.complete(PARTITION, 6));
+    }
+}
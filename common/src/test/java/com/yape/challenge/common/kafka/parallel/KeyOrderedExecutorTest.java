@@ -0,0 +1,174 @@
+package com.yape.challenge.common.kafka.parallel;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Key Ordered Executor Tests")
+class KeyOrderedExecutorTest {
+
+    @Test
+    @DisplayName("Should run tasks of one key in submission order")
+    void shouldKeepOrderPerKey() throws Exception {
+        // Given
+        List<Integer> seen = new CopyOnWriteArrayList<>();
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor(100)) {
+
+            // When
+            for (int i = 0; i < 50; i++) {
+                int value = i;
+                executor.submit("key", () -> {
+                    if (value % 7 == 0) {
+                        sleep(2);
+                    }
+                    seen.add(value);
+                });
+            }
+            assertTrue(executor.awaitQuiescence(Duration.ofSeconds(5)));
+        }
+
+        // Then
+        assertEquals(50, seen.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, seen.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should not hold other keys behind a blocked key")
+    void shouldRunOtherKeysInParallel() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor(10)) {
+            CompletableFuture<Void> blocked = executor.submit("slow", () -> await(release));
+            CompletableFuture<Void> queued = executor.submit("slow", () -> { });
+
+            // When
+            CompletableFuture<Void> other = executor.submit("fast", () -> { });
+
+            // Then
+            other.get(5, TimeUnit.SECONDS);
+            assertFalse(blocked.isDone());
+            assertFalse(queued.isDone());
+            release.countDown();
+            queued.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep running later tasks of a key after a failure")
+    void shouldContinueAfterFailure() throws Exception {
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor(10)) {
+            CompletableFuture<Void> failed = executor.submit("key", () -> {
+                throw new IllegalStateException("boom");
+            });
+            CompletableFuture<Void> next = executor.submit("key", () -> { });
+
+            next.get(5, TimeUnit.SECONDS);
+            assertTrue(failed.isCompletedExceptionally());
+        }
+    }
+
+    @Test
+    @DisplayName("Should block submitters at the in-flight limit")
+    void shouldBoundInFlightTasks() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor(2)) {
+            executor.submit("a", () -> await(release));
+            executor.submit("b", () -> await(release));
+
+            // When
+            CompletableFuture<Void> third = CompletableFuture.runAsync(() -> {
+                try {
+                    executor.submit("c", () -> { });
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            // Then
+            Thread.sleep(100);
+            assertFalse(third.isDone());
+            assertEquals(2, executor.inFlight());
+            release.countDown();
+            third.get(5, TimeUnit.SECONDS);
+            assertTrue(executor.awaitQuiescence(Duration.ofSeconds(5)));
+            assertEquals(0, executor.activeKeys());
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse tasks at the in-flight limit without blocking and report releases")
+    void shouldRefuseAtLimitWithoutBlocking() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor(1)) {
+            executor.onRelease(released::countDown);
+            assertNotNull(executor.trySubmit("a", () -> await(release)));
+
+            // When
+            CompletableFuture<Void> refused = executor.trySubmit("b", () -> { });
+
+            // Then
+            assertNull(refused);
+            release.countDown();
+            assertTrue(released.await(5, TimeUnit.SECONDS));
+            assertNotNull(executor.trySubmit("b", () -> { }));
+        }
+    }
+
+    @Test
+    @DisplayName("Should apply a changed in-flight limit to later submissions")
+    void shouldResizeInFlightLimit() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor(1)) {
+            executor.submit("a", () -> await(release));
+
+            // When
+            executor.setMaxInFlight(2);
+            CompletableFuture<Void> second = executor.submit("b", () -> { });
+            executor.setMaxInFlight(1);
+
+            // Then
+            second.get(5, TimeUnit.SECONDS);
+            assertEquals(1, executor.getMaxInFlight());
+            assertEquals(1, executor.inFlight());
+            release.countDown();
+            assertTrue(executor.awaitQuiescence(Duration.ofSeconds(5)));
+            assertEquals(0, executor.inFlight());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive in-flight limit")
+    void shouldRejectInvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new KeyOrderedExecutor(0));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.yape.challenge.common.kafka.partitioning;
+
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Jump Hash Partitioner Tests")
+class JumpHashPartitionerTest {
+
+    private static final String TOPIC = "transaction-created";
+
+    private final JumpHashPartitioner partitioner = new JumpHashPartitioner();
+
+    @Test
+    @DisplayName("Should always map the same key to the same partition")
+    void shouldBeDeterministic() {
+        // Given
+        Cluster cluster = cluster(6);
+        byte[] key = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+        // When
+        int first = partitioner.partition(TOPIC, null, key, null, null, cluster);
+        int second = partitioner.partition(TOPIC, null, key, null, null, cluster);
+
+        // Then
+        assertEquals(first, second);
+        assertTrue(first >= 0 && first < 6);
+    }
+
+    @Test
+    @DisplayName("Should move only a small share of keys when partitions are added")
+    void shouldMoveFewKeysOnExpansion() {
+        // Given
+        Cluster before = cluster(6);
+        Cluster after = cluster(8);
+        int keys = 10_000;
+
+        // When
+        int moved = 0;
+        for (int i = 0; i < keys; i++) {
+            byte[] key = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+            int oldPartition = partitioner.partition(TOPIC, null, key, null, null, before);
+            int newPartition = partitioner.partition(TOPIC, null, key, null, null, after);
+            if (oldPartition != newPartition) {
+                moved++;
+                assertTrue(newPartition >= 6, "Keys only move to the new partitions");
+            }
+        }
+
+        // Then: expected share is 2/8
+        assertTrue(moved < keys * 0.3, "Moved " + moved + " keys");
+    }
+
+    @Test
+    @DisplayName("Should spread keys over all partitions")
+    void shouldSpreadKeys() {
+        // Given
+        Cluster cluster = cluster(4);
+        int[] counts = new int[4];
+
+        // When
+        for (int i = 0; i < 4_000; i++) {
+            byte[] key = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+            counts[partitioner.partition(TOPIC, null, key, null, null, cluster)]++;
+        }
+
+        // Then
+        for (int count : counts) {
+            assertTrue(count > 800, "Unbalanced partition with " + count + " keys");
+        }
+    }
+
+    private Cluster cluster(int partitions) {
+        Node node = new Node(0, "localhost", 9092);
+        List<PartitionInfo> infos = new ArrayList<>();
+        IntStream.range(0, partitions)
+                .forEach(p -> infos.add(new PartitionInfo(TOPIC, p, node, new Node[]{node}, new Node[]{node})));
+        return new Cluster("test", List.of(node), infos, Set.of(), Set.of());
+    }
+}
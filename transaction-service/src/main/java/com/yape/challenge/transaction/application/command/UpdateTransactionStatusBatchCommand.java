@@ -0,0 +1,16 @@
+package com.yape.challenge.transaction.application.command;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Command to apply a batch of status updates in a single database transaction
+ * Updates are in arrival order; for repeated externalIds the last one wins.
+ */
+@Data
+@Builder
+public class UpdateTransactionStatusBatchCommand {
+    private List<UpdateTransactionStatusCommand> updates;
+}
@@ -0,0 +1,35 @@
+package com.yape.challenge.transaction.application.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Outcome of an UpdateTransactionStatusBatchCommand
+ */
+@Data
+@Builder
+public class UpdateTransactionStatusBatchResult {
+
+    /**
+     * Transactions whose status changed
+     */
+    private int updated;
+
+    /**
+     * Transactions already in the requested status
+     */
+    private int unchanged;
+
+    /**
+     * Verdicts dropped because the transaction already has another final status
+     */
+    private int conflicts;
+
+    /**
+     * Referenced transactions that do not exist (yet); nothing was applied for them
+     */
+    private Set<UUID> notFound;
+}
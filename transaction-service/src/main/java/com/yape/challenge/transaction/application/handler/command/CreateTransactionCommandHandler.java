@@ -10,12 +10,18 @@ import com.yape.challenge.transaction.application.mapper.TransactionMapper;
 import com.yape.challenge.transaction.domain.entity.Transaction;
 import com.yape.challenge.transaction.domain.entity.TransactionType;
 import com.yape.challenge.transaction.domain.event.TransactionCreatedDomainEvent;
+import com.yape.challenge.transaction.domain.service.TransactionTypeCatalog;
+import com.yape.challenge.transaction.infrastructure.datasource.ReplicationLagGuard;
 import com.yape.challenge.transaction.infrastructure.eventstore.EventStore;
+import com.yape.challenge.transaction.infrastructure.kafka.producer.CreatedEventKey;
+import com.yape.challenge.transaction.infrastructure.kafka.producer.CreatedEventOutbox;
 import com.yape.challenge.transaction.infrastructure.kafka.producer.KafkaProducerService;
 import com.yape.challenge.transaction.infrastructure.repository.TransactionRepository;
-import com.yape.challenge.transaction.infrastructure.repository.TransactionTypeRepository;
+import com.yape.challenge.transaction.infrastructure.repository.TransactionViewRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,19 +38,38 @@ public class CreateTransactionCommandHandler implements CommandHandler<CreateTra
 
     private final EventStore eventStore;
     private final TransactionRepository transactionRepository;
-    private final TransactionTypeRepository transactionTypeRepository;
+    private final TransactionViewRepository transactionViewRepository;
+    private final TransactionTypeCatalog transactionTypeCatalog;
     private final TransactionMapper transactionMapper;
+    private final ReplicationLagGuard replicationLagGuard;
     private final KafkaProducerService kafkaProducerService;
+    private final ObjectProvider<CreatedEventOutbox> createdEventOutbox;
+
+    /**
+     * Off by default: an async send leaves after the commit through the outbox, which costs a row
+     * per transaction, while a blocking send failure rolls the transaction back
+     */
+    @Value("${app.kafka.producer.async:false}")
+    private boolean asyncKafkaSend;
+
+    /**
+     * Debit account by default: the antifraud velocity rules keep per-account state per partition
+     */
+    @Value("${app.kafka.producer.created-event-key:ACCOUNT_EXTERNAL_ID_DEBIT}")
+    private CreatedEventKey createdEventKey;
 
     @Override
     @Transactional
     public TransactionResponse handle(CreateTransactionCommand command) {
         log.info("Handling CreateTransactionCommand with Event Sourcing: {}", command);
 
-        // 1. Generate unique transaction ID
+        // 1. Validate transaction type before anything is written
+        TransactionType transactionType = transactionTypeCatalog.require(command.getTranferTypeId());
+
+        // 2. Generate unique transaction ID
         UUID transactionId = UUID.randomUUID();
 
-        // 2. Create domain event
+        // 3. Create domain event
         TransactionCreatedDomainEvent domainEvent = TransactionCreatedDomainEvent.builder()
                 .aggregateId(transactionId)
                 .accountExternalIdDebit(command.getAccountExternalIdDebit())
@@ -54,26 +79,28 @@ public class CreateTransactionCommandHandler implements CommandHandler<CreateTra
                 .occurredAt(LocalDateTime.now())
                 .build();
 
-        // 3. Save event to Event Store (persistence)
+        // 4. Save event to Event Store (persistence)
         eventStore.saveEvent(domainEvent);
         log.info("Domain event persisted in Event Store for transaction: {}", transactionId);
 
-        // 4. Apply event to create aggregate and save read model
+        // 5. Apply event to create aggregate and save read model and projection
         Transaction transaction = applyEvent(domainEvent);
         Transaction savedTransaction = transactionRepository.save(transaction);
+        transactionViewRepository.save(transactionMapper.toView(savedTransaction, transactionType));
+        replicationLagGuard.recordWrite(savedTransaction.getExternalId());
         log.info("Transaction read model saved with externalId: {}", savedTransaction.getExternalId());
 
-        // 5. Get transaction type
-        TransactionType transactionType = transactionTypeRepository.findById(command.getTranferTypeId())
-                .orElseThrow(() -> new IllegalArgumentException("Transaction type not found"));
-
-        // 6. Publish integration event to Kafka
+        // 6. Publish integration event to Kafka (after the commit, without waiting for the broker ack, in async mode)
         TransactionCreatedEvent kafkaEvent = transactionMapper.toCreatedEvent(savedTransaction);
-        kafkaProducerService.sendTransactionCreatedEvent(
-                KafkaTopics.TRANSACTION_CREATED,
-                savedTransaction.getExternalId().toString(),
-                kafkaEvent
-        );
+        if (asyncKafkaSend) {
+            createdEventOutbox.getObject().publishAfterCommit(createdEventKey.keyOf(kafkaEvent), kafkaEvent);
+        } else {
+            kafkaProducerService.sendTransactionCreatedEvent(
+                    KafkaTopics.TRANSACTION_CREATED,
+                    createdEventKey.keyOf(kafkaEvent),
+                    kafkaEvent
+            );
+        }
         log.info("Integration event published to Kafka for externalId: {}", savedTransaction.getExternalId());
 
         return transactionMapper.toResponse(savedTransaction, transactionType);
@@ -0,0 +1,179 @@
+package com.yape.challenge.transaction.application.handler.command;
+
+import com.yape.challenge.common.dto.TransactionStatus;
+import com.yape.challenge.transaction.application.command.UpdateTransactionStatusBatchCommand;
+import com.yape.challenge.transaction.application.command.UpdateTransactionStatusCommand;
+import com.yape.challenge.transaction.application.dto.response.UpdateTransactionStatusBatchResult;
+import com.yape.challenge.transaction.application.handler.CommandHandler;
+import com.yape.challenge.transaction.application.mapper.TransactionMapper;
+import com.yape.challenge.transaction.domain.entity.Transaction;
+import com.yape.challenge.transaction.domain.entity.TransactionView;
+import com.yape.challenge.transaction.domain.event.TransactionStatusChangedDomainEvent;
+import com.yape.challenge.transaction.domain.service.TransactionTypeCatalog;
+import com.yape.challenge.transaction.infrastructure.cache.TransactionCacheEvictor;
+import com.yape.challenge.transaction.infrastructure.datasource.ReplicationLagGuard;
+import com.yape.challenge.transaction.infrastructure.eventstore.EventStore;
+import com.yape.challenge.transaction.infrastructure.repository.TransactionRepository;
+import com.yape.challenge.transaction.infrastructure.repository.TransactionViewRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Handler for UpdateTransactionStatusBatchCommand
+ * Same semantics as UpdateTransactionStatusCommandHandler, with a fixed number of round trips
+ * per batch: one JDBC batch of conditional updates moves the transactions out of PENDING, one
+ * JDBC batch appends the events, one JDBC batch updates the read model and one Redis pipeline
+ * evicts the cached responses. Events are built only from the rows the updates actually changed;
+ * the rest are loaded with one query to tell unknown transactions (reported back to the caller)
+ * from ones already decided, whose verdict is counted as a conflict and dropped.
+ */
+@Component
+@Slf4j
+public class UpdateTransactionStatusBatchCommandHandler
+        implements CommandHandler<UpdateTransactionStatusBatchCommand, UpdateTransactionStatusBatchResult> {
+
+    private final EventStore eventStore;
+    private final TransactionRepository transactionRepository;
+    private final TransactionViewRepository transactionViewRepository;
+    private final TransactionTypeCatalog transactionTypeCatalog;
+    private final TransactionMapper transactionMapper;
+    private final ReplicationLagGuard replicationLagGuard;
+    private final TransactionCacheEvictor transactionCacheEvictor;
+    private final Counter conflicts;
+
+    public UpdateTransactionStatusBatchCommandHandler(EventStore eventStore,
+                                                      TransactionRepository transactionRepository,
+                                                      TransactionViewRepository transactionViewRepository,
+                                                      TransactionTypeCatalog transactionTypeCatalog,
+                                                      TransactionMapper transactionMapper,
+                                                      ReplicationLagGuard replicationLagGuard,
+                                                      TransactionCacheEvictor transactionCacheEvictor,
+                                                      MeterRegistry meterRegistry) {
+        this.eventStore = eventStore;
+        this.transactionRepository = transactionRepository;
+        this.transactionViewRepository = transactionViewRepository;
+        this.transactionTypeCatalog = transactionTypeCatalog;
+        this.transactionMapper = transactionMapper;
+        this.replicationLagGuard = replicationLagGuard;
+        this.transactionCacheEvictor = transactionCacheEvictor;
+        this.conflicts = UpdateTransactionStatusCommandHandler.conflictCounter(meterRegistry);
+    }
+
+    @Override
+    @Transactional
+    public UpdateTransactionStatusBatchResult handle(UpdateTransactionStatusBatchCommand command) {
+        // 1. Keep the first verdict of each transaction; a later different one could only conflict with it
+        Map<UUID, TransactionStatus> verdicts = new LinkedHashMap<>();
+        int conflicting = 0;
+        for (UpdateTransactionStatusCommand update : command.getUpdates()) {
+            TransactionStatus first = verdicts.putIfAbsent(update.getExternalId(), update.getStatus());
+            if (first != null && first != update.getStatus()) {
+                conflicting++;
+            }
+        }
+        log.info("Handling batch of {} status updates for {} transactions",
+                command.getUpdates().size(), verdicts.size());
+
+        // 2. Move every pending transaction to its verdict with one batch of conditional updates
+        Map<UUID, TransactionStatus> transitions = new LinkedHashMap<>(verdicts);
+        transitions.values().removeIf(status -> status == TransactionStatus.PENDING);
+        LocalDateTime now = LocalDateTime.now();
+        int[] counts = transactionRepository.transitionStatuses(transitions, TransactionStatus.PENDING, now);
+        List<Transaction> changed = new ArrayList<>();
+        List<Map.Entry<UUID, TransactionStatus>> applied = List.copyOf(transitions.entrySet());
+        for (int i = 0; i < applied.size() && i < counts.length; i++) {
+            if (counts[i] > 0) {
+                changed.add(Transaction.builder()
+                        .externalId(applied.get(i).getKey())
+                        .status(applied.get(i).getValue())
+                        .updatedAt(now)
+                        .build());
+            }
+        }
+
+        // 3. Tell unknown transactions from decided ones with one query over the rest
+        Set<UUID> notFound = new LinkedHashSet<>(verdicts.keySet());
+        changed.forEach(transaction -> notFound.remove(transaction.getExternalId()));
+        int unchanged = 0;
+        if (!notFound.isEmpty()) {
+            for (Transaction current : transactionRepository.findByExternalIdIn(List.copyOf(notFound))) {
+                notFound.remove(current.getExternalId());
+                TransactionStatus verdict = verdicts.get(current.getExternalId());
+                if (current.getStatus() == verdict) {
+                    unchanged++;
+                } else {
+                    conflicting++;
+                    log.warn("Dropping verdict {} for transaction {}, already final as {}",
+                            verdict, current.getExternalId(), current.getStatus());
+                }
+            }
+        }
+        conflicts.increment(conflicting);
+
+        if (!changed.isEmpty()) {
+            // 4. Append the events of the applied transitions with one batched insert
+            eventStore.saveEvents(changed.stream()
+                    .map(transaction -> TransactionStatusChangedDomainEvent.builder()
+                            .aggregateId(transaction.getExternalId())
+                            .oldStatus(TransactionStatus.PENDING)
+                            .newStatus(transaction.getStatus())
+                            .reason("Status updated via antifraud validation")
+                            .occurredAt(now)
+                            .build())
+                    .toList());
+
+            // 5. Apply to the read model
+            changed.forEach(transaction -> replicationLagGuard.recordWrite(transaction.getExternalId()));
+            backfillMissingViews(changed, transactionViewRepository.updateStatuses(changed));
+
+            // 6. Drop cached responses with one pipelined call once committed
+            transactionCacheEvictor.evictAfterCommit(changed.stream().map(Transaction::getExternalId).toList());
+        }
+
+        if (!notFound.isEmpty()) {
+            log.warn("{} status updates reference unknown transactions: {}", notFound.size(), notFound);
+        }
+        log.info("Status batch applied: {} updated, {} unchanged, {} conflicts, {} not found",
+                changed.size(), unchanged, conflicting, notFound.size());
+
+        return UpdateTransactionStatusBatchResult.builder()
+                .updated(changed.size())
+                .unchanged(unchanged)
+                .conflicts(conflicting)
+                .notFound(notFound)
+                .build();
+    }
+
+    /**
+     * Transactions created before the projection existed have no view yet
+     */
+    private void backfillMissingViews(List<Transaction> changed, int[] updatedViews) {
+        List<UUID> missing = new ArrayList<>();
+        for (int i = 0; i < changed.size(); i++) {
+            if (i < updatedViews.length && updatedViews[i] == 0) {
+                missing.add(changed.get(i).getExternalId());
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        List<TransactionView> views = new ArrayList<>(missing.size());
+        for (Transaction transaction : transactionRepository.findByExternalIdIn(missing)) {
+            views.add(transactionMapper.toView(transaction,
+                    transactionTypeCatalog.require(transaction.getTransferTypeId())));
+        }
+        transactionViewRepository.saveAll(views);
+    }
+}
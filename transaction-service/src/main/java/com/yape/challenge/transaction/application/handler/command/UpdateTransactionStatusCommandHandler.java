@@ -1,30 +1,71 @@
 package com.yape.challenge.transaction.application.handler.command;
 
+import com.yape.challenge.common.dto.TransactionStatus;
 import com.yape.challenge.transaction.application.command.UpdateTransactionStatusCommand;
 import com.yape.challenge.transaction.application.handler.CommandHandler;
+import com.yape.challenge.transaction.application.mapper.TransactionMapper;
 import com.yape.challenge.transaction.domain.entity.Transaction;
+import com.yape.challenge.transaction.domain.entity.TransactionType;
 import com.yape.challenge.transaction.domain.event.TransactionStatusChangedDomainEvent;
+import com.yape.challenge.transaction.domain.service.TransactionTypeCatalog;
+import com.yape.challenge.transaction.infrastructure.datasource.ReplicationLagGuard;
 import com.yape.challenge.transaction.infrastructure.eventstore.EventStore;
 import com.yape.challenge.transaction.infrastructure.repository.TransactionRepository;
-import lombok.RequiredArgsConstructor;
+import com.yape.challenge.transaction.infrastructure.repository.TransactionViewRepository;
+import com.yape.challenge.transaction.presentation.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 /**
  * Handler for UpdateTransactionStatusCommand with Event Sourcing
- * Implements cache invalidation for consistency
+ * Implements cache invalidation for consistency. The status is changed with a conditional
+ * update from PENDING instead of read-modify-write, so of concurrent verdicts for the same
+ * transaction exactly one is applied. APPROVED and REJECTED are final: a verdict that finds the
+ * transaction already decided otherwise (a replayed or re-evaluated one) is counted and dropped.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class UpdateTransactionStatusCommandHandler implements CommandHandler<UpdateTransactionStatusCommand, Void> {
 
     private final EventStore eventStore;
     private final TransactionRepository transactionRepository;
+    private final TransactionViewRepository transactionViewRepository;
+    private final TransactionTypeCatalog transactionTypeCatalog;
+    private final TransactionMapper transactionMapper;
+    private final ReplicationLagGuard replicationLagGuard;
+    private final Counter conflicts;
+
+    public UpdateTransactionStatusCommandHandler(EventStore eventStore,
+                                                 TransactionRepository transactionRepository,
+                                                 TransactionViewRepository transactionViewRepository,
+                                                 TransactionTypeCatalog transactionTypeCatalog,
+                                                 TransactionMapper transactionMapper,
+                                                 ReplicationLagGuard replicationLagGuard,
+                                                 MeterRegistry meterRegistry) {
+        this.eventStore = eventStore;
+        this.transactionRepository = transactionRepository;
+        this.transactionViewRepository = transactionViewRepository;
+        this.transactionTypeCatalog = transactionTypeCatalog;
+        this.transactionMapper = transactionMapper;
+        this.replicationLagGuard = replicationLagGuard;
+        this.conflicts = conflictCounter(meterRegistry);
+    }
+
+    /**
+     * Verdicts dropped because the transaction already has another final status
+     */
+    static Counter conflictCounter(MeterRegistry meterRegistry) {
+        return Counter.builder("transaction.status.conflicts")
+                .description("Verdicts dropped because the transaction already has another final status")
+                .register(meterRegistry);
+    }
 
     @Override
     @Transactional
@@ -32,34 +73,49 @@ public class UpdateTransactionStatusCommandHandler implements CommandHandler<Upd
     public Void handle(UpdateTransactionStatusCommand command) {
         log.info("Handling UpdateTransactionStatusCommand with Event Sourcing: {}", command);
 
-        // 1. Get current transaction state
-        Transaction transaction = transactionRepository.findByExternalId(command.getExternalId())
-                .orElseThrow(() -> new IllegalArgumentException("Transaction not found: " + command.getExternalId()));
-
-        // 2. Check if status actually changed
-        if (transaction.getStatus() == command.getStatus()) {
-            log.info("Transaction status unchanged: {}", command.getStatus());
+        // 1. Apply the transition with a conditional update; only a pending transaction takes a verdict
+        UUID externalId = command.getExternalId();
+        LocalDateTime occurredAt = LocalDateTime.now();
+        TransactionStatus expected = TransactionStatus.PENDING;
+        if (expected == command.getStatus()
+                || transactionRepository.transitionStatus(externalId, expected, command.getStatus(), occurredAt) == 0) {
+            // 2. Not applied: the transaction is missing or already decided
+            TransactionStatus current = transactionRepository.findStatusByExternalId(externalId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Transaction not found: " + externalId));
+            if (current == command.getStatus()) {
+                log.info("Transaction status unchanged: {}", command.getStatus());
+            } else {
+                conflicts.increment();
+                log.warn("Dropping verdict {} for transaction {}, already final as {}",
+                        command.getStatus(), externalId, current);
+            }
             return null;
         }
+        replicationLagGuard.recordWrite(externalId);
 
-        // 3. Create domain event for status change
+        // 3. Create domain event for the applied change; the update above guarantees it replaced PENDING
         TransactionStatusChangedDomainEvent domainEvent = TransactionStatusChangedDomainEvent.builder()
-                .aggregateId(command.getExternalId())
-                .oldStatus(transaction.getStatus())
+                .aggregateId(externalId)
+                .oldStatus(expected)
                 .newStatus(command.getStatus())
                 .reason("Status updated via antifraud validation")
-                .occurredAt(LocalDateTime.now())
+                .occurredAt(occurredAt)
                 .build();
 
         // 4. Save event to Event Store (persistence)
         eventStore.saveEvent(domainEvent);
         log.info("Domain event persisted in Event Store for transaction: {} - Status change: {} -> {}",
-                command.getExternalId(), domainEvent.getOldStatus(), domainEvent.getNewStatus());
+                externalId, domainEvent.getOldStatus(), domainEvent.getNewStatus());
 
-        // 5. Apply event to update aggregate and save read model
-        transaction.setStatus(command.getStatus());
-        transaction.setUpdatedAt(domainEvent.getOccurredAt());
-        transactionRepository.save(transaction);
+        // 5. Apply to the read model and projection
+        int updatedViews = transactionViewRepository.updateStatus(externalId, command.getStatus(), occurredAt);
+        if (updatedViews == 0) {
+            // Transaction created before the projection existed: backfill its view
+            Transaction transaction = transactionRepository.findByExternalId(externalId)
+                    .orElseThrow(() -> new IllegalStateException("Transaction vanished: " + externalId));
+            TransactionType transactionType = transactionTypeCatalog.require(transaction.getTransferTypeId());
+            transactionViewRepository.save(transactionMapper.toView(transaction, transactionType));
+        }
 
         log.info("Transaction status updated successfully and cache invalidated for externalId: {} - New status: {}",
                 command.getExternalId(), command.getStatus());
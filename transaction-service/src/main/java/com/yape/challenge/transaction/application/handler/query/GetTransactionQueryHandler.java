@@ -2,45 +2,44 @@ package com.yape.challenge.transaction.application.handler.query;
 
 import com.yape.challenge.transaction.application.dto.response.TransactionResponse;
 import com.yape.challenge.transaction.application.handler.QueryHandler;
-import com.yape.challenge.transaction.application.mapper.TransactionMapper;
 import com.yape.challenge.transaction.application.query.GetTransactionQuery;
-import com.yape.challenge.transaction.domain.entity.Transaction;
-import com.yape.challenge.transaction.domain.entity.TransactionType;
+import com.yape.challenge.transaction.infrastructure.cache.TransactionIdFilter;
+import com.yape.challenge.transaction.infrastructure.datasource.DataSourceRoute;
 import com.yape.challenge.transaction.infrastructure.repository.TransactionRepository;
-import com.yape.challenge.transaction.infrastructure.repository.TransactionTypeRepository;
 import com.yape.challenge.transaction.presentation.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
 
 /**
  * Handler for GetTransactionQuery
- * Implements caching for high volume read optimization
+ * Ids rejected by the TransactionIdFilter skip the cache and the row load: the miss is only
+ * confirmed with an index-only existence check on the primary, since ids created by another
+ * instance reach the local filter asynchronously (or not at all when the created event was lost).
+ * A confirmed id is added to the filter; everything else goes to the cached TransactionResponseReader.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class GetTransactionQueryHandler implements QueryHandler<GetTransactionQuery, TransactionResponse> {
 
+    private final TransactionIdFilter transactionIdFilter;
+    private final TransactionResponseReader transactionResponseReader;
     private final TransactionRepository transactionRepository;
-    private final TransactionTypeRepository transactionTypeRepository;
-    private final TransactionMapper transactionMapper;
 
     @Override
-    @Transactional(readOnly = true)
-    @Cacheable(value = "transactions", key = "#query.externalId.toString()", unless = "#result == null")
     public TransactionResponse handle(GetTransactionQuery query) {
-        log.info("Handling GetTransactionQuery: {} (cache miss)", query);
-
-        Transaction transaction = transactionRepository.findByExternalId(query.getExternalId())
-                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found"));
-
-        TransactionType transactionType = transactionTypeRepository.findById(transaction.getTransferTypeId())
-                .orElseThrow(() -> new IllegalArgumentException("Transaction type not found"));
-
-        return transactionMapper.toResponse(transaction, transactionType);
+        UUID externalId = query.getExternalId();
+        if (!transactionIdFilter.mightContain(externalId)) {
+            if (!DataSourceRoute.onPrimary(() -> transactionRepository.existsByExternalId(externalId))) {
+                log.debug("Transaction {} rejected by id filter", externalId);
+                throw new ResourceNotFoundException(TransactionResponseReader.NOT_FOUND_MESSAGE, false);
+            }
+            log.debug("Transaction {} missing from id filter, created elsewhere", externalId);
+            transactionIdFilter.put(externalId);
+        }
+        return transactionResponseReader.read(externalId);
     }
 }
-
@@ -0,0 +1,59 @@
+package com.yape.challenge.transaction.application.handler.query;
+
+import com.yape.challenge.transaction.application.dto.response.TransactionResponse;
+import com.yape.challenge.transaction.application.mapper.TransactionMapper;
+import com.yape.challenge.transaction.domain.entity.Transaction;
+import com.yape.challenge.transaction.domain.entity.TransactionType;
+import com.yape.challenge.transaction.domain.service.TransactionTypeCatalog;
+import com.yape.challenge.transaction.infrastructure.datasource.ReplicationLagGuard;
+import com.yape.challenge.transaction.infrastructure.repository.TransactionRepository;
+import com.yape.challenge.transaction.infrastructure.repository.TransactionViewRepository;
+import com.yape.challenge.transaction.presentation.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Cached read of a TransactionResponse, behind the TransactionIdFilter check of GetTransactionQueryHandler
+ * Misses are served from the denormalized TransactionView with one primary key lookup;
+ * the repository lookup runs in its own read-only transaction, routed to a read replica
+ * unless the ReplicationLagGuard keeps it on the primary
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionResponseReader {
+
+    static final String NOT_FOUND_MESSAGE = "Transaction not found";
+
+    private final TransactionViewRepository transactionViewRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTypeCatalog transactionTypeCatalog;
+    private final TransactionMapper transactionMapper;
+    private final ReplicationLagGuard replicationLagGuard;
+
+    @Cacheable(value = "transactions", key = "#externalId.toString()", unless = "#result == null")
+    public TransactionResponse read(UUID externalId) {
+        log.info("Reading transaction {} (cache miss)", externalId);
+
+        return replicationLagGuard.find(externalId, () -> transactionViewRepository.findById(externalId))
+                .map(transactionMapper::toResponse)
+                .orElseGet(() -> loadFromReadModel(externalId));
+    }
+
+    /**
+     * Fallback for transactions written before the projection existed
+     */
+    private TransactionResponse loadFromReadModel(UUID externalId) {
+        Transaction transaction = replicationLagGuard.find(externalId,
+                        () -> transactionRepository.findByExternalId(externalId))
+                .orElseThrow(() -> new ResourceNotFoundException(NOT_FOUND_MESSAGE, false));
+
+        TransactionType transactionType = transactionTypeCatalog.require(transaction.getTransferTypeId());
+
+        return transactionMapper.toResponse(transaction, transactionType);
+    }
+}
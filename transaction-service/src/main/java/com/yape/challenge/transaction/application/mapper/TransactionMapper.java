@@ -5,6 +5,7 @@ import com.yape.challenge.transaction.application.dto.request.CreateTransactionR
 import com.yape.challenge.transaction.application.dto.response.TransactionResponse;
 import com.yape.challenge.transaction.domain.entity.Transaction;
 import com.yape.challenge.transaction.domain.entity.TransactionType;
+import com.yape.challenge.transaction.domain.entity.TransactionView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
@@ -31,6 +32,30 @@ public interface TransactionMapper {
     @Mapping(target = "createdAt", source = "transaction.createdAt")
     TransactionResponse toResponse(Transaction transaction, TransactionType transactionType);
 
+    @Mapping(target = "externalId", source = "transaction.externalId")
+    @Mapping(target = "transactionTypeName", source = "transactionType.name")
+    @Mapping(target = "status", source = "transaction.status")
+    @Mapping(target = "value", source = "transaction.value")
+    @Mapping(target = "createdAt", source = "transaction.createdAt")
+    @Mapping(target = "updatedAt", source = "transaction.updatedAt")
+    @Mapping(target = "created", ignore = true)
+    TransactionView toView(Transaction transaction, TransactionType transactionType);
+
+    @Mapping(target = "transactionExternalId", source = "externalId")
+    @Mapping(target = "transactionType", source = "transactionTypeName", qualifiedByName = "mapTransactionTypeName")
+    @Mapping(target = "transactionStatus", source = "status", qualifiedByName = "mapTransactionStatus")
+    TransactionResponse toResponse(TransactionView view);
+
+    @Named("mapTransactionTypeName")
+    default TransactionResponse.TransactionTypeDto mapTransactionTypeName(String name) {
+        if (name == null) {
+            return null;
+        }
+        return TransactionResponse.TransactionTypeDto.builder()
+                .name(name)
+                .build();
+    }
+
     @Named("mapTransactionType")
     default TransactionResponse.TransactionTypeDto mapTransactionType(TransactionType transactionType) {
         if (transactionType == null) {
@@ -0,0 +1,51 @@
+package com.yape.challenge.transaction.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Next offset to consume for a topic partition, written in the same database transaction as
+ * the changes made by the records before it
+ */
+@Entity
+@Table(name = "kafka_consumer_offsets")
+@IdClass(ConsumerOffset.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumerOffset {
+
+    @Id
+    @Column(name = "group_id", length = 255)
+    private String groupId;
+
+    @Id
+    @Column(name = "topic", length = 255)
+    private String topic;
+
+    @Id
+    @Column(name = "partition_id")
+    private Integer partition;
+
+    @Column(name = "next_offset", nullable = false)
+    private Long nextOffset;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String groupId;
+        private String topic;
+        private Integer partition;
+    }
+}
@@ -0,0 +1,50 @@
+package com.yape.challenge.transaction.domain.entity;
+
+import com.yape.challenge.common.dto.TransactionStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Latest status verdict parked for a transaction that did not exist yet, kept until it is
+ * applied or dead-lettered so a crash does not lose it with its offset already committed
+ */
+@Entity
+@Table(name = "parked_status_verdicts", indexes = {
+        @Index(name = "idx_parked_status_owner", columnList = "owner"),
+        @Index(name = "idx_parked_status_parked_at", columnList = "parked_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkedStatusVerdict {
+
+    @Id
+    @Column(name = "external_id")
+    private UUID externalId;
+
+    /**
+     * Identifies this verdict among the ones parked for the transaction over time
+     */
+    @Column(name = "park_id", nullable = false)
+    private UUID parkId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private TransactionStatus status;
+
+    /**
+     * Instance holding the verdict in memory
+     */
+    @Column(name = "owner", nullable = false, length = 255)
+    private String owner;
+
+    @Column(name = "parked_at", nullable = false)
+    private LocalDateTime parkedAt;
+}
@@ -0,0 +1,63 @@
+package com.yape.challenge.transaction.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Outbox row of a transaction created event sent without waiting for the broker ack
+ * Inserted in the transaction that creates the transaction and deleted once the send is
+ * acknowledged, so a send that fails after the commit is re-published instead of lost.
+ */
+@Entity
+@Table(name = "pending_created_events", indexes = {
+        @Index(name = "idx_pending_created_recorded_at", columnList = "recorded_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingCreatedEvent implements Persistable<UUID> {
+
+    @Id
+    @Column(name = "external_id", nullable = false, updatable = false)
+    private UUID externalId;
+
+    @Column(name = "event_key", nullable = false, length = 64)
+    private String eventKey;
+
+    /**
+     * Moved forward by the instance that claims the row for re-publishing
+     */
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    /**
+     * Rows are always inserted with an assigned id; skips the SELECT a merge would issue
+     */
+    @Transient
+    @Builder.Default
+    private boolean created = true;
+
+    @Override
+    public UUID getId() {
+        return externalId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return created;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        created = false;
+    }
+}
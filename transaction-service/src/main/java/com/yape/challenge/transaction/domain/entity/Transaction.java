@@ -1,6 +1,7 @@
 package com.yape.challenge.transaction.domain.entity;
 
 import com.yape.challenge.common.dto.TransactionStatus;
+import com.yape.challenge.transaction.infrastructure.repository.TransactionEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,6 +19,7 @@ import java.util.UUID;
         @Index(name = "idx_external_id", columnList = "external_id", unique = true),
         @Index(name = "idx_status_created", columnList = "status, created_at")
 })
+@EntityListeners(TransactionEntityListener.class)
 @Data
 @Builder
 @NoArgsConstructor
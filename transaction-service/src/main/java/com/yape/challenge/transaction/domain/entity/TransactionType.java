@@ -1,5 +1,6 @@
 package com.yape.challenge.transaction.domain.entity;
 
+import com.yape.challenge.transaction.infrastructure.repository.TransactionTypeEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -8,6 +9,7 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "transaction_types")
+@EntityListeners(TransactionTypeEntityListener.class)
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,69 @@
+package com.yape.challenge.transaction.domain.entity;
+
+import com.yape.challenge.common.dto.TransactionStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Denormalized read projection holding everything a TransactionResponse needs
+ * Keyed by externalId so a cache miss is served with a single primary key lookup
+ */
+@Entity
+@Table(name = "transaction_views")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionView implements Persistable<UUID> {
+
+    @Id
+    @Column(name = "external_id", nullable = false, updatable = false)
+    private UUID externalId;
+
+    @Column(name = "transaction_type_name", nullable = false, length = 50)
+    private String transactionTypeName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TransactionStatus status;
+
+    @Column(name = "\"value\"", nullable = false, precision = 19, scale = 2)
+    private BigDecimal value;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Views are always inserted with an assigned id; skips the SELECT a merge would issue
+     */
+    @Transient
+    @Builder.Default
+    private boolean created = true;
+
+    @Override
+    public UUID getId() {
+        return externalId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return created;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        created = false;
+    }
+}
@@ -0,0 +1,136 @@
+package com.yape.challenge.transaction.domain.service;
+
+import com.yape.challenge.transaction.domain.entity.TransactionType;
+import com.yape.challenge.transaction.infrastructure.repository.TransactionTypeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * In-memory catalog of transaction types
+ * Loaded once at startup into an immutable array indexed by transferTypeId.
+ * Changes replace the whole array (copy-on-write), so lookups never lock or hit the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionTypeCatalog implements SmartInitializingSingleton {
+
+    private static final TransactionType[] EMPTY = new TransactionType[0];
+
+    private final TransactionTypeRepository transactionTypeRepository;
+
+    private volatile TransactionType[] types = EMPTY;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        refresh();
+    }
+
+    /**
+     * Reload the whole catalog from the database
+     */
+    public void refresh() {
+        List<TransactionType> loaded = transactionTypeRepository.findAll();
+        int maxId = loaded.stream().mapToInt(TransactionType::getId).max().orElse(0);
+
+        TransactionType[] snapshot = new TransactionType[maxId + 1];
+        for (TransactionType type : loaded) {
+            snapshot[type.getId()] = copyOf(type);
+        }
+        types = snapshot;
+        log.info("Transaction type catalog loaded with {} types", loaded.size());
+    }
+
+    /**
+     * Find a transaction type by id, or null when it is not in the catalog
+     */
+    public TransactionType find(Integer id) {
+        TransactionType[] snapshot = types;
+        if (id == null || id < 0 || id >= snapshot.length) {
+            return null;
+        }
+        return snapshot[id];
+    }
+
+    /**
+     * Get a transaction type by id, failing when it is not in the catalog
+     */
+    public TransactionType require(Integer id) {
+        TransactionType type = find(id);
+        if (type == null) {
+            throw new IllegalArgumentException("Transaction type not found");
+        }
+        return type;
+    }
+
+    public boolean contains(Integer id) {
+        return find(id) != null;
+    }
+
+    public int size() {
+        return (int) Arrays.stream(types).filter(Objects::nonNull).count();
+    }
+
+    /**
+     * Apply a created or updated type once the surrounding transaction commits
+     */
+    public void onTypeSaved(TransactionType type) {
+        TransactionType copy = copyOf(type);
+        afterCommit(() -> {
+            synchronized (this) {
+                TransactionType[] current = types;
+                TransactionType[] snapshot = Arrays.copyOf(current, Math.max(current.length, copy.getId() + 1));
+                snapshot[copy.getId()] = copy;
+                types = snapshot;
+            }
+            log.info("Transaction type catalog updated: {} -> {}", copy.getId(), copy.getName());
+        });
+    }
+
+    /**
+     * Drop a deleted type once the surrounding transaction commits
+     */
+    public void onTypeRemoved(TransactionType type) {
+        Integer id = type.getId();
+        afterCommit(() -> {
+            synchronized (this) {
+                TransactionType[] current = types;
+                if (id < current.length) {
+                    TransactionType[] snapshot = current.clone();
+                    snapshot[id] = null;
+                    types = snapshot;
+                }
+            }
+            log.info("Transaction type removed from catalog: {}", id);
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static TransactionType copyOf(TransactionType type) {
+        return TransactionType.builder()
+                .id(type.getId())
+                .name(type.getName())
+                .description(type.getDescription())
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.yape.challenge.transaction.infrastructure.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Base class for type-specific binary Redis serializers
+ * Every value starts with a one byte header: format version in the low nibble and
+ * a compression flag. Payloads larger than the configured threshold are deflated
+ * when that actually makes them smaller.
+ *
+ * @param <T> Cached value type
+ */
+public abstract class CompactBinaryRedisSerializer<T> implements RedisSerializer<T> {
+
+    static final int FLAG_COMPRESSED = 0x80;
+    static final int VERSION_MASK = 0x0F;
+
+    private final int compressionThreshold;
+
+    protected CompactBinaryRedisSerializer(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Format version written in the header, bumped on any incompatible layout change
+     */
+    protected abstract int formatVersion();
+
+    protected abstract void writePayload(DataOutput out, T value) throws IOException;
+
+    protected abstract T readPayload(DataInput in) throws IOException;
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+            buffer.write(formatVersion());
+            writePayload(new DataOutputStream(buffer), value);
+            byte[] raw = buffer.toByteArray();
+
+            if (compressionThreshold > 0 && raw.length > compressionThreshold) {
+                byte[] compressed = compress(raw);
+                if (compressed.length < raw.length) {
+                    return compressed;
+                }
+            }
+            return raw;
+        } catch (IOException e) {
+            throw new SerializationException("Could not write binary cache value", e);
+        }
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        int header = bytes[0] & 0xFF;
+        if ((header & VERSION_MASK) != formatVersion()) {
+            throw new SerializationException("Unsupported binary cache format version: " + (header & VERSION_MASK));
+        }
+        try {
+            InputStream payload = new ByteArrayInputStream(bytes, 1, bytes.length - 1);
+            if ((header & FLAG_COMPRESSED) != 0) {
+                payload = new InflaterInputStream(payload);
+            }
+            return readPayload(new DataInputStream(payload));
+        } catch (IOException e) {
+            throw new SerializationException("Could not read binary cache value", e);
+        }
+    }
+
+    private byte[] compress(byte[] raw) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(raw.length);
+        buffer.write(raw[0] | FLAG_COMPRESSED);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(buffer, deflater)) {
+            out.write(raw, 1, raw.length - 1);
+        } finally {
+            deflater.end();
+        }
+        return buffer.toByteArray();
+    }
+}
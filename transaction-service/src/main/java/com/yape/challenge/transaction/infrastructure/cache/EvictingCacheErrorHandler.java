@@ -0,0 +1,28 @@
+package com.yape.challenge.transaction.infrastructure.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.SimpleCacheErrorHandler;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Treats a cached value that can no longer be read as a miss
+ * An entry written in another format (e.g. by an older release) is evicted and the value is
+ * loaded again instead of failing the request. Other cache errors propagate as before.
+ */
+@Slf4j
+public class EvictingCacheErrorHandler extends SimpleCacheErrorHandler {
+
+    @Override
+    public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+        if (!(exception instanceof SerializationException)) {
+            throw exception;
+        }
+        log.warn("Unreadable entry {} in cache {}, evicting it: {}", key, cache.getName(), exception.getMessage());
+        try {
+            cache.evict(key);
+        } catch (RuntimeException e) {
+            log.warn("Could not evict unreadable entry {} from cache {}: {}", key, cache.getName(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.yape.challenge.transaction.infrastructure.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bulk eviction of cached TransactionResponses
+ * With Redis every key is deleted in one pipelined round trip instead of one DEL per key;
+ * other cache managers fall back to evicting one key at a time, and without caching it does
+ * nothing. Inside a transaction the
+ * eviction runs after commit, like @CacheEvict on the transaction-aware cache manager.
+ */
+@Component
+@Slf4j
+public class TransactionCacheEvictor {
+
+    static final String CACHE_NAME = "transactions";
+
+    private final ObjectProvider<CacheManager> cacheManagerProvider;
+    private final ObjectProvider<RedisConnectionFactory> connectionFactoryProvider;
+
+    public TransactionCacheEvictor(ObjectProvider<CacheManager> cacheManagerProvider,
+                                   ObjectProvider<RedisConnectionFactory> connectionFactoryProvider) {
+        this.cacheManagerProvider = cacheManagerProvider;
+        this.connectionFactoryProvider = connectionFactoryProvider;
+    }
+
+    public void evictAfterCommit(Collection<UUID> externalIds) {
+        if (externalIds.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = List.copyOf(externalIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(ids);
+                }
+            });
+        } else {
+            evict(ids);
+        }
+    }
+
+    void evict(List<UUID> ids) {
+        CacheManager cacheManager = cacheManagerProvider.getIfAvailable();
+        if (cacheManager == null) {
+            return;
+        }
+        RedisConnectionFactory connectionFactory = connectionFactoryProvider.getIfAvailable();
+        if (cacheManager instanceof RedisCacheManager redisCacheManager && connectionFactory != null) {
+            RedisCacheConfiguration config = redisCacheManager.getCacheConfigurations().get(CACHE_NAME);
+            if (config != null) {
+                evictPipelined(connectionFactory, config, ids);
+                return;
+            }
+        }
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+            ids.forEach(id -> cache.evict(id.toString()));
+        }
+    }
+
+    private void evictPipelined(RedisConnectionFactory connectionFactory, RedisCacheConfiguration config,
+                                List<UUID> ids) {
+        String prefix = config.usePrefix() ? config.getKeyPrefixFor(CACHE_NAME) : "";
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            for (UUID id : ids) {
+                connection.keyCommands().del(ByteUtils.getBytes(
+                        config.getKeySerializationPair().write(prefix + id)));
+            }
+            connection.closePipeline();
+            log.debug("Evicted {} keys from {} in one pipeline", ids.size(), CACHE_NAME);
+        } catch (RuntimeException e) {
+            // Already committed: stale entries only live until their (short, PENDING) TTL expires
+            log.warn("Could not evict {} keys from {}: {}", ids.size(), CACHE_NAME, e.getMessage());
+        }
+    }
+}
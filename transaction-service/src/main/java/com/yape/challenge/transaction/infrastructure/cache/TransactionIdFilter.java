@@ -0,0 +1,130 @@
+package com.yape.challenge.transaction.infrastructure.cache;
+
+import com.yape.challenge.transaction.infrastructure.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Negative-lookup filter of known transaction externalIds
+ * Lets the query path answer misses with an existence check instead of Redis and a row load;
+ * a miss is not final, since ids created by other instances arrive asynchronously.
+ * Until the startup rebuild completes every id is reported as possibly present. Ids created
+ * elsewhere while the rebuild streams the table reach the filter through the sync consumer, which
+ * replays transaction-created from syncFromMillis, a lookback before this instance started.
+ */
+@Component
+@Slf4j
+public class TransactionIdFilter implements SmartInitializingSingleton {
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final long syncFromMillis;
+
+    private final AtomicLong definiteMisses = new AtomicLong();
+
+    private volatile UuidBloomFilter active;
+    private volatile UuidBloomFilter building;
+
+    public TransactionIdFilter(TransactionRepository transactionRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.id-filter.enabled:true}") boolean enabled,
+                               @Value("${app.id-filter.expected-insertions:1000000}") long expectedInsertions,
+                               @Value("${app.id-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${app.id-filter.sync-lookback:PT1M}") Duration syncLookback) {
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        // Taken before the rebuild snapshot; the lookback covers clock skew between instances
+        this.syncFromMillis = System.currentTimeMillis() - syncLookback.toMillis();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled) {
+            Thread.ofVirtual().name("transaction-id-filter-rebuild").start(this::rebuild);
+        }
+    }
+
+    /**
+     * Rebuild the filter from every externalId in the read model
+     * Ids added while the rebuild runs go into both the old and the new filter.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        UuidBloomFilter fresh = new UuidBloomFilter(expectedInsertions, falsePositiveRate);
+        building = fresh;
+        try {
+            Long count = transactionTemplate.execute(status -> {
+                try (Stream<UUID> ids = transactionRepository.streamAllExternalIds()) {
+                    return ids.peek(fresh::put).count();
+                }
+            });
+            active = fresh;
+            log.info("Transaction id filter rebuilt with {} ids in {} ms ({} bits, {} hashes)",
+                    count, System.currentTimeMillis() - start, fresh.bitSize(), fresh.hashCount());
+        } catch (Exception e) {
+            log.error("Could not rebuild transaction id filter, lookups stay unfiltered: {}", e.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    public void put(UUID externalId) {
+        UuidBloomFilter current = active;
+        if (current != null) {
+            current.put(externalId);
+        }
+        UuidBloomFilter next = building;
+        if (next != null) {
+            next.put(externalId);
+        }
+    }
+
+    /**
+     * @return false when this instance has not seen the externalId, which may still have been
+     * created by another instance
+     */
+    public boolean mightContain(UUID externalId) {
+        UuidBloomFilter current = active;
+        if (!enabled || current == null || current.mightContain(externalId)) {
+            return true;
+        }
+        definiteMisses.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Record timestamp the sync consumer replays transaction-created from
+     */
+    public long syncFromMillis() {
+        return syncFromMillis;
+    }
+
+    public boolean isReady() {
+        return active != null;
+    }
+
+    public long getDefiniteMisses() {
+        return definiteMisses.get();
+    }
+
+    public double getExpectedFalsePositiveRate() {
+        UuidBloomFilter current = active;
+        return current != null ? current.expectedFalsePositiveRate() : 1.0;
+    }
+}
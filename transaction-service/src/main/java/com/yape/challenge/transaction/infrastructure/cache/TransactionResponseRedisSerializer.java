@@ -0,0 +1,130 @@
+package com.yape.challenge.transaction.infrastructure.cache;
+
+import com.yape.challenge.common.dto.TransactionStatus;
+import com.yape.challenge.transaction.application.dto.response.TransactionResponse;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Binary Redis serializer for cached TransactionResponse values
+ * Fixed field layout without class names or field names:
+ * presence bitmask, UUID as two longs, type name, status ordinal,
+ * BigDecimal as scale plus unscaled bytes and createdAt as epoch seconds plus nanos.
+ */
+public class TransactionResponseRedisSerializer extends CompactBinaryRedisSerializer<TransactionResponse> {
+
+    private static final int VERSION = 1;
+
+    private static final int HAS_ID = 1;
+    private static final int HAS_TYPE = 1 << 1;
+    private static final int HAS_STATUS = 1 << 2;
+    private static final int HAS_VALUE = 1 << 3;
+    private static final int HAS_CREATED_AT = 1 << 4;
+
+    /**
+     * Status marker for names that are not part of TransactionStatus, followed by the raw name
+     */
+    private static final int UNKNOWN_STATUS = 0xFF;
+
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    public TransactionResponseRedisSerializer(int compressionThreshold) {
+        super(compressionThreshold);
+    }
+
+    @Override
+    protected int formatVersion() {
+        return VERSION;
+    }
+
+    @Override
+    protected void writePayload(DataOutput out, TransactionResponse value) throws IOException {
+        String typeName = value.getTransactionType() != null ? value.getTransactionType().getName() : null;
+        String statusName = value.getTransactionStatus() != null ? value.getTransactionStatus().getName() : null;
+
+        int mask = 0;
+        if (value.getTransactionExternalId() != null) mask |= HAS_ID;
+        if (typeName != null) mask |= HAS_TYPE;
+        if (statusName != null) mask |= HAS_STATUS;
+        if (value.getValue() != null) mask |= HAS_VALUE;
+        if (value.getCreatedAt() != null) mask |= HAS_CREATED_AT;
+        out.writeByte(mask);
+
+        if ((mask & HAS_ID) != 0) {
+            out.writeLong(value.getTransactionExternalId().getMostSignificantBits());
+            out.writeLong(value.getTransactionExternalId().getLeastSignificantBits());
+        }
+        if ((mask & HAS_TYPE) != 0) {
+            out.writeUTF(typeName);
+        }
+        if ((mask & HAS_STATUS) != 0) {
+            writeStatus(out, statusName);
+        }
+        if ((mask & HAS_VALUE) != 0) {
+            byte[] unscaled = value.getValue().unscaledValue().toByteArray();
+            out.writeInt(value.getValue().scale());
+            out.writeShort(unscaled.length);
+            out.write(unscaled);
+        }
+        if ((mask & HAS_CREATED_AT) != 0) {
+            out.writeLong(value.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getCreatedAt().getNano());
+        }
+    }
+
+    @Override
+    protected TransactionResponse readPayload(DataInput in) throws IOException {
+        int mask = in.readUnsignedByte();
+        TransactionResponse.TransactionResponseBuilder builder = TransactionResponse.builder();
+
+        if ((mask & HAS_ID) != 0) {
+            builder.transactionExternalId(new UUID(in.readLong(), in.readLong()));
+        }
+        if ((mask & HAS_TYPE) != 0) {
+            builder.transactionType(TransactionResponse.TransactionTypeDto.builder()
+                    .name(in.readUTF())
+                    .build());
+        }
+        if ((mask & HAS_STATUS) != 0) {
+            builder.transactionStatus(TransactionResponse.TransactionStatusDto.builder()
+                    .name(readStatus(in))
+                    .build());
+        }
+        if ((mask & HAS_VALUE) != 0) {
+            int scale = in.readInt();
+            byte[] unscaled = new byte[in.readUnsignedShort()];
+            in.readFully(unscaled);
+            builder.value(new BigDecimal(new BigInteger(unscaled), scale));
+        }
+        if ((mask & HAS_CREATED_AT) != 0) {
+            builder.createdAt(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC));
+        }
+        return builder.build();
+    }
+
+    private void writeStatus(DataOutput out, String statusName) throws IOException {
+        for (TransactionStatus status : STATUSES) {
+            if (status.name().equals(statusName)) {
+                out.writeByte(status.ordinal());
+                return;
+            }
+        }
+        out.writeByte(UNKNOWN_STATUS);
+        out.writeUTF(statusName);
+    }
+
+    private String readStatus(DataInput in) throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if (ordinal == UNKNOWN_STATUS) {
+            return in.readUTF();
+        }
+        return STATUSES[ordinal].name();
+    }
+}
@@ -0,0 +1,57 @@
+package com.yape.challenge.transaction.infrastructure.cache;
+
+import com.yape.challenge.common.dto.TransactionStatus;
+import com.yape.challenge.transaction.application.dto.response.TransactionResponse;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-entry TTL for the transactions region based on the cached status
+ * PENDING entries live briefly since they change within seconds; APPROVED and REJECTED
+ * never change again and get a long TTL, spread by a random jitter so entries cached
+ * together do not expire together.
+ */
+public class TransactionStatusTtlFunction implements RedisCacheWriter.TtlFunction {
+
+    private final Duration pendingTtl;
+    private final Duration terminalTtl;
+    private final Duration fallbackTtl;
+    private final double terminalJitter;
+
+    public TransactionStatusTtlFunction(Duration pendingTtl, Duration terminalTtl,
+                                        Duration fallbackTtl, double terminalJitter) {
+        if (terminalJitter < 0 || terminalJitter >= 1) {
+            throw new IllegalArgumentException("terminalJitter must be in [0, 1)");
+        }
+        this.pendingTtl = pendingTtl;
+        this.terminalTtl = terminalTtl;
+        this.fallbackTtl = fallbackTtl;
+        this.terminalJitter = terminalJitter;
+    }
+
+    @Override
+    public Duration getTimeToLive(Object key, Object value) {
+        if (!(value instanceof TransactionResponse response) || response.getTransactionStatus() == null) {
+            return fallbackTtl;
+        }
+        String status = response.getTransactionStatus().getName();
+        if (TransactionStatus.PENDING.name().equals(status)) {
+            return pendingTtl;
+        }
+        if (TransactionStatus.APPROVED.name().equals(status) || TransactionStatus.REJECTED.name().equals(status)) {
+            return withJitter(terminalTtl);
+        }
+        return fallbackTtl;
+    }
+
+    private Duration withJitter(Duration ttl) {
+        if (terminalJitter == 0) {
+            return ttl;
+        }
+        long millis = ttl.toMillis();
+        long spread = (long) (millis * terminalJitter);
+        return Duration.ofMillis(millis - ThreadLocalRandom.current().nextLong(spread + 1));
+    }
+}
@@ -0,0 +1,68 @@
+package com.yape.challenge.transaction.infrastructure.cache.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+
+/**
+ * Micrometer meters for a single cache region
+ */
+@Getter
+public class CacheRegionMetrics {
+
+    private final String region;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter puts;
+    private final Counter evictions;
+    private final Timer getLatency;
+    private final Timer putLatency;
+    private final Timer evictLatency;
+    private final Timer loadDuration;
+    private final DistributionSummary writtenValueSize;
+    private final DistributionSummary readValueSize;
+    private final HotKeyTracker hotKeys;
+
+    public CacheRegionMetrics(String region, MeterRegistry registry, int hotKeyCapacity, int hotKeySampleRate) {
+        this.region = region;
+        this.hits = Counter.builder("cache.gets").tag("cache", region).tag("result", "hit")
+                .description("Cache lookups that found a value").register(registry);
+        this.misses = Counter.builder("cache.gets").tag("cache", region).tag("result", "miss")
+                .description("Cache lookups that found nothing").register(registry);
+        this.puts = Counter.builder("cache.puts").tag("cache", region)
+                .description("Values written to the cache").register(registry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", region)
+                .description("Explicit evictions and clears").register(registry);
+        this.getLatency = redisLatency(registry, region, "get");
+        this.putLatency = redisLatency(registry, region, "put");
+        this.evictLatency = redisLatency(registry, region, "evict");
+        this.loadDuration = Timer.builder("cache.load.duration").tag("cache", region)
+                .description("Time spent loading a missing value")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        this.writtenValueSize = valueSize(registry, region, "write");
+        this.readValueSize = valueSize(registry, region, "read");
+        this.hotKeys = new HotKeyTracker(hotKeyCapacity, hotKeySampleRate);
+    }
+
+    public double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private static Timer redisLatency(MeterRegistry registry, String region, String operation) {
+        return Timer.builder("cache.redis.latency").tag("cache", region).tag("operation", operation)
+                .description("Redis round trip including value (de)serialization")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    private static DistributionSummary valueSize(MeterRegistry registry, String region, String operation) {
+        return DistributionSummary.builder("cache.value.size").tag("cache", region).tag("operation", operation)
+                .baseUnit("bytes")
+                .description("Serialized cache value size")
+                .register(registry);
+    }
+}
@@ -0,0 +1,32 @@
+package com.yape.challenge.transaction.infrastructure.cache.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates and holds the CacheRegionMetrics of every cache region
+ */
+public class CacheRegionMetricsRegistry {
+
+    private final MeterRegistry meterRegistry;
+    private final int hotKeyCapacity;
+    private final int hotKeySampleRate;
+    private final Map<String, CacheRegionMetrics> regions = new ConcurrentHashMap<>();
+
+    public CacheRegionMetricsRegistry(MeterRegistry meterRegistry, int hotKeyCapacity, int hotKeySampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.hotKeyCapacity = hotKeyCapacity;
+        this.hotKeySampleRate = hotKeySampleRate;
+    }
+
+    public CacheRegionMetrics region(String name) {
+        return regions.computeIfAbsent(name,
+                region -> new CacheRegionMetrics(region, meterRegistry, hotKeyCapacity, hotKeySampleRate));
+    }
+
+    public Map<String, CacheRegionMetrics> regions() {
+        return Map.copyOf(regions);
+    }
+}
@@ -0,0 +1,132 @@
+package com.yape.challenge.transaction.infrastructure.cache.metrics;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actuator endpoint reporting per-region cache statistics, estimated Redis memory and hot keys
+ * GET /actuator/cacheregions and /actuator/cacheregions/{region}
+ */
+@Endpoint(id = "cacheregions")
+@RequiredArgsConstructor
+@Slf4j
+public class CacheRegionsEndpoint {
+
+    private static final int TOP_KEYS = 20;
+
+    private final RedisCacheManager cacheManager;
+    private final RedisConnectionFactory connectionFactory;
+    private final CacheRegionMetricsRegistry metricsRegistry;
+    private final int maxScannedKeys;
+    private final int memorySampleSize;
+
+    @ReadOperation
+    public Map<String, Object> regions() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            Map<String, Object> regions = new LinkedHashMap<>();
+            for (String name : cacheManager.getCacheNames()) {
+                regions.put(name, describe(connection, name));
+            }
+            report.put("regions", regions);
+            report.put("redis", redisStats(connection));
+        }
+        return report;
+    }
+
+    @ReadOperation
+    public Map<String, Object> region(@Selector String region) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            return describe(connection, region);
+        }
+    }
+
+    private Map<String, Object> describe(RedisConnection connection, String name) {
+        CacheRegionMetrics metrics = metricsRegistry.region(name);
+        Map<String, Object> region = new LinkedHashMap<>();
+        region.put("hits", (long) metrics.getHits().count());
+        region.put("misses", (long) metrics.getMisses().count());
+        region.put("hitRatio", metrics.hitRatio());
+        region.put("puts", (long) metrics.getPuts().count());
+        region.put("evictions", (long) metrics.getEvictions().count());
+        region.put("meanLoadMillis", metrics.getLoadDuration().mean(TimeUnit.MILLISECONDS));
+        region.put("meanRedisGetMillis", metrics.getGetLatency().mean(TimeUnit.MILLISECONDS));
+        region.put("meanValueBytes", metrics.getWrittenValueSize().mean());
+        region.putAll(estimateMemory(connection, name));
+        region.put("topKeys", topKeys(metrics));
+        return region;
+    }
+
+    /**
+     * Count the region's keys with SCAN (bounded by maxScannedKeys) and extrapolate
+     * MEMORY USAGE of the first memorySampleSize keys to the whole region
+     */
+    private Map<String, Object> estimateMemory(RedisConnection connection, String name) {
+        RedisCacheConfiguration configuration = cacheManager.getCacheConfigurations().get(name);
+        String prefix = configuration != null ? configuration.getKeyPrefixFor(name) : name + "::";
+
+        long keys = 0;
+        long sampledBytes = 0;
+        int sampled = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(prefix + "*").count(1000).build();
+        try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+            while (cursor.hasNext() && keys < maxScannedKeys) {
+                byte[] key = cursor.next();
+                keys++;
+                if (sampled < memorySampleSize) {
+                    Object usage = connection.execute("MEMORY", "USAGE".getBytes(StandardCharsets.UTF_8), key);
+                    if (usage instanceof Long bytes) {
+                        sampledBytes += bytes;
+                        sampled++;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not estimate memory for cache region '{}': {}", name, e.getMessage());
+        }
+
+        Map<String, Object> memory = new LinkedHashMap<>();
+        memory.put("keyPrefix", prefix);
+        memory.put("entries", keys);
+        memory.put("entriesTruncated", keys >= maxScannedKeys);
+        memory.put("estimatedBytes", sampled == 0 ? 0 : sampledBytes / sampled * keys);
+        return memory;
+    }
+
+    private List<Map<String, Object>> topKeys(CacheRegionMetrics metrics) {
+        return metrics.getHotKeys().top(TOP_KEYS).stream()
+                .map(entry -> Map.<String, Object>of("key", entry.getKey(), "accesses", entry.getValue()))
+                .toList();
+    }
+
+    private Map<String, Object> redisStats(RedisConnection connection) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        try {
+            Properties memory = connection.serverCommands().info("memory");
+            Properties counters = connection.serverCommands().info("stats");
+            stats.put("usedMemory", memory != null ? memory.getProperty("used_memory") : null);
+            stats.put("maxMemory", memory != null ? memory.getProperty("maxmemory") : null);
+            stats.put("evictedKeys", counters != null ? counters.getProperty("evicted_keys") : null);
+            stats.put("expiredKeys", counters != null ? counters.getProperty("expired_keys") : null);
+        } catch (Exception e) {
+            log.warn("Could not read Redis INFO: {}", e.getMessage());
+        }
+        return stats;
+    }
+}
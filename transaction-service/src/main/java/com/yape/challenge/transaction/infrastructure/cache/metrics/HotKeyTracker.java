@@ -0,0 +1,65 @@
+package com.yape.challenge.transaction.infrastructure.cache.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Approximate top-N key tracker (Space-Saving algorithm) over a sample of accesses
+ * Memory is bounded by the capacity; only one in sampleRate accesses takes the lock.
+ */
+public class HotKeyTracker {
+
+    private final int capacity;
+    private final int sampleRate;
+    private final Map<String, long[]> counters;
+
+    public HotKeyTracker(int capacity, int sampleRate) {
+        this.capacity = capacity;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void record(Object key) {
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return;
+        }
+        String name = String.valueOf(key);
+        synchronized (counters) {
+            long[] counter = counters.get(name);
+            if (counter != null) {
+                counter[0]++;
+                return;
+            }
+            if (counters.size() < capacity) {
+                counters.put(name, new long[]{1});
+                return;
+            }
+            // Replace the least counted key and inherit its count (Space-Saving)
+            Map.Entry<String, long[]> min = null;
+            for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+                if (min == null || entry.getValue()[0] < min.getValue()[0]) {
+                    min = entry;
+                }
+            }
+            long inherited = min.getValue()[0];
+            counters.remove(min.getKey());
+            counters.put(name, new long[]{inherited + 1});
+        }
+    }
+
+    /**
+     * @return up to limit keys ordered by estimated access count, scaled back by the sample rate
+     */
+    public List<Map.Entry<String, Long>> top(int limit) {
+        List<Map.Entry<String, Long>> snapshot = new ArrayList<>();
+        synchronized (counters) {
+            counters.forEach((key, counter) -> snapshot.add(Map.entry(key, counter[0] * sampleRate)));
+        }
+        snapshot.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        return snapshot.subList(0, Math.min(limit, snapshot.size()));
+    }
+}
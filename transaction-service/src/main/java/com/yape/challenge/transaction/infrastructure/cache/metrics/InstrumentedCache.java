@@ -0,0 +1,149 @@
+package com.yape.challenge.transaction.infrastructure.cache.metrics;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache decorator recording hits, misses, evictions, Redis latency and load time per region
+ * Load time covers the gap between a miss and the put of the same key that follows it on the
+ * same thread in this region, which is how non-synchronized @Cacheable methods populate the cache.
+ * A miss whose load failed is dropped by the next get or put on the thread, whatever its key.
+ */
+public class InstrumentedCache implements Cache {
+
+    private final Cache delegate;
+    private final CacheRegionMetrics metrics;
+    private final ThreadLocal<PendingLoad> pendingLoad = new ThreadLocal<>();
+
+    public InstrumentedCache(Cache delegate, CacheRegionMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        long start = System.nanoTime();
+        ValueWrapper value = delegate.get(key);
+        recordGet(key, value != null, start);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        long start = System.nanoTime();
+        T value = delegate.get(key, type);
+        recordGet(key, value != null, start);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        long start = System.nanoTime();
+        boolean[] loaded = new boolean[1];
+        T value = delegate.get(key, () -> {
+            loaded[0] = true;
+            long loadStart = System.nanoTime();
+            try {
+                return valueLoader.call();
+            } finally {
+                metrics.getLoadDuration().record(System.nanoTime() - loadStart, TimeUnit.NANOSECONDS);
+            }
+        });
+        metrics.getHotKeys().record(key);
+        (loaded[0] ? metrics.getMisses() : metrics.getHits()).increment();
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        long start = System.nanoTime();
+        delegate.put(key, value);
+        long end = System.nanoTime();
+        metrics.getPutLatency().record(end - start, TimeUnit.NANOSECONDS);
+        metrics.getPuts().increment();
+        recordLoad(key, start);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        long start = System.nanoTime();
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        long end = System.nanoTime();
+        metrics.getPutLatency().record(end - start, TimeUnit.NANOSECONDS);
+        if (existing == null) {
+            metrics.getPuts().increment();
+        }
+        recordLoad(key, start);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        long start = System.nanoTime();
+        delegate.evict(key);
+        metrics.getEvictLatency().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        metrics.getEvictions().increment();
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        long start = System.nanoTime();
+        boolean evicted = delegate.evictIfPresent(key);
+        metrics.getEvictLatency().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (evicted) {
+            metrics.getEvictions().increment();
+        }
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        metrics.getEvictions().increment();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = delegate.invalidate();
+        metrics.getEvictions().increment();
+        return invalidated;
+    }
+
+    private void recordGet(Object key, boolean hit, long start) {
+        long end = System.nanoTime();
+        metrics.getGetLatency().record(end - start, TimeUnit.NANOSECONDS);
+        metrics.getHotKeys().record(key);
+        if (hit) {
+            metrics.getHits().increment();
+            pendingLoad.remove();
+        } else {
+            metrics.getMisses().increment();
+            pendingLoad.set(new PendingLoad(key, end));
+        }
+    }
+
+    private void recordLoad(Object key, long putStartedAt) {
+        PendingLoad pending = pendingLoad.get();
+        if (pending != null) {
+            pendingLoad.remove();
+            if (pending.key().equals(key)) {
+                metrics.getLoadDuration().record(putStartedAt - pending.missedAt(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private record PendingLoad(Object key, long missedAt) {
+    }
+}
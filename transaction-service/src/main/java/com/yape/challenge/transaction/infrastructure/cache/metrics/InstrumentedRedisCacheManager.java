@@ -0,0 +1,29 @@
+package com.yape.challenge.transaction.infrastructure.cache.metrics;
+
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.util.Map;
+
+/**
+ * RedisCacheManager that wraps every region in an InstrumentedCache
+ */
+public class InstrumentedRedisCacheManager extends RedisCacheManager {
+
+    private final CacheRegionMetricsRegistry metricsRegistry;
+
+    public InstrumentedRedisCacheManager(RedisCacheWriter cacheWriter,
+                                         RedisCacheConfiguration defaultCacheConfiguration,
+                                         Map<String, RedisCacheConfiguration> initialCacheConfigurations,
+                                         CacheRegionMetricsRegistry metricsRegistry) {
+        super(cacheWriter, defaultCacheConfiguration, initialCacheConfigurations);
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    protected Cache decorateCache(Cache cache) {
+        return new InstrumentedCache(super.decorateCache(cache), metricsRegistry.region(cache.getName()));
+    }
+}
@@ -0,0 +1,42 @@
+package com.yape.challenge.transaction.infrastructure.cache.metrics;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Value serializer decorator that records serialized sizes for a cache region
+ *
+ * @param <T> Cached value type
+ */
+public class MeteredRedisSerializer<T> implements RedisSerializer<T> {
+
+    private final RedisSerializer<T> delegate;
+    private final CacheRegionMetrics metrics;
+
+    public MeteredRedisSerializer(RedisSerializer<T> delegate, CacheRegionMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if (bytes != null) {
+            metrics.getWrittenValueSize().record(bytes.length);
+        }
+        return bytes;
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes != null) {
+            metrics.getReadValueSize().record(bytes.length);
+        }
+        return delegate.deserialize(bytes);
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return delegate.getTargetType();
+    }
+}
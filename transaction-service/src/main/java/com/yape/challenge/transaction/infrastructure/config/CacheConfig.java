@@ -3,19 +3,34 @@ package com.yape.challenge.transaction.infrastructure.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.yape.challenge.transaction.infrastructure.cache.EvictingCacheErrorHandler;
+import com.yape.challenge.transaction.infrastructure.cache.TransactionResponseRedisSerializer;
+import com.yape.challenge.transaction.infrastructure.cache.TransactionStatusTtlFunction;
+import com.yape.challenge.transaction.infrastructure.cache.metrics.CacheRegionMetrics;
+import com.yape.challenge.transaction.infrastructure.cache.metrics.CacheRegionMetricsRegistry;
+import com.yape.challenge.transaction.infrastructure.cache.metrics.CacheRegionsEndpoint;
+import com.yape.challenge.transaction.infrastructure.cache.metrics.InstrumentedRedisCacheManager;
+import com.yape.challenge.transaction.infrastructure.cache.metrics.MeteredRedisSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Redis cache configuration for high volume read optimization
@@ -24,7 +39,37 @@ import java.time.Duration;
 @Configuration
 @EnableCaching
 @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis", matchIfMissing = true)
-public class CacheConfig {
+public class CacheConfig implements CachingConfigurer {
+
+    /**
+     * Key prefix version of the transactions region, bumped whenever its value format changes so
+     * entries written by an older release are never read
+     */
+    static final String TRANSACTIONS_KEY_VERSION = "v2";
+
+    @Value("${app.cache.compression-threshold-bytes:512}")
+    private int compressionThresholdBytes;
+
+    @Value("${app.cache.ttl.pending:PT30S}")
+    private Duration pendingTtl;
+
+    @Value("${app.cache.ttl.terminal:PT24H}")
+    private Duration terminalTtl;
+
+    @Value("${app.cache.ttl.terminal-jitter:0.1}")
+    private double terminalTtlJitter;
+
+    @Value("${app.cache.hot-keys.capacity:256}")
+    private int hotKeyCapacity;
+
+    @Value("${app.cache.hot-keys.sample-rate:16}")
+    private int hotKeySampleRate;
+
+    @Value("${app.cache.endpoint.max-scanned-keys:100000}")
+    private int endpointMaxScannedKeys;
+
+    @Value("${app.cache.endpoint.memory-sample-size:50}")
+    private int endpointMemorySampleSize;
 
     /**
      * Configure ObjectMapper for Redis serialization with Java Time support
@@ -44,11 +89,41 @@ public class CacheConfig {
         return objectMapper;
     }
 
+    /**
+     * Binary serializer for the transactions region
+     * Avoids writing class names into every cached TransactionResponse
+     */
+    @Bean
+    public TransactionResponseRedisSerializer transactionResponseRedisSerializer() {
+        return new TransactionResponseRedisSerializer(compressionThresholdBytes);
+    }
+
+    /**
+     * Status-aware TTLs for the transactions region
+     */
+    @Bean
+    public TransactionStatusTtlFunction transactionStatusTtlFunction() {
+        return new TransactionStatusTtlFunction(pendingTtl, terminalTtl, Duration.ofMinutes(10), terminalTtlJitter);
+    }
+
+    /**
+     * Per-region hit/miss, latency, value size and hot key metrics
+     */
+    @Bean
+    public CacheRegionMetricsRegistry cacheRegionMetricsRegistry(MeterRegistry meterRegistry) {
+        return new CacheRegionMetricsRegistry(meterRegistry, hotKeyCapacity, hotKeySampleRate);
+    }
+
     /**
      * Configure Redis Cache Manager with custom TTLs for different cache regions
+     * Every region is instrumented and its value serializer reports serialized sizes
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                          CacheRegionMetricsRegistry cacheRegionMetricsRegistry) {
+        GenericJackson2JsonRedisSerializer jsonSerializer =
+                new GenericJackson2JsonRedisSerializer(redisCacheObjectMapper());
+
         // Default cache configuration
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(5))
@@ -58,26 +133,51 @@ public class CacheConfig {
                         )
                 )
                 .serializeValuesWith(
-                        RedisSerializationContext.SerializationPair.fromSerializer(
-                                new GenericJackson2JsonRedisSerializer(redisCacheObjectMapper())
-                        )
+                        RedisSerializationContext.SerializationPair.fromSerializer(jsonSerializer)
                 )
                 .disableCachingNullValues();
 
-        // Build cache manager with specific cache configurations
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(defaultConfig)
-                // Transaction cache: 10 minutes (frequent reads)
-                .withCacheConfiguration("transactions",
-                        defaultConfig.entryTtl(Duration.ofMinutes(10)))
-                // Transaction types: 1 hour (rarely changes)
-                .withCacheConfiguration("transactionTypes",
-                        defaultConfig.entryTtl(Duration.ofHours(1)))
-                // Transaction list: 2 minutes (changes frequently)
-                .withCacheConfiguration("transactionList",
-                        defaultConfig.entryTtl(Duration.ofMinutes(2)))
-                .transactionAware()
-                .build();
+        Map<String, RedisCacheConfiguration> regions = new LinkedHashMap<>();
+        // Transaction cache: TTL by status (short while PENDING, long once final), compact binary values
+        regions.put("transactions", defaultConfig.entryTtl(transactionStatusTtlFunction())
+                .computePrefixWith(name -> name + ":" + TRANSACTIONS_KEY_VERSION + "::")
+                .serializeValuesWith(metered(transactionResponseRedisSerializer(),
+                        cacheRegionMetricsRegistry.region("transactions"))));
+        // Transaction types: 1 hour (rarely changes)
+        regions.put("transactionTypes", defaultConfig.entryTtl(Duration.ofHours(1))
+                .serializeValuesWith(metered(jsonSerializer, cacheRegionMetricsRegistry.region("transactionTypes"))));
+        // Transaction list: 2 minutes (changes frequently)
+        regions.put("transactionList", defaultConfig.entryTtl(Duration.ofMinutes(2))
+                .serializeValuesWith(metered(jsonSerializer, cacheRegionMetricsRegistry.region("transactionList"))));
+
+        InstrumentedRedisCacheManager cacheManager = new InstrumentedRedisCacheManager(
+                RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory),
+                defaultConfig, regions, cacheRegionMetricsRegistry);
+        cacheManager.setTransactionAware(true);
+        return cacheManager;
     }
-}
 
+    /**
+     * Unreadable cached values are evicted and reloaded instead of failing the request
+     */
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new EvictingCacheErrorHandler();
+    }
+
+    private static <T> RedisSerializationContext.SerializationPair<T> metered(RedisSerializer<T> serializer,
+                                                                             CacheRegionMetrics metrics) {
+        return RedisSerializationContext.SerializationPair.fromSerializer(new MeteredRedisSerializer<>(serializer, metrics));
+    }
+
+    /**
+     * Actuator endpoint with per-region statistics, estimated memory and top keys
+     */
+    @Bean
+    public CacheRegionsEndpoint cacheRegionsEndpoint(RedisCacheManager cacheManager,
+                                                     RedisConnectionFactory connectionFactory,
+                                                     CacheRegionMetricsRegistry cacheRegionMetricsRegistry) {
+        return new CacheRegionsEndpoint(cacheManager, connectionFactory, cacheRegionMetricsRegistry,
+                endpointMaxScannedKeys, endpointMemorySampleSize);
+    }
+}
@@ -0,0 +1,86 @@
+package com.yape.challenge.transaction.infrastructure.config;
+
+import com.yape.challenge.transaction.infrastructure.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read/write DataSource routing, active only when read replicas are configured
+ * Read-only transactions (GetTransactionQueryHandler misses, EventStore reads) go to the replicas,
+ * everything else to the primary. Replicas share the primary's credentials and pool settings.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.urls:}'.isBlank()")
+public class DataSourceConfig {
+
+    @Value("${app.datasource.replica.urls}")
+    private String replicaUrls;
+
+    @Value("${app.datasource.replica.maximum-pool-size:20}")
+    private int replicaPoolSize;
+
+    @Value("${app.datasource.replica.max-lag:PT2S}")
+    private Duration maxLag;
+
+    @Value("${app.datasource.replica.health-check-interval:PT5S}")
+    private Duration healthCheckInterval;
+
+    /**
+     * Primary pool, bound to spring.datasource.hikari like the auto-configured one
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(HikariDataSource primaryDataSource) {
+        List<DataSource> replicas = new ArrayList<>();
+        Arrays.stream(replicaUrls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .forEach(url -> replicas.add(replicaDataSource(primaryDataSource, url, replicas.size())));
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, maxLag, healthCheckInterval);
+    }
+
+    /**
+     * DataSource used by JPA and the rest of the application
+     * The lazy proxy defers fetching a connection until the first statement, after the
+     * transaction manager has marked the transaction read-only.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private HikariDataSource replicaDataSource(HikariDataSource primary, String url, int index) {
+        HikariConfig config = new HikariConfig();
+        primary.copyStateTo(config);
+        config.setJdbcUrl(url);
+        config.setPoolName("replica-" + index);
+        config.setMaximumPoolSize(replicaPoolSize);
+        if (config.getMinimumIdle() > replicaPoolSize) {
+            config.setMinimumIdle(replicaPoolSize);
+        }
+        config.setReadOnly(true);
+        // A replica that is down at startup must not prevent the service from starting
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+}
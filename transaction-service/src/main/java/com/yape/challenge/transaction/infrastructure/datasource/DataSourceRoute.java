@@ -0,0 +1,34 @@
+package com.yape.challenge.transaction.infrastructure.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Thread-bound override forcing reads onto the primary DataSource
+ * The routing decision is taken when the first statement needs a connection,
+ * so the override must wrap the code that issues that statement.
+ */
+public final class DataSourceRoute {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private DataSourceRoute() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = PRIMARY_FORCED.get();
+        PRIMARY_FORCED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_FORCED.remove();
+            } else {
+                PRIMARY_FORCED.set(previous);
+            }
+        }
+    }
+
+    public static boolean isPrimaryForced() {
+        return Boolean.TRUE.equals(PRIMARY_FORCED.get());
+    }
+}
@@ -0,0 +1,199 @@
+package com.yape.challenge.transaction.infrastructure.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Routes read-only transactions to healthy read replicas (round robin) and everything else to the primary
+ * Must sit behind a LazyConnectionDataSourceProxy so the read-only flag of the transaction is known
+ * when the connection is fetched. Replicas that fail to hand out a connection, fail validation or lag
+ * behind more than maxLag are skipped until a later health check succeeds; with no healthy replica
+ * reads go to the primary.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    /**
+     * Replay delay on a Postgres standby, 0 when it has replayed everything it received
+     */
+    private static final String REPLICATION_LAG_QUERY =
+            "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+                    + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final Duration healthCheckInterval;
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService healthChecker;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                      Duration maxLag, Duration healthCheckInterval) {
+        this.primary = primary;
+        this.replicas = IntStream.range(0, replicas.size())
+                .mapToObj(i -> new Replica("replica-" + i, replicas.get(i)))
+                .toList();
+        this.maxLag = maxLag;
+        this.healthCheckInterval = healthCheckInterval;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        this.replicas.forEach(replica -> targets.put(replica.name, replica.dataSource));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        if (!healthCheckInterval.isZero() && !replicas.isEmpty()) {
+            healthChecker = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofVirtual().name("replica-health-check").factory());
+            healthChecker.scheduleWithFixedDelay(this::checkReplicas,
+                    0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || DataSourceRoute.isPrimaryForced()) {
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica.name;
+            }
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        return connect(key, () -> resolveTarget(key).getConnection(), primary::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Object key = determineCurrentLookupKey();
+        return connect(key, () -> resolveTarget(key).getConnection(username, password),
+                () -> primary.getConnection(username, password));
+    }
+
+    /**
+     * Run one health check round, also scheduled every healthCheckInterval
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy = isHealthy(replica);
+            if (healthy != replica.healthy) {
+                log.warn("Read replica {} is now {}", replica.name, healthy ? "healthy" : "unhealthy");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    public long healthyReplicaCount() {
+        return replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void destroy() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Error closing read replica {}: {}", replica.name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private Connection connect(Object key, ConnectionSupplier target, ConnectionSupplier fallback) throws SQLException {
+        if (PRIMARY.equals(key)) {
+            return target.get();
+        }
+        try {
+            return target.get();
+        } catch (SQLException e) {
+            markUnhealthy(key, e);
+            return fallback.get();
+        }
+    }
+
+    private DataSource resolveTarget(Object key) {
+        return getResolvedDataSources().getOrDefault(key, primary);
+    }
+
+    private void markUnhealthy(Object key, SQLException cause) {
+        for (Replica replica : replicas) {
+            if (replica.name.equals(key) && replica.healthy) {
+                replica.healthy = false;
+                log.warn("Read replica {} failed to provide a connection, failing over to primary: {}",
+                        replica.name, cause.getMessage());
+            }
+        }
+    }
+
+    private boolean isHealthy(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            if (!connection.isValid(2)) {
+                return false;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(REPLICATION_LAG_QUERY)) {
+                double lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+                if (lagSeconds * 1000 > maxLag.toMillis()) {
+                    log.debug("Read replica {} lags {}s behind the primary", replica.name, lagSeconds);
+                    return false;
+                }
+                return true;
+            }
+        } catch (SQLException e) {
+            log.debug("Health check failed for read replica {}: {}", replica.name, e.getMessage());
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.yape.challenge.transaction.infrastructure.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Keeps reads of recently written transactions on the primary
+ * Writes are remembered in memory for lagGuardWindow, on the instance that made them only;
+ * reads of those ids on that instance are forced onto the primary.
+ * Other instances do not see those writes: find retries a miss on the primary, so a new transaction never
+ * answers 404, but a status change can still be read stale from a replica within the replication lag.
+ * Such a read can be cached; the stale value is PENDING, so it lives for app.cache.ttl.pending at most.
+ * Without configured replicas every read already goes to the primary and the guard is a no-op.
+ */
+@Component
+public class ReplicationLagGuard {
+
+    private static final int PURGE_EVERY_WRITES = 1024;
+
+    private final boolean replicasEnabled;
+    private final long windowNanos;
+    private final Map<UUID, Long> recentWrites = new ConcurrentHashMap<>();
+    private final AtomicInteger writesSincePurge = new AtomicInteger();
+
+    public ReplicationLagGuard(@Value("${app.datasource.replica.urls:}") String replicaUrls,
+                               @Value("${app.datasource.replica.lag-guard-window:PT5S}") Duration window) {
+        this.replicasEnabled = !replicaUrls.isBlank();
+        this.windowNanos = window.toNanos();
+    }
+
+    public void recordWrite(UUID externalId) {
+        if (!replicasEnabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        recentWrites.put(externalId, now + windowNanos);
+        if (writesSincePurge.incrementAndGet() >= PURGE_EVERY_WRITES) {
+            writesSincePurge.set(0);
+            recentWrites.values().removeIf(expiresAt -> expiresAt - now < 0);
+        }
+    }
+
+    public boolean requiresPrimary(UUID externalId) {
+        if (!replicasEnabled) {
+            return false;
+        }
+        Long expiresAt = recentWrites.get(externalId);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt - System.nanoTime() < 0) {
+            recentWrites.remove(externalId, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Run a read, on the primary when the id was written within the guard window
+     */
+    public <T> T read(UUID externalId, Supplier<T> reader) {
+        return requiresPrimary(externalId) ? DataSourceRoute.onPrimary(reader) : reader.get();
+    }
+
+    /**
+     * Like read, and retries a miss on the primary to cover writes made by other instances
+     * Must be called outside a transaction, otherwise the retry reuses the replica connection.
+     */
+    public <T> Optional<T> find(UUID externalId, Supplier<Optional<T>> reader) {
+        Optional<T> result = read(externalId, reader);
+        if (result.isEmpty() && replicasEnabled && !requiresPrimary(externalId)) {
+            return DataSourceRoute.onPrimary(reader);
+        }
+        return result;
+    }
+}
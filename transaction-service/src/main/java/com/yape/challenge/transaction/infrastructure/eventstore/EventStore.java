@@ -6,6 +6,7 @@ import com.yape.challenge.transaction.domain.entity.DomainEvent;
 import com.yape.challenge.transaction.domain.event.TransactionCreatedDomainEvent;
 import com.yape.challenge.transaction.domain.event.TransactionDomainEvent;
 import com.yape.challenge.transaction.domain.event.TransactionStatusChangedDomainEvent;
+import com.yape.challenge.transaction.infrastructure.datasource.ReplicationLagGuard;
 import com.yape.challenge.transaction.infrastructure.repository.DomainEventRepository;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import lombok.RequiredArgsConstructor;
@@ -14,14 +15,18 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * Event Store implementation for persisting and retrieving domain events
+ * Reads are read-only transactions and may be served by a read replica
  */
 @Component
 @RequiredArgsConstructor
@@ -30,6 +35,7 @@ public class EventStore {
 
     private final DomainEventRepository domainEventRepository;
     private final ObjectMapper objectMapper;
+    private final ReplicationLagGuard replicationLagGuard;
 
     private static final String AGGREGATE_TYPE = "Transaction";
 
@@ -47,26 +53,7 @@ public class EventStore {
                     .findLastVersionByAggregateId(aggregateId)
                     .orElse(0);
 
-            // Serialize event data to JSON
-            String eventData = objectMapper.writeValueAsString(event);
-
-            // Create metadata
-            Map<String, Object> metadata = new HashMap<>();
-            metadata.put("timestamp", LocalDateTime.now());
-            metadata.put("eventClass", event.getClass().getName());
-            String metadataJson = objectMapper.writeValueAsString(metadata);
-
-            // Create and save domain event
-            DomainEvent domainEvent = DomainEvent.builder()
-                    .aggregateId(aggregateId)
-                    .aggregateType(AGGREGATE_TYPE)
-                    .eventType(event.getEventType())
-                    .eventData(eventData)
-                    .metadata(metadataJson)
-                    .version(lastVersion + 1)
-                    .occurredAt(event.getOccurredAt())
-                    .build();
-
+            DomainEvent domainEvent = toEntity(event, lastVersion + 1);
             domainEventRepository.save(domainEvent);
             log.info("Event saved: {} for aggregate: {}, version: {}",
                     event.getEventType(), aggregateId, lastVersion + 1);
@@ -77,6 +64,39 @@ public class EventStore {
         }
     }
 
+    /**
+     * Save a batch of domain events with one version lookup and one batched insert
+     * Events of the same aggregate get consecutive versions in list order.
+     */
+    @Transactional
+    @CircuitBreaker(name = "database", fallbackMethod = "saveEventsFallback")
+    public void saveEvents(List<? extends TransactionDomainEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            Set<UUID> aggregateIds = new HashSet<>();
+            events.forEach(event -> aggregateIds.add(event.getAggregateId()));
+
+            Map<UUID, Integer> versions = new HashMap<>();
+            domainEventRepository.findLastVersionsByAggregateIds(aggregateIds)
+                    .forEach(last -> versions.put(last.getAggregateId(), last.getVersion()));
+
+            List<DomainEvent> domainEvents = new ArrayList<>(events.size());
+            for (TransactionDomainEvent event : events) {
+                int version = versions.merge(event.getAggregateId(), 1, Integer::sum);
+                domainEvents.add(toEntity(event, version));
+            }
+
+            domainEventRepository.insertAll(domainEvents);
+            log.info("Saved {} events for {} aggregates", domainEvents.size(), aggregateIds.size());
+
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing batch of {} events", events.size(), e);
+            throw new RuntimeException("Failed to serialize event", e);
+        }
+    }
+
     /**
      * Fallback method for saveEvent when database is not available
      */
@@ -86,14 +106,23 @@ public class EventStore {
         throw new RuntimeException("Database service is currently unavailable. Please try again later.", e);
     }
 
+    /**
+     * Fallback method for saveEvents when database is not available
+     */
+    private void saveEventsFallback(List<? extends TransactionDomainEvent> events, Exception e) {
+        log.error("Database circuit breaker is OPEN or error occurred. Events: {}, Error: {}",
+                events.size(), e.getMessage());
+        throw new RuntimeException("Database service is currently unavailable. Please try again later.", e);
+    }
+
     /**
      * Get all events for a specific aggregate
      */
     @Transactional(readOnly = true)
     @CircuitBreaker(name = "database", fallbackMethod = "getEventsFallback")
     public List<TransactionDomainEvent> getEvents(UUID aggregateId) {
-        List<DomainEvent> domainEvents = domainEventRepository
-                .findByAggregateIdOrderByVersionAsc(aggregateId);
+        List<DomainEvent> domainEvents = replicationLagGuard.read(aggregateId,
+                () -> domainEventRepository.findByAggregateIdOrderByVersionAsc(aggregateId));
 
         return domainEvents.stream()
                 .map(this::deserializeEvent)
@@ -114,7 +143,7 @@ public class EventStore {
      */
     @Transactional(readOnly = true)
     public boolean aggregateExists(UUID aggregateId) {
-        return domainEventRepository.existsByAggregateId(aggregateId);
+        return replicationLagGuard.read(aggregateId, () -> domainEventRepository.existsByAggregateId(aggregateId));
     }
 
     /**
@@ -122,7 +151,31 @@ public class EventStore {
      */
     @Transactional(readOnly = true)
     public long getEventCount(UUID aggregateId) {
-        return domainEventRepository.countByAggregateId(aggregateId);
+        return replicationLagGuard.read(aggregateId, () -> domainEventRepository.countByAggregateId(aggregateId));
+    }
+
+    /**
+     * Serialize a domain event into its Event Store row
+     */
+    private DomainEvent toEntity(TransactionDomainEvent event, int version) throws JsonProcessingException {
+        // Serialize event data to JSON
+        String eventData = objectMapper.writeValueAsString(event);
+
+        // Create metadata
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("timestamp", LocalDateTime.now());
+        metadata.put("eventClass", event.getClass().getName());
+        String metadataJson = objectMapper.writeValueAsString(metadata);
+
+        return DomainEvent.builder()
+                .aggregateId(event.getAggregateId())
+                .aggregateType(AGGREGATE_TYPE)
+                .eventType(event.getEventType())
+                .eventData(eventData)
+                .metadata(metadataJson)
+                .version(version)
+                .occurredAt(event.getOccurredAt())
+                .build();
     }
 
     /**
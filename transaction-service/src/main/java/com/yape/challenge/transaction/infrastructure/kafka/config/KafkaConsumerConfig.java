@@ -1,17 +1,48 @@
 package com.yape.challenge.transaction.infrastructure.kafka.config;
 
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
 import com.yape.challenge.common.dto.TransactionStatusEvent;
+import com.yape.challenge.common.kafka.ListenerConcurrency;
+import com.yape.challenge.common.kafka.codec.FormatDetectingEventDeserializer;
+import com.yape.challenge.common.kafka.lag.LagDrivenConcurrencyController;
+import com.yape.challenge.common.kafka.lag.LagScalingSettings;
+import com.yape.challenge.common.kafka.lag.ListenerTimingInterceptor;
+import com.yape.challenge.transaction.infrastructure.kafka.consumer.DatabaseCircuitListenerPauser;
+import com.yape.challenge.transaction.infrastructure.kafka.consumer.TransactionStatusConsumer;
+import com.yape.challenge.transaction.infrastructure.kafka.consumer.TransactionStatusParallelConsumer;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.BackOffHandler;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.retrytopic.RetryTopicSchedulerWrapper;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.FixedBackOff;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -19,23 +50,94 @@ import java.util.Map;
 @Configuration
 public class KafkaConsumerConfig {
 
+    private final MeterRegistry meterRegistry;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${app.kafka.topics.transaction-status-updated.partitions:3}")
+    private int statusPartitions;
+
+    @Value("${app.kafka.listener.concurrency:0}")
+    private int configuredConcurrency;
+
+    @Value("${app.kafka.listener.expected-instances:1}")
+    private int expectedInstances;
+
+    @Value("${app.kafka.listener.consumers-per-core:2}")
+    private int consumersPerCore;
+
+    @Value("${app.kafka.metadata-max-age:PT30S}")
+    private Duration metadataMaxAge;
+
+    @Value("${app.kafka.status-batch.max-poll-records:2000}")
+    private int statusBatchMaxPollRecords;
+
+    @Value("${app.kafka.status-batch.retry-interval:PT1S}")
+    private Duration statusBatchRetryInterval;
+
+    @Value("${app.kafka.circuit-pause.probe-interval:PT1S}")
+    private Duration circuitProbeInterval;
+
+    @Value("${app.kafka.status-batch.retry-attempts:3}")
+    private long statusBatchRetryAttempts;
+
+    @Value("${app.kafka.lag-scaling.adjust-interval:PT15S}")
+    private Duration lagScalingAdjustInterval;
+
+    @Value("${app.kafka.lag-scaling.scale-up-lag:1000}")
+    private long lagScalingScaleUpLag;
+
+    @Value("${app.kafka.lag-scaling.scale-down-lag:100}")
+    private long lagScalingScaleDownLag;
+
+    @Value("${app.kafka.lag-scaling.quiet-intervals:4}")
+    private int lagScalingQuietIntervals;
+
+    @Value("${app.kafka.lag-scaling.max-concurrency:0}")
+    private int lagScalingMaxConcurrency;
+
+    @Value("${app.kafka.lag-scaling.min-restart-interval:PT5M}")
+    private Duration lagScalingMinRestartInterval;
+
+    @Value("${app.kafka.lag-scaling.min-workers:100}")
+    private int lagScalingMinWorkers;
+
+    @Value("${app.kafka.lag-scaling.max-workers:4000}")
+    private int lagScalingMaxWorkers;
+
+    public KafkaConsumerConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @Bean
     public ConsumerFactory<String, TransactionStatusEvent> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        // A malformed record reaches the error handler (and the DLT) instead of failing poll()
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, FormatDetectingEventDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.METADATA_MAX_AGE_CONFIG, metadataMaxAge.toMillis());
+        // Verdicts from a transactional antifraud producer are visible only once committed
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, TransactionStatusEvent.class.getName());
-        return new DefaultKafkaConsumerFactory<>(props);
+        return metered(new DefaultKafkaConsumerFactory<>(props));
+    }
+
+    /**
+     * Exposes the client metrics of every consumer, among them the per-partition
+     * kafka.consumer.fetch.manager.records.lag
+     */
+    private <V> DefaultKafkaConsumerFactory<String, V> metered(DefaultKafkaConsumerFactory<String, V> factory) {
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
@@ -43,7 +145,159 @@ public class KafkaConsumerConfig {
         ConcurrentKafkaListenerContainerFactory<String, TransactionStatusEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
-        factory.setConcurrency(3);
+        factory.setConcurrency(ListenerConcurrency.derive(
+                configuredConcurrency, statusPartitions, expectedInstances, consumersPerCore));
+        factory.setRecordInterceptor(new ListenerTimingInterceptor<>(TransactionStatusConsumer.LISTENER_ID, meterRegistry));
+        return factory;
+    }
+
+    /**
+     * Batch listener container for status updates
+     * Retry topics do not support batch listeners, so failures are retried in place: the error
+     * handler commits the records before the one reported by BatchListenerFailedException,
+     * redelivers the rest after retry-interval and, once retry-attempts are exhausted, sends the
+     * failed record to transaction-status-updated-dlt (same partition) and moves on. The wait
+     * pauses the container instead of sleeping on the consumer thread. Batches rejected by the
+     * open database circuit breaker are seeked back without limit and without waiting: the
+     * container is already paused by DatabaseCircuitListenerPauser until the breaker half-opens.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.kafka.status-batch.enabled", havingValue = "true")
+    public ConcurrentKafkaListenerContainerFactory<String, TransactionStatusEvent> statusBatchListenerContainerFactory(
+            ProducerFactory<String, TransactionStatusEvent> statusProducerFactory,
+            DatabaseCircuitListenerPauser circuitPauser,
+            RetryTopicSchedulerWrapper retryTopicSchedulerWrapper) {
+        Map<String, Object> props = new HashMap<>(consumerFactory().getConfigurationProperties());
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, statusBatchMaxPollRecords);
+
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(
+                new KafkaTemplate<>(statusProducerFactory),
+                (record, exception) -> new TopicPartition(KafkaTopics.TRANSACTION_STATUS_UPDATED_DLT, record.partition()));
+
+        ConcurrentKafkaListenerContainerFactory<String, TransactionStatusEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(metered(new DefaultKafkaConsumerFactory<>(props)));
+        factory.setConcurrency(ListenerConcurrency.derive(
+                configuredConcurrency, statusPartitions, expectedInstances, consumersPerCore));
+        factory.setBatchListener(true);
+        factory.setBatchInterceptor(new ListenerTimingInterceptor<>(TransactionStatusConsumer.LISTENER_ID, meterRegistry));
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer,
+                new FixedBackOff(statusBatchRetryInterval.toMillis(), statusBatchRetryAttempts),
+                pausingBackOffHandler(circuitPauser, retryTopicSchedulerWrapper.getScheduler()));
+        BackOff rejectedBackOff = circuitPauser.rejectedRecordBackOff(circuitProbeInterval);
+        errorHandler.setBackOffFunction((record, exception) -> isCircuitOpen(exception) ? rejectedBackOff : null);
+        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
+
+    /**
+     * Back-off that pauses the container for the interval instead of sleeping on the consumer thread
+     * The resume is skipped while DatabaseCircuitListenerPauser holds the container, which resumes
+     * it itself once the breaker half-opens.
+     */
+    static BackOffHandler pausingBackOffHandler(DatabaseCircuitListenerPauser circuitPauser, TaskScheduler scheduler) {
+        return new BackOffHandler() {
+            @Override
+            public void onNextBackOff(MessageListenerContainer container, Exception exception, long nextBackOff) {
+                if (nextBackOff <= 0 || container == null || circuitPauser.isPaused()) {
+                    return;
+                }
+                container.pause();
+                scheduler.schedule(() -> {
+                    if (!circuitPauser.isPaused()) {
+                        container.resume();
+                    }
+                }, Instant.now().plusMillis(nextBackOff));
+            }
+        };
+    }
+
+    private static boolean isCircuitOpen(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CallNotPermittedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Listener container for the key-ordered parallel mode
+     * Records are acknowledged manually, from the worker threads, once the partition can be
+     * committed up to them; the consumer itself drains in-flight work on revocation. A record that
+     * cannot be deserialized never reaches the listener: it goes to the DLT without committing,
+     * since earlier records may still be in flight.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.kafka.status-parallel.enabled", havingValue = "true")
+    public ConcurrentKafkaListenerContainerFactory<String, TransactionStatusEvent> parallelStatusListenerContainerFactory(
+            ObjectProvider<TransactionStatusParallelConsumer> parallelConsumer,
+            ProducerFactory<String, TransactionStatusEvent> statusProducerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, TransactionStatusEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(ListenerConcurrency.derive(
+                configuredConcurrency, statusPartitions, expectedInstances, consumersPerCore));
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        // Resolved per container: the consumer bean is still being created when its listener is registered
+        factory.setContainerCustomizer(container -> container.getContainerProperties()
+                .setConsumerRebalanceListener(parallelConsumer.getObject()));
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(new DeadLetterPublishingRecoverer(
+                new KafkaTemplate<>(statusProducerFactory),
+                (record, exception) -> new TopicPartition(KafkaTopics.TRANSACTION_STATUS_UPDATED_DLT, record.partition())),
+                new FixedBackOff(0, 0));
+        errorHandler.setAckAfterHandle(false);
+        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
+
+    /**
+     * Scales the status listener (and the workers of the parallel mode) with its lag trend
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.kafka.lag-scaling.enabled", havingValue = "true")
+    public LagDrivenConcurrencyController statusLagScalingController(
+            ListenerContainerRegistry containerRegistry,
+            ObjectProvider<TransactionStatusParallelConsumer> parallelConsumer) {
+        LagScalingSettings settings = LagScalingSettings.builder()
+                .adjustInterval(lagScalingAdjustInterval)
+                .scaleUpLag(lagScalingScaleUpLag)
+                .scaleDownLag(lagScalingScaleDownLag)
+                .quietIntervals(lagScalingQuietIntervals)
+                .maxConcurrency(lagScalingMaxConcurrency)
+                .minRestartInterval(lagScalingMinRestartInterval)
+                .minWorkers(lagScalingMinWorkers)
+                .maxWorkers(lagScalingMaxWorkers)
+                .build();
+        return new LagDrivenConcurrencyController(TransactionStatusConsumer.LISTENER_ID,
+                KafkaTopics.TRANSACTION_STATUS_UPDATED, containerRegistry, parallelConsumer.getIfAvailable(),
+                meterRegistry, settings);
+    }
+
+    /**
+     * Consumer for transaction-created events used to keep the local TransactionIdFilter in sync
+     * with transactions created by other instances. The listener seeks by timestamp on every
+     * assignment, to just before the startup rebuild; history older than that is covered by the rebuild.
+     */
+    @Bean
+    public ConsumerFactory<String, TransactionCreatedEvent> transactionCreatedConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, FormatDetectingEventDeserializer.class);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, TransactionCreatedEvent.class.getName());
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TransactionCreatedEvent> transactionCreatedListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, TransactionCreatedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(transactionCreatedConsumerFactory());
+        factory.setConcurrency(1);
         return factory;
     }
 }
@@ -1,9 +1,16 @@
 package com.yape.challenge.transaction.infrastructure.kafka.config;
 
 import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.dto.TransactionStatusEvent;
+import com.yape.challenge.common.kafka.batching.AdaptiveBatchingController;
+import com.yape.challenge.common.kafka.batching.AdaptiveBatchingSettings;
+import com.yape.challenge.common.kafka.codec.EventFormat;
+import com.yape.challenge.common.kafka.codec.VersionedEventSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
@@ -11,6 +18,7 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,16 +28,48 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${app.kafka.producer.event-format:json}")
+    private String eventFormat;
+
+    @Value("${app.kafka.producer.partitioner-class:}")
+    private String partitionerClass;
+
+    @Value("${app.kafka.metadata-max-age:PT30S}")
+    private Duration metadataMaxAge;
+
+    @Value("${app.kafka.producer.adaptive-batching.target-p99:PT0.05S}")
+    private Duration adaptiveTargetP99;
+
+    @Value("${app.kafka.producer.adaptive-batching.adjust-interval:PT10S}")
+    private Duration adaptiveAdjustInterval;
+
+    @Value("${app.kafka.producer.adaptive-batching.quiet-rate:50}")
+    private double adaptiveQuietRate;
+
+    @Value("${app.kafka.producer.adaptive-batching.max-linger-ms:20}")
+    private int adaptiveMaxLingerMs;
+
+    @Value("${app.kafka.producer.adaptive-batching.max-batch-size:262144}")
+    private int adaptiveMaxBatchSize;
+
+    @Value("${app.kafka.producer.adaptive-batching.min-reset-interval:PT1M}")
+    private Duration adaptiveMinResetInterval;
+
     @Bean
     public ProducerFactory<String, TransactionCreatedEvent> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, VersionedEventSerializer.class);
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
         configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        configProps.put(EventFormat.CONFIG, eventFormat);
+        configProps.put(ProducerConfig.METADATA_MAX_AGE_CONFIG, metadataMaxAge.toMillis());
+        if (!partitionerClass.isBlank()) {
+            configProps.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, partitionerClass);
+        }
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
@@ -37,5 +77,43 @@ public class KafkaProducerConfig {
     public KafkaTemplate<String, TransactionCreatedEvent> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
-}
 
+    /**
+     * Producer for status events forwarded to the retry topics and the DLT
+     */
+    @Bean
+    public ProducerFactory<String, TransactionStatusEvent> statusProducerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, VersionedEventSerializer.class);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        configProps.put(EventFormat.CONFIG, eventFormat);
+        configProps.put(ProducerConfig.METADATA_MAX_AGE_CONFIG, metadataMaxAge.toMillis());
+        if (!partitionerClass.isBlank()) {
+            configProps.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, partitionerClass);
+        }
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+
+    /**
+     * Runtime tuning of linger.ms, batch.size and compression from send rate and p99 ack latency
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.kafka.producer.adaptive-batching.enabled", havingValue = "true")
+    public AdaptiveBatchingController<String, TransactionCreatedEvent> adaptiveBatchingController(MeterRegistry meterRegistry) {
+        AdaptiveBatchingSettings settings = AdaptiveBatchingSettings.builder()
+                .targetP99(adaptiveTargetP99)
+                .adjustInterval(adaptiveAdjustInterval)
+                .quietRate(adaptiveQuietRate)
+                .maxLingerMs(adaptiveMaxLingerMs)
+                .maxBatchSize(adaptiveMaxBatchSize)
+                .minResetInterval(adaptiveMinResetInterval)
+                .build();
+        return new AdaptiveBatchingController<>("transaction-created",
+                (DefaultKafkaProducerFactory<String, TransactionCreatedEvent>) producerFactory(),
+                kafkaTemplate(), meterRegistry, settings);
+    }
+}
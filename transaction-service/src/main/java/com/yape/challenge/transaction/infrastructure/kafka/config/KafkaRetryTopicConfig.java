@@ -0,0 +1,100 @@
+package com.yape.challenge.transaction.infrastructure.kafka.config;
+
+import com.yape.challenge.common.dto.TransactionStatusEvent;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import com.yape.challenge.transaction.infrastructure.kafka.consumer.DatabaseCircuitListenerPauser;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationSupport;
+import org.springframework.kafka.retrytopic.RetryTopicSchedulerWrapper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking retries for transaction-status-updated
+ * A failed record is published to transaction-status-updated-retry-0, -retry-1, ... with
+ * exponentially growing delays and, once attempts are exhausted, to transaction-status-updated-dlt.
+ * Retry topic consumers pause only their own partitions until a record is due, so the main
+ * topic never waits on a failing record. Deserialization and conversion errors go straight to the DLT.
+ * Records rejected by the open database circuit breaker are the exception: they are seeked back
+ * in place without limit and without sleeping, and picked up again once DatabaseCircuitListenerPauser
+ * resumes the listeners it holds paused; only while it does not hold them (half-open) do they wait
+ * circuit-pause probe-interval on the consumer thread.
+ * Not used in the status batch and parallel modes, which retry in place.
+ */
+@Configuration
+public class KafkaRetryTopicConfig extends RetryTopicConfigurationSupport {
+
+    private final ObjectProvider<DatabaseCircuitListenerPauser> circuitPauser;
+
+    @Value("${app.kafka.status-retry.attempts:4}")
+    private int attempts;
+
+    @Value("${app.kafka.status-retry.initial-delay:PT1S}")
+    private Duration initialDelay;
+
+    @Value("${app.kafka.status-retry.multiplier:5.0}")
+    private double multiplier;
+
+    @Value("${app.kafka.status-retry.max-delay:PT2M}")
+    private Duration maxDelay;
+
+    @Value("${app.kafka.topics.transaction-status-updated.partitions:3}")
+    private int partitions;
+
+    @Value("${app.kafka.topics.replicas:1}")
+    private short replicas;
+
+    @Value("${app.kafka.circuit-pause.probe-interval:PT1S}")
+    private Duration circuitProbeInterval;
+
+    public KafkaRetryTopicConfig(ObjectProvider<DatabaseCircuitListenerPauser> circuitPauser) {
+        this.circuitPauser = circuitPauser;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = {"app.kafka.status-batch.enabled", "app.kafka.status-parallel.enabled"},
+            havingValue = "false", matchIfMissing = true)
+    public RetryTopicConfiguration transactionStatusRetryTopic(
+            ProducerFactory<String, TransactionStatusEvent> statusProducerFactory) {
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopic(KafkaTopics.TRANSACTION_STATUS_UPDATED)
+                .maxAttempts(attempts)
+                .exponentialBackoff(initialDelay.toMillis(), multiplier, maxDelay.toMillis())
+                .retryTopicSuffix(KafkaTopics.RETRY_SUFFIX)
+                .dltSuffix(KafkaTopics.DLT_SUFFIX)
+                .suffixTopicsWithIndexValues()
+                .autoCreateTopicsWith(partitions, replicas)
+                .listenerFactory("kafkaListenerContainerFactory")
+                .dltHandlerMethod("transactionStatusDltHandler", "handle")
+                .create(new KafkaTemplate<>(statusProducerFactory));
+    }
+
+    @Override
+    protected void configureBlockingRetries(BlockingRetriesConfigurer blockingRetries) {
+        blockingRetries
+                .retryOn(CallNotPermittedException.class)
+                .backOff(() -> circuitPauser.getObject().rejectedRecordBackOff(circuitProbeInterval).start());
+    }
+
+    /**
+     * Scheduler used to resume paused retry partitions once their records are due, and paused
+     * batch containers once their back-off elapsed
+     */
+    @Bean
+    public RetryTopicSchedulerWrapper retryTopicSchedulerWrapper() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("status-retry-");
+        scheduler.initialize();
+        return new RetryTopicSchedulerWrapper(scheduler);
+    }
+}
@@ -4,6 +4,7 @@ import com.yape.challenge.common.kafka.KafkaTopics;
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -12,33 +13,84 @@ import org.springframework.kafka.core.KafkaAdmin;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Topic declarations with configurable partition counts
+ * KafkaAdmin creates missing topics and, when a configured count is higher than the existing one,
+ * adds partitions online at startup; it never removes partitions. Producers use Kafka's murmur2
+ * partitioner unless app.kafka.producer.partitioner-class says otherwise, and growing a topic is
+ * only allowed with JumpHashPartitioner, which moves a small share of keys to the new partitions;
+ * see {@link PartitionerAwareKafkaAdmin}. Consumers pick new partitions up within metadata.max.age.ms.
+ */
 @Configuration
 public class KafkaTopicConfig {
 
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${app.kafka.topics.transaction-created.partitions:3}")
+    private int transactionCreatedPartitions;
+
+    @Value("${app.kafka.topics.transaction-status-updated.partitions:3}")
+    private int transactionStatusUpdatedPartitions;
+
+    @Value("${app.kafka.topics.replicas:1}")
+    private short replicas;
+
+    @Value("${app.kafka.producer.partitioner-class:}")
+    private String partitionerClass;
+
     @Bean
     public KafkaAdmin kafkaAdmin() {
         Map<String, Object> configs = new HashMap<>();
         configs.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        return new KafkaAdmin(configs);
+        return new PartitionerAwareKafkaAdmin(configs, partitionerClass);
     }
 
     @Bean
     public NewTopic transactionCreatedTopic() {
         return TopicBuilder.name(KafkaTopics.TRANSACTION_CREATED)
-                .partitions(3)
-                .replicas(1)
+                .partitions(requirePositive(transactionCreatedPartitions, KafkaTopics.TRANSACTION_CREATED))
+                .replicas(replicas)
                 .build();
     }
 
     @Bean
     public NewTopic transactionStatusUpdatedTopic() {
         return TopicBuilder.name(KafkaTopics.TRANSACTION_STATUS_UPDATED)
-                .partitions(3)
-                .replicas(1)
+                .partitions(requirePositive(transactionStatusUpdatedPartitions, KafkaTopics.TRANSACTION_STATUS_UPDATED))
+                .replicas(replicas)
+                .build();
+    }
+
+    /**
+     * In batch and parallel modes no retry topic configuration creates the DLT, so it is
+     * declared here with the partitions of the main topic (failed records keep their partition)
+     */
+    @Bean
+    @ConditionalOnExpression("${app.kafka.status-batch.enabled:false} or ${app.kafka.status-parallel.enabled:false}")
+    public NewTopic transactionStatusUpdatedDltTopic() {
+        return TopicBuilder.name(KafkaTopics.TRANSACTION_STATUS_UPDATED_DLT)
+                .partitions(requirePositive(transactionStatusUpdatedPartitions, KafkaTopics.TRANSACTION_STATUS_UPDATED))
+                .replicas(replicas)
                 .build();
     }
+
+    /**
+     * Transaction created records that antifraud could not evaluate in its batch mode
+     */
+    @Bean
+    public NewTopic transactionCreatedDltTopic() {
+        return TopicBuilder.name(KafkaTopics.TRANSACTION_CREATED_DLT)
+                .partitions(requirePositive(transactionCreatedPartitions, KafkaTopics.TRANSACTION_CREATED))
+                .replicas(replicas)
+                .build();
+    }
+
+    private static int requirePositive(int partitions, String topic) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Partition count for " + topic + " must be at least 1: " + partitions);
+        }
+        return partitions;
+    }
 }
 
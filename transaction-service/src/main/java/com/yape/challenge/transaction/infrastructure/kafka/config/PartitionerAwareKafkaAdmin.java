@@ -0,0 +1,90 @@
+package com.yape.challenge.transaction.infrastructure.kafka.config;
+
+import com.yape.challenge.common.kafka.partitioning.JumpHashPartitioner;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.springframework.kafka.core.KafkaAdmin;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * KafkaAdmin that refuses to add partitions to an existing topic unless producers use JumpHashPartitioner
+ * With Kafka's default murmur2 partitioner a higher partition count moves most keys to another
+ * partition, splitting per-key ordering and the per-partition velocity state of antifraud, so the
+ * application fails to start instead. The check sees this service's partitioner only; antifraud
+ * must be configured the same way. When the cluster cannot be reached no topic is declared, as
+ * creating or growing them would fail as well.
+ */
+@Slf4j
+public class PartitionerAwareKafkaAdmin extends KafkaAdmin {
+
+    private final boolean jumpHash;
+
+    public PartitionerAwareKafkaAdmin(Map<String, Object> config, String partitionerClass) {
+        super(config);
+        this.jumpHash = JumpHashPartitioner.class.getName().equals(partitionerClass);
+    }
+
+    @Override
+    protected Collection<NewTopic> newTopics() {
+        Collection<NewTopic> topics = super.newTopics();
+        if (jumpHash || topics.isEmpty()) {
+            return topics;
+        }
+        Map<String, Integer> existing;
+        try {
+            existing = partitionCounts(topics);
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Could not describe topics, not creating or growing them: {}", e.getMessage());
+            return List.of();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+        for (NewTopic topic : topics) {
+            Integer current = existing.get(topic.name());
+            if (current != null && topic.numPartitions() > current) {
+                throw new IllegalStateException("Topic " + topic.name() + " has " + current
+                        + " partitions and " + topic.numPartitions() + " are configured: adding partitions "
+                        + "requires producers using " + JumpHashPartitioner.class.getName());
+            }
+        }
+        return topics;
+    }
+
+    /**
+     * Current partition count of the declared topics that already exist
+     */
+    private Map<String, Integer> partitionCounts(Collection<NewTopic> topics)
+            throws ExecutionException, TimeoutException, InterruptedException {
+        Map<String, Integer> counts = new HashMap<>();
+        AdminClient admin = AdminClient.create(getConfigurationProperties());
+        try {
+            Map<String, KafkaFuture<TopicDescription>> descriptions =
+                    admin.describeTopics(topics.stream().map(NewTopic::name).toList()).topicNameValues();
+            for (Map.Entry<String, KafkaFuture<TopicDescription>> description : descriptions.entrySet()) {
+                try {
+                    counts.put(description.getKey(),
+                            description.getValue().get(getOperationTimeout(), TimeUnit.SECONDS).partitions().size());
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof UnknownTopicOrPartitionException)) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            admin.close(DEFAULT_CLOSE_TIMEOUT);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,145 @@
+package com.yape.challenge.transaction.infrastructure.kafka.consumer;
+
+import com.yape.challenge.common.kafka.KafkaTopics;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.backoff.BackOff;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pauses the status listeners while the database circuit breaker is open
+ * Paused containers keep polling (without fetching records), so the consumers stay in the group
+ * and max.poll.interval.ms is never at risk. Records rejected by the open breaker are seeked back
+ * by the error handlers and redelivered once the listeners resume on half-open. A paused listener
+ * makes no calls, so a periodic probe moves the breaker to half-open once its open wait elapsed
+ * (when it does not do so on its own) and pauses again any container resumed in the meantime.
+ */
+@Component
+@Slf4j
+public class DatabaseCircuitListenerPauser implements SmartInitializingSingleton, DisposableBean {
+
+    private final CircuitBreaker circuitBreaker;
+    private final ListenerContainerRegistry containerRegistry;
+    private final Duration probeInterval;
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private ScheduledExecutorService prober;
+
+    public DatabaseCircuitListenerPauser(CircuitBreakerRegistry circuitBreakerRegistry,
+                                         ListenerContainerRegistry containerRegistry,
+                                         @Value("${app.kafka.circuit-pause.probe-interval:PT1S}") Duration probeInterval) {
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("database");
+        this.containerRegistry = containerRegistry;
+        this.probeInterval = probeInterval;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        circuitBreaker.getEventPublisher().onStateTransition(this::onStateTransition);
+        prober = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofVirtual().name("database-circuit-probe").factory());
+        prober.scheduleWithFixedDelay(this::probe,
+                probeInterval.toMillis(), probeInterval.toMillis(), TimeUnit.MILLISECONDS);
+        if (isOpen(circuitBreaker.getState())) {
+            pause();
+        }
+    }
+
+    void onStateTransition(CircuitBreakerOnStateTransitionEvent event) {
+        if (isOpen(event.getStateTransition().getToState())) {
+            pause();
+        } else {
+            resume();
+        }
+    }
+
+    /**
+     * Keep every status container paused while the breaker is open and move it to half-open once
+     * its wait elapsed; the permission is only taken to trigger that transition and is handed back unused
+     */
+    void probe() {
+        if (!paused.get()) {
+            return;
+        }
+        statusContainers().stream()
+                .filter(container -> !container.isPauseRequested())
+                .forEach(MessageListenerContainer::pause);
+        if (circuitBreaker.getState() == CircuitBreaker.State.OPEN && circuitBreaker.tryAcquirePermission()) {
+            circuitBreaker.releasePermission();
+        }
+    }
+
+    /**
+     * Whether the status listeners are held paused until the breaker half-opens
+     */
+    public boolean isPaused() {
+        return paused.get();
+    }
+
+    /**
+     * Back-off for records rejected by the open breaker: none while the listeners are held paused,
+     * as the pause keeps the seeked-back records until half-open, and interval otherwise (a
+     * half-open breaker rejecting calls beyond its permits)
+     */
+    public BackOff rejectedRecordBackOff(Duration interval) {
+        return () -> () -> paused.get() ? 0 : interval.toMillis();
+    }
+
+    private void pause() {
+        if (paused.compareAndSet(false, true)) {
+            List<MessageListenerContainer> containers = statusContainers();
+            containers.forEach(MessageListenerContainer::pause);
+            log.warn("Database circuit breaker is {}, paused {} status listener containers",
+                    circuitBreaker.getState(), containers.size());
+        }
+    }
+
+    private void resume() {
+        if (paused.compareAndSet(true, false)) {
+            List<MessageListenerContainer> containers = statusContainers();
+            containers.forEach(MessageListenerContainer::resume);
+            log.info("Database circuit breaker is {}, resumed {} status listener containers",
+                    circuitBreaker.getState(), containers.size());
+        }
+    }
+
+    /**
+     * Containers reading transaction-status-updated or its retry topics; the DLT consumer does not
+     * touch the database and keeps running
+     */
+    private List<MessageListenerContainer> statusContainers() {
+        return containerRegistry.getAllListenerContainers().stream()
+                .filter(container -> {
+                    String[] topics = container.getContainerProperties().getTopics();
+                    return topics != null && Arrays.stream(topics).anyMatch(topic ->
+                            topic.startsWith(KafkaTopics.TRANSACTION_STATUS_UPDATED)
+                                    && !topic.equals(KafkaTopics.TRANSACTION_STATUS_UPDATED_DLT));
+                })
+                .toList();
+    }
+
+    private static boolean isOpen(CircuitBreaker.State state) {
+        return state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    @Override
+    public void destroy() {
+        if (prober != null) {
+            prober.shutdownNow();
+        }
+    }
+}
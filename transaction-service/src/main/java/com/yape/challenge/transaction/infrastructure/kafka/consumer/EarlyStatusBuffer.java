@@ -0,0 +1,395 @@
+package com.yape.challenge.transaction.infrastructure.kafka.consumer;
+
+import com.yape.challenge.common.dto.TransactionStatusEvent;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import com.yape.challenge.transaction.application.bus.CommandBus;
+import com.yape.challenge.transaction.application.command.UpdateTransactionStatusCommand;
+import com.yape.challenge.transaction.domain.entity.ParkedStatusVerdict;
+import com.yape.challenge.transaction.infrastructure.repository.ParkedStatusVerdictRepository;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parks status verdicts that arrive before their transaction exists
+ * Antifraud can answer before the create is visible (or while it is still being retried), so
+ * instead of failing the record into blocking retries the consumer parks it here and moves on.
+ * A parked verdict is re-applied as soon as the create commits (locally or, through the
+ * transaction-created broadcast, on another instance) and otherwise on backoff ticks, off the
+ * consumer thread. Only the latest verdict per transaction is kept, and it stays parked while it
+ * is being applied, so a newer verdict is parked behind it instead of racing it; all applies run
+ * on one worker thread. The buffer is bounded: when full the verdict takes the normal retry path.
+ * Verdicts still unapplied after max-age, or left at shutdown, are published to
+ * transaction-status-updated-dlt. Every parked verdict ends up counted as applied, superseded,
+ * dead-lettered or lost, or is still in the size gauge.
+ * The record's offset is committed once the verdict is parked, so each verdict is also written to
+ * parked_status_verdicts before park returns and deleted once applied or dead-lettered. After a
+ * crash the instance adopts its own rows when it starts again; rows left older than twice max-age
+ * belong to an instance that did not come back (or to a failed dead-letter) and are dead-lettered
+ * by whichever instance sweeps them first.
+ */
+@Component
+@Slf4j
+public class EarlyStatusBuffer implements SmartInitializingSingleton, DisposableBean {
+
+    private final CommandBus commandBus;
+    private final CircuitBreaker circuitBreaker;
+    private final KafkaTemplate<String, TransactionStatusEvent> deadLetterTemplate;
+    private final ParkedStatusVerdictRepository parkedStatusVerdictRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+    private final boolean enabled;
+    private final int capacity;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration maxAge;
+
+    private final Map<UUID, Parked> parked = new ConcurrentHashMap<>();
+    private final DelayQueue<Parked> due = new DelayQueue<>();
+    private final ScheduledExecutorService worker;
+
+    private final Counter parkedCount;
+    private final Counter rejected;
+    private final Counter superseded;
+    private final Counter appliedOnCreate;
+    private final Counter appliedOnTick;
+    private final Counter deadLettered;
+    private final Counter lost;
+
+    public EarlyStatusBuffer(CommandBus commandBus,
+                             CircuitBreakerRegistry circuitBreakerRegistry,
+                             ProducerFactory<String, TransactionStatusEvent> statusProducerFactory,
+                             ParkedStatusVerdictRepository parkedStatusVerdictRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.kafka.status-parking.owner:${HOSTNAME:localhost}-${server.port:8080}}") String owner,
+                             @Value("${app.kafka.status-parking.enabled:true}") boolean enabled,
+                             @Value("${app.kafka.status-parking.capacity:10000}") int capacity,
+                             @Value("${app.kafka.status-parking.tick:PT0.1S}") Duration tick,
+                             @Value("${app.kafka.status-parking.initial-backoff:PT0.2S}") Duration initialBackoff,
+                             @Value("${app.kafka.status-parking.max-backoff:PT5S}") Duration maxBackoff,
+                             @Value("${app.kafka.status-parking.max-age:PT2M}") Duration maxAge) {
+        this.commandBus = commandBus;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("database");
+        this.deadLetterTemplate = new KafkaTemplate<>(statusProducerFactory);
+        this.parkedStatusVerdictRepository = parkedStatusVerdictRepository;
+        // Parked rows are written on their own, whatever transaction the caller is in
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.owner = owner;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.maxAge = maxAge;
+
+        this.parkedCount = outcome(meterRegistry, "parked");
+        this.rejected = outcome(meterRegistry, "rejected");
+        this.superseded = outcome(meterRegistry, "superseded");
+        this.appliedOnCreate = outcome(meterRegistry, "applied_on_create");
+        this.appliedOnTick = outcome(meterRegistry, "applied_on_tick");
+        this.deadLettered = outcome(meterRegistry, "dead_lettered");
+        this.lost = outcome(meterRegistry, "lost");
+        Gauge.builder("kafka.consumer.status.parking.size", parked, Map::size)
+                .description("Status verdicts currently parked")
+                .register(meterRegistry);
+
+        this.worker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofVirtual().name("status-parking").factory());
+        if (enabled) {
+            worker.scheduleWithFixedDelay(this::applyDue, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+            long sweepMillis = Math.max(maxAge.toMillis(), 1000);
+            worker.scheduleWithFixedDelay(this::sweepOrphans, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Adopt the verdicts this instance had parked when it stopped without handing them over
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<ParkedStatusVerdict> rows = parkedStatusVerdictRepository.findByOwner(owner);
+            rows.forEach(row -> {
+                Parked entry = Parked.restored(row, initialBackoff.toNanos());
+                parked.put(row.getExternalId(), entry);
+                due.add(entry);
+            });
+            if (!rows.isEmpty()) {
+                log.info("Adopted {} status verdicts parked before the last stop", rows.size());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not adopt parked status verdicts, the orphan sweep will dead-letter them: {}",
+                    e.getMessage());
+        }
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("kafka.consumer.status.parking")
+                .description("Status verdicts parked because their transaction did not exist yet, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Park a verdict whose transaction was not found; blocks only to write its row
+     *
+     * @return false when parking is disabled, the buffer is full or the row cannot be written,
+     * the caller then fails the record as before
+     */
+    public boolean park(TransactionStatusEvent event) {
+        if (!enabled || event == null || event.getTransactionExternalId() == null) {
+            return false;
+        }
+        UUID externalId = event.getTransactionExternalId();
+        if (parked.size() >= capacity && !parked.containsKey(externalId)) {
+            rejected.increment();
+            log.warn("Status parking buffer full ({}), not parking verdict for {}", capacity, externalId);
+            return false;
+        }
+        Parked entry = Parked.first(event, initialBackoff.toNanos());
+        try {
+            transactionTemplate.executeWithoutResult(status -> parkedStatusVerdictRepository.save(
+                    ParkedStatusVerdict.builder()
+                            .externalId(externalId)
+                            .parkId(entry.parkId())
+                            .status(event.getStatus())
+                            .owner(owner)
+                            .parkedAt(LocalDateTime.now())
+                            .build()));
+        } catch (RuntimeException e) {
+            rejected.increment();
+            log.warn("Could not persist verdict for {}, not parking it: {}", externalId, e.getMessage());
+            return false;
+        }
+        if (parked.put(externalId, entry) != null) {
+            superseded.increment();
+        }
+        due.add(entry);
+        parkedCount.increment();
+        log.info("Parked {} verdict for {} until the transaction is visible", event.getStatus(), externalId);
+        return true;
+    }
+
+    /**
+     * Park a verdict behind an earlier one still waiting for the same transaction, so a parked
+     * verdict is never applied after a newer one
+     *
+     * @return true when the verdict was parked and must not be applied now
+     */
+    public boolean parkIfWaiting(TransactionStatusEvent event) {
+        if (parked.isEmpty() || event == null || event.getTransactionExternalId() == null
+                || !parked.containsKey(event.getTransactionExternalId())) {
+            return false;
+        }
+        return park(event);
+    }
+
+    /**
+     * A transaction was created: re-apply its parked verdict once the create is committed
+     */
+    public void onTransactionCreated(UUID externalId) {
+        if (externalId == null || !parked.containsKey(externalId)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    worker.execute(() -> apply(externalId, true));
+                }
+            });
+        } else {
+            worker.execute(() -> apply(externalId, true));
+        }
+    }
+
+    /**
+     * Verdicts currently parked
+     */
+    public int size() {
+        return parked.size();
+    }
+
+    void applyDue() {
+        Parked entry;
+        while ((entry = due.poll()) != null) {
+            if (parked.get(entry.event().getTransactionExternalId()) == entry) {
+                apply(entry.event().getTransactionExternalId(), false);
+            }
+        }
+    }
+
+    /**
+     * Runs on the worker thread only; the entry stays parked until the dispatch is over
+     */
+    private void apply(UUID externalId, boolean onCreate) {
+        Parked entry = parked.get(externalId);
+        if (entry == null) {
+            return;
+        }
+        TransactionStatusEvent event = entry.event();
+        try {
+            UpdateTransactionStatusCommand command = UpdateTransactionStatusCommand.builder()
+                    .externalId(externalId)
+                    .status(event.getStatus())
+                    .build();
+            circuitBreaker.executeRunnable(() -> commandBus.dispatch(command));
+        } catch (RuntimeException e) {
+            if (System.nanoTime() - entry.parkedAt() >= maxAge.toNanos()) {
+                // A newer verdict parked meanwhile was already counted as superseding this one
+                if (parked.remove(externalId, entry)) {
+                    deadLetter(entry, "Transaction not visible after parking for " + maxAge);
+                }
+                return;
+            }
+            Parked next = entry.next(Math.min(entry.backoffNanos() * 2, maxBackoff.toNanos()));
+            if (parked.replace(externalId, entry, next)) {
+                due.add(next);
+            }
+            return;
+        }
+        if (parked.remove(externalId, entry)) {
+            (onCreate ? appliedOnCreate : appliedOnTick).increment();
+            forget(entry);
+            log.info("Applied parked {} verdict for {} after {} ms", event.getStatus(), externalId,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - entry.parkedAt()));
+        }
+    }
+
+    /**
+     * Dead-letter rows nobody holds any more: their owner stopped for good, or their dead-letter failed
+     */
+    void sweepOrphans() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(maxAge.multipliedBy(2));
+            for (ParkedStatusVerdict row : parkedStatusVerdictRepository.findByParkedAtBefore(cutoff)) {
+                Parked held = parked.get(row.getExternalId());
+                if (held == null || !held.parkId().equals(row.getParkId())) {
+                    deadLetter(Parked.restored(row, initialBackoff.toNanos()),
+                            "Parked verdict orphaned by instance " + row.getOwner());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not sweep orphaned parked verdicts: {}", e.getMessage());
+        }
+    }
+
+    private void forget(Parked entry) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> parkedStatusVerdictRepository.deleteParked(
+                    entry.event().getTransactionExternalId(), entry.parkId()));
+        } catch (RuntimeException e) {
+            // The row is dead-lettered by the orphan sweep; replaying a verdict is idempotent
+            log.warn("Could not delete parked verdict row for {}: {}",
+                    entry.event().getTransactionExternalId(), e.getMessage());
+        }
+    }
+
+    private void deadLetter(Parked entry, String reason) {
+        TransactionStatusEvent event = entry.event();
+        ProducerRecord<String, TransactionStatusEvent> record = new ProducerRecord<>(
+                KafkaTopics.TRANSACTION_STATUS_UPDATED_DLT, event.getTransactionExternalId().toString(), event);
+        record.headers().add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, reason.getBytes(StandardCharsets.UTF_8));
+        try {
+            deadLetterTemplate.send(record).whenComplete((result, error) -> {
+                if (error == null) {
+                    deadLettered.increment();
+                    forget(entry);
+                    log.warn("Parked verdict for {} sent to {}: {}", event.getTransactionExternalId(),
+                            KafkaTopics.TRANSACTION_STATUS_UPDATED_DLT, reason);
+                } else {
+                    // The row stays behind for the orphan sweep
+                    lost.increment();
+                    log.error("Could not dead-letter parked verdict {}", event, error);
+                }
+            });
+        } catch (RuntimeException e) {
+            lost.increment();
+            log.error("Could not dead-letter parked verdict {}", event, e);
+        }
+    }
+
+    /**
+     * Hand the verdicts still parked to the DLT so they can be replayed; rows whose dead-letter is
+     * not acknowledged are adopted again at the next start
+     */
+    @Override
+    public void destroy() {
+        worker.shutdownNow();
+        if (parked.isEmpty()) {
+            return;
+        }
+        parked.values().forEach(entry -> deadLetter(entry, "Instance shut down while the verdict was parked"));
+        parked.clear();
+        deadLetterTemplate.flush();
+    }
+
+    private record Parked(TransactionStatusEvent event, UUID parkId, long parkedAt, long dueAt, long backoffNanos)
+            implements Delayed {
+
+        static Parked first(TransactionStatusEvent event, long backoffNanos) {
+            long now = System.nanoTime();
+            return new Parked(event, UUID.randomUUID(), now, now + backoffNanos, backoffNanos);
+        }
+
+        /**
+         * A persisted verdict, due now and as old as its row
+         */
+        static Parked restored(ParkedStatusVerdict row, long backoffNanos) {
+            long now = System.nanoTime();
+            long age = Math.max(0, Duration.between(row.getParkedAt(), LocalDateTime.now()).toNanos());
+            TransactionStatusEvent event = TransactionStatusEvent.builder()
+                    .transactionExternalId(row.getExternalId())
+                    .status(row.getStatus())
+                    .build();
+            return new Parked(event, row.getParkId(), now - age, now, backoffNanos);
+        }
+
+        Parked next(long backoffNanos) {
+            return new Parked(event, parkId, parkedAt, System.nanoTime() + backoffNanos, backoffNanos);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAt, ((Parked) other).dueAt);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.yape.challenge.transaction.infrastructure.kafka.consumer;
+
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import com.yape.challenge.transaction.infrastructure.cache.TransactionIdFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Broadcast consumer that adds ids created by any instance to the local TransactionIdFilter
+ * Each instance uses its own consumer group, so every instance sees every created event; the
+ * group id is stable per host and port, so a restart reuses it instead of leaving one behind.
+ * On assignment the consumer seeks to the filter's syncFromMillis, before the rebuild snapshot,
+ * so an id committed while the table was being streamed is never missed. It also wakes up a
+ * verdict this instance parked for a transaction created by another one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionIdFilterSyncConsumer implements ConsumerSeekAware {
+
+    private final TransactionIdFilter transactionIdFilter;
+    private final EarlyStatusBuffer earlyStatusBuffer;
+
+    @KafkaListener(
+            topics = KafkaTopics.TRANSACTION_CREATED,
+            groupId = "${app.id-filter.group-id:${spring.application.name:transaction-service}-id-filter-${HOSTNAME:localhost}-${server.port:8080}}",
+            containerFactory = "transactionCreatedListenerContainerFactory",
+            autoStartup = "${app.id-filter.enabled:true}"
+    )
+    public void onTransactionCreated(TransactionCreatedEvent event) {
+        if (event.getTransactionExternalId() != null) {
+            transactionIdFilter.put(event.getTransactionExternalId());
+            earlyStatusBuffer.onTransactionCreated(event.getTransactionExternalId());
+            log.debug("Transaction id filter synced with: {}", event.getTransactionExternalId());
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        // Replaying ids already in the filter is harmless, missing one is a false negative
+        callback.seekToTimestamp(assignments.keySet(), transactionIdFilter.syncFromMillis());
+        log.info("Transaction id filter sync seeking {} partitions to timestamp {}",
+                assignments.size(), transactionIdFilter.syncFromMillis());
+    }
+}
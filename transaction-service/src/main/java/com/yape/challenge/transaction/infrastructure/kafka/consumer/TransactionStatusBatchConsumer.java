@@ -0,0 +1,112 @@
+package com.yape.challenge.transaction.infrastructure.kafka.consumer;
+
+import com.yape.challenge.common.dto.TransactionStatusEvent;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import com.yape.challenge.transaction.application.bus.CommandBus;
+import com.yape.challenge.transaction.application.command.UpdateTransactionStatusBatchCommand;
+import com.yape.challenge.transaction.application.command.UpdateTransactionStatusCommand;
+import com.yape.challenge.transaction.application.dto.response.UpdateTransactionStatusBatchResult;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch mode for antifraud verdicts: every poll is applied in one database transaction
+ * When some verdicts reference transactions that do not exist yet, the rest of the batch is
+ * still applied and those verdicts are parked in EarlyStatusBuffer. Only when the buffer is full
+ * is the first such record reported to the error handler, which commits everything before it
+ * and redelivers from there (re-applying a verdict is a no-op).
+ * A batch rejected by the open database circuit breaker is reported from its first record, so
+ * the whole poll is redelivered once DatabaseCircuitListenerPauser resumes the listener.
+ * A record that could not be deserialized ends the batch: the records before it are applied and
+ * it is reported, so the error handler commits them and sends it to the DLT.
+ */
+@Component
+@ConditionalOnProperty(name = "app.kafka.status-batch.enabled", havingValue = "true")
+@Slf4j
+public class TransactionStatusBatchConsumer {
+
+    private static final LogAccessor LOG = new LogAccessor(TransactionStatusBatchConsumer.class);
+
+    private final CommandBus commandBus;
+    private final CircuitBreaker circuitBreaker;
+    private final EarlyStatusBuffer earlyStatusBuffer;
+
+    public TransactionStatusBatchConsumer(CommandBus commandBus, CircuitBreakerRegistry circuitBreakerRegistry,
+                                          EarlyStatusBuffer earlyStatusBuffer) {
+        this.commandBus = commandBus;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("database");
+        this.earlyStatusBuffer = earlyStatusBuffer;
+    }
+
+    @KafkaListener(id = TransactionStatusConsumer.LISTENER_ID, topics = KafkaTopics.TRANSACTION_STATUS_UPDATED,
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "statusBatchListenerContainerFactory")
+    public void consumeTransactionStatusBatch(List<ConsumerRecord<String, TransactionStatusEvent>> records) {
+        log.info("Received batch of {} transaction status events", records.size());
+
+        int readable = 0;
+        while (readable < records.size() && records.get(readable).value() != null) {
+            readable++;
+        }
+        List<TransactionStatusEvent> events = new ArrayList<>(readable);
+        for (int i = 0; i < readable; i++) {
+            events.add(records.get(i).value());
+        }
+        apply(events);
+        if (readable < records.size()) {
+            ConsumerRecord<String, TransactionStatusEvent> unreadable = records.get(readable);
+            Exception cause = SerializationUtils.getExceptionFromHeader(unreadable,
+                    SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG);
+            throw new BatchListenerFailedException("Unreadable record " + unreadable.topic() + "-"
+                    + unreadable.partition() + "@" + unreadable.offset(), cause, readable);
+        }
+    }
+
+    private void apply(List<TransactionStatusEvent> events) {
+        // Verdicts queued behind a parked one for the same transaction wait with it
+        List<UpdateTransactionStatusCommand> updates = new ArrayList<>(events.size());
+        for (TransactionStatusEvent event : events) {
+            if (!earlyStatusBuffer.parkIfWaiting(event)) {
+                updates.add(UpdateTransactionStatusCommand.builder()
+                        .externalId(event.getTransactionExternalId())
+                        .status(event.getStatus())
+                        .build());
+            }
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+        UpdateTransactionStatusBatchCommand command = UpdateTransactionStatusBatchCommand.builder()
+                .updates(updates)
+                .build();
+
+        UpdateTransactionStatusBatchResult result;
+        try {
+            result = circuitBreaker.executeSupplier(() -> commandBus.dispatch(command));
+        } catch (CallNotPermittedException e) {
+            throw new BatchListenerFailedException("Database circuit breaker is open", e, 0);
+        }
+
+        if (!result.getNotFound().isEmpty()) {
+            for (int i = 0; i < events.size(); i++) {
+                TransactionStatusEvent event = events.get(i);
+                if (result.getNotFound().contains(event.getTransactionExternalId()) && !earlyStatusBuffer.park(event)) {
+                    throw new BatchListenerFailedException(
+                            "Transaction not found: " + event.getTransactionExternalId(), i);
+                }
+            }
+        }
+    }
+}
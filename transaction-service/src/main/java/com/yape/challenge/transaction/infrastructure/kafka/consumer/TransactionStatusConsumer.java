@@ -1,29 +1,79 @@
 package com.yape.challenge.transaction.infrastructure.kafka.consumer;
 
 import com.yape.challenge.common.dto.TransactionStatusEvent;
+import com.yape.challenge.common.kafka.KafkaTopics;
 import com.yape.challenge.transaction.application.bus.CommandBus;
 import com.yape.challenge.transaction.application.command.UpdateTransactionStatusCommand;
-import com.yape.challenge.common.kafka.KafkaTopics;
+import com.yape.challenge.transaction.domain.entity.ConsumerOffset;
+import com.yape.challenge.transaction.infrastructure.repository.ConsumerOffsetRepository;
+import com.yape.challenge.transaction.presentation.exception.ResourceNotFoundException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.retry.annotation.Retry;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Applies antifraud verdicts. Failures are not retried on the listener thread: the record is
+ * forwarded to the tiered retry topics and finally to the DLT (see KafkaRetryTopicConfig),
+ * so the partition keeps flowing. Verdicts for transactions that do not exist yet are parked in
+ * EarlyStatusBuffer instead, and so are later verdicts for a transaction that has one parked.
+ * The next offset of transaction-status-updated is stored in the database in the same
+ * transaction as the status change. On assignment the consumer seeks past records the database
+ * already applied but Kafka had not committed yet, so a redelivery after a crash or rebalance
+ * does no work at all.
+ */
 @Component
-@RequiredArgsConstructor
+@ConditionalOnProperty(name = {"app.kafka.status-batch.enabled", "app.kafka.status-parallel.enabled"},
+        havingValue = "false", matchIfMissing = true)
 @Slf4j
-public class TransactionStatusConsumer {
+public class TransactionStatusConsumer implements ConsumerSeekAware {
+
+    /**
+     * Listener id shared by the single, batch and parallel status consumers (only one is active)
+     */
+    public static final String LISTENER_ID = "transaction-status";
 
     private final CommandBus commandBus;
+    private final EarlyStatusBuffer earlyStatusBuffer;
+    private final ConsumerOffsetRepository consumerOffsetRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String groupId;
+    private final boolean offsetsInDatabase;
+
+    public TransactionStatusConsumer(CommandBus commandBus,
+                                     EarlyStatusBuffer earlyStatusBuffer,
+                                     ConsumerOffsetRepository consumerOffsetRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${spring.kafka.consumer.group-id}") String groupId,
+                                     @Value("${app.kafka.status-offsets.store-in-database:true}") boolean offsetsInDatabase) {
+        this.commandBus = commandBus;
+        this.earlyStatusBuffer = earlyStatusBuffer;
+        this.consumerOffsetRepository = consumerOffsetRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.groupId = groupId;
+        this.offsetsInDatabase = offsetsInDatabase;
+    }
 
-    @KafkaListener(topics = KafkaTopics.TRANSACTION_STATUS_UPDATED, groupId = "${spring.kafka.consumer.group-id}")
-    @CircuitBreaker(name = "database", fallbackMethod = "consumeTransactionStatusFallback")
-    @Retry(name = "kafkaProducer")
-    public void consumeTransactionStatus(TransactionStatusEvent event) {
+    @KafkaListener(id = LISTENER_ID, topics = KafkaTopics.TRANSACTION_STATUS_UPDATED, groupId = "${spring.kafka.consumer.group-id}")
+    @CircuitBreaker(name = "database")
+    public void consumeTransactionStatus(ConsumerRecord<String, TransactionStatusEvent> record) {
+        TransactionStatusEvent event = record.value();
         log.info("Received transaction status event: {}", event);
 
+        if (earlyStatusBuffer.parkIfWaiting(event)) {
+            return;
+        }
+
         try {
             // Create command to update transaction status
             UpdateTransactionStatusCommand command = UpdateTransactionStatusCommand.builder()
@@ -31,11 +81,22 @@ public class TransactionStatusConsumer {
                     .status(event.getStatus())
                     .build();
 
-            // Dispatch command through command bus
-            commandBus.dispatch(command);
+            // Dispatch command through command bus, recording the offset with the change
+            if (storesOffset(record)) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    commandBus.dispatch(command);
+                    consumerOffsetRepository.store(groupId, record.topic(), record.partition(), record.offset() + 1);
+                });
+            } else {
+                commandBus.dispatch(command);
+            }
 
             log.info("Transaction status updated successfully for externalId: {}",
                     event.getTransactionExternalId());
+        } catch (ResourceNotFoundException e) {
+            if (!earlyStatusBuffer.park(event)) {
+                throw e;
+            }
         } catch (Exception e) {
             log.error("Error updating transaction status for externalId: {}",
                     event.getTransactionExternalId(), e);
@@ -44,19 +105,35 @@ public class TransactionStatusConsumer {
     }
 
     /**
-     * Fallback method when Circuit Breaker is open for database operations
+     * Skip records already applied according to the database; positions ahead of the stored
+     * offset (records parked or forwarded to the retry topics) are kept
      */
-    private void consumeTransactionStatusFallback(TransactionStatusEvent event, Exception ex) {
-        log.error("Circuit Breaker OPEN or all retries failed for transaction status update. " +
-                "TransactionExternalId: {}, Status: {}. Reason: {}",
-                event.getTransactionExternalId(), event.getStatus(), ex.getMessage());
-
-        // TODO: Implement fallback strategy:
-        // 1. Save to dead letter topic
-        // 2. Store in a retry queue
-        // 3. Send alert for manual intervention
-
-        // Don't throw exception to avoid message reprocessing loop
-        log.warn("Message will be acknowledged to avoid reprocessing loop");
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        if (!offsetsInDatabase || assignments.keySet().stream()
+                .noneMatch(partition -> KafkaTopics.TRANSACTION_STATUS_UPDATED.equals(partition.topic()))) {
+            return;
+        }
+        Map<Integer, Long> stored;
+        try {
+            stored = consumerOffsetRepository.findByGroupIdAndTopic(groupId, KafkaTopics.TRANSACTION_STATUS_UPDATED)
+                    .stream()
+                    .collect(Collectors.toMap(ConsumerOffset::getPartition, ConsumerOffset::getNextOffset));
+        } catch (RuntimeException e) {
+            log.warn("Could not read stored offsets, resuming from the Kafka committed offsets", e);
+            return;
+        }
+        assignments.forEach((partition, position) -> {
+            Long next = stored.get(partition.partition());
+            if (KafkaTopics.TRANSACTION_STATUS_UPDATED.equals(partition.topic())
+                    && next != null && (position == null || next > position)) {
+                log.info("Seeking {} to stored offset {} (Kafka position {})", partition, next, position);
+                callback.seek(partition.topic(), partition.partition(), next);
+            }
+        });
+    }
+
+    private boolean storesOffset(ConsumerRecord<String, TransactionStatusEvent> record) {
+        return offsetsInDatabase && KafkaTopics.TRANSACTION_STATUS_UPDATED.equals(record.topic());
     }
 }
@@ -0,0 +1,35 @@
+package com.yape.challenge.transaction.infrastructure.kafka.consumer;
+
+import com.yape.challenge.common.dto.TransactionStatusEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Last stop of a status update that failed every retry tier
+ * The record stays in transaction-status-updated-dlt and can be moved back with the
+ * deadletters actuator endpoint once the cause is fixed.
+ */
+@Component("transactionStatusDltHandler")
+@Slf4j
+public class TransactionStatusDltHandler {
+
+    private final Counter deadLettered;
+
+    public TransactionStatusDltHandler(MeterRegistry meterRegistry) {
+        this.deadLettered = Counter.builder("kafka.consumer.dead.letter")
+                .description("Status updates that exhausted every retry tier")
+                .tag("topic", "transaction-status-updated")
+                .register(meterRegistry);
+    }
+
+    public void handle(TransactionStatusEvent event,
+                       @Header(name = KafkaHeaders.DLT_EXCEPTION_MESSAGE, required = false) String reason) {
+        deadLettered.increment();
+        log.error("Status update dead-lettered. TransactionExternalId: {}, Status: {}. Reason: {}",
+                event.getTransactionExternalId(), event.getStatus(), reason);
+    }
+}
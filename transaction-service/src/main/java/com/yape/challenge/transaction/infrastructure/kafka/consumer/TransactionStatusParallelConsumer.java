@@ -0,0 +1,290 @@
+package com.yape.challenge.transaction.infrastructure.kafka.consumer;
+
+import com.yape.challenge.common.dto.TransactionStatusEvent;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import com.yape.challenge.common.kafka.lag.ScalableWorkers;
+import com.yape.challenge.common.kafka.parallel.ContiguousOffsetTracker;
+import com.yape.challenge.common.kafka.parallel.KeyOrderedExecutor;
+import com.yape.challenge.transaction.application.bus.CommandBus;
+import com.yape.challenge.transaction.application.command.UpdateTransactionStatusCommand;
+import com.yape.challenge.transaction.presentation.exception.ResourceNotFoundException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Key-ordered parallel mode for antifraud verdicts
+ * The listener thread only registers each record and hands it to a KeyOrderedExecutor, so
+ * records of one partition run concurrently on virtual threads while verdicts for the same
+ * transactionExternalId stay in order. A record is acknowledged only when it and every earlier
+ * record of its partition finished, so the committed offset never passes unfinished work.
+ * Failures are retried in place on the record's virtual thread with the status-retry delays,
+ * which delays only that key, and then sent to the DLT; a failed dead-letter is retried in place
+ * too, since the partition cannot commit past the record until it is done. Verdicts for transactions that do not
+ * exist yet are parked in EarlyStatusBuffer and acknowledged. While the database circuit breaker is
+ * open, rejected records wait on their virtual thread without using up attempts, and
+ * DatabaseCircuitListenerPauser stops new records from being polled. The in-flight limit is the
+ * worker parallelism scaled by the LagDrivenConcurrencyController. The listener thread never
+ * waits for it: a record refused at the limit is seeked back and its partition paused (the rest
+ * of the poll for that partition is skipped), so the consumer keeps polling and stays in the
+ * group; paused partitions resume once in-flight work drained to half the limit.
+ */
+@Component
+@ConditionalOnProperty(name = "app.kafka.status-parallel.enabled", havingValue = "true")
+@Slf4j
+public class TransactionStatusParallelConsumer implements ConsumerAwareRebalanceListener, ScalableWorkers,
+        DisposableBean {
+
+    private final CommandBus commandBus;
+    private final CircuitBreaker circuitBreaker;
+    private final EarlyStatusBuffer earlyStatusBuffer;
+    private final DeadLetterPublishingRecoverer deadLetterRecoverer;
+    private final KeyOrderedExecutor executor;
+    private final ContiguousOffsetTracker<Acknowledgment> offsets = new ContiguousOffsetTracker<>();
+    private final ListenerContainerRegistry containerRegistry;
+    private final Map<TopicPartition, Long> refusedFrom = new ConcurrentHashMap<>();
+    private final Set<TopicPartition> paused = ConcurrentHashMap.newKeySet();
+
+    private final int attempts;
+    private final Duration initialDelay;
+    private final double multiplier;
+    private final Duration maxDelay;
+    private final Duration drainTimeout;
+    private final Duration circuitWait;
+
+    public TransactionStatusParallelConsumer(CommandBus commandBus,
+                                             CircuitBreakerRegistry circuitBreakerRegistry,
+                                             EarlyStatusBuffer earlyStatusBuffer,
+                                             ProducerFactory<String, TransactionStatusEvent> statusProducerFactory,
+                                             ListenerContainerRegistry containerRegistry,
+                                             @Value("${app.kafka.status-parallel.max-in-flight:1000}") int maxInFlight,
+                                             @Value("${app.kafka.status-parallel.drain-timeout:PT10S}") Duration drainTimeout,
+                                             @Value("${app.kafka.status-retry.attempts:4}") int attempts,
+                                             @Value("${app.kafka.status-retry.initial-delay:PT1S}") Duration initialDelay,
+                                             @Value("${app.kafka.status-retry.multiplier:5.0}") double multiplier,
+                                             @Value("${app.kafka.status-retry.max-delay:PT2M}") Duration maxDelay,
+                                             @Value("${app.kafka.circuit-pause.probe-interval:PT1S}") Duration circuitWait) {
+        this.commandBus = commandBus;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("database");
+        this.earlyStatusBuffer = earlyStatusBuffer;
+        this.deadLetterRecoverer = new DeadLetterPublishingRecoverer(new KafkaTemplate<>(statusProducerFactory),
+                (record, exception) -> new TopicPartition(KafkaTopics.TRANSACTION_STATUS_UPDATED_DLT, record.partition()));
+        this.executor = new KeyOrderedExecutor(maxInFlight);
+        this.executor.onRelease(this::resumeIfDrained);
+        this.containerRegistry = containerRegistry;
+        this.drainTimeout = drainTimeout;
+        this.attempts = Math.max(1, attempts);
+        this.initialDelay = initialDelay;
+        this.multiplier = multiplier;
+        this.maxDelay = maxDelay;
+        this.circuitWait = circuitWait;
+    }
+
+    @KafkaListener(id = TransactionStatusConsumer.LISTENER_ID, topics = KafkaTopics.TRANSACTION_STATUS_UPDATED,
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "parallelStatusListenerContainerFactory")
+    public void consumeTransactionStatus(ConsumerRecord<String, TransactionStatusEvent> record,
+                                         Acknowledgment acknowledgment,
+                                         Consumer<?, ?> consumer) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        Long refused = refusedFrom.get(partition);
+        if (refused != null && record.offset() > refused) {
+            // Rest of the poll: the partition was rewound to the refused record
+            return;
+        }
+        offsets.register(partition, record.offset(), acknowledgment);
+
+        TransactionStatusEvent event = record.value();
+        if (executor.trySubmit(event != null ? event.getTransactionExternalId() : null, () -> {
+            if (process(record)) {
+                offsets.complete(partition, record.offset()).ifPresent(Acknowledgment::acknowledge);
+            }
+        }) == null) {
+            refusedFrom.put(partition, record.offset());
+            consumer.seek(partition, record.offset());
+            pause(partition);
+        } else if (refused != null) {
+            refusedFrom.remove(partition);
+        }
+    }
+
+    private void pause(TopicPartition partition) {
+        MessageListenerContainer container = container();
+        if (container != null && paused.add(partition)) {
+            container.pausePartition(partition);
+            log.debug("{} records in flight, pausing {}", executor.inFlight(), partition);
+            // A release may have happened before the partition was marked
+            resumeIfDrained();
+        }
+    }
+
+    private MessageListenerContainer container() {
+        return containerRegistry.getListenerContainer(TransactionStatusConsumer.LISTENER_ID);
+    }
+
+    /**
+     * Resume the partitions paused at the limit once in-flight work drained to half of it
+     */
+    private void resumeIfDrained() {
+        if (paused.isEmpty() || executor.inFlight() > executor.getMaxInFlight() / 2) {
+            return;
+        }
+        MessageListenerContainer container = container();
+        for (TopicPartition partition : paused) {
+            if (paused.remove(partition) && container != null) {
+                container.resumePartition(partition);
+            }
+        }
+    }
+
+    /**
+     * Apply one verdict, retrying with growing delays and dead-lettering it once attempts run out
+     *
+     * @return true when the record is done with (applied, parked or dead-lettered) and may be committed
+     */
+    boolean process(ConsumerRecord<String, TransactionStatusEvent> record) {
+        TransactionStatusEvent event = record.value();
+        if (earlyStatusBuffer.parkIfWaiting(event)) {
+            return true;
+        }
+        long delay = initialDelay.toMillis();
+        for (int attempt = 1; ; ) {
+            long wait;
+            try {
+                UpdateTransactionStatusCommand command = UpdateTransactionStatusCommand.builder()
+                        .externalId(event.getTransactionExternalId())
+                        .status(event.getStatus())
+                        .build();
+                circuitBreaker.executeRunnable(() -> commandBus.dispatch(command));
+                return true;
+            } catch (CallNotPermittedException e) {
+                // Not an attempt: the record never reached the database
+                wait = circuitWait.toMillis();
+            } catch (RuntimeException e) {
+                if (e instanceof ResourceNotFoundException && earlyStatusBuffer.park(event)) {
+                    return true;
+                }
+                if (attempt >= attempts) {
+                    return deadLetter(record, e);
+                }
+                log.warn("Attempt {}/{} failed for {}-{}@{}, retrying in {} ms: {}", attempt, attempts,
+                        record.topic(), record.partition(), record.offset(), delay, e.getMessage());
+                wait = delay;
+                delay = Math.min((long) (delay * multiplier), maxDelay.toMillis());
+                attempt++;
+            }
+            if (!sleep(wait)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Publish the record to the DLT, retrying in place with growing delays until it is accepted
+     */
+    private boolean deadLetter(ConsumerRecord<String, TransactionStatusEvent> record, RuntimeException cause) {
+        log.error("Giving up on {}-{}@{} after {} attempts, sending to {}", record.topic(), record.partition(),
+                record.offset(), attempts, KafkaTopics.TRANSACTION_STATUS_UPDATED_DLT, cause);
+        long delay = initialDelay.toMillis();
+        while (true) {
+            try {
+                deadLetterRecoverer.accept(record, cause);
+                return true;
+            } catch (RuntimeException e) {
+                log.error("Could not dead-letter {}-{}@{}, retrying in {} ms", record.topic(), record.partition(),
+                        record.offset(), delay, e);
+            }
+            if (!sleep(delay)) {
+                return false;
+            }
+            delay = Math.min((long) (delay * multiplier), maxDelay.toMillis());
+        }
+    }
+
+    /**
+     * @return false when interrupted, which only the executor's shutdown does: the container has
+     * stopped by then, so the unacknowledged record is redelivered to the partition's next owner
+     */
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Let in-flight records finish so their acks are committed before the partitions move
+     */
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        try {
+            if (!executor.awaitQuiescence(drainTimeout)) {
+                log.warn("{} records still in flight after {}, they will be redelivered to the new owner",
+                        executor.inFlight(), drainTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        forget(partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        forget(partitions);
+    }
+
+    private void forget(Collection<TopicPartition> partitions) {
+        offsets.revoke(partitions);
+        partitions.forEach(refusedFrom::remove);
+        MessageListenerContainer container = container();
+        for (TopicPartition partition : partitions) {
+            if (paused.remove(partition) && container != null) {
+                container.resumePartition(partition);
+            }
+        }
+    }
+
+    @Override
+    public int getParallelism() {
+        return executor.getMaxInFlight();
+    }
+
+    @Override
+    public void setParallelism(int parallelism) {
+        executor.setMaxInFlight(parallelism);
+    }
+
+    @Override
+    public void destroy() {
+        executor.close();
+    }
+}
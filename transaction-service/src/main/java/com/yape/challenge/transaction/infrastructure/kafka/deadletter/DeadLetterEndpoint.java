@@ -0,0 +1,51 @@
+package com.yape.challenge.transaction.infrastructure.kafka.deadletter;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for the status update dead-letter topic
+ * GET /actuator/deadletters reports records not replayed yet per partition;
+ * POST /actuator/deadletters moves up to 1000 of them back to transaction-status-updated,
+ * POST /actuator/deadletters/{maxRecords} up to maxRecords.
+ */
+@Component
+@Endpoint(id = "deadletters")
+@RequiredArgsConstructor
+public class DeadLetterEndpoint {
+
+    private static final int DEFAULT_MAX_RECORDS = 1000;
+
+    private final DeadLetterReplayer replayer;
+
+    @ReadOperation
+    public Map<String, Object> pending() {
+        Map<Integer, Long> partitions = replayer.pending();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("topic", DeadLetterReplayer.DLT_TOPIC);
+        report.put("pending", partitions.values().stream().mapToLong(Long::longValue).sum());
+        report.put("partitions", partitions);
+        return report;
+    }
+
+    @WriteOperation
+    public Map<String, Object> replay() {
+        return replay(DEFAULT_MAX_RECORDS);
+    }
+
+    @WriteOperation
+    public Map<String, Object> replay(@Selector int maxRecords) {
+        int replayed = replayer.replay(maxRecords);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("replayed", replayed);
+        report.put("target", DeadLetterReplayer.TARGET_TOPIC);
+        return report;
+    }
+}
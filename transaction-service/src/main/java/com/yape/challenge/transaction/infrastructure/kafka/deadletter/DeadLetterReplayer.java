@@ -0,0 +1,226 @@
+package com.yape.challenge.transaction.infrastructure.kafka.deadletter;
+
+import com.yape.challenge.common.kafka.KafkaTopics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Moves dead-lettered status updates back to transaction-status-updated
+ * Records are copied as raw bytes (key, value and format header unchanged) without the
+ * DLT and retry bookkeeping headers, so they go through the normal flow and retry tiers again.
+ * The producer uses the configured partitioner, so a replayed key lands on the partition its
+ * other verdicts went to.
+ * Progress is tracked by a dedicated consumer group: offsets are committed only after the
+ * broker acknowledged the republished records, and each DLT record is replayed once.
+ */
+@Component
+@Slf4j
+public class DeadLetterReplayer implements DisposableBean {
+
+    static final String DLT_TOPIC = KafkaTopics.TRANSACTION_STATUS_UPDATED_DLT;
+    static final String TARGET_TOPIC = KafkaTopics.TRANSACTION_STATUS_UPDATED;
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final long SEND_TIMEOUT_SECONDS = 30;
+
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+    private final ProducerFactory<String, byte[]> producerFactory;
+    private final String replayGroupId;
+
+    @Autowired
+    public DeadLetterReplayer(@Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+                              @Value("${spring.kafka.consumer.group-id}") String groupId,
+                              @Value("${app.kafka.producer.partitioner-class:}") String partitionerClass) {
+        this(new DefaultKafkaConsumerFactory<>(consumerProps(bootstrapServers),
+                        new StringDeserializer(), new ByteArrayDeserializer()),
+                new DefaultKafkaProducerFactory<>(producerProps(bootstrapServers, partitionerClass),
+                        new StringSerializer(), new ByteArraySerializer()),
+                groupId + "-dlt-replay");
+    }
+
+    DeadLetterReplayer(ConsumerFactory<String, byte[]> consumerFactory,
+                       ProducerFactory<String, byte[]> producerFactory,
+                       String replayGroupId) {
+        this.consumerFactory = consumerFactory;
+        this.producerFactory = producerFactory;
+        this.replayGroupId = replayGroupId;
+    }
+
+    /**
+     * Records per DLT partition not replayed yet
+     */
+    public Map<Integer, Long> pending() {
+        try (Consumer<String, byte[]> consumer = consumerFactory.createConsumer(replayGroupId, "dlt-inspect")) {
+            List<TopicPartition> partitions = partitions(consumer);
+            Map<TopicPartition, Long> beginning = consumer.beginningOffsets(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(Set.copyOf(partitions));
+
+            Map<Integer, Long> pending = new LinkedHashMap<>();
+            for (TopicPartition partition : partitions) {
+                OffsetAndMetadata offset = committed.get(partition);
+                long from = offset != null ? offset.offset() : beginning.getOrDefault(partition, 0L);
+                pending.put(partition.partition(), Math.max(0, end.getOrDefault(partition, 0L) - from));
+            }
+            return pending;
+        }
+    }
+
+    /**
+     * Republish up to maxRecords DLT records to the original topic
+     *
+     * @return Number of records replayed
+     */
+    public synchronized int replay(int maxRecords) {
+        if (maxRecords < 1) {
+            throw new IllegalArgumentException("maxRecords must be at least 1");
+        }
+        try (Consumer<String, byte[]> consumer = consumerFactory.createConsumer(replayGroupId, "dlt-replay");
+             Producer<String, byte[]> producer = producerFactory.createProducer()) {
+            List<TopicPartition> partitions = partitions(consumer);
+            consumer.assign(partitions);
+            Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(Set.copyOf(partitions));
+            List<TopicPartition> fresh = partitions.stream()
+                    .filter(partition -> committed.get(partition) == null)
+                    .toList();
+            consumer.seekToBeginning(fresh);
+            committed.forEach((partition, offset) -> {
+                if (offset != null) {
+                    consumer.seek(partition, offset.offset());
+                }
+            });
+
+            int replayed = 0;
+            while (replayed < maxRecords) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                List<Future<RecordMetadata>> sends = new ArrayList<>();
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    if (replayed + sends.size() >= maxRecords) {
+                        break;
+                    }
+                    sends.add(producer.send(toOriginalTopic(record)));
+                    offsets.put(new TopicPartition(record.topic(), record.partition()),
+                            new OffsetAndMetadata(record.offset() + 1));
+                }
+                awaitAcks(sends);
+                consumer.commitSync(offsets);
+                replayed += sends.size();
+            }
+            log.info("Replayed {} records from {} to {}", replayed, DLT_TOPIC, TARGET_TOPIC);
+            return replayed;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (producerFactory instanceof DisposableBean disposable) {
+            try {
+                disposable.destroy();
+            } catch (Exception e) {
+                log.warn("Error closing DLT replay producer", e);
+            }
+        }
+    }
+
+    static ProducerRecord<String, byte[]> toOriginalTopic(ConsumerRecord<String, byte[]> record) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!isRetryBookkeeping(header.key())) {
+                headers.add(header);
+            }
+        }
+        return new ProducerRecord<>(TARGET_TOPIC, null, record.key(), record.value(), headers);
+    }
+
+    /**
+     * Headers added by DeadLetterPublishingRecoverer and the retry topic infrastructure
+     */
+    private static boolean isRetryBookkeeping(String key) {
+        return key.startsWith("kafka_dlt-") || key.startsWith("retry_topic-");
+    }
+
+    private List<TopicPartition> partitions(Consumer<String, byte[]> consumer) {
+        List<PartitionInfo> infos = consumer.partitionsFor(DLT_TOPIC);
+        if (infos == null) {
+            return List.of();
+        }
+        return infos.stream()
+                .map(info -> new TopicPartition(DLT_TOPIC, info.partition()))
+                .toList();
+    }
+
+    private void awaitAcks(List<Future<RecordMetadata>> sends) {
+        try {
+            for (Future<RecordMetadata> send : sends) {
+                send.get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while replaying " + DLT_TOPIC, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new KafkaException("Could not republish records from " + DLT_TOPIC, e);
+        }
+    }
+
+    private static Map<String, Object> consumerProps(String bootstrapServers) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        props.put(ConsumerConfig.ALLOW_AUTO_CREATE_TOPICS_CONFIG, false);
+        return props;
+    }
+
+    static Map<String, Object> producerProps(String bootstrapServers, String partitionerClass) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        if (!partitionerClass.isBlank()) {
+            props.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, partitionerClass);
+        }
+        return props;
+    }
+}
@@ -0,0 +1,32 @@
+package com.yape.challenge.transaction.infrastructure.kafka.producer;
+
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Field used as record key for transaction-created events, selected with app.kafka.producer.created-event-key
+ * Keying by an account keeps every transaction of that account on one partition, in order,
+ * so per-account state in consumers stays partition-local. Falls back to the transaction id
+ * when the chosen field is missing.
+ */
+public enum CreatedEventKey {
+    TRANSACTION_EXTERNAL_ID(TransactionCreatedEvent::getTransactionExternalId),
+    ACCOUNT_EXTERNAL_ID_DEBIT(TransactionCreatedEvent::getAccountExternalIdDebit),
+    ACCOUNT_EXTERNAL_ID_CREDIT(TransactionCreatedEvent::getAccountExternalIdCredit);
+
+    private final Function<TransactionCreatedEvent, UUID> field;
+
+    CreatedEventKey(Function<TransactionCreatedEvent, UUID> field) {
+        this.field = field;
+    }
+
+    public String keyOf(TransactionCreatedEvent event) {
+        UUID key = field.apply(event);
+        if (key == null) {
+            key = event.getTransactionExternalId();
+        }
+        return key != null ? key.toString() : null;
+    }
+}
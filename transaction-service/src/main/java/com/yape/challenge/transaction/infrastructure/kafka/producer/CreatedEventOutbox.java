@@ -0,0 +1,194 @@
+package com.yape.challenge.transaction.infrastructure.kafka.producer;
+
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.dto.TransactionStatus;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import com.yape.challenge.transaction.application.mapper.TransactionMapper;
+import com.yape.challenge.transaction.domain.entity.PendingCreatedEvent;
+import com.yape.challenge.transaction.domain.entity.Transaction;
+import com.yape.challenge.transaction.infrastructure.datasource.DataSourceRoute;
+import com.yape.challenge.transaction.infrastructure.kafka.exception.KafkaProducerException;
+import com.yape.challenge.transaction.infrastructure.repository.PendingCreatedEventRepository;
+import com.yape.challenge.transaction.infrastructure.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes transaction created events without waiting for the broker ack, after the create commits
+ * The event is recorded in pending_created_events in the create's own transaction and handed to the
+ * producer from afterCommit, so antifraud never validates a transaction that was rolled back. Acked
+ * rows are deleted in batches; a row whose send failed, was rejected (circuit open, back-pressure)
+ * or was lost in a crash is claimed by a sweep once it is older than republish-after and sent again
+ * with the blocking send, from any instance. A row whose transaction already has a verdict is only
+ * deleted. Delivery is at-least-once: a slow ack can make the sweep publish an event twice.
+ */
+@Component
+@ConditionalOnProperty(name = "app.kafka.producer.async", havingValue = "true")
+@Slf4j
+public class CreatedEventOutbox implements DisposableBean {
+
+    private static final int DELETE_BATCH_SIZE = 500;
+
+    private final KafkaProducerService kafkaProducerService;
+    private final PendingCreatedEventRepository pendingCreatedEventRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionMapper transactionMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration republishAfter;
+
+    private final Queue<UUID> acked = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService worker;
+
+    private final Counter sendFailed;
+    private final Counter republished;
+
+    public CreatedEventOutbox(KafkaProducerService kafkaProducerService,
+                              PendingCreatedEventRepository pendingCreatedEventRepository,
+                              TransactionRepository transactionRepository,
+                              TransactionMapper transactionMapper,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.kafka.producer.outbox.flush-interval:PT1S}") Duration flushInterval,
+                              @Value("${app.kafka.producer.outbox.republish-after:PT1M}") Duration republishAfter) {
+        this.kafkaProducerService = kafkaProducerService;
+        this.pendingCreatedEventRepository = pendingCreatedEventRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionMapper = transactionMapper;
+        // Outbox maintenance runs on its own, outside any create
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.republishAfter = republishAfter;
+        this.sendFailed = outcome(meterRegistry, "send_failed");
+        this.republished = outcome(meterRegistry, "republished");
+
+        this.worker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofVirtual().name("created-outbox").factory());
+        worker.scheduleWithFixedDelay(this::deleteAcked,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        long sweepMillis = Math.max(republishAfter.toMillis() / 2, 1000);
+        worker.scheduleWithFixedDelay(this::republishStale, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("kafka.producer.outbox")
+                .description("Transaction created events that needed the outbox, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record the event in the caller's transaction and send it once that transaction commits
+     */
+    public void publishAfterCommit(String key, TransactionCreatedEvent event) {
+        pendingCreatedEventRepository.save(PendingCreatedEvent.builder()
+                .externalId(event.getTransactionExternalId())
+                .eventKey(key)
+                .recordedAt(LocalDateTime.now())
+                .build());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                send(key, event);
+            }
+        });
+    }
+
+    private void send(String key, TransactionCreatedEvent event) {
+        UUID externalId = event.getTransactionExternalId();
+        try {
+            kafkaProducerService.sendTransactionCreatedEventAsync(KafkaTopics.TRANSACTION_CREATED, key, event)
+                    .whenComplete((result, error) -> {
+                        if (error == null) {
+                            acked.add(externalId);
+                        } else {
+                            sendFailed.increment();
+                        }
+                    });
+        } catch (KafkaProducerException e) {
+            // The transaction is committed: answer the request and leave the event to the sweep
+            sendFailed.increment();
+            log.warn("Created event for {} not sent, it will be re-published: {}", externalId, e.getMessage());
+        }
+    }
+
+    private void deleteAcked() {
+        List<UUID> batch = new ArrayList<>(DELETE_BATCH_SIZE);
+        UUID externalId;
+        while ((externalId = acked.poll()) != null) {
+            batch.add(externalId);
+            if (batch.size() == DELETE_BATCH_SIZE) {
+                delete(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            delete(batch);
+        }
+    }
+
+    private void delete(List<UUID> externalIds) {
+        try {
+            pendingCreatedEventRepository.deleteAllByIdInBatch(externalIds);
+        } catch (RuntimeException e) {
+            // The rows go through the sweep, which drops the ones that already have a verdict
+            log.warn("Could not delete {} acknowledged outbox rows: {}", externalIds.size(), e.getMessage());
+        }
+    }
+
+    private void republishStale() {
+        try {
+            List<PendingCreatedEvent> stale = pendingCreatedEventRepository
+                    .findTop100ByRecordedAtBeforeOrderByRecordedAt(LocalDateTime.now().minus(republishAfter));
+            for (PendingCreatedEvent row : stale) {
+                Integer claimed = transactionTemplate.execute(status -> pendingCreatedEventRepository.claim(
+                        row.getExternalId(), row.getRecordedAt(), LocalDateTime.now()));
+                if (claimed != null && claimed == 1) {
+                    republish(row);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Broker or database down: the rows stay and the next sweep tries again
+            log.warn("Could not re-publish pending created events: {}", e.getMessage());
+        }
+    }
+
+    private void republish(PendingCreatedEvent row) {
+        Optional<Transaction> transaction = DataSourceRoute.onPrimary(
+                () -> transactionRepository.findByExternalId(row.getExternalId()));
+        if (transaction.isPresent() && transaction.get().getStatus() == TransactionStatus.PENDING) {
+            kafkaProducerService.sendTransactionCreatedEvent(KafkaTopics.TRANSACTION_CREATED, row.getEventKey(),
+                    transactionMapper.toCreatedEvent(transaction.get()));
+            republished.increment();
+            log.info("Re-published created event for {}", row.getExternalId());
+        }
+        pendingCreatedEventRepository.deleteById(row.getExternalId());
+    }
+
+    @Override
+    public void destroy() {
+        worker.shutdownNow();
+        deleteAcked();
+    }
+}
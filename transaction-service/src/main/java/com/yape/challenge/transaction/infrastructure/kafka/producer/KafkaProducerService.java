@@ -2,26 +2,63 @@ package com.yape.challenge.transaction.infrastructure.kafka.producer;
 
 import com.yape.challenge.common.dto.TransactionCreatedEvent;
 import com.yape.challenge.transaction.infrastructure.kafka.exception.KafkaProducerException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Service for sending messages to Kafka with Circuit Breaker pattern
+ * Offers a blocking send that waits for the broker ack and a non-blocking send that completes
+ * through callbacks, bounded by a limit of in-flight sends.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class KafkaProducerService {
 
+    private static final String CIRCUIT_BREAKER_NAME = "kafkaProducer";
+
     private final KafkaTemplate<String, TransactionCreatedEvent> kafkaTemplate;
+    private final io.github.resilience4j.circuitbreaker.CircuitBreaker circuitBreaker;
+    private final Semaphore inFlightPermits;
+    private final int maxInFlight;
+    private final Duration maxBackpressureWait;
+    private final Timer sendLatencySuccess;
+    private final Timer sendLatencyFailure;
+    private final Counter rejectedCircuitOpen;
+    private final Counter rejectedBackpressure;
+
+    public KafkaProducerService(KafkaTemplate<String, TransactionCreatedEvent> kafkaTemplate,
+                                CircuitBreakerRegistry circuitBreakerRegistry,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.kafka.producer.max-in-flight:1000}") int maxInFlight,
+                                @Value("${app.kafka.producer.max-backpressure-wait:PT0.1S}") Duration maxBackpressureWait) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME);
+        this.inFlightPermits = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.maxBackpressureWait = maxBackpressureWait;
+        this.sendLatencySuccess = sendLatency(meterRegistry, "success");
+        this.sendLatencyFailure = sendLatency(meterRegistry, "failure");
+        this.rejectedCircuitOpen = rejected(meterRegistry, "circuit_open");
+        this.rejectedBackpressure = rejected(meterRegistry, "backpressure");
+        Gauge.builder("kafka.producer.in.flight", this, KafkaProducerService::inFlight)
+                .description("Non-blocking sends waiting for a broker ack")
+                .register(meterRegistry);
+    }
 
     /**
      * Send transaction created event to Kafka with Circuit Breaker and Retry
@@ -30,8 +67,8 @@ public class KafkaProducerService {
      * @param key Message key
      * @param event Event to send
      */
-    @CircuitBreaker(name = "kafkaProducer", fallbackMethod = "sendEventFallback")
-    @Retry(name = "kafkaProducer")
+    @CircuitBreaker(name = CIRCUIT_BREAKER_NAME, fallbackMethod = "sendEventFallback")
+    @Retry(name = CIRCUIT_BREAKER_NAME)
     public void sendTransactionCreatedEvent(String topic, String key, TransactionCreatedEvent event) {
         log.info("Sending event to Kafka topic '{}' with key '{}': {}", topic, key, event);
 
@@ -62,6 +99,93 @@ public class KafkaProducerService {
         }
     }
 
+    /**
+     * Send transaction created event without waiting for the broker ack
+     * The caller only waits, at most maxBackpressureWait, when maxInFlight sends are already pending;
+     * it gets a KafkaProducerException right away when that wait expires or the circuit breaker is open.
+     * The ack outcome is fed to the circuit breaker and the send latency timer from the producer callback.
+     * Delivery failures reported there happen after the producer's own retries are exhausted.
+     * Such a failure is only logged here; CreatedEventOutbox re-publishes the event.
+     *
+     * @param topic Topic name
+     * @param key Message key
+     * @param event Event to send
+     * @return Future completed with the send result once the broker acks the record
+     */
+    public CompletableFuture<SendResult<String, TransactionCreatedEvent>> sendTransactionCreatedEventAsync(
+            String topic, String key, TransactionCreatedEvent event) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            rejectedCircuitOpen.increment();
+            throw new KafkaProducerException("Kafka service is temporarily unavailable (circuit breaker open)");
+        }
+        if (!acquireInFlightPermit()) {
+            circuitBreaker.releasePermission();
+            rejectedBackpressure.increment();
+            throw new KafkaProducerException("Too many pending Kafka sends, try again later");
+        }
+
+        long start = circuitBreaker.getCurrentTimestamp();
+        CompletableFuture<SendResult<String, TransactionCreatedEvent>> future;
+        try {
+            future = kafkaTemplate.send(topic, key, event);
+        } catch (Exception e) {
+            onSendCompleted(topic, key, null, e, start);
+            throw new KafkaProducerException("Error sending event to Kafka", e);
+        }
+        return future.whenComplete((result, error) -> onSendCompleted(topic, key, result, error, start));
+    }
+
+    /**
+     * Non-blocking sends waiting for a broker ack
+     */
+    public int inFlight() {
+        return maxInFlight - inFlightPermits.availablePermits();
+    }
+
+    private boolean acquireInFlightPermit() {
+        try {
+            return inFlightPermits.tryAcquire(maxBackpressureWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void onSendCompleted(String topic, String key, SendResult<String, TransactionCreatedEvent> result,
+                                 Throwable error, long start) {
+        inFlightPermits.release();
+        long duration = circuitBreaker.getCurrentTimestamp() - start;
+        TimeUnit unit = circuitBreaker.getTimestampUnit();
+        if (error == null) {
+            circuitBreaker.onSuccess(duration, unit);
+            sendLatencySuccess.record(duration, unit);
+            if (result != null && result.getRecordMetadata() != null) {
+                log.debug("Event sent successfully to topic '{}', partition: {}, offset: {}",
+                        topic, result.getRecordMetadata().partition(), result.getRecordMetadata().offset());
+            }
+        } else {
+            circuitBreaker.onError(duration, unit, error);
+            sendLatencyFailure.record(duration, unit);
+            log.error("Failed to send event to Kafka topic '{}' with key '{}': {}. " +
+                    "Transaction created but notification to antifraud service failed.", topic, key, error.getMessage());
+        }
+    }
+
+    private static Timer sendLatency(MeterRegistry registry, String result) {
+        return Timer.builder("kafka.producer.send.latency")
+                .tag("result", result)
+                .description("Time from send until the broker ack or failure")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    private static Counter rejected(MeterRegistry registry, String reason) {
+        return Counter.builder("kafka.producer.send.rejected")
+                .tag("reason", reason)
+                .description("Non-blocking sends rejected before reaching the producer")
+                .register(registry);
+    }
+
     /**
      * Fallback method when Circuit Breaker is open or all retries fail
      * This method logs the error and prevents cascading failures.
@@ -0,0 +1,51 @@
+package com.yape.challenge.transaction.infrastructure.repository;
+
+import com.yape.challenge.transaction.domain.entity.ConsumerOffset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for Kafka consumer offsets kept in the database
+ */
+@Repository
+public interface ConsumerOffsetRepository extends JpaRepository<ConsumerOffset, ConsumerOffset.Key> {
+
+    List<ConsumerOffset> findByGroupIdAndTopic(String groupId, String topic);
+
+    /**
+     * Move the stored offset of a partition without loading it
+     *
+     * @return number of updated rows, 0 when the partition has no offset stored yet
+     */
+    @Modifying
+    @Query("UPDATE ConsumerOffset o SET o.nextOffset = :nextOffset, o.updatedAt = :updatedAt " +
+            "WHERE o.groupId = :groupId AND o.topic = :topic AND o.partition = :partition")
+    int updateOffset(@Param("groupId") String groupId,
+                     @Param("topic") String topic,
+                     @Param("partition") int partition,
+                     @Param("nextOffset") long nextOffset,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Store the next offset of a partition; one UPDATE, plus an INSERT the first time
+     * Must run inside the transaction of the change it belongs to.
+     */
+    default void store(String groupId, String topic, int partition, long nextOffset) {
+        LocalDateTime now = LocalDateTime.now();
+        if (updateOffset(groupId, topic, partition, nextOffset, now) == 0) {
+            save(ConsumerOffset.builder()
+                    .groupId(groupId)
+                    .topic(topic)
+                    .partition(partition)
+                    .nextOffset(nextOffset)
+                    .updatedAt(now)
+                    .build());
+        }
+    }
+}
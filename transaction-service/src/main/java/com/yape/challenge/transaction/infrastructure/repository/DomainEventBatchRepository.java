@@ -0,0 +1,17 @@
+package com.yape.challenge.transaction.infrastructure.repository;
+
+import com.yape.challenge.transaction.domain.entity.DomainEvent;
+
+import java.util.List;
+
+/**
+ * Batched writes for domain events
+ */
+public interface DomainEventBatchRepository {
+
+    /**
+     * Insert all events with one JDBC batch
+     * DomainEvent ids are IDENTITY generated, which makes Hibernate insert row by row.
+     */
+    void insertAll(List<DomainEvent> events);
+}
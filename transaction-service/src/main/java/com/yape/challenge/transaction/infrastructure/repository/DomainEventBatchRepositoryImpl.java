@@ -0,0 +1,38 @@
+package com.yape.challenge.transaction.infrastructure.repository;
+
+import com.yape.challenge.transaction.domain.entity.DomainEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * JdbcTemplate implementation of DomainEventBatchRepository
+ * Runs on the connection of the surrounding JPA transaction.
+ */
+@RequiredArgsConstructor
+public class DomainEventBatchRepositoryImpl implements DomainEventBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO domain_events " +
+            "(aggregate_id, aggregate_type, event_type, event_data, metadata, version, occurred_at) " +
+            "VALUES (?, ?, ?, CAST(? AS jsonb), CAST(? AS jsonb), ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<DomainEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (statement, event) -> {
+            statement.setObject(1, event.getAggregateId());
+            statement.setString(2, event.getAggregateType());
+            statement.setString(3, event.getEventType());
+            statement.setString(4, event.getEventData());
+            statement.setString(5, event.getMetadata());
+            statement.setInt(6, event.getVersion());
+            statement.setTimestamp(7, Timestamp.valueOf(event.getOccurredAt()));
+        });
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,7 +15,7 @@ import java.util.UUID;
  * Repository for DomainEvent persistence
  */
 @Repository
-public interface DomainEventRepository extends JpaRepository<DomainEvent, Long> {
+public interface DomainEventRepository extends JpaRepository<DomainEvent, Long>, DomainEventBatchRepository {
 
     /**
      * Find all events for a specific aggregate, ordered by version
@@ -27,6 +28,14 @@ public interface DomainEventRepository extends JpaRepository<DomainEvent, Long>
     @Query("SELECT MAX(de.version) FROM DomainEvent de WHERE de.aggregateId = :aggregateId")
     Optional<Integer> findLastVersionByAggregateId(@Param("aggregateId") UUID aggregateId);
 
+    /**
+     * Find the last version number of several aggregates in one query
+     * Aggregates without events are not returned
+     */
+    @Query("SELECT de.aggregateId AS aggregateId, MAX(de.version) AS version FROM DomainEvent de " +
+            "WHERE de.aggregateId IN :aggregateIds GROUP BY de.aggregateId")
+    List<AggregateVersion> findLastVersionsByAggregateIds(@Param("aggregateIds") Collection<UUID> aggregateIds);
+
     /**
      * Check if an aggregate has any events
      */
@@ -46,5 +55,13 @@ public interface DomainEventRepository extends JpaRepository<DomainEvent, Long>
      * Count events for an aggregate
      */
     long countByAggregateId(UUID aggregateId);
-}
 
+    /**
+     * Last event version of an aggregate
+     */
+    interface AggregateVersion {
+        UUID getAggregateId();
+
+        Integer getVersion();
+    }
+}
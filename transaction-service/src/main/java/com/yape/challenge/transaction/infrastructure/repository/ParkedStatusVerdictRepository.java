@@ -0,0 +1,32 @@
+package com.yape.challenge.transaction.infrastructure.repository;
+
+import com.yape.challenge.transaction.domain.entity.ParkedStatusVerdict;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for status verdicts parked by EarlyStatusBuffer
+ */
+@Repository
+public interface ParkedStatusVerdictRepository extends JpaRepository<ParkedStatusVerdict, UUID> {
+
+    List<ParkedStatusVerdict> findByOwner(String owner);
+
+    List<ParkedStatusVerdict> findByParkedAtBefore(LocalDateTime parkedAt);
+
+    /**
+     * Delete the verdict only if it was not replaced by a newer one meanwhile; must run in a transaction
+     *
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM ParkedStatusVerdict p WHERE p.externalId = :externalId AND p.parkId = :parkId")
+    int deleteParked(@Param("externalId") UUID externalId, @Param("parkId") UUID parkId);
+}
@@ -0,0 +1,33 @@
+package com.yape.challenge.transaction.infrastructure.repository;
+
+import com.yape.challenge.transaction.domain.entity.PendingCreatedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for the transaction created events whose send is not acknowledged yet
+ */
+@Repository
+public interface PendingCreatedEventRepository extends JpaRepository<PendingCreatedEvent, UUID> {
+
+    List<PendingCreatedEvent> findTop100ByRecordedAtBeforeOrderByRecordedAt(LocalDateTime recordedAt);
+
+    /**
+     * Take a stale row for re-publishing unless another instance took it first; must run in a transaction
+     *
+     * @return number of claimed rows
+     */
+    @Modifying
+    @Query("UPDATE PendingCreatedEvent p SET p.recordedAt = :claimedAt "
+            + "WHERE p.externalId = :externalId AND p.recordedAt = :recordedAt")
+    int claim(@Param("externalId") UUID externalId,
+              @Param("recordedAt") LocalDateTime recordedAt,
+              @Param("claimedAt") LocalDateTime claimedAt);
+}
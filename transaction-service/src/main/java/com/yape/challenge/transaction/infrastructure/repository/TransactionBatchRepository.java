@@ -0,0 +1,23 @@
+package com.yape.challenge.transaction.infrastructure.repository;
+
+import com.yape.challenge.common.dto.TransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Batched writes for the transactions table
+ */
+public interface TransactionBatchRepository {
+
+    /**
+     * Batched form of {@link TransactionRepository#transitionStatus}: moves each transaction to its
+     * new status only if it is still in the expected one, with one JDBC batch
+     *
+     * @return Updated rows per entry, in iteration order; 0 when the transaction does not exist or
+     * is no longer in the expected status
+     */
+    int[] transitionStatuses(Map<UUID, TransactionStatus> statuses, TransactionStatus expected,
+                             LocalDateTime updatedAt);
+}
@@ -0,0 +1,41 @@
+package com.yape.challenge.transaction.infrastructure.repository;
+
+import com.yape.challenge.common.dto.TransactionStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JdbcTemplate implementation of TransactionBatchRepository
+ * Runs on the connection of the surrounding JPA transaction.
+ */
+@RequiredArgsConstructor
+public class TransactionBatchRepositoryImpl implements TransactionBatchRepository {
+
+    private static final String TRANSITION_SQL =
+            "UPDATE transactions SET status = ?, updated_at = ? WHERE external_id = ? AND status = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] transitionStatuses(Map<UUID, TransactionStatus> statuses, TransactionStatus expected,
+                                    LocalDateTime updatedAt) {
+        if (statuses.isEmpty()) {
+            return new int[0];
+        }
+        List<Map.Entry<UUID, TransactionStatus>> entries = List.copyOf(statuses.entrySet());
+        Timestamp timestamp = Timestamp.valueOf(updatedAt);
+        int[][] counts = jdbcTemplate.batchUpdate(TRANSITION_SQL, entries, entries.size(), (statement, entry) -> {
+            statement.setString(1, entry.getValue().name());
+            statement.setTimestamp(2, timestamp);
+            statement.setObject(3, entry.getKey());
+            statement.setString(4, expected.name());
+        });
+        return counts.length == 0 ? new int[0] : counts[0];
+    }
+}
@@ -0,0 +1,30 @@
+package com.yape.challenge.transaction.infrastructure.repository;
+
+import com.yape.challenge.transaction.domain.entity.Transaction;
+import com.yape.challenge.transaction.infrastructure.cache.TransactionIdFilter;
+import com.yape.challenge.transaction.infrastructure.kafka.consumer.EarlyStatusBuffer;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA entity listener that registers every persisted transaction in the TransactionIdFilter
+ * Runs before commit on purpose: a rolled back insert only leaves a harmless false positive.
+ * Also tells the EarlyStatusBuffer, which re-applies a parked verdict once the insert commits.
+ */
+public class TransactionEntityListener {
+
+    private final ObjectProvider<TransactionIdFilter> idFilterProvider;
+    private final ObjectProvider<EarlyStatusBuffer> earlyStatusBufferProvider;
+
+    public TransactionEntityListener(ObjectProvider<TransactionIdFilter> idFilterProvider,
+                                     ObjectProvider<EarlyStatusBuffer> earlyStatusBufferProvider) {
+        this.idFilterProvider = idFilterProvider;
+        this.earlyStatusBufferProvider = earlyStatusBufferProvider;
+    }
+
+    @PostPersist
+    public void onPersisted(Transaction transaction) {
+        idFilterProvider.ifAvailable(filter -> filter.put(transaction.getExternalId()));
+        earlyStatusBufferProvider.ifAvailable(buffer -> buffer.onTransactionCreated(transaction.getExternalId()));
+    }
+}
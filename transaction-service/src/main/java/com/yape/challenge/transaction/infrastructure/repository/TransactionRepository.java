@@ -1,17 +1,69 @@
 package com.yape.challenge.transaction.infrastructure.repository;
 
+import com.yape.challenge.common.dto.TransactionStatus;
 import com.yape.challenge.transaction.domain.entity.Transaction;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionBatchRepository {
 
     Optional<Transaction> findByExternalId(UUID externalId);
 
+    boolean existsByExternalId(UUID externalId);
+
+    /**
+     * Current status only, without loading the entity
+     */
+    @Query("SELECT t.status FROM Transaction t WHERE t.externalId = :externalId")
+    Optional<TransactionStatus> findStatusByExternalId(@Param("externalId") UUID externalId);
+
+    /**
+     * Move a transaction to a new status only if it is still in the expected one
+     * The check and the write are a single statement, so of two concurrent transitions from the
+     * same status exactly one succeeds.
+     *
+     * @return 1 when the transition was applied, 0 when the transaction does not exist or is no
+     * longer in the expected status
+     */
+    @Modifying
+    @Query("UPDATE Transaction t SET t.status = :status, t.updatedAt = :updatedAt " +
+            "WHERE t.externalId = :externalId AND t.status = :expected")
+    int transitionStatus(@Param("externalId") UUID externalId,
+                         @Param("expected") TransactionStatus expected,
+                         @Param("status") TransactionStatus status,
+                         @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Load every transaction of a batch with a single IN query
+     */
+    List<Transaction> findByExternalIdIn(Collection<UUID> externalIds);
+
+    /**
+     * Stream every externalId, used to rebuild the id filter without loading entities
+     */
+    @Query("SELECT t.externalId FROM Transaction t")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "5000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<UUID> streamAllExternalIds();
+
 }
 
 
@@ -0,0 +1,32 @@
+package com.yape.challenge.transaction.infrastructure.repository;
+
+import com.yape.challenge.transaction.domain.entity.TransactionType;
+import com.yape.challenge.transaction.domain.service.TransactionTypeCatalog;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA entity listener that keeps the TransactionTypeCatalog in sync with writes made through JPA
+ * The catalog is resolved lazily because listeners are created while the EntityManagerFactory starts.
+ */
+public class TransactionTypeEntityListener {
+
+    private final ObjectProvider<TransactionTypeCatalog> catalogProvider;
+
+    public TransactionTypeEntityListener(ObjectProvider<TransactionTypeCatalog> catalogProvider) {
+        this.catalogProvider = catalogProvider;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(TransactionType type) {
+        catalogProvider.ifAvailable(catalog -> catalog.onTypeSaved(type));
+    }
+
+    @PostRemove
+    public void onRemoved(TransactionType type) {
+        catalogProvider.ifAvailable(catalog -> catalog.onTypeRemoved(type));
+    }
+}
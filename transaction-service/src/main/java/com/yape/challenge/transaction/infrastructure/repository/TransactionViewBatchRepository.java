@@ -0,0 +1,18 @@
+package com.yape.challenge.transaction.infrastructure.repository;
+
+import com.yape.challenge.transaction.domain.entity.Transaction;
+
+import java.util.List;
+
+/**
+ * Batched writes for the transaction read model
+ */
+public interface TransactionViewBatchRepository {
+
+    /**
+     * Copy status and updatedAt of each transaction to its view with one JDBC batch
+     *
+     * @return Updated rows per transaction, in order; 0 when the transaction has no view yet
+     */
+    int[] updateStatuses(List<Transaction> transactions);
+}
@@ -0,0 +1,34 @@
+package com.yape.challenge.transaction.infrastructure.repository;
+
+import com.yape.challenge.transaction.domain.entity.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * JdbcTemplate implementation of TransactionViewBatchRepository
+ * Runs on the connection of the surrounding JPA transaction.
+ */
+@RequiredArgsConstructor
+public class TransactionViewBatchRepositoryImpl implements TransactionViewBatchRepository {
+
+    private static final String UPDATE_SQL =
+            "UPDATE transaction_views SET status = ?, updated_at = ? WHERE external_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] updateStatuses(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return new int[0];
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, transactions, transactions.size(), (statement, transaction) -> {
+            statement.setString(1, transaction.getStatus().name());
+            statement.setTimestamp(2, Timestamp.valueOf(transaction.getUpdatedAt()));
+            statement.setObject(3, transaction.getExternalId());
+        });
+        return counts.length == 0 ? new int[0] : counts[0];
+    }
+}
@@ -0,0 +1,27 @@
+package com.yape.challenge.transaction.infrastructure.repository;
+
+import com.yape.challenge.common.dto.TransactionStatus;
+import com.yape.challenge.transaction.domain.entity.TransactionView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface TransactionViewRepository extends JpaRepository<TransactionView, UUID>, TransactionViewBatchRepository {
+
+    /**
+     * Update the projected status in place without loading the view
+     *
+     * @return number of updated rows, 0 when the transaction has no view yet
+     */
+    @Modifying
+    @Query("UPDATE TransactionView v SET v.status = :status, v.updatedAt = :updatedAt WHERE v.externalId = :externalId")
+    int updateStatus(@Param("externalId") UUID externalId,
+                     @Param("status") TransactionStatus status,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+}
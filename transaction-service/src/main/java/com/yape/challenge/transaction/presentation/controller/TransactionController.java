@@ -1,5 +1,6 @@
 package com.yape.challenge.transaction.presentation.controller;
 
+import com.yape.challenge.common.dto.TransactionStatus;
 import com.yape.challenge.transaction.application.bus.CommandBus;
 import com.yape.challenge.transaction.application.bus.QueryBus;
 import com.yape.challenge.transaction.application.command.CreateTransactionCommand;
@@ -9,10 +10,15 @@ import com.yape.challenge.transaction.application.query.GetTransactionQuery;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.UUID;
 
 @RestController
@@ -24,6 +30,9 @@ public class TransactionController {
     private final CommandBus commandBus;
     private final QueryBus queryBus;
 
+    @Value("${app.http.final-status-max-age:PT5M}")
+    private Duration finalStatusMaxAge;
+
     @PostMapping
     public ResponseEntity<TransactionResponse> createTransaction(
             @Valid @RequestBody CreateTransactionRequest request) {
@@ -54,7 +63,40 @@ public class TransactionController {
 
         // Dispatch query through query bus
         TransactionResponse response = queryBus.dispatch(query);
-        return ResponseEntity.ok(response);
+
+        // A matching If-None-Match is answered with 304 by Spring MVC before the body is serialized
+        return ResponseEntity.ok()
+                .eTag(etagOf(response))
+                .cacheControl(cacheControlOf(response))
+                .body(response);
+    }
+
+    /**
+     * Strong ETag over every represented field; the status is the only one that ever changes
+     */
+    private static String etagOf(TransactionResponse response) {
+        String status = statusOf(response);
+        String type = response.getTransactionType() != null ? response.getTransactionType().getName() : null;
+        int hash = Objects.hash(response.getTransactionExternalId(), status, type,
+                response.getValue(), response.getCreatedAt());
+        return "\"" + (status != null ? status.toLowerCase(Locale.ROOT) : "unknown") + "-"
+                + Integer.toHexString(hash) + "\"";
+    }
+
+    /**
+     * APPROVED and REJECTED transactions may be cached by clients and CDNs for a short max-age and
+     * are then revalidated with the ETag; PENDING ones must be revalidated on every use
+     */
+    private CacheControl cacheControlOf(TransactionResponse response) {
+        String status = statusOf(response);
+        if (TransactionStatus.APPROVED.name().equals(status) || TransactionStatus.REJECTED.name().equals(status)) {
+            return CacheControl.maxAge(finalStatusMaxAge).cachePublic();
+        }
+        return CacheControl.noCache();
+    }
+
+    private static String statusOf(TransactionResponse response) {
+        return response.getTransactionStatus() != null ? response.getTransactionStatus().getName() : null;
     }
 }
 
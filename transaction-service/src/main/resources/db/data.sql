@@ -10,3 +10,6 @@ VALUES
     ('DEPOSIT', 'Cash deposit')
 ON CONFLICT (name) DO NOTHING;
 
+
+-- Views are read by primary key; an index including status would block HOT updates of every verdict
+DROP INDEX IF EXISTS idx_transaction_views_covering;
@@ -15,6 +15,8 @@ import static org.junit.jupiter.api.Assertions.*;
         properties = {
                 "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
                 "spring.kafka.consumer.group-id=test-app-group",
+                "app.kafka.topics.transaction-created.partitions=1",
+                "app.kafka.topics.transaction-status-updated.partitions=1",
                 "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;CASE_INSENSITIVE_IDENTIFIERS=TRUE;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
                 "spring.datasource.driver-class-name=org.h2.Driver",
                 "spring.sql.init.mode=never",
@@ -0,0 +1,212 @@
+package com.yape.challenge.transaction.application.handler.command;
+
+import com.yape.challenge.common.dto.TransactionStatus;
+import com.yape.challenge.transaction.application.command.UpdateTransactionStatusBatchCommand;
+import com.yape.challenge.transaction.application.command.UpdateTransactionStatusCommand;
+import com.yape.challenge.transaction.application.dto.response.UpdateTransactionStatusBatchResult;
+import com.yape.challenge.transaction.application.mapper.TransactionMapper;
+import com.yape.challenge.transaction.domain.entity.Transaction;
+import com.yape.challenge.transaction.domain.entity.TransactionType;
+import com.yape.challenge.transaction.domain.entity.TransactionView;
+import com.yape.challenge.transaction.domain.event.TransactionStatusChangedDomainEvent;
+import com.yape.challenge.transaction.domain.service.TransactionTypeCatalog;
+import com.yape.challenge.transaction.infrastructure.cache.TransactionCacheEvictor;
+import com.yape.challenge.transaction.infrastructure.datasource.ReplicationLagGuard;
+import com.yape.challenge.transaction.infrastructure.eventstore.EventStore;
+import com.yape.challenge.transaction.infrastructure.repository.TransactionRepository;
+import com.yape.challenge.transaction.infrastructure.repository.TransactionViewRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Update Transaction Status Batch Command Handler Tests")
+class UpdateTransactionStatusBatchCommandHandlerTest {
+
+    @Mock
+    private EventStore eventStore;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionViewRepository transactionViewRepository;
+
+    @Mock
+    private TransactionTypeCatalog transactionTypeCatalog;
+
+    @Mock
+    private TransactionMapper transactionMapper;
+
+    @Spy
+    private ReplicationLagGuard replicationLagGuard = new ReplicationLagGuard("", Duration.ofSeconds(5));
+
+    @Mock
+    private TransactionCacheEvictor transactionCacheEvictor;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UpdateTransactionStatusBatchCommandHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new UpdateTransactionStatusBatchCommandHandler(eventStore, transactionRepository,
+                transactionViewRepository, transactionTypeCatalog, transactionMapper, replicationLagGuard,
+                transactionCacheEvictor, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should apply the first verdict of each transaction from PENDING with batched writes")
+    @SuppressWarnings("unchecked")
+    void shouldApplyBatchWithBatchedWrites() {
+        // Given
+        Transaction pending = transaction(TransactionStatus.PENDING);
+        Transaction approved = transaction(TransactionStatus.APPROVED);
+        UUID unknownId = UUID.randomUUID();
+        UpdateTransactionStatusBatchCommand command = batch(
+                update(pending.getExternalId(), TransactionStatus.APPROVED),
+                update(approved.getExternalId(), TransactionStatus.APPROVED),
+                update(unknownId, TransactionStatus.REJECTED),
+                update(pending.getExternalId(), TransactionStatus.REJECTED));
+        when(transactionRepository.transitionStatuses(any(), eq(TransactionStatus.PENDING), any()))
+                .thenReturn(new int[]{1, 0, 0});
+        when(transactionRepository.findByExternalIdIn(any())).thenReturn(List.of(approved));
+        when(transactionViewRepository.updateStatuses(any())).thenReturn(new int[]{1});
+
+        // When
+        UpdateTransactionStatusBatchResult result = handler.handle(command);
+
+        // Then
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getUnchanged());
+        assertEquals(1, result.getConflicts());
+        assertEquals(Set.of(unknownId), result.getNotFound());
+
+        ArgumentCaptor<Map<UUID, TransactionStatus>> transitions = ArgumentCaptor.forClass(Map.class);
+        verify(transactionRepository).transitionStatuses(transitions.capture(), eq(TransactionStatus.PENDING), any());
+        assertEquals(List.of(pending.getExternalId(), approved.getExternalId(), unknownId),
+                List.copyOf(transitions.getValue().keySet()));
+        assertEquals(TransactionStatus.APPROVED, transitions.getValue().get(pending.getExternalId()));
+
+        ArgumentCaptor<Collection<UUID>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(transactionRepository, times(1)).findByExternalIdIn(ids.capture());
+        assertEquals(Set.of(approved.getExternalId(), unknownId), Set.copyOf(ids.getValue()));
+
+        ArgumentCaptor<List<TransactionStatusChangedDomainEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(eventStore).saveEvents(events.capture());
+        assertEquals(1, events.getValue().size());
+        assertEquals(pending.getExternalId(), events.getValue().get(0).getAggregateId());
+        assertEquals(TransactionStatus.PENDING, events.getValue().get(0).getOldStatus());
+        assertEquals(TransactionStatus.APPROVED, events.getValue().get(0).getNewStatus());
+
+        verify(transactionRepository, never()).saveAll(any());
+        verify(transactionViewRepository, never()).saveAll(any());
+        verify(transactionCacheEvictor).evictAfterCommit(List.of(pending.getExternalId()));
+        verify(eventStore, never()).saveEvent(any());
+        assertEquals(1.0, meterRegistry.counter("transaction.status.conflicts").count());
+    }
+
+    @Test
+    @DisplayName("Should count and drop a verdict for a transaction decided concurrently")
+    void shouldDropVerdictForDecidedTransaction() {
+        // Given
+        Transaction rejected = transaction(TransactionStatus.REJECTED);
+        when(transactionRepository.transitionStatuses(any(), eq(TransactionStatus.PENDING), any()))
+                .thenReturn(new int[]{0});
+        when(transactionRepository.findByExternalIdIn(any())).thenReturn(List.of(rejected));
+
+        // When
+        UpdateTransactionStatusBatchResult result = handler.handle(batch(
+                update(rejected.getExternalId(), TransactionStatus.APPROVED)));
+
+        // Then
+        assertEquals(0, result.getUpdated());
+        assertEquals(1, result.getConflicts());
+        verifyNoInteractions(eventStore, transactionViewRepository, transactionCacheEvictor);
+        assertEquals(1.0, meterRegistry.counter("transaction.status.conflicts").count());
+    }
+
+    @Test
+    @DisplayName("Should backfill views missing from the read model")
+    void shouldBackfillMissingViews() {
+        // Given
+        Transaction withView = transaction(TransactionStatus.APPROVED);
+        Transaction withoutView = transaction(TransactionStatus.APPROVED);
+        TransactionType type = new TransactionType();
+        TransactionView view = TransactionView.builder().externalId(withoutView.getExternalId()).build();
+        when(transactionRepository.transitionStatuses(any(), eq(TransactionStatus.PENDING), any()))
+                .thenReturn(new int[]{1, 1});
+        when(transactionViewRepository.updateStatuses(any())).thenReturn(new int[]{1, 0});
+        when(transactionRepository.findByExternalIdIn(List.of(withoutView.getExternalId())))
+                .thenReturn(List.of(withoutView));
+        when(transactionTypeCatalog.require(1)).thenReturn(type);
+        when(transactionMapper.toView(withoutView, type)).thenReturn(view);
+
+        // When
+        handler.handle(batch(
+                update(withView.getExternalId(), TransactionStatus.APPROVED),
+                update(withoutView.getExternalId(), TransactionStatus.APPROVED)));
+
+        // Then
+        verify(transactionViewRepository).saveAll(List.of(view));
+    }
+
+    @Test
+    @DisplayName("Should skip writes when nothing changed")
+    void shouldSkipWritesWhenNothingChanged() {
+        // Given
+        Transaction approved = transaction(TransactionStatus.APPROVED);
+        when(transactionRepository.transitionStatuses(any(), eq(TransactionStatus.PENDING), any()))
+                .thenReturn(new int[]{0});
+        when(transactionRepository.findByExternalIdIn(any())).thenReturn(List.of(approved));
+
+        // When
+        UpdateTransactionStatusBatchResult result = handler.handle(batch(
+                update(approved.getExternalId(), TransactionStatus.APPROVED)));
+
+        // Then
+        assertEquals(0, result.getUpdated());
+        assertEquals(1, result.getUnchanged());
+        assertEquals(0, result.getConflicts());
+        verifyNoInteractions(eventStore, transactionViewRepository, transactionCacheEvictor);
+    }
+
+    private static Transaction transaction(TransactionStatus status) {
+        return Transaction.builder()
+                .externalId(UUID.randomUUID())
+                .accountExternalIdDebit(UUID.randomUUID())
+                .accountExternalIdCredit(UUID.randomUUID())
+                .transferTypeId(1)
+                .value(new BigDecimal("100.00"))
+                .status(status)
+                .build();
+    }
+
+    private static UpdateTransactionStatusCommand update(UUID externalId, TransactionStatus status) {
+        return UpdateTransactionStatusCommand.builder().externalId(externalId).status(status).build();
+    }
+
+    private static UpdateTransactionStatusBatchCommand batch(UpdateTransactionStatusCommand... updates) {
+        return UpdateTransactionStatusBatchCommand.builder().updates(List.of(updates)).build();
+    }
+}
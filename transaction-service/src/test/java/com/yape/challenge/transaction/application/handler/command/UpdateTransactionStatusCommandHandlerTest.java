@@ -0,0 +1,135 @@
+package com.yape.challenge.transaction.application.handler.command;
+
+import com.yape.challenge.common.dto.TransactionStatus;
+import com.yape.challenge.transaction.application.command.UpdateTransactionStatusCommand;
+import com.yape.challenge.transaction.application.mapper.TransactionMapper;
+import com.yape.challenge.transaction.domain.event.TransactionStatusChangedDomainEvent;
+import com.yape.challenge.transaction.domain.service.TransactionTypeCatalog;
+import com.yape.challenge.transaction.infrastructure.datasource.ReplicationLagGuard;
+import com.yape.challenge.transaction.infrastructure.eventstore.EventStore;
+import com.yape.challenge.transaction.infrastructure.repository.TransactionRepository;
+import com.yape.challenge.transaction.infrastructure.repository.TransactionViewRepository;
+import com.yape.challenge.transaction.presentation.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Update Transaction Status Command Handler Tests")
+class UpdateTransactionStatusCommandHandlerTest {
+
+    @Mock
+    private EventStore eventStore;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionViewRepository transactionViewRepository;
+
+    @Mock
+    private TransactionTypeCatalog transactionTypeCatalog;
+
+    @Mock
+    private TransactionMapper transactionMapper;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ReplicationLagGuard replicationLagGuard = new ReplicationLagGuard("", Duration.ofSeconds(5));
+
+    @InjectMocks
+    private UpdateTransactionStatusCommandHandler handler;
+
+    @Test
+    @DisplayName("Should apply a verdict to a pending transaction with a single conditional update")
+    void shouldTransitionPendingWithoutReading() {
+        // Given
+        UUID externalId = UUID.randomUUID();
+        when(transactionRepository.transitionStatus(eq(externalId), eq(TransactionStatus.PENDING),
+                eq(TransactionStatus.APPROVED), any())).thenReturn(1);
+        when(transactionViewRepository.updateStatus(eq(externalId), eq(TransactionStatus.APPROVED), any()))
+                .thenReturn(1);
+
+        // When
+        handler.handle(command(externalId, TransactionStatus.APPROVED));
+
+        // Then
+        ArgumentCaptor<TransactionStatusChangedDomainEvent> event =
+                ArgumentCaptor.forClass(TransactionStatusChangedDomainEvent.class);
+        verify(eventStore).saveEvent(event.capture());
+        assertEquals(TransactionStatus.PENDING, event.getValue().getOldStatus());
+        assertEquals(TransactionStatus.APPROVED, event.getValue().getNewStatus());
+        verify(transactionRepository, never()).findByExternalId(any());
+        verify(transactionRepository, never()).findStatusByExternalId(any());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should leave a transaction already in the target status untouched")
+    void shouldSkipUnchangedStatus() {
+        // Given
+        UUID externalId = UUID.randomUUID();
+        when(transactionRepository.transitionStatus(any(), any(), any(), any())).thenReturn(0);
+        when(transactionRepository.findStatusByExternalId(externalId)).thenReturn(Optional.of(TransactionStatus.APPROVED));
+
+        // When
+        handler.handle(command(externalId, TransactionStatus.APPROVED));
+
+        // Then
+        verifyNoInteractions(eventStore, transactionViewRepository);
+    }
+
+    @Test
+    @DisplayName("Should drop a verdict that contradicts a final status without retrying the update")
+    void shouldDropVerdictForFinalStatus() {
+        // Given
+        UUID externalId = UUID.randomUUID();
+        when(transactionRepository.transitionStatus(eq(externalId), eq(TransactionStatus.PENDING),
+                eq(TransactionStatus.REJECTED), any())).thenReturn(0);
+        when(transactionRepository.findStatusByExternalId(externalId)).thenReturn(Optional.of(TransactionStatus.APPROVED));
+
+        // When
+        handler.handle(command(externalId, TransactionStatus.REJECTED));
+
+        // Then
+        verify(transactionRepository, times(1)).transitionStatus(any(), any(), any(), any());
+        verifyNoInteractions(eventStore, transactionViewRepository);
+        assertEquals(1.0, meterRegistry.counter("transaction.status.conflicts").count());
+    }
+
+    @Test
+    @DisplayName("Should fail when the transaction does not exist")
+    void shouldFailForUnknownTransaction() {
+        // Given
+        UUID externalId = UUID.randomUUID();
+        when(transactionRepository.transitionStatus(any(), any(), any(), any())).thenReturn(0);
+        when(transactionRepository.findStatusByExternalId(externalId)).thenReturn(Optional.empty());
+        UpdateTransactionStatusCommand command = command(externalId, TransactionStatus.APPROVED);
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> handler.handle(command));
+        verifyNoInteractions(eventStore);
+    }
+
+    private static UpdateTransactionStatusCommand command(UUID externalId, TransactionStatus status) {
+        return UpdateTransactionStatusCommand.builder().externalId(externalId).status(status).build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.yape.challenge.transaction.application.handler.query;
+
+import com.yape.challenge.transaction.application.dto.response.TransactionResponse;
+import com.yape.challenge.transaction.application.query.GetTransactionQuery;
+import com.yape.challenge.transaction.infrastructure.cache.TransactionIdFilter;
+import com.yape.challenge.transaction.infrastructure.repository.TransactionRepository;
+import com.yape.challenge.transaction.presentation.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Get Transaction Query Handler Tests")
+class GetTransactionQueryHandlerTest {
+
+    @Mock
+    private TransactionIdFilter transactionIdFilter;
+
+    @Mock
+    private TransactionResponseReader transactionResponseReader;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private GetTransactionQueryHandler handler;
+
+    @Test
+    @DisplayName("Should read ids known to the filter without an existence check")
+    void shouldReadKnownId() {
+        // Given
+        UUID externalId = UUID.randomUUID();
+        TransactionResponse response = TransactionResponse.builder().transactionExternalId(externalId).build();
+        when(transactionIdFilter.mightContain(externalId)).thenReturn(true);
+        when(transactionResponseReader.read(externalId)).thenReturn(response);
+
+        // When
+        TransactionResponse result = handler.handle(query(externalId));
+
+        // Then
+        assertSame(response, result);
+        verify(transactionRepository, never()).existsByExternalId(any());
+    }
+
+    @Test
+    @DisplayName("Should answer a confirmed filter miss without reading the transaction")
+    void shouldRejectConfirmedMiss() {
+        // Given
+        UUID externalId = UUID.randomUUID();
+        when(transactionIdFilter.mightContain(externalId)).thenReturn(false);
+        when(transactionRepository.existsByExternalId(externalId)).thenReturn(false);
+
+        // When / Then
+        assertThrows(ResourceNotFoundException.class, () -> handler.handle(query(externalId)));
+        verify(transactionResponseReader, never()).read(any());
+    }
+
+    @Test
+    @DisplayName("Should read and remember an id created by another instance but not synced yet")
+    void shouldReadIdCreatedElsewhere() {
+        // Given
+        UUID externalId = UUID.randomUUID();
+        TransactionResponse response = TransactionResponse.builder().transactionExternalId(externalId).build();
+        when(transactionIdFilter.mightContain(externalId)).thenReturn(false);
+        when(transactionRepository.existsByExternalId(externalId)).thenReturn(true);
+        when(transactionResponseReader.read(externalId)).thenReturn(response);
+
+        // When
+        TransactionResponse result = handler.handle(query(externalId));
+
+        // Then
+        assertSame(response, result);
+        verify(transactionIdFilter).put(externalId);
+    }
+
+    private static GetTransactionQuery query(UUID externalId) {
+        return GetTransactionQuery.builder().externalId(externalId).build();
+    }
+}
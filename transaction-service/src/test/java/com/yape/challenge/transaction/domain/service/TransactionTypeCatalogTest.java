@@ -0,0 +1,106 @@
+package com.yape.challenge.transaction.domain.service;
+
+import com.yape.challenge.transaction.domain.entity.TransactionType;
+import com.yape.challenge.transaction.infrastructure.repository.TransactionTypeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Transaction Type Catalog Tests")
+class TransactionTypeCatalogTest {
+
+    @Mock
+    private TransactionTypeRepository transactionTypeRepository;
+
+    @InjectMocks
+    private TransactionTypeCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTypeRepository.findAll()).thenReturn(List.of(
+                TransactionType.builder().id(1).name("TRANSFER").build(),
+                TransactionType.builder().id(2).name("PAYMENT").build(),
+                TransactionType.builder().id(4).name("DEPOSIT").build()
+        ));
+        catalog.afterSingletonsInstantiated();
+    }
+
+    @Test
+    @DisplayName("Should resolve types loaded at startup without further queries")
+    void shouldResolveLoadedTypes() {
+        // When
+        TransactionType transfer = catalog.require(1);
+        TransactionType deposit = catalog.require(4);
+
+        // Then
+        assertEquals("TRANSFER", transfer.getName());
+        assertEquals("DEPOSIT", deposit.getName());
+        assertEquals(3, catalog.size());
+        verify(transactionTypeRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Should reject unknown, negative and null ids")
+    void shouldRejectUnknownIds() {
+        assertFalse(catalog.contains(3));
+        assertFalse(catalog.contains(99));
+        assertFalse(catalog.contains(-1));
+        assertFalse(catalog.contains(null));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> catalog.require(3));
+        assertEquals("Transaction type not found", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should add and remove types through change hooks")
+    void shouldApplyChangeHooks() {
+        // When
+        catalog.onTypeSaved(TransactionType.builder().id(7).name("REFUND").build());
+        catalog.onTypeRemoved(TransactionType.builder().id(2).name("PAYMENT").build());
+
+        // Then
+        assertEquals("REFUND", catalog.require(7).getName());
+        assertFalse(catalog.contains(2));
+        assertEquals(3, catalog.size());
+    }
+
+    @Test
+    @DisplayName("Should not expose mutations of the source entity")
+    void shouldCopyEntities() {
+        // Given
+        TransactionType entity = TransactionType.builder().id(5).name("WITHDRAWAL").build();
+        catalog.onTypeSaved(entity);
+
+        // When
+        entity.setName("CHANGED");
+
+        // Then
+        assertEquals("WITHDRAWAL", catalog.require(5).getName());
+    }
+
+    @Test
+    @DisplayName("Should reload the catalog on refresh")
+    void shouldReloadOnRefresh() {
+        // Given
+        when(transactionTypeRepository.findAll()).thenReturn(List.of(
+                TransactionType.builder().id(3).name("WITHDRAWAL").build()
+        ));
+
+        // When
+        catalog.refresh();
+
+        // Then
+        assertTrue(catalog.contains(3));
+        assertFalse(catalog.contains(1));
+    }
+}
@@ -0,0 +1,43 @@
+package com.yape.challenge.transaction.infrastructure.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Evicting Cache Error Handler Tests")
+class EvictingCacheErrorHandlerTest {
+
+    private final EvictingCacheErrorHandler errorHandler = new EvictingCacheErrorHandler();
+
+    @Test
+    @DisplayName("Should evict an unreadable entry and treat it as a miss")
+    void shouldEvictUnreadableEntry() {
+        // Given
+        Cache cache = mock(Cache.class);
+
+        // When
+        assertDoesNotThrow(() -> errorHandler.handleCacheGetError(
+                new SerializationException("Unknown format"), cache, "key"));
+
+        // Then
+        verify(cache).evict("key");
+    }
+
+    @Test
+    @DisplayName("Should propagate errors other than unreadable values")
+    void shouldPropagateOtherErrors() {
+        // Given
+        Cache cache = mock(Cache.class);
+        RedisConnectionFailureException failure = new RedisConnectionFailureException("down");
+
+        // When & Then
+        assertSame(failure, assertThrows(RedisConnectionFailureException.class,
+                () -> errorHandler.handleCacheGetError(failure, cache, "key")));
+        verifyNoInteractions(cache);
+    }
+}
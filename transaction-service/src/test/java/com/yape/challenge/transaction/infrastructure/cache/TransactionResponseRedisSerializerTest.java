@@ -0,0 +1,126 @@
+package com.yape.challenge.transaction.infrastructure.cache;
+
+import com.yape.challenge.transaction.application.dto.response.TransactionResponse;
+import com.yape.challenge.transaction.infrastructure.config.CacheConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Transaction Response Redis Serializer Tests")
+class TransactionResponseRedisSerializerTest {
+
+    private TransactionResponseRedisSerializer serializer;
+    private TransactionResponse response;
+
+    @BeforeEach
+    void setUp() {
+        serializer = new TransactionResponseRedisSerializer(512);
+        response = TransactionResponse.builder()
+                .transactionExternalId(UUID.randomUUID())
+                .transactionType(TransactionResponse.TransactionTypeDto.builder().name("TRANSFER").build())
+                .transactionStatus(TransactionResponse.TransactionStatusDto.builder().name("PENDING").build())
+                .value(new BigDecimal("500.25"))
+                .createdAt(LocalDateTime.of(2024, 1, 15, 10, 30, 45, 123456789))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should round trip a full transaction response")
+    void shouldRoundTripFullTransactionResponse() {
+        // When
+        TransactionResponse result = serializer.deserialize(serializer.serialize(response));
+
+        // Then
+        assertEquals(response, result);
+    }
+
+    @Test
+    @DisplayName("Should round trip a response with missing fields")
+    void shouldRoundTripResponseWithMissingFields() {
+        // Given
+        TransactionResponse partial = TransactionResponse.builder()
+                .transactionExternalId(UUID.randomUUID())
+                .value(new BigDecimal("10"))
+                .build();
+
+        // When
+        TransactionResponse result = serializer.deserialize(serializer.serialize(partial));
+
+        // Then
+        assertEquals(partial, result);
+        assertNull(result.getTransactionType());
+        assertNull(result.getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("Should keep status names outside the known enum")
+    void shouldKeepUnknownStatusNames() {
+        // Given
+        response.setTransactionStatus(TransactionResponse.TransactionStatusDto.builder().name("ON_HOLD").build());
+
+        // When
+        TransactionResponse result = serializer.deserialize(serializer.serialize(response));
+
+        // Then
+        assertEquals("ON_HOLD", result.getTransactionStatus().getName());
+    }
+
+    @Test
+    @DisplayName("Should compress values above the threshold")
+    void shouldCompressValuesAboveThreshold() {
+        // Given
+        TransactionResponseRedisSerializer compressing = new TransactionResponseRedisSerializer(16);
+        response.setTransactionType(TransactionResponse.TransactionTypeDto.builder().name("X".repeat(400)).build());
+
+        // When
+        byte[] bytes = compressing.serialize(response);
+
+        // Then
+        assertNotEquals(0, bytes[0] & CompactBinaryRedisSerializer.FLAG_COMPRESSED);
+        assertTrue(bytes.length < 400);
+        assertEquals(response, compressing.deserialize(bytes));
+    }
+
+    @Test
+    @DisplayName("Should be much smaller than the JSON serializer with default typing")
+    void shouldBeSmallerThanJsonSerializer() {
+        // Given
+        GenericJackson2JsonRedisSerializer jsonSerializer =
+                new GenericJackson2JsonRedisSerializer(new CacheConfig().redisCacheObjectMapper());
+
+        // When
+        byte[] json = jsonSerializer.serialize(response);
+        byte[] binary = serializer.serialize(response);
+
+        // Then
+        assertTrue(binary.length * 4 < json.length,
+                "binary=" + binary.length + " bytes, json=" + json.length + " bytes");
+    }
+
+    @Test
+    @DisplayName("Should handle null and empty values")
+    void shouldHandleNullAndEmptyValues() {
+        assertEquals(0, serializer.serialize(null).length);
+        assertNull(serializer.deserialize(null));
+        assertNull(serializer.deserialize(new byte[0]));
+    }
+
+    @Test
+    @DisplayName("Should reject values written with another format version")
+    void shouldRejectUnknownFormatVersion() {
+        // Given
+        byte[] bytes = serializer.serialize(response);
+        bytes[0] = 0x0F;
+
+        // When & Then
+        assertThrows(SerializationException.class, () -> serializer.deserialize(bytes));
+    }
+}
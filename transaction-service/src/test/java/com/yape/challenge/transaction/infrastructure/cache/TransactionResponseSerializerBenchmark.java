@@ -0,0 +1,74 @@
+package com.yape.challenge.transaction.infrastructure.cache;
+
+import com.yape.challenge.transaction.application.dto.response.TransactionResponse;
+import com.yape.challenge.transaction.infrastructure.config.CacheConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing the binary cache serializer against the JSON serializer
+ * with default typing previously used for every cache region
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionResponseSerializerBenchmark {
+
+    private GenericJackson2JsonRedisSerializer jsonSerializer;
+    private TransactionResponseRedisSerializer binarySerializer;
+    private TransactionResponse response;
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setUp() {
+        jsonSerializer = new GenericJackson2JsonRedisSerializer(new CacheConfig().redisCacheObjectMapper());
+        binarySerializer = new TransactionResponseRedisSerializer(512);
+        response = TransactionResponse.builder()
+                .transactionExternalId(UUID.randomUUID())
+                .transactionType(TransactionResponse.TransactionTypeDto.builder().name("TRANSFER").build())
+                .transactionStatus(TransactionResponse.TransactionStatusDto.builder().name("APPROVED").build())
+                .value(new BigDecimal("1250.75"))
+                .createdAt(LocalDateTime.now())
+                .build();
+        jsonBytes = jsonSerializer.serialize(response);
+        binaryBytes = binarySerializer.serialize(response);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return jsonSerializer.serialize(response);
+    }
+
+    @Benchmark
+    public Object jsonDeserialize() {
+        return jsonSerializer.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return binarySerializer.serialize(response);
+    }
+
+    @Benchmark
+    public TransactionResponse binaryDeserialize() {
+        return binarySerializer.deserialize(binaryBytes);
+    }
+}
@@ -0,0 +1,65 @@
+package com.yape.challenge.transaction.infrastructure.cache;
+
+import com.yape.challenge.transaction.application.dto.response.TransactionResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Transaction Status TTL Function Tests")
+class TransactionStatusTtlFunctionTest {
+
+    private static final Duration PENDING = Duration.ofSeconds(30);
+    private static final Duration TERMINAL = Duration.ofHours(24);
+    private static final Duration FALLBACK = Duration.ofMinutes(10);
+
+    @Test
+    @DisplayName("Should use the short TTL for pending transactions")
+    void shouldUseShortTtlForPending() {
+        // Given
+        TransactionStatusTtlFunction ttlFunction = new TransactionStatusTtlFunction(PENDING, TERMINAL, FALLBACK, 0.1);
+
+        // When
+        Duration ttl = ttlFunction.getTimeToLive("key", response("PENDING"));
+
+        // Then
+        assertEquals(PENDING, ttl);
+    }
+
+    @Test
+    @DisplayName("Should use the long TTL with bounded jitter for final statuses")
+    void shouldUseLongTtlForFinalStatuses() {
+        // Given
+        TransactionStatusTtlFunction ttlFunction = new TransactionStatusTtlFunction(PENDING, TERMINAL, FALLBACK, 0.1);
+
+        // When & Then
+        for (String status : new String[]{"APPROVED", "REJECTED"}) {
+            for (int i = 0; i < 100; i++) {
+                Duration ttl = ttlFunction.getTimeToLive("key", response(status));
+                assertTrue(ttl.compareTo(TERMINAL) <= 0);
+                assertTrue(ttl.compareTo(TERMINAL.minus(TERMINAL.dividedBy(10))) >= 0);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should fall back to the default TTL when the status is unknown")
+    void shouldFallBackWhenStatusUnknown() {
+        // Given
+        TransactionStatusTtlFunction ttlFunction = new TransactionStatusTtlFunction(PENDING, TERMINAL, FALLBACK, 0);
+
+        // When & Then
+        assertEquals(FALLBACK, ttlFunction.getTimeToLive("key", null));
+        assertEquals(FALLBACK, ttlFunction.getTimeToLive("key", "not a transaction"));
+        assertEquals(FALLBACK, ttlFunction.getTimeToLive("key", new TransactionResponse()));
+        assertEquals(FALLBACK, ttlFunction.getTimeToLive("key", response("UNKNOWN")));
+    }
+
+    private TransactionResponse response(String status) {
+        return TransactionResponse.builder()
+                .transactionStatus(TransactionResponse.TransactionStatusDto.builder().name(status).build())
+                .build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.yape.challenge.transaction.infrastructure.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UUID Bloom Filter Tests")
+class UuidBloomFilterTest {
+
+    @Test
+    @DisplayName("Should never report a false negative")
+    void shouldNeverReportFalseNegative() {
+        // Given
+        UuidBloomFilter filter = new UuidBloomFilter(10_000, 0.01);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            filter.put(id);
+        }
+
+        // When & Then
+        assertTrue(ids.stream().allMatch(filter::mightContain));
+    }
+
+    @Test
+    @DisplayName("Should keep false positives close to the configured rate")
+    void shouldKeepFalsePositivesCloseToConfiguredRate() {
+        // Given
+        UuidBloomFilter filter = new UuidBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(UUID.randomUUID());
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        assertTrue(filter.expectedFalsePositiveRate() < 0.02);
+    }
+
+    @Test
+    @DisplayName("Should report unknown ids as absent on an empty filter")
+    void shouldReportUnknownIdsAsAbsent() {
+        UuidBloomFilter filter = new UuidBloomFilter(1_000, 0.01);
+
+        assertFalse(filter.mightContain(UUID.randomUUID()));
+        assertEquals(0.0, filter.expectedFalsePositiveRate());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid sizing parameters")
+    void shouldRejectInvalidSizingParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new UuidBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new UuidBloomFilter(1_000, 1.0));
+    }
+}
@@ -0,0 +1,114 @@
+package com.yape.challenge.transaction.infrastructure.cache.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Instrumented Cache Tests")
+class InstrumentedCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CacheRegionMetrics metrics;
+    private InstrumentedCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new CacheRegionMetricsRegistry(meterRegistry, 16, 1).region("transactions");
+        cache = new InstrumentedCache(new ConcurrentMapCache("transactions"), metrics);
+    }
+
+    @Test
+    @DisplayName("Should count hits and misses per region")
+    void shouldCountHitsAndMisses() {
+        // Given
+        cache.put("a", "value");
+
+        // When
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+
+        // Then
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "transactions").tag("result", "hit")
+                .counter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "transactions").tag("result", "miss")
+                .counter().count());
+        assertEquals(2.0 / 3, metrics.hitRatio(), 1e-9);
+        assertEquals(3, metrics.getGetLatency().count());
+    }
+
+    @Test
+    @DisplayName("Should record load time between a miss and the following put")
+    void shouldRecordLoadTimeAfterMiss() {
+        // Given
+        assertNull(cache.get("a"));
+
+        // When
+        cache.put("a", "value");
+
+        // Then
+        assertEquals(1, metrics.getLoadDuration().count());
+        assertEquals(1, metrics.getPuts().count());
+    }
+
+    @Test
+    @DisplayName("Should not record load time for a put of another key or region after a failed load")
+    void shouldIgnoreStaleMiss() {
+        // Given
+        InstrumentedCache other = new InstrumentedCache(new ConcurrentMapCache("other"),
+                new CacheRegionMetricsRegistry(meterRegistry, 16, 1).region("other"));
+        assertNull(cache.get("a"));
+
+        // When
+        other.put("a", "value");
+        cache.put("b", "value");
+        cache.put("a", "value");
+
+        // Then
+        assertEquals(0, metrics.getLoadDuration().count());
+        assertEquals(2, metrics.getPuts().count());
+    }
+
+    @Test
+    @DisplayName("Should time the value loader and count it as a miss")
+    void shouldTimeValueLoader() {
+        // When
+        String first = cache.get("a", () -> "loaded");
+        String second = cache.get("a", () -> "ignored");
+
+        // Then
+        assertEquals("loaded", first);
+        assertEquals("loaded", second);
+        assertEquals(1, metrics.getMisses().count());
+        assertEquals(1, metrics.getHits().count());
+        assertEquals(1, metrics.getLoadDuration().count());
+    }
+
+    @Test
+    @DisplayName("Should count evictions and track hot keys")
+    void shouldCountEvictionsAndTrackHotKeys() {
+        // Given
+        cache.put("hot", "value");
+        for (int i = 0; i < 5; i++) {
+            cache.get("hot");
+        }
+        cache.get("cold");
+
+        // When
+        cache.evict("hot");
+        List<Map.Entry<String, Long>> top = metrics.getHotKeys().top(1);
+
+        // Then
+        assertEquals(1, metrics.getEvictions().count());
+        assertEquals("hot", top.get(0).getKey());
+        assertEquals(5L, top.get(0).getValue());
+    }
+}
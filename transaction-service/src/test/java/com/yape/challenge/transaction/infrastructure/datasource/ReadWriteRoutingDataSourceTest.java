@@ -0,0 +1,163 @@
+package com.yape.challenge.transaction.infrastructure.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Read/Write Routing DataSource Tests")
+class ReadWriteRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new ReadWriteRoutingDataSource(primary, List.of(replica), Duration.ofSeconds(2), Duration.ZERO);
+        routingDataSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    @DisplayName("Should send read-write transactions to the primary")
+    void shouldRouteWritesToPrimary() throws SQLException {
+        // Given
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When
+        Connection connection = routingDataSource.getConnection();
+
+        // Then
+        assertSame(primaryConnection, connection);
+        verifyNoInteractions(replica);
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions to a replica")
+    void shouldRouteReadOnlyToReplica() throws SQLException {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        // When
+        Connection connection = routingDataSource.getConnection();
+
+        // Then
+        assertSame(replicaConnection, connection);
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    @DisplayName("Should keep forced reads on the primary")
+    void shouldHonourForcedPrimary() throws SQLException {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When
+        Connection connection = DataSourceRoute.onPrimary(() -> {
+            try {
+                return routingDataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Then
+        assertSame(primaryConnection, connection);
+        verifyNoInteractions(replica);
+    }
+
+    @Test
+    @DisplayName("Should fail over to the primary and skip a replica that cannot connect")
+    void shouldFailOverToPrimary() throws SQLException {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When
+        Connection first = routingDataSource.getConnection();
+        Connection second = routingDataSource.getConnection();
+
+        // Then
+        assertSame(primaryConnection, first);
+        assertSame(primaryConnection, second);
+        assertEquals(0, routingDataSource.healthyReplicaCount());
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should mark a recovered replica healthy on the next health check")
+    void shouldRecoverReplicaOnHealthCheck() throws SQLException {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica.getConnection())
+                .thenThrow(new SQLException("Connection refused"))
+                .thenReturn(replicaConnection);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        stubReplicationLag(0);
+        routingDataSource.getConnection();
+
+        // When
+        routingDataSource.checkReplicas();
+
+        // Then
+        assertEquals(1, routingDataSource.healthyReplicaCount());
+    }
+
+    @Test
+    @DisplayName("Should skip a replica lagging behind more than the allowed lag")
+    void shouldSkipLaggingReplica() throws SQLException {
+        // Given
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        stubReplicationLag(10);
+
+        // When
+        routingDataSource.checkReplicas();
+
+        // Then
+        assertEquals(0, routingDataSource.healthyReplicaCount());
+    }
+
+    private void stubReplicationLag(double seconds) throws SQLException {
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(replicaConnection.isValid(anyInt())).thenReturn(true);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getDouble(1)).thenReturn(seconds);
+    }
+}
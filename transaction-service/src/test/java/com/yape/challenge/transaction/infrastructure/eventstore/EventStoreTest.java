@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yape.challenge.transaction.domain.entity.DomainEvent;
 import com.yape.challenge.transaction.domain.event.TransactionCreatedDomainEvent;
 import com.yape.challenge.transaction.domain.event.TransactionStatusChangedDomainEvent;
+import com.yape.challenge.transaction.infrastructure.datasource.ReplicationLagGuard;
 import com.yape.challenge.transaction.infrastructure.repository.DomainEventRepository;
 import com.yape.challenge.common.dto.TransactionStatus;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,10 +14,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -34,6 +38,9 @@ class EventStoreTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Spy
+    private ReplicationLagGuard replicationLagGuard = new ReplicationLagGuard("", Duration.ofSeconds(5));
+
     @InjectMocks
     private EventStore eventStore;
 
@@ -199,5 +206,37 @@ class EventStoreTest {
         assertEquals(0L, count);
         verify(domainEventRepository).countByAggregateId(aggregateId);
     }
-}
 
+    @Test
+    @DisplayName("Should save a batch of events with consecutive versions per aggregate")
+    @SuppressWarnings("unchecked")
+    void shouldSaveBatchOfEventsWithConsecutiveVersions() throws Exception {
+        // Given
+        UUID otherAggregateId = UUID.randomUUID();
+        TransactionStatusChangedDomainEvent otherEvent = TransactionStatusChangedDomainEvent.builder()
+                .aggregateId(otherAggregateId)
+                .oldStatus(TransactionStatus.PENDING)
+                .newStatus(TransactionStatus.REJECTED)
+                .occurredAt(LocalDateTime.now())
+                .build();
+        DomainEventRepository.AggregateVersion lastVersion = mock(DomainEventRepository.AggregateVersion.class);
+        when(lastVersion.getAggregateId()).thenReturn(aggregateId);
+        when(lastVersion.getVersion()).thenReturn(1);
+        when(domainEventRepository.findLastVersionsByAggregateIds(any())).thenReturn(List.of(lastVersion));
+        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+
+        // When
+        eventStore.saveEvents(List.of(statusChangedEvent, otherEvent, statusChangedEvent));
+
+        // Then
+        ArgumentCaptor<List<DomainEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(domainEventRepository).insertAll(captor.capture());
+        verify(domainEventRepository, never()).save(any(DomainEvent.class));
+        List<DomainEvent> saved = captor.getValue();
+        assertEquals(3, saved.size());
+        assertEquals(2, saved.get(0).getVersion());
+        assertEquals(otherAggregateId, saved.get(1).getAggregateId());
+        assertEquals(1, saved.get(1).getVersion());
+        assertEquals(3, saved.get(2).getVersion());
+    }
+}
@@ -0,0 +1,131 @@
+package com.yape.challenge.transaction.infrastructure.kafka.consumer;
+
+import com.yape.challenge.common.kafka.KafkaTopics;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.util.backoff.BackOffExecution;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Database Circuit Listener Pauser Tests")
+class DatabaseCircuitListenerPauserTest {
+
+    @Mock
+    private ListenerContainerRegistry containerRegistry;
+
+    private MessageListenerContainer statusContainer;
+    private MessageListenerContainer retryContainer;
+    private MessageListenerContainer dltContainer;
+    private CircuitBreaker circuitBreaker;
+    private DatabaseCircuitListenerPauser pauser;
+
+    @BeforeEach
+    void setUp() {
+        statusContainer = container(KafkaTopics.TRANSACTION_STATUS_UPDATED);
+        retryContainer = container(KafkaTopics.TRANSACTION_STATUS_UPDATED + KafkaTopics.RETRY_SUFFIX + "-0");
+        dltContainer = container(KafkaTopics.TRANSACTION_STATUS_UPDATED_DLT);
+        lenient().when(containerRegistry.getAllListenerContainers())
+                .thenReturn(List.of(statusContainer, retryContainer, dltContainer));
+
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .waitDurationInOpenState(Duration.ofMillis(10))
+                .build());
+        circuitBreaker = circuitBreakerRegistry.circuitBreaker("database");
+        pauser = new DatabaseCircuitListenerPauser(circuitBreakerRegistry, containerRegistry, Duration.ofHours(1));
+        pauser.afterSingletonsInstantiated();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pauser.destroy();
+    }
+
+    @Test
+    @DisplayName("Should pause the status and retry containers when the breaker opens and resume them on half-open")
+    void shouldPauseOnOpenAndResumeOnHalfOpen() {
+        // When
+        circuitBreaker.transitionToOpenState();
+
+        // Then
+        verify(statusContainer).pause();
+        verify(retryContainer).pause();
+        verify(dltContainer, never()).pause();
+
+        // When
+        circuitBreaker.transitionToHalfOpenState();
+
+        // Then
+        verify(statusContainer).resume();
+        verify(retryContainer).resume();
+        verify(dltContainer, never()).resume();
+    }
+
+    @Test
+    @DisplayName("Should move the breaker to half-open once its wait elapsed, since paused listeners make no calls")
+    void shouldProbeBreakerToHalfOpen() throws InterruptedException {
+        // Given
+        circuitBreaker.transitionToOpenState();
+        Thread.sleep(20);
+
+        // When
+        pauser.probe();
+
+        // Then
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        verify(statusContainer).resume();
+    }
+
+    @Test
+    @DisplayName("Should pause again a container resumed by someone else while the breaker is open")
+    void shouldReassertPauseWhileOpen() {
+        // Given
+        circuitBreaker.transitionToForcedOpenState();
+        when(statusContainer.isPauseRequested()).thenReturn(false);
+        when(retryContainer.isPauseRequested()).thenReturn(true);
+
+        // When
+        pauser.probe();
+
+        // Then
+        verify(statusContainer, times(2)).pause();
+        verify(retryContainer, times(1)).pause();
+        assertEquals(CircuitBreaker.State.FORCED_OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    @DisplayName("Should not wait between redeliveries of rejected records while the listeners are held paused")
+    void shouldSkipBackOffWhilePaused() {
+        // Given
+        BackOffExecution backOff = pauser.rejectedRecordBackOff(Duration.ofSeconds(1)).start();
+        assertEquals(1000, backOff.nextBackOff());
+
+        // When
+        circuitBreaker.transitionToOpenState();
+
+        // Then
+        assertTrue(pauser.isPaused());
+        assertEquals(0, backOff.nextBackOff());
+    }
+
+    private static MessageListenerContainer container(String topic) {
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        lenient().when(container.getContainerProperties()).thenReturn(new ContainerProperties(topic));
+        return container;
+    }
+}
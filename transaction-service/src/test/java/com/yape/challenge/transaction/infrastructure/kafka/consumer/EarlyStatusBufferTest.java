@@ -0,0 +1,309 @@
+package com.yape.challenge.transaction.infrastructure.kafka.consumer;
+
+import com.yape.challenge.common.dto.TransactionStatus;
+import com.yape.challenge.common.dto.TransactionStatusEvent;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import com.yape.challenge.transaction.application.bus.CommandBus;
+import com.yape.challenge.transaction.application.command.UpdateTransactionStatusCommand;
+import com.yape.challenge.transaction.domain.entity.ParkedStatusVerdict;
+import com.yape.challenge.transaction.infrastructure.repository.ParkedStatusVerdictRepository;
+import com.yape.challenge.transaction.presentation.exception.ResourceNotFoundException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Early Status Buffer Tests")
+class EarlyStatusBufferTest {
+
+    @Mock
+    private CommandBus commandBus;
+
+    @Mock
+    private ProducerFactory<String, TransactionStatusEvent> producerFactory;
+
+    @Mock
+    private ParkedStatusVerdictRepository parkedStatusVerdictRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<ProducerRecord<String, TransactionStatusEvent>> deadLettered = new CopyOnWriteArrayList<>();
+
+    private EarlyStatusBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        // KafkaTemplate closes its producer after each send, so every send gets a fresh one
+        lenient().when(producerFactory.createProducer()).thenAnswer(invocation ->
+                new MockProducer<String, TransactionStatusEvent>(true, new StringSerializer(), new JsonSerializer<>()) {
+                    @Override
+                    public synchronized Future<RecordMetadata> send(ProducerRecord<String, TransactionStatusEvent> record,
+                                                                    Callback callback) {
+                        deadLettered.add(record);
+                        return super.send(record, callback);
+                    }
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Should re-apply a parked verdict as soon as its transaction is created")
+    void shouldApplyOnCreate() {
+        // Given
+        buffer = buffer(10, Duration.ofHours(1), Duration.ofMinutes(1));
+        TransactionStatusEvent event = event(UUID.randomUUID());
+
+        // When
+        assertTrue(buffer.park(event));
+        buffer.onTransactionCreated(event.getTransactionExternalId());
+
+        // Then
+        verify(commandBus, timeout(5000)).dispatch(argThat(command ->
+                command instanceof UpdateTransactionStatusCommand update
+                        && update.getExternalId().equals(event.getTransactionExternalId())
+                        && update.getStatus() == TransactionStatus.APPROVED));
+        awaitCount("applied_on_create");
+        assertEquals(1, count("parked"));
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    @DisplayName("Should retry a parked verdict on backoff ticks until its transaction exists")
+    void shouldApplyOnTick() {
+        // Given
+        buffer = buffer(10, Duration.ofMillis(5), Duration.ofMinutes(1));
+        when(commandBus.dispatch(any(UpdateTransactionStatusCommand.class)))
+                .thenThrow(new ResourceNotFoundException("Transaction not found"))
+                .thenReturn(null);
+
+        // When
+        assertTrue(buffer.park(event(UUID.randomUUID())));
+
+        // Then
+        verify(commandBus, timeout(5000).times(2)).dispatch(any());
+        awaitCount("applied_on_tick");
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    @DisplayName("Should refuse to park once the buffer is full")
+    void shouldRejectWhenFull() {
+        // Given
+        buffer = buffer(1, Duration.ofHours(1), Duration.ofMinutes(1));
+        TransactionStatusEvent first = event(UUID.randomUUID());
+
+        // When
+        assertTrue(buffer.park(first));
+        boolean second = buffer.park(event(UUID.randomUUID()));
+        boolean newer = buffer.park(event(first.getTransactionExternalId()));
+
+        // Then
+        assertFalse(second);
+        assertTrue(newer);
+        assertEquals(1, buffer.size());
+        assertEquals(1, count("rejected"));
+        assertEquals(1, count("superseded"));
+    }
+
+    @Test
+    @DisplayName("Should hand verdicts still parked at shutdown to the DLT")
+    void shouldDeadLetterOnShutdown() {
+        // Given
+        buffer = buffer(10, Duration.ofHours(1), Duration.ofMinutes(1));
+        buffer.park(event(UUID.randomUUID()));
+        buffer.park(event(UUID.randomUUID()));
+
+        // When
+        buffer.destroy();
+
+        // Then
+        assertEquals(2, deadLettered.size());
+        assertEquals(2, count("dead_lettered"));
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    @DisplayName("Should queue a newer verdict only behind a parked one for the same transaction")
+    void shouldParkIfWaiting() {
+        // Given
+        buffer = buffer(10, Duration.ofHours(1), Duration.ofMinutes(1));
+        UUID waiting = UUID.randomUUID();
+        buffer.park(event(waiting));
+
+        // When & Then
+        assertTrue(buffer.parkIfWaiting(event(waiting)));
+        assertFalse(buffer.parkIfWaiting(event(UUID.randomUUID())));
+        assertEquals(1, buffer.size());
+    }
+
+    @Test
+    @DisplayName("Should dead-letter a verdict whose transaction never shows up")
+    void shouldDeadLetterExpiredVerdict() {
+        // Given
+        when(commandBus.dispatch(any(UpdateTransactionStatusCommand.class)))
+                .thenThrow(new ResourceNotFoundException("Transaction not found"));
+        buffer = buffer(10, Duration.ofMillis(5), Duration.ZERO);
+
+        // When
+        buffer.park(event(UUID.randomUUID()));
+
+        // Then
+        awaitCount("dead_lettered");
+        assertEquals(0, buffer.size());
+        assertEquals(1, deadLettered.size());
+        assertEquals(KafkaTopics.TRANSACTION_STATUS_UPDATED_DLT, deadLettered.get(0).topic());
+    }
+
+    @Test
+    @DisplayName("Should persist a parked verdict and delete it once applied")
+    void shouldPersistUntilApplied() {
+        // Given
+        buffer = buffer(10, Duration.ofHours(1), Duration.ofMinutes(1));
+        TransactionStatusEvent event = event(UUID.randomUUID());
+
+        // When
+        assertTrue(buffer.park(event));
+        buffer.onTransactionCreated(event.getTransactionExternalId());
+
+        // Then
+        ArgumentCaptor<ParkedStatusVerdict> saved = ArgumentCaptor.forClass(ParkedStatusVerdict.class);
+        verify(parkedStatusVerdictRepository).save(saved.capture());
+        assertEquals("instance-1", saved.getValue().getOwner());
+        assertEquals(TransactionStatus.APPROVED, saved.getValue().getStatus());
+        verify(parkedStatusVerdictRepository, timeout(5000))
+                .deleteParked(event.getTransactionExternalId(), saved.getValue().getParkId());
+    }
+
+    @Test
+    @DisplayName("Should not park a verdict whose row cannot be written")
+    void shouldRejectWhenNotPersisted() {
+        // Given
+        buffer = buffer(10, Duration.ofHours(1), Duration.ofMinutes(1));
+        when(parkedStatusVerdictRepository.save(any())).thenThrow(new IllegalStateException("database down"));
+
+        // When
+        boolean parked = buffer.park(event(UUID.randomUUID()));
+
+        // Then
+        assertFalse(parked);
+        assertEquals(0, buffer.size());
+        assertEquals(1, count("rejected"));
+    }
+
+    @Test
+    @DisplayName("Should adopt the verdicts it had parked before a crash")
+    void shouldAdoptPersistedVerdicts() {
+        // Given
+        UUID externalId = UUID.randomUUID();
+        when(parkedStatusVerdictRepository.findByOwner("instance-1")).thenReturn(List.of(ParkedStatusVerdict.builder()
+                .externalId(externalId)
+                .parkId(UUID.randomUUID())
+                .status(TransactionStatus.REJECTED)
+                .owner("instance-1")
+                .parkedAt(LocalDateTime.now())
+                .build()));
+        buffer = buffer(10, Duration.ofMillis(5), Duration.ofMinutes(1));
+
+        // When
+        buffer.afterSingletonsInstantiated();
+
+        // Then
+        verify(commandBus, timeout(5000)).dispatch(argThat(command ->
+                command instanceof UpdateTransactionStatusCommand update
+                        && update.getExternalId().equals(externalId)
+                        && update.getStatus() == TransactionStatus.REJECTED));
+        awaitCount("applied_on_tick");
+    }
+
+    @Test
+    @DisplayName("Should keep a verdict parked while it is applied so a newer one waits behind it")
+    void shouldSerializeVerdictsOfOneTransaction() throws Exception {
+        // Given
+        buffer = buffer(10, Duration.ofHours(1), Duration.ofMinutes(1));
+        UUID externalId = UUID.randomUUID();
+        CountDownLatch dispatching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(commandBus.dispatch(any(UpdateTransactionStatusCommand.class))).thenAnswer(invocation -> {
+            dispatching.countDown();
+            release.await();
+            return null;
+        });
+        buffer.park(event(externalId));
+        buffer.onTransactionCreated(externalId);
+        assertTrue(dispatching.await(5, TimeUnit.SECONDS));
+
+        // When
+        boolean newerParked = buffer.parkIfWaiting(event(externalId));
+        release.countDown();
+
+        // Then
+        assertTrue(newerParked);
+        verify(commandBus, timeout(5000)).dispatch(any());
+        assertEquals(1, count("superseded"));
+        assertEquals(0, count("applied_on_create"));
+        assertEquals(1, buffer.size());
+    }
+
+    private EarlyStatusBuffer buffer(int capacity, Duration tick, Duration maxAge) {
+        return new EarlyStatusBuffer(commandBus, CircuitBreakerRegistry.ofDefaults(), producerFactory,
+                parkedStatusVerdictRepository, transactionManager, meterRegistry, "instance-1",
+                true, capacity, tick, tick, tick, maxAge);
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.counter("kafka.consumer.status.parking", "outcome", outcome).count();
+    }
+
+    private void awaitCount(String outcome) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (count(outcome) < 1 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(1, count(outcome));
+    }
+
+    private static TransactionStatusEvent event(UUID externalId) {
+        return TransactionStatusEvent.builder()
+                .transactionExternalId(externalId)
+                .status(TransactionStatus.APPROVED)
+                .build();
+    }
+}
@@ -0,0 +1,160 @@
+package com.yape.challenge.transaction.infrastructure.kafka.consumer;
+
+import com.yape.challenge.common.dto.TransactionStatus;
+import com.yape.challenge.common.dto.TransactionStatusEvent;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import com.yape.challenge.transaction.application.bus.CommandBus;
+import com.yape.challenge.transaction.application.command.UpdateTransactionStatusBatchCommand;
+import com.yape.challenge.transaction.application.dto.response.UpdateTransactionStatusBatchResult;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Transaction Status Batch Consumer Tests")
+class TransactionStatusBatchConsumerTest {
+
+    @Mock
+    private CommandBus commandBus;
+
+    @Mock
+    private EarlyStatusBuffer earlyStatusBuffer;
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private TransactionStatusBatchConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        consumer = new TransactionStatusBatchConsumer(commandBus, circuitBreakerRegistry, earlyStatusBuffer);
+    }
+
+    @Test
+    @DisplayName("Should dispatch the whole poll as one batch command")
+    void shouldDispatchBatchCommand() {
+        // Given
+        List<ConsumerRecord<String, TransactionStatusEvent>> events = records(
+                event(UUID.randomUUID(), TransactionStatus.APPROVED),
+                event(UUID.randomUUID(), TransactionStatus.REJECTED));
+        when(commandBus.dispatch(any(UpdateTransactionStatusBatchCommand.class)))
+                .thenReturn(result(Set.of()));
+
+        // When
+        consumer.consumeTransactionStatusBatch(events);
+
+        // Then
+        verify(commandBus).dispatch(argThat(command ->
+                command instanceof UpdateTransactionStatusBatchCommand batch
+                        && batch.getUpdates().size() == 2
+                        && batch.getUpdates().get(1).getStatus() == TransactionStatus.REJECTED));
+    }
+
+    @Test
+    @DisplayName("Should report the first record whose transaction does not exist and cannot be parked")
+    void shouldReportFirstMissingRecord() {
+        // Given
+        UUID missing = UUID.randomUUID();
+        List<ConsumerRecord<String, TransactionStatusEvent>> events = records(
+                event(UUID.randomUUID(), TransactionStatus.APPROVED),
+                event(missing, TransactionStatus.APPROVED),
+                event(missing, TransactionStatus.REJECTED));
+        when(commandBus.dispatch(any(UpdateTransactionStatusBatchCommand.class)))
+                .thenReturn(result(Set.of(missing)));
+
+        // When
+        BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class,
+                () -> consumer.consumeTransactionStatusBatch(events));
+
+        // Then
+        assertEquals(1, exception.getIndex());
+    }
+
+    @Test
+    @DisplayName("Should park verdicts whose transaction does not exist yet and commit the batch")
+    void shouldParkMissingRecords() {
+        // Given
+        UUID missing = UUID.randomUUID();
+        TransactionStatusEvent early = event(missing, TransactionStatus.APPROVED);
+        List<ConsumerRecord<String, TransactionStatusEvent>> events = records(event(UUID.randomUUID(), TransactionStatus.APPROVED), early);
+        when(commandBus.dispatch(any(UpdateTransactionStatusBatchCommand.class)))
+                .thenReturn(result(Set.of(missing)));
+        when(earlyStatusBuffer.park(early)).thenReturn(true);
+
+        // When & Then
+        assertDoesNotThrow(() -> consumer.consumeTransactionStatusBatch(events));
+        verify(earlyStatusBuffer).park(early);
+    }
+
+    @Test
+    @DisplayName("Should report the whole batch when the database circuit breaker is open")
+    void shouldReportWholeBatchWhenCircuitIsOpen() {
+        // Given
+        circuitBreakerRegistry.circuitBreaker("database").transitionToOpenState();
+        List<ConsumerRecord<String, TransactionStatusEvent>> events = records(
+                event(UUID.randomUUID(), TransactionStatus.APPROVED),
+                event(UUID.randomUUID(), TransactionStatus.REJECTED));
+
+        // When
+        BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class,
+                () -> consumer.consumeTransactionStatusBatch(events));
+
+        // Then
+        assertEquals(0, exception.getIndex());
+        assertInstanceOf(CallNotPermittedException.class, exception.getCause());
+        verifyNoInteractions(commandBus);
+    }
+
+    @Test
+    @DisplayName("Should apply the records before an unreadable one and report it")
+    void shouldReportUnreadableRecord() {
+        // Given
+        List<ConsumerRecord<String, TransactionStatusEvent>> events = records(
+                event(UUID.randomUUID(), TransactionStatus.APPROVED),
+                null,
+                event(UUID.randomUUID(), TransactionStatus.REJECTED));
+        when(commandBus.dispatch(any(UpdateTransactionStatusBatchCommand.class)))
+                .thenReturn(result(Set.of()));
+
+        // When
+        BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class,
+                () -> consumer.consumeTransactionStatusBatch(events));
+
+        // Then
+        assertEquals(1, exception.getIndex());
+        verify(commandBus).dispatch(argThat(command ->
+                command instanceof UpdateTransactionStatusBatchCommand batch && batch.getUpdates().size() == 1));
+    }
+
+    private static List<ConsumerRecord<String, TransactionStatusEvent>> records(TransactionStatusEvent... events) {
+        List<ConsumerRecord<String, TransactionStatusEvent>> records = new ArrayList<>(events.length);
+        for (int i = 0; i < events.length; i++) {
+            records.add(new ConsumerRecord<>(KafkaTopics.TRANSACTION_STATUS_UPDATED, 0, i, null, events[i]));
+        }
+        return records;
+    }
+
+    private static TransactionStatusEvent event(UUID externalId, TransactionStatus status) {
+        return TransactionStatusEvent.builder().transactionExternalId(externalId).status(status).build();
+    }
+
+    private static UpdateTransactionStatusBatchResult result(Set<UUID> notFound) {
+        return UpdateTransactionStatusBatchResult.builder().notFound(notFound).build();
+    }
+}
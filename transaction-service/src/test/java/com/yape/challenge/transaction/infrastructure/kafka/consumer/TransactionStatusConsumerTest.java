@@ -4,14 +4,23 @@ import com.yape.challenge.common.dto.TransactionStatus;
 import com.yape.challenge.common.dto.TransactionStatusEvent;
 import com.yape.challenge.transaction.application.bus.CommandBus;
 import com.yape.challenge.transaction.application.command.UpdateTransactionStatusCommand;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import com.yape.challenge.transaction.domain.entity.ConsumerOffset;
+import com.yape.challenge.transaction.infrastructure.repository.ConsumerOffsetRepository;
+import com.yape.challenge.transaction.presentation.exception.ResourceNotFoundException;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,7 +34,15 @@ class TransactionStatusConsumerTest {
     @Mock
     private CommandBus commandBus;
 
-    @InjectMocks
+    @Mock
+    private EarlyStatusBuffer earlyStatusBuffer;
+
+    @Mock
+    private ConsumerOffsetRepository consumerOffsetRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private TransactionStatusConsumer transactionStatusConsumer;
 
     private UUID transactionId;
@@ -33,6 +50,8 @@ class TransactionStatusConsumerTest {
 
     @BeforeEach
     void setUp() {
+        transactionStatusConsumer = new TransactionStatusConsumer(commandBus, earlyStatusBuffer,
+                consumerOffsetRepository, transactionManager, "test-group", true);
         transactionId = UUID.randomUUID();
         statusEvent = TransactionStatusEvent.builder()
                 .transactionExternalId(transactionId)
@@ -47,7 +66,7 @@ class TransactionStatusConsumerTest {
         when(commandBus.dispatch(any(UpdateTransactionStatusCommand.class))).thenReturn(null);
 
         // When
-        transactionStatusConsumer.consumeTransactionStatus(statusEvent);
+        transactionStatusConsumer.consumeTransactionStatus(record(statusEvent));
 
         // Then
         verify(commandBus, times(1)).dispatch(any(UpdateTransactionStatusCommand.class));
@@ -70,7 +89,7 @@ class TransactionStatusConsumerTest {
         when(commandBus.dispatch(any(UpdateTransactionStatusCommand.class))).thenReturn(null);
 
         // When
-        transactionStatusConsumer.consumeTransactionStatus(rejectedEvent);
+        transactionStatusConsumer.consumeTransactionStatus(record(rejectedEvent));
 
         // Then
         verify(commandBus, times(1)).dispatch(any(UpdateTransactionStatusCommand.class));
@@ -89,7 +108,7 @@ class TransactionStatusConsumerTest {
 
         // When & Then
         RuntimeException thrown = assertThrows(RuntimeException.class, () ->
-                transactionStatusConsumer.consumeTransactionStatus(statusEvent)
+                transactionStatusConsumer.consumeTransactionStatus(record(statusEvent))
         );
 
         assertEquals("Command bus failed", thrown.getMessage());
@@ -113,8 +132,8 @@ class TransactionStatusConsumerTest {
         when(commandBus.dispatch(any(UpdateTransactionStatusCommand.class))).thenReturn(null);
 
         // When
-        transactionStatusConsumer.consumeTransactionStatus(event1);
-        transactionStatusConsumer.consumeTransactionStatus(event2);
+        transactionStatusConsumer.consumeTransactionStatus(record(event1));
+        transactionStatusConsumer.consumeTransactionStatus(record(event2));
 
         // Then
         verify(commandBus, times(2)).dispatch(any(UpdateTransactionStatusCommand.class));
@@ -133,12 +152,122 @@ class TransactionStatusConsumerTest {
         when(commandBus.dispatch(any(UpdateTransactionStatusCommand.class))).thenReturn(null);
 
         // When
-        transactionStatusConsumer.consumeTransactionStatus(specificEvent);
+        transactionStatusConsumer.consumeTransactionStatus(record(specificEvent));
 
         // Then
         verify(commandBus).dispatch(argThat(command ->
                 ((UpdateTransactionStatusCommand) command).getExternalId().equals(specificTransactionId)
         ));
     }
-}
 
+    @Test
+    @DisplayName("Should park a verdict whose transaction does not exist yet instead of failing")
+    void shouldParkVerdictForUnknownTransaction() {
+        // Given
+        doThrow(new ResourceNotFoundException("Transaction not found"))
+                .when(commandBus).dispatch(any(UpdateTransactionStatusCommand.class));
+        when(earlyStatusBuffer.park(statusEvent)).thenReturn(true);
+
+        // When & Then
+        assertDoesNotThrow(() -> transactionStatusConsumer.consumeTransactionStatus(record(statusEvent)));
+        verify(earlyStatusBuffer).park(statusEvent);
+    }
+
+    @Test
+    @DisplayName("Should fail the record when the parking buffer is full")
+    void shouldFailWhenParkingBufferIsFull() {
+        // Given
+        doThrow(new ResourceNotFoundException("Transaction not found"))
+                .when(commandBus).dispatch(any(UpdateTransactionStatusCommand.class));
+        when(earlyStatusBuffer.park(statusEvent)).thenReturn(false);
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () ->
+                transactionStatusConsumer.consumeTransactionStatus(record(statusEvent)));
+    }
+
+    @Test
+    @DisplayName("Should queue a verdict behind an earlier one still parked for the same transaction")
+    void shouldQueueBehindParkedVerdict() {
+        // Given
+        when(earlyStatusBuffer.parkIfWaiting(statusEvent)).thenReturn(true);
+
+        // When
+        transactionStatusConsumer.consumeTransactionStatus(record(statusEvent));
+
+        // Then
+        verifyNoInteractions(commandBus);
+    }
+
+    @Test
+    @DisplayName("Should store the next offset together with the status change")
+    void shouldStoreNextOffsetWithStatusChange() {
+        // When
+        transactionStatusConsumer.consumeTransactionStatus(
+                new ConsumerRecord<>(KafkaTopics.TRANSACTION_STATUS_UPDATED, 2, 41L, null, statusEvent));
+
+        // Then
+        verify(transactionManager).getTransaction(any());
+        verify(consumerOffsetRepository).store("test-group", KafkaTopics.TRANSACTION_STATUS_UPDATED, 2, 42L);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should not store offsets for retry topic records")
+    void shouldNotStoreOffsetsForRetryTopicRecords() {
+        // When
+        transactionStatusConsumer.consumeTransactionStatus(
+                new ConsumerRecord<>(KafkaTopics.TRANSACTION_STATUS_UPDATED + "-retry-0", 0, 7L, null, statusEvent));
+
+        // Then
+        verify(commandBus).dispatch(any(UpdateTransactionStatusCommand.class));
+        verifyNoInteractions(consumerOffsetRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should seek past records the database already applied on assignment")
+    void shouldSeekToStoredOffsetsAheadOfKafka() {
+        // Given
+        when(consumerOffsetRepository.findByGroupIdAndTopic("test-group", KafkaTopics.TRANSACTION_STATUS_UPDATED))
+                .thenReturn(List.of(offset(0, 120L), offset(1, 50L)));
+        ConsumerSeekCallback callback = mock(ConsumerSeekCallback.class);
+
+        // When
+        transactionStatusConsumer.onPartitionsAssigned(Map.of(
+                new TopicPartition(KafkaTopics.TRANSACTION_STATUS_UPDATED, 0), 100L,
+                new TopicPartition(KafkaTopics.TRANSACTION_STATUS_UPDATED, 1), 80L,
+                new TopicPartition(KafkaTopics.TRANSACTION_STATUS_UPDATED, 2), 10L), callback);
+
+        // Then
+        verify(callback).seek(KafkaTopics.TRANSACTION_STATUS_UPDATED, 0, 120L);
+        verifyNoMoreInteractions(callback);
+    }
+
+    @Test
+    @DisplayName("Should keep the Kafka positions when the stored offsets cannot be read")
+    void shouldKeepKafkaPositionsWhenStoredOffsetsUnavailable() {
+        // Given
+        when(consumerOffsetRepository.findByGroupIdAndTopic(any(), any()))
+                .thenThrow(new IllegalStateException("Database down"));
+        ConsumerSeekCallback callback = mock(ConsumerSeekCallback.class);
+
+        // When & Then
+        assertDoesNotThrow(() -> transactionStatusConsumer.onPartitionsAssigned(
+                Map.of(new TopicPartition(KafkaTopics.TRANSACTION_STATUS_UPDATED, 0), 100L), callback));
+        verifyNoInteractions(callback);
+    }
+
+    private static ConsumerRecord<String, TransactionStatusEvent> record(TransactionStatusEvent event) {
+        return new ConsumerRecord<>(KafkaTopics.TRANSACTION_STATUS_UPDATED, 0, 0L,
+                event.getTransactionExternalId().toString(), event);
+    }
+
+    private static ConsumerOffset offset(int partition, long nextOffset) {
+        return ConsumerOffset.builder()
+                .groupId("test-group")
+                .topic(KafkaTopics.TRANSACTION_STATUS_UPDATED)
+                .partition(partition)
+                .nextOffset(nextOffset)
+                .build();
+    }
+}
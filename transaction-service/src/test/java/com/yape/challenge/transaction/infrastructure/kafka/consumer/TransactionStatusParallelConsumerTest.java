@@ -0,0 +1,209 @@
+package com.yape.challenge.transaction.infrastructure.kafka.consumer;
+
+import com.yape.challenge.common.dto.TransactionStatus;
+import com.yape.challenge.common.dto.TransactionStatusEvent;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import com.yape.challenge.transaction.application.bus.CommandBus;
+import com.yape.challenge.transaction.application.command.UpdateTransactionStatusCommand;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Transaction Status Parallel Consumer Tests")
+class TransactionStatusParallelConsumerTest {
+
+    @Mock
+    private CommandBus commandBus;
+
+    @Mock
+    private ProducerFactory<String, TransactionStatusEvent> producerFactory;
+
+    @Mock
+    private EarlyStatusBuffer earlyStatusBuffer;
+
+    @Mock
+    private ListenerContainerRegistry containerRegistry;
+
+    @Mock
+    private MessageListenerContainer container;
+
+    @Mock
+    private Consumer<?, ?> kafkaConsumer;
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private TransactionStatusParallelConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        consumer = new TransactionStatusParallelConsumer(commandBus, circuitBreakerRegistry, earlyStatusBuffer,
+                producerFactory, containerRegistry, 100, Duration.ofSeconds(5), 2, Duration.ofMillis(1), 2.0, Duration.ofMillis(10),
+                Duration.ofMillis(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        consumer.destroy();
+    }
+
+    @Test
+    @DisplayName("Should acknowledge only once every earlier record of the partition finished")
+    void shouldAcknowledgeContiguousRecords() throws Exception {
+        // Given
+        UUID slowId = UUID.randomUUID();
+        UUID fastId = UUID.randomUUID();
+        CountDownLatch release = new CountDownLatch(1);
+        when(commandBus.dispatch(any(UpdateTransactionStatusCommand.class))).thenAnswer(invocation -> {
+            UpdateTransactionStatusCommand command = invocation.getArgument(0);
+            if (command.getExternalId().equals(slowId)) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return null;
+        });
+        Acknowledgment first = mock(Acknowledgment.class);
+        Acknowledgment second = mock(Acknowledgment.class);
+        Acknowledgment third = mock(Acknowledgment.class);
+
+        // When
+        consumer.consumeTransactionStatus(record(0, slowId), first, kafkaConsumer);
+        consumer.consumeTransactionStatus(record(1, fastId), second, kafkaConsumer);
+        consumer.consumeTransactionStatus(record(2, fastId), third, kafkaConsumer);
+
+        // Then
+        verify(commandBus, timeout(5000).times(3)).dispatch(any());
+        verifyNoInteractions(first, second, third);
+        release.countDown();
+        verify(third, timeout(5000)).acknowledge();
+        verifyNoInteractions(first, second);
+    }
+
+    @Test
+    @DisplayName("Should retry and then dead-letter a record that keeps failing")
+    void shouldDeadLetterAfterRetries() {
+        // Given
+        MockProducer<String, TransactionStatusEvent> producer =
+                new MockProducer<>(true, new StringSerializer(), new JsonSerializer<>());
+        when(producerFactory.createProducer()).thenReturn(producer);
+        when(commandBus.dispatch(any(UpdateTransactionStatusCommand.class)))
+                .thenThrow(new IllegalArgumentException("Transaction not found"));
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        // When
+        assertDoesNotThrow(() ->
+                consumer.consumeTransactionStatus(record(0, UUID.randomUUID()), acknowledgment, kafkaConsumer));
+
+        // Then
+        verify(acknowledgment, timeout(5000)).acknowledge();
+        verify(commandBus, times(2)).dispatch(argThat(command -> command instanceof UpdateTransactionStatusCommand));
+        assertEquals(1, producer.history().size());
+        assertEquals(KafkaTopics.TRANSACTION_STATUS_UPDATED_DLT, producer.history().get(0).topic());
+        assertEquals(0, producer.history().get(0).partition());
+    }
+
+    @Test
+    @DisplayName("Should keep retrying the dead-letter in place until the DLT accepts it")
+    void shouldRetryDeadLetterUntilAccepted() {
+        // Given
+        MockProducer<String, TransactionStatusEvent> producer =
+                new MockProducer<>(true, new StringSerializer(), new JsonSerializer<>());
+        when(producerFactory.createProducer())
+                .thenThrow(new IllegalStateException("Broker unavailable"))
+                .thenThrow(new IllegalStateException("Broker unavailable"))
+                .thenReturn(producer);
+        when(commandBus.dispatch(any(UpdateTransactionStatusCommand.class)))
+                .thenThrow(new IllegalArgumentException("Transaction not found"));
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        // When
+        assertDoesNotThrow(() ->
+                consumer.consumeTransactionStatus(record(0, UUID.randomUUID()), acknowledgment, kafkaConsumer));
+
+        // Then
+        verify(acknowledgment, timeout(5000)).acknowledge();
+        verify(producerFactory, times(3)).createProducer();
+        assertEquals(1, producer.history().size());
+    }
+
+    @Test
+    @DisplayName("Should wait for an open circuit breaker without using up attempts")
+    void shouldWaitForOpenCircuitWithoutDeadLettering() throws Exception {
+        // Given
+        circuitBreakerRegistry.circuitBreaker("database").transitionToForcedOpenState();
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        // When
+        consumer.consumeTransactionStatus(record(0, UUID.randomUUID()), acknowledgment, kafkaConsumer);
+        Thread.sleep(50);
+        circuitBreakerRegistry.circuitBreaker("database").transitionToClosedState();
+
+        // Then
+        verify(acknowledgment, timeout(5000)).acknowledge();
+        verify(commandBus).dispatch(any(UpdateTransactionStatusCommand.class));
+        verify(producerFactory, never()).createProducer();
+    }
+
+    @Test
+    @DisplayName("Should pause and rewind a partition at the in-flight limit instead of blocking the listener")
+    void shouldPauseAtInFlightLimit() throws Exception {
+        // Given
+        consumer.destroy();
+        consumer = new TransactionStatusParallelConsumer(commandBus, circuitBreakerRegistry, earlyStatusBuffer,
+                producerFactory, containerRegistry, 1, Duration.ofSeconds(5), 2, Duration.ofMillis(1), 2.0,
+                Duration.ofMillis(10), Duration.ofMillis(5));
+        when(containerRegistry.getListenerContainer(TransactionStatusConsumer.LISTENER_ID)).thenReturn(container);
+        CountDownLatch release = new CountDownLatch(1);
+        when(commandBus.dispatch(any(UpdateTransactionStatusCommand.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        TopicPartition partition = new TopicPartition(KafkaTopics.TRANSACTION_STATUS_UPDATED, 0);
+
+        // When
+        consumer.consumeTransactionStatus(record(0, UUID.randomUUID()), mock(Acknowledgment.class), kafkaConsumer);
+        consumer.consumeTransactionStatus(record(1, UUID.randomUUID()), mock(Acknowledgment.class), kafkaConsumer);
+        consumer.consumeTransactionStatus(record(2, UUID.randomUUID()), mock(Acknowledgment.class), kafkaConsumer);
+
+        // Then
+        verify(kafkaConsumer).seek(partition, 1);
+        verify(container).pausePartition(partition);
+        verify(commandBus, timeout(5000)).dispatch(any());
+        release.countDown();
+        verify(container, timeout(5000)).resumePartition(partition);
+        verify(commandBus, times(1)).dispatch(any());
+    }
+
+    private static ConsumerRecord<String, TransactionStatusEvent> record(long offset, UUID externalId) {
+        TransactionStatusEvent event = TransactionStatusEvent.builder()
+                .transactionExternalId(externalId)
+                .status(TransactionStatus.APPROVED)
+                .build();
+        return new ConsumerRecord<>(KafkaTopics.TRANSACTION_STATUS_UPDATED, 0, offset, externalId.toString(), event);
+    }
+}
@@ -0,0 +1,154 @@
+package com.yape.challenge.transaction.infrastructure.kafka.deadletter;
+
+import com.yape.challenge.common.kafka.partitioning.JumpHashPartitioner;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Dead Letter Replayer Tests")
+class DeadLetterReplayerTest {
+
+    private static final TopicPartition DLT_PARTITION = new TopicPartition(DeadLetterReplayer.DLT_TOPIC, 0);
+
+    @Mock
+    private ConsumerFactory<String, byte[]> consumerFactory;
+
+    @Mock
+    private ProducerFactory<String, byte[]> producerFactory;
+
+    private MockConsumer<String, byte[]> consumer;
+    private MockProducer<String, byte[]> producer;
+    private DeadLetterReplayer replayer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = spy(new MockConsumer<>(OffsetResetStrategy.EARLIEST));
+        Node node = new Node(0, "localhost", 9092);
+        consumer.updatePartitions(DeadLetterReplayer.DLT_TOPIC,
+                List.of(new PartitionInfo(DeadLetterReplayer.DLT_TOPIC, 0, node, new Node[]{node}, new Node[]{node})));
+        consumer.updateBeginningOffsets(Map.of(DLT_PARTITION, 0L));
+        consumer.updateEndOffsets(Map.of(DLT_PARTITION, 3L));
+        producer = new MockProducer<>(true, new StringSerializer(), new ByteArraySerializer());
+        lenient().when(consumerFactory.createConsumer(anyString(), anyString())).thenReturn(consumer);
+        replayer = new DeadLetterReplayer(consumerFactory, producerFactory, "replay-group");
+    }
+
+    @Test
+    @DisplayName("Should republish DLT records without retry bookkeeping headers and commit after acks")
+    void shouldReplayRecords() {
+        // Given
+        when(producerFactory.createProducer()).thenReturn(producer);
+        consumer.schedulePollTask(() -> {
+            for (long offset = 0; offset < 3; offset++) {
+                consumer.addRecord(dltRecord(offset));
+            }
+        });
+
+        // When
+        int replayed = replayer.replay(10);
+
+        // Then
+        assertEquals(3, replayed);
+        List<ProducerRecord<String, byte[]>> sent = producer.history();
+        assertEquals(3, sent.size());
+        ProducerRecord<String, byte[]> first = sent.get(0);
+        assertEquals(DeadLetterReplayer.TARGET_TOPIC, first.topic());
+        assertEquals("key-0", first.key());
+        assertNotNull(first.headers().lastHeader("event-format"));
+        assertNull(first.headers().lastHeader("kafka_dlt-exception-message"));
+        assertNull(first.headers().lastHeader("retry_topic-attempts"));
+        verifyCommitted(3L);
+    }
+
+    @Test
+    @DisplayName("Should stop at maxRecords and commit only what was replayed")
+    void shouldRespectMaxRecords() {
+        // Given
+        when(producerFactory.createProducer()).thenReturn(producer);
+        consumer.schedulePollTask(() -> {
+            for (long offset = 0; offset < 3; offset++) {
+                consumer.addRecord(dltRecord(offset));
+            }
+        });
+
+        // When
+        int replayed = replayer.replay(2);
+
+        // Then
+        assertEquals(2, replayed);
+        assertEquals(2, producer.history().size());
+        verifyCommitted(2L);
+    }
+
+    @Test
+    @DisplayName("Should report records not replayed yet")
+    void shouldReportPending() {
+        // When
+        Map<Integer, Long> pending = replayer.pending();
+
+        // Then
+        assertEquals(Map.of(0, 3L), pending);
+    }
+
+    @Test
+    @DisplayName("Should republish with the configured partitioner")
+    void shouldUseConfiguredPartitioner() {
+        // When
+        Map<String, Object> configured = DeadLetterReplayer.producerProps("localhost:9092",
+                JumpHashPartitioner.class.getName());
+        Map<String, Object> unset = DeadLetterReplayer.producerProps("localhost:9092", "");
+
+        // Then
+        assertEquals(JumpHashPartitioner.class.getName(), configured.get(ProducerConfig.PARTITIONER_CLASS_CONFIG));
+        assertFalse(unset.containsKey(ProducerConfig.PARTITIONER_CLASS_CONFIG));
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive limit")
+    void shouldRejectInvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> replayer.replay(0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void verifyCommitted(long expectedOffset) {
+        ArgumentCaptor<Map<TopicPartition, OffsetAndMetadata>> offsets = ArgumentCaptor.forClass(Map.class);
+        verify(consumer, atLeastOnce()).commitSync(offsets.capture());
+        assertEquals(expectedOffset, offsets.getValue().get(DLT_PARTITION).offset());
+    }
+
+    private ConsumerRecord<String, byte[]> dltRecord(long offset) {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(DeadLetterReplayer.DLT_TOPIC, 0, offset,
+                "key-" + offset, ("{\"offset\":" + offset + "}").getBytes(StandardCharsets.UTF_8));
+        record.headers().add("event-format", "json".getBytes(StandardCharsets.US_ASCII));
+        record.headers().add("kafka_dlt-exception-message", "Transaction not found".getBytes(StandardCharsets.UTF_8));
+        record.headers().add("retry_topic-attempts", new byte[]{0, 0, 0, 4});
+        return record;
+    }
+}
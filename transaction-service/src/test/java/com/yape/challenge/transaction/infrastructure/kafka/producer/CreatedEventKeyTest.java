@@ -0,0 +1,44 @@
+package com.yape.challenge.transaction.infrastructure.kafka.producer;
+
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Created Event Key Tests")
+class CreatedEventKeyTest {
+
+    @Test
+    @DisplayName("Should key by the selected field")
+    void shouldKeyBySelectedField() {
+        // Given
+        TransactionCreatedEvent event = TransactionCreatedEvent.builder()
+                .transactionExternalId(UUID.randomUUID())
+                .accountExternalIdDebit(UUID.randomUUID())
+                .accountExternalIdCredit(UUID.randomUUID())
+                .build();
+
+        // When & Then
+        assertEquals(event.getTransactionExternalId().toString(), CreatedEventKey.TRANSACTION_EXTERNAL_ID.keyOf(event));
+        assertEquals(event.getAccountExternalIdDebit().toString(), CreatedEventKey.ACCOUNT_EXTERNAL_ID_DEBIT.keyOf(event));
+        assertEquals(event.getAccountExternalIdCredit().toString(), CreatedEventKey.ACCOUNT_EXTERNAL_ID_CREDIT.keyOf(event));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the transaction id when the field is missing")
+    void shouldFallBackToTransactionId() {
+        // Given
+        TransactionCreatedEvent event = TransactionCreatedEvent.builder()
+                .transactionExternalId(UUID.randomUUID())
+                .build();
+
+        // When
+        String key = CreatedEventKey.ACCOUNT_EXTERNAL_ID_DEBIT.keyOf(event);
+
+        // Then
+        assertEquals(event.getTransactionExternalId().toString(), key);
+    }
+}
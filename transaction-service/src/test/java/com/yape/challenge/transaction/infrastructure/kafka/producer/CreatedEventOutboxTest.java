@@ -0,0 +1,116 @@
+package com.yape.challenge.transaction.infrastructure.kafka.producer;
+
+import com.yape.challenge.common.dto.TransactionCreatedEvent;
+import com.yape.challenge.common.kafka.KafkaTopics;
+import com.yape.challenge.transaction.application.mapper.TransactionMapper;
+import com.yape.challenge.transaction.domain.entity.PendingCreatedEvent;
+import com.yape.challenge.transaction.infrastructure.kafka.exception.KafkaProducerException;
+import com.yape.challenge.transaction.infrastructure.repository.PendingCreatedEventRepository;
+import com.yape.challenge.transaction.infrastructure.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Created Event Outbox Tests")
+class CreatedEventOutboxTest {
+
+    @Mock
+    private KafkaProducerService kafkaProducerService;
+
+    @Mock
+    private PendingCreatedEventRepository pendingCreatedEventRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionMapper transactionMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CreatedEventOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        outbox = new CreatedEventOutbox(kafkaProducerService, pendingCreatedEventRepository, transactionRepository,
+                transactionMapper, transactionManager, new SimpleMeterRegistry(), Duration.ofHours(1),
+                Duration.ofHours(1));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+        outbox.destroy();
+    }
+
+    @Test
+    @DisplayName("Should record the event in the transaction and send it only after the commit")
+    void shouldSendAfterCommitAndDeleteAckedRow() {
+        // Given
+        TransactionCreatedEvent event = event();
+        when(kafkaProducerService.sendTransactionCreatedEventAsync(KafkaTopics.TRANSACTION_CREATED, "key", event))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        outbox.publishAfterCommit("key", event);
+
+        // Then
+        verify(pendingCreatedEventRepository).save(argThat((PendingCreatedEvent row) ->
+                row.getExternalId().equals(event.getTransactionExternalId()) && row.isNew()));
+        verifyNoInteractions(kafkaProducerService);
+
+        commit();
+        verify(kafkaProducerService).sendTransactionCreatedEventAsync(KafkaTopics.TRANSACTION_CREATED, "key", event);
+        outbox.destroy();
+        verify(pendingCreatedEventRepository).deleteAllByIdInBatch(List.of(event.getTransactionExternalId()));
+    }
+
+    @Test
+    @DisplayName("Should keep the row of a rejected send for the re-publishing sweep")
+    void shouldKeepRowWhenSendRejected() {
+        // Given
+        TransactionCreatedEvent event = event();
+        when(kafkaProducerService.sendTransactionCreatedEventAsync(eq(KafkaTopics.TRANSACTION_CREATED), any(), any()))
+                .thenThrow(new KafkaProducerException("circuit breaker open"));
+        outbox.publishAfterCommit("key", event);
+
+        // When
+        commit();
+        outbox.destroy();
+
+        // Then
+        verify(pendingCreatedEventRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private static TransactionCreatedEvent event() {
+        return TransactionCreatedEvent.builder()
+                .transactionExternalId(UUID.randomUUID())
+                .accountExternalIdDebit(UUID.randomUUID())
+                .build();
+    }
+}
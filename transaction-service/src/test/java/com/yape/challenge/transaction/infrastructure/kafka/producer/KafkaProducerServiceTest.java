@@ -3,19 +3,21 @@ package com.yape.challenge.transaction.infrastructure.kafka.producer;
 import com.yape.challenge.common.dto.TransactionCreatedEvent;
 import com.yape.challenge.common.kafka.KafkaTopics;
 import com.yape.challenge.transaction.infrastructure.kafka.exception.KafkaProducerException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.TopicPartition;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -30,9 +32,10 @@ class KafkaProducerServiceTest {
     @Mock
     private KafkaTemplate<String, TransactionCreatedEvent> kafkaTemplate;
 
-    @InjectMocks
     private KafkaProducerService kafkaProducerService;
 
+    private SimpleMeterRegistry meterRegistry;
+
     private UUID transactionId;
     private TransactionCreatedEvent event;
     private String topic;
@@ -40,6 +43,10 @@ class KafkaProducerServiceTest {
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        kafkaProducerService = new KafkaProducerService(kafkaTemplate, CircuitBreakerRegistry.ofDefaults(),
+                meterRegistry, 2, Duration.ofMillis(10));
+
         transactionId = UUID.randomUUID();
         topic = KafkaTopics.TRANSACTION_CREATED;
         key = transactionId.toString();
@@ -155,5 +162,71 @@ class KafkaProducerServiceTest {
                         evt.getTransferTypeId().equals(1)
         ));
     }
-}
 
+    @Test
+    @DisplayName("Should send without waiting for the broker ack")
+    void shouldSendWithoutWaitingForAck() {
+        // Given
+        CompletableFuture<SendResult<String, TransactionCreatedEvent>> future = new CompletableFuture<>();
+        when(kafkaTemplate.send(topic, key, event)).thenReturn(future);
+
+        // When
+        CompletableFuture<SendResult<String, TransactionCreatedEvent>> result =
+                kafkaProducerService.sendTransactionCreatedEventAsync(topic, key, event);
+
+        // Then
+        assertFalse(result.isDone());
+        assertEquals(1, kafkaProducerService.inFlight());
+        assertEquals(1, meterRegistry.get("kafka.producer.in.flight").gauge().value());
+
+        future.complete(mock(SendResult.class));
+
+        assertTrue(result.isDone());
+        assertEquals(0, kafkaProducerService.inFlight());
+        assertEquals(1, meterRegistry.get("kafka.producer.send.latency").tag("result", "success").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should apply backpressure when the in-flight limit is reached")
+    void shouldApplyBackpressureWhenInFlightLimitReached() {
+        // Given
+        when(kafkaTemplate.send(anyString(), anyString(), any(TransactionCreatedEvent.class)))
+                .thenReturn(new CompletableFuture<>());
+        kafkaProducerService.sendTransactionCreatedEventAsync(topic, key, event);
+        kafkaProducerService.sendTransactionCreatedEventAsync(topic, key, event);
+
+        // When & Then
+        assertThrows(KafkaProducerException.class, () ->
+                kafkaProducerService.sendTransactionCreatedEventAsync(topic, key, event)
+        );
+        assertEquals(2, kafkaProducerService.inFlight());
+        assertEquals(1, meterRegistry.get("kafka.producer.send.rejected").tag("reason", "backpressure")
+                .counter().count());
+        verify(kafkaTemplate, times(2)).send(topic, key, event);
+    }
+
+    @Test
+    @DisplayName("Should open the circuit breaker from asynchronous failures")
+    void shouldOpenCircuitBreakerFromAsyncFailures() {
+        // Given
+        kafkaProducerService = new KafkaProducerService(kafkaTemplate, CircuitBreakerRegistry.ofDefaults(),
+                meterRegistry, 1000, Duration.ofMillis(10));
+        when(kafkaTemplate.send(anyString(), anyString(), any(TransactionCreatedEvent.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka unavailable")));
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            CompletableFuture<SendResult<String, TransactionCreatedEvent>> result =
+                    kafkaProducerService.sendTransactionCreatedEventAsync(topic, key, event);
+            assertTrue(result.isCompletedExceptionally());
+        }
+
+        // Then
+        assertThrows(KafkaProducerException.class, () ->
+                kafkaProducerService.sendTransactionCreatedEventAsync(topic, key, event)
+        );
+        assertEquals(1, meterRegistry.get("kafka.producer.send.rejected").tag("reason", "circuit_open")
+                .counter().count());
+        assertEquals(0, kafkaProducerService.inFlight());
+    }
+}
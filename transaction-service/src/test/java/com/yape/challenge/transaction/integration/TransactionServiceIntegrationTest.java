@@ -2,22 +2,30 @@ package com.yape.challenge.transaction.integration;
 
 import com.yape.challenge.common.dto.TransactionCreatedEvent;
 import com.yape.challenge.common.dto.TransactionStatus;
+import com.yape.challenge.common.dto.TransactionStatusEvent;
 import com.yape.challenge.common.kafka.KafkaTopics;
 import com.yape.challenge.transaction.application.dto.request.CreateTransactionRequest;
 import com.yape.challenge.transaction.domain.entity.Transaction;
 import com.yape.challenge.transaction.domain.entity.TransactionType;
+import com.yape.challenge.transaction.domain.entity.TransactionView;
 import com.yape.challenge.transaction.infrastructure.repository.TransactionRepository;
 import com.yape.challenge.transaction.infrastructure.repository.TransactionTypeRepository;
+import com.yape.challenge.transaction.infrastructure.repository.TransactionViewRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.KafkaMessageListenerContainer;
 import org.springframework.kafka.listener.MessageListener;
@@ -29,6 +37,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -77,6 +86,9 @@ class TransactionServiceIntegrationTest {
     @Autowired
     private TransactionTypeRepository transactionTypeRepository;
 
+    @Autowired
+    private TransactionViewRepository transactionViewRepository;
+
     private KafkaMessageListenerContainer<String, TransactionCreatedEvent> container;
     private BlockingQueue<ConsumerRecord<String, TransactionCreatedEvent>> records;
 
@@ -84,6 +96,7 @@ class TransactionServiceIntegrationTest {
     void setUp() {
         // Clean up database before each test
         transactionRepository.deleteAll();
+        transactionViewRepository.deleteAll();
 
         // Ensure transaction types exist
         if (transactionTypeRepository.count() == 0) {
@@ -230,10 +243,42 @@ class TransactionServiceIntegrationTest {
         assertNotNull(transaction);
         assertEquals(new BigDecimal("750.00"), transaction.getValue());
         assertEquals(TransactionStatus.PENDING, transaction.getStatus());
+
+        // Verify denormalized projection used for reads
+        TransactionView view = transactionViewRepository.findById(UUID.fromString(transactionId)).orElse(null);
+
+        assertNotNull(view);
+        assertEquals("Tipo A", view.getTransactionTypeName());
+        assertEquals(new BigDecimal("750.00"), view.getValue());
+        assertEquals(TransactionStatus.PENDING, view.getStatus());
     }
 
     @Test
     @Order(5)
+    @DisplayName("Should reject unknown transaction type before writing")
+    void shouldRejectUnknownTransactionTypeBeforeWriting() throws Exception {
+        // Given
+        long initialCount = transactionRepository.count();
+
+        CreateTransactionRequest request = CreateTransactionRequest.builder()
+                .accountExternalIdDebit(UUID.randomUUID())
+                .accountExternalIdCredit(UUID.randomUUID())
+                .tranferTypeId(999)
+                .value(new BigDecimal("100.00"))
+                .build();
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Transaction type not found"));
+
+        assertEquals(initialCount, transactionRepository.count());
+    }
+
+    @Test
+    @Order(6)
     @DisplayName("Should create multiple transactions successfully")
     void shouldCreateMultipleTransactionsSuccessfully() throws Exception {
         // Given
@@ -274,5 +319,45 @@ class TransactionServiceIntegrationTest {
         assertNotNull(event1);
         assertNotNull(event2);
     }
-}
 
+    @Test
+    @Order(7)
+    @DisplayName("Should dead-letter a malformed verdict and keep consuming its partition")
+    void shouldSkipMalformedVerdict() throws Exception {
+        // Given
+        Transaction transaction = transactionRepository.save(Transaction.builder()
+                .externalId(UUID.randomUUID())
+                .accountExternalIdDebit(UUID.randomUUID())
+                .accountExternalIdCredit(UUID.randomUUID())
+                .transferTypeId(1)
+                .value(new BigDecimal("150.00"))
+                .status(TransactionStatus.PENDING)
+                .build());
+        String key = transaction.getExternalId().toString();
+        TransactionStatusEvent verdict = TransactionStatusEvent.builder()
+                .transactionExternalId(transaction.getExternalId())
+                .status(TransactionStatus.APPROVED)
+                .build();
+        Map<String, Object> producerProps = new HashMap<>();
+        producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, System.getProperty("spring.embedded.kafka.brokers"));
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        KafkaTemplate<String, byte[]> template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerProps));
+
+        // When - Same key, so both land on one partition, the malformed record first
+        template.send(KafkaTopics.TRANSACTION_STATUS_UPDATED, key, "{not json".getBytes(StandardCharsets.UTF_8)).get();
+        template.send(KafkaTopics.TRANSACTION_STATUS_UPDATED, key, objectMapper.writeValueAsBytes(verdict)).get();
+        template.destroy();
+
+        // Then
+        long deadline = System.currentTimeMillis() + 30_000;
+        TransactionStatus status = TransactionStatus.PENDING;
+        while (status == TransactionStatus.PENDING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200);
+            status = transactionRepository.findByExternalId(transaction.getExternalId())
+                    .map(Transaction::getStatus)
+                    .orElseThrow();
+        }
+        assertEquals(TransactionStatus.APPROVED, status);
+    }
+}
@@ -20,6 +20,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -133,6 +134,59 @@ class TransactionControllerTest {
         verify(queryBus, times(1)).dispatch(any(GetTransactionQuery.class));
     }
 
+    @Test
+    @DisplayName("Should require revalidation for pending transactions")
+    void shouldRequireRevalidationForPendingTransactions() throws Exception {
+        // Given
+        when(queryBus.dispatch(any(GetTransactionQuery.class)))
+                .thenReturn(transactionResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/transactions/{externalId}", transactionId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("\"pending-")))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+    }
+
+    @Test
+    @DisplayName("Should cache final transactions for a short max-age")
+    void shouldCacheFinalTransactionsBriefly() throws Exception {
+        // Given
+        transactionResponse.getTransactionStatus().setName("APPROVED");
+        when(queryBus.dispatch(any(GetTransactionQuery.class)))
+                .thenReturn(transactionResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/transactions/{externalId}", transactionId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("\"approved-")))
+                .andExpect(header().string("Cache-Control", "max-age=300, public"));
+    }
+
+    @Test
+    @DisplayName("Should answer a matching If-None-Match with 304 and no body")
+    void shouldAnswerMatchingIfNoneMatchWithNotModified() throws Exception {
+        // Given
+        when(queryBus.dispatch(any(GetTransactionQuery.class)))
+                .thenReturn(transactionResponse);
+        String etag = mockMvc.perform(get("/api/v1/transactions/{externalId}", transactionId))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/transactions/{externalId}", transactionId)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        // A status change produces a new ETag
+        transactionResponse.getTransactionStatus().setName("REJECTED");
+        mockMvc.perform(get("/api/v1/transactions/{externalId}", transactionId)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactionStatus.name").value("REJECTED"));
+    }
+
     @Test
     @DisplayName("Should handle valid UUID path variable")
     void shouldHandleValidUuidPathVariable() throws Exception {